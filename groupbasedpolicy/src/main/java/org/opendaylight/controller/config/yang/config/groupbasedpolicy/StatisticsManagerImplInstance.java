@@ -13,6 +13,7 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.groupbasedpolicy.api.StatisticsManager;
+import org.opendaylight.groupbasedpolicy.api.StatisticsManager.Resolution;
 import org.opendaylight.groupbasedpolicy.statistics.StatisticsManagerImpl;
 import org.opendaylight.mdsal.singleton.common.api.ClusterSingletonService;
 import org.opendaylight.mdsal.singleton.common.api.ClusterSingletonServiceProvider;
@@ -49,6 +50,21 @@ public class StatisticsManagerImplInstance implements ClusterSingletonService, S
         return statsManager.readStats();
     }
 
+    @Override
+    public StatRecords readStats(Resolution resolution, int buckets) {
+        return statsManager.readStats(resolution, buckets);
+    }
+
+    @Override
+    public long getSamplesAggregated() {
+        return statsManager.getSamplesAggregated();
+    }
+
+    @Override
+    public long getSamplesDropped() {
+        return statsManager.getSamplesDropped();
+    }
+
     public void initialize() {
         LOG.info("Clustering session initiated for {}", this.getClass().getSimpleName());
         try {
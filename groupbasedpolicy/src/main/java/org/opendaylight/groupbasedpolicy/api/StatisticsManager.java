@@ -12,6 +12,24 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics
 
 public interface StatisticsManager {
 
+    /**
+     * Size of buckets statistics are rolled up into
+     */
+    enum Resolution {
+
+        SECOND(1000L), MINUTE(60 * 1000L), HOUR(60 * 60 * 1000L);
+
+        private final long bucketMillis;
+
+        Resolution(long bucketMillis) {
+            this.bucketMillis = bucketMillis;
+        }
+
+        public long getBucketMillis() {
+            return bucketMillis;
+        }
+    }
+
     /**
      * Write Record into the datastore
      * @param record record to write to datastore
@@ -20,8 +38,29 @@ public interface StatisticsManager {
     boolean writeStat(StatRecords record);
 
     /**
-     * Returns all records stored in datastore
-     * @return all records from datastore
+     * Returns total counters aggregated per end-point pair and matched rule. Counters are kept in memory of the
+     * instance which received the records since it was started, records written by other instances or before
+     * a restart are not included.
+     * @return aggregated records
      */
     StatRecords readStats();
+
+    /**
+     * Returns counters aggregated per end-point pair and matched rule summed over the most recent buckets
+     * of the resolution. End-point pairs without samples in the buckets are omitted.
+     * @param resolution resolution of buckets
+     * @param buckets number of buckets to sum, capped by retention configured for the resolution
+     * @return counters of the most recent buckets
+     */
+    StatRecords readStats(Resolution resolution, int buckets);
+
+    /**
+     * @return number of samples aggregated since start of the instance
+     */
+    long getSamplesAggregated();
+
+    /**
+     * @return number of samples dropped because maximum number of series was reached
+     */
+    long getSamplesDropped();
 }
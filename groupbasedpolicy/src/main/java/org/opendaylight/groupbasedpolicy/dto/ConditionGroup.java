@@ -43,6 +43,13 @@ public class ConditionGroup {
     public boolean contains(ConditionSet cs) {
         return conditionSets.contains(cs);
     }
+
+    /**
+     * @return the condition sets which make up this condition group
+     */
+    public Set<ConditionSet> getConditionSets() {
+        return conditionSets;
+    }
     
     private int computeHashCode() {
         final int prime = 31;
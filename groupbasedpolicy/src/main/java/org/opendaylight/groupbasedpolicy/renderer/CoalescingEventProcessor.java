@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Coalesces events and runs a task once for a burst of events.<br>
+ * The task is executed on a dedicated thread when no event was received for the debounce window,
+ * but not later than max. latency after the first event of the burst. Events received while the task
+ * is running are processed by the next run.<br>
+ * A zero debounce window disables coalescing and the task is executed in the thread which received the event.
+ */
+class CoalescingEventProcessor implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CoalescingEventProcessor.class);
+
+    private final Runnable task;
+    private final long debounceNanos;
+    private final long maxLatencyNanos;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong receivedEvents = new AtomicLong();
+    private final AtomicLong processedBatches = new AtomicLong();
+    private boolean pending;
+    private long firstPendingEventNanos;
+    private long lastPendingEventNanos;
+
+    CoalescingEventProcessor(String name, Runnable task, long debounceMillis, long maxLatencyMillis) {
+        Preconditions.checkArgument(debounceMillis >= 0, "Debounce window cannot be negative");
+        Preconditions.checkArgument(maxLatencyMillis >= debounceMillis,
+                "Max. latency cannot be shorter than debounce window");
+        this.task = Preconditions.checkNotNull(task);
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+        if (debounceMillis == 0) {
+            executor = null;
+        } else {
+            executor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build());
+        }
+    }
+
+    void eventReceived() {
+        receivedEvents.incrementAndGet();
+        if (executor == null) {
+            runTask();
+            return;
+        }
+        synchronized (this) {
+            lastPendingEventNanos = System.nanoTime();
+            if (!pending) {
+                pending = true;
+                firstPendingEventNanos = lastPendingEventNanos;
+                executor.schedule(this::runIfDue, debounceNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void runIfDue() {
+        synchronized (this) {
+            if (!pending) {
+                return;
+            }
+            long now = System.nanoTime();
+            long due = Math.min(lastPendingEventNanos + debounceNanos, firstPendingEventNanos + maxLatencyNanos);
+            if (now - due < 0) {
+                executor.schedule(this::runIfDue, due - now, TimeUnit.NANOSECONDS);
+                return;
+            }
+            pending = false;
+        }
+        runTask();
+    }
+
+    private void runTask() {
+        processedBatches.incrementAndGet();
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOG.error("Processing of events failed", e);
+        }
+    }
+
+    /**
+     * @return number of events received since creation
+     */
+    long getReceivedEvents() {
+        return receivedEvents.get();
+    }
+
+    /**
+     * @return number of task executions since creation
+     */
+    long getProcessedBatches() {
+        return processedBatches.get();
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -8,9 +8,11 @@
 
 package org.opendaylight.groupbasedpolicy.renderer;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
@@ -277,6 +279,17 @@ class DtoEquivalenceUtils {
         return true;
     }
 
+    /**
+     * @return keys which are present only in one of the maps or which are mapped to different values
+     */
+    static <K, V> Set<K> findChangedKeys(Map<K, V> o1, Map<K, V> o2, Equivalence<V> eq) {
+        MapDifference<K, V> diff = Maps.difference(o1, o2, eq);
+        Set<K> result = new HashSet<>(diff.entriesOnlyOnLeft().keySet());
+        result.addAll(diff.entriesOnlyOnRight().keySet());
+        result.addAll(diff.entriesDiffering().keySet());
+        return result;
+    }
+
     private static <T> boolean equalsDtoLists(@Nullable List<T> a, @Nullable List<T> b) {
         if ((a == null && b != null) || (a != null && b == null)) {
             return false;
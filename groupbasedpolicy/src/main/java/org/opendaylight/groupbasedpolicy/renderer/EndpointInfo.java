@@ -8,6 +8,8 @@
 
 package org.opendaylight.groupbasedpolicy.renderer;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.opendaylight.groupbasedpolicy.dto.EpgKey;
@@ -18,6 +20,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpo
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.endpoints.containment.endpoints.ContainmentEndpoint;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.endpoints.containment.endpoints.ContainmentEndpointKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.EndpointGroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
@@ -99,6 +102,56 @@ public class EndpointInfo {
         return containmentEpsByEpg.get(epg);
     }
 
+    /**
+     * Finds endpoint-groups of address and containment endpoints which were created, removed or changed
+     * comparing to the previous state. Both previous and current endpoint-groups of changed endpoints are
+     * returned.
+     *
+     * @param previous previous state of endpoints
+     * @return endpoint-groups of changed endpoints
+     */
+    public Set<EpgKey> findChangedEpgs(EndpointInfo previous) {
+        Set<EpgKey> changedEpgs = new HashSet<>();
+        for (AddressEndpointKey adrEpKey : DtoEquivalenceUtils.findChangedKeys(previous.addressEpByKey,
+                addressEpByKey, DtoEquivalenceUtils.ADDR_EP_EQ)) {
+            changedEpgs.addAll(previous.findEpgsOfAddressEp(adrEpKey));
+            changedEpgs.addAll(findEpgsOfAddressEp(adrEpKey));
+        }
+        for (ContainmentEndpointKey contEpKey : DtoEquivalenceUtils.findChangedKeys(previous.containmentEpByKey,
+                containmentEpByKey, DtoEquivalenceUtils.CONT_EP_EQ)) {
+            changedEpgs.addAll(previous.findEpgsOfContainmentEp(contEpKey));
+            changedEpgs.addAll(findEpgsOfContainmentEp(contEpKey));
+        }
+        return changedEpgs;
+    }
+
+    public ImmutableSet<EpgKey> findEpgsOfAddressEp(AddressEndpointKey key) {
+        AddressEndpoint ep = addressEpByKey.get(key);
+        if (ep == null) {
+            return ImmutableSet.of();
+        }
+        return toEpgKeys(ep.getEndpointGroup(), ep.getTenant());
+    }
+
+    public ImmutableSet<EpgKey> findEpgsOfContainmentEp(ContainmentEndpointKey key) {
+        ContainmentEndpoint ep = containmentEpByKey.get(key);
+        if (ep == null) {
+            return ImmutableSet.of();
+        }
+        return toEpgKeys(ep.getEndpointGroup(), ep.getTenant());
+    }
+
+    private static ImmutableSet<EpgKey> toEpgKeys(List<EndpointGroupId> epgIds, TenantId tenantId) {
+        if (epgIds == null) {
+            return ImmutableSet.of();
+        }
+        Builder<EpgKey> epgsBuilder = ImmutableSet.builder();
+        for (EndpointGroupId epgId : epgIds) {
+            epgsBuilder.add(new EpgKeyDto(epgId, tenantId));
+        }
+        return epgsBuilder.build();
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -147,6 +147,24 @@ public class EndpointLocationInfo {
         return true;
     }
 
+    /**
+     * @param previous previous state of endpoint locations
+     * @return keys of address endpoints whose location was created, removed or changed
+     */
+    public Set<AddressEndpointKey> findChangedAddressEps(EndpointLocationInfo previous) {
+        return DtoEquivalenceUtils.findChangedKeys(previous.addrEpLocByAddrEpKey, addrEpLocByAddrEpKey,
+                DtoEquivalenceUtils.ADDR_EP_LOC_EQ);
+    }
+
+    /**
+     * @param previous previous state of endpoint locations
+     * @return keys of containment endpoints whose location was created, removed or changed
+     */
+    public Set<ContainmentEndpointKey> findChangedContainmentEps(EndpointLocationInfo previous) {
+        return DtoEquivalenceUtils.findChangedKeys(previous.contEpLocByContEpKey, contEpLocByContEpKey,
+                DtoEquivalenceUtils.CONT_EP_LOC_EQ);
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -14,12 +14,15 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
@@ -29,12 +32,14 @@ import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.groupbasedpolicy.base_endpoint.EndpointAugmentorRegistryImpl;
 import org.opendaylight.groupbasedpolicy.dto.ConsEpgKey;
+import org.opendaylight.groupbasedpolicy.dto.EpgKey;
 import org.opendaylight.groupbasedpolicy.dto.EpgKeyDto;
 import org.opendaylight.groupbasedpolicy.dto.ProvEpgKey;
 import org.opendaylight.groupbasedpolicy.forwarding.NetworkDomainAugmentorRegistryImpl;
@@ -46,6 +51,7 @@ import org.opendaylight.groupbasedpolicy.renderer.listener.ResolvedPoliciesListe
 import org.opendaylight.groupbasedpolicy.renderer.util.AddressEndpointUtils;
 import org.opendaylight.groupbasedpolicy.renderer.util.ContainmentEndpointUtils;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
+import org.opendaylight.groupbasedpolicy.util.IidFactory;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.EndpointLocations;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.Endpoints;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.endpoints.address.endpoints.AddressEndpoint;
@@ -85,6 +91,11 @@ public class RendererManager implements AutoCloseable {
 
     private static final Logger LOG = LoggerFactory.getLogger(RendererManager.class);
 
+    static final String DEBOUNCE_WINDOW_PROPERTY = "gbp.renderer.manager.debounce.ms";
+    static final String MAX_LATENCY_PROPERTY = "gbp.renderer.manager.max.latency.ms";
+    private static final long DEFAULT_DEBOUNCE_WINDOW_MILLIS = 100;
+    private static final long DEFAULT_MAX_LATENCY_MILLIS = 1000;
+
     private static long version = 0;
 
     private final DataBroker dataProvider;
@@ -93,7 +104,14 @@ public class RendererManager implements AutoCloseable {
     private final Set<RendererName> processingRenderers = new HashSet<>();
     private InputState currentState = new InputState();
     private InputState configuredState;
-    private boolean currentVersionHasConfig = false;
+    private final Map<RendererName, Optional<Configuration>> configByRendererName = new HashMap<>();
+    private final CoalescingEventProcessor eventProcessor;
+    private final AtomicReference<Optional<Endpoints>> pendingEndpoints = new AtomicReference<>();
+    private final AtomicReference<Optional<EndpointLocations>> pendingEpLocations = new AtomicReference<>();
+    private final AtomicReference<Optional<ResolvedPolicies>> pendingResolvedPolicies = new AtomicReference<>();
+    private final AtomicReference<Optional<Forwarding>> pendingForwarding = new AtomicReference<>();
+    private final AtomicReference<Optional<Renderers>> pendingRenderers = new AtomicReference<>();
+    private final AtomicLong recomputations = new AtomicLong();
 
     private final EndpointsListener endpointsListener;
     private final EndpointLocationsListener endpointLocationsListener;
@@ -187,9 +205,24 @@ public class RendererManager implements AutoCloseable {
 
     public RendererManager(DataBroker dataProvider, NetworkDomainAugmentorRegistryImpl netDomainAugmentorRegistry,
                            EndpointAugmentorRegistryImpl epAugmentorRegistry) {
+        this(dataProvider, netDomainAugmentorRegistry, epAugmentorRegistry,
+                Long.getLong(DEBOUNCE_WINDOW_PROPERTY, DEFAULT_DEBOUNCE_WINDOW_MILLIS),
+                Long.getLong(MAX_LATENCY_PROPERTY, DEFAULT_MAX_LATENCY_MILLIS));
+    }
+
+    /**
+     * @param debounceWindowMillis updates are processed after no update was received for this time;
+     *        {@code 0} means that every update is processed immediately in the notification thread
+     * @param maxLatencyMillis max. time between an update and its processing when updates keep coming
+     */
+    public RendererManager(DataBroker dataProvider, NetworkDomainAugmentorRegistryImpl netDomainAugmentorRegistry,
+                           EndpointAugmentorRegistryImpl epAugmentorRegistry, long debounceWindowMillis,
+                           long maxLatencyMillis) {
         this.dataProvider = checkNotNull(dataProvider);
         this.netDomainAugmentorRegistry = checkNotNull(netDomainAugmentorRegistry);
         this.epAugmentorRegistry = checkNotNull(epAugmentorRegistry);
+        eventProcessor = new CoalescingEventProcessor("renderer-manager", this::processPendingUpdates,
+                debounceWindowMillis, maxLatencyMillis);
         endpointsListener = new EndpointsListener(this, dataProvider);
         endpointLocationsListener = new EndpointLocationsListener(this, dataProvider);
         resolvedPoliciesListener = new ResolvedPoliciesListener(this, dataProvider);
@@ -197,29 +230,64 @@ public class RendererManager implements AutoCloseable {
         renderersListener = new RenderersListener(this, dataProvider);
     }
 
-    public synchronized void endpointsUpdated(final Endpoints endpoints) {
-        currentState.epInfo = new EndpointInfo(endpoints);
-        processState();
+    public void endpointsUpdated(final Endpoints endpoints) {
+        pendingEndpoints.set(Optional.fromNullable(endpoints));
+        eventProcessor.eventReceived();
     }
 
-    public synchronized void endpointLocationsUpdated(final EndpointLocations epLocations) {
-        currentState.epLocInfo = new EndpointLocationInfo(epLocations);
-        processState();
+    public void endpointLocationsUpdated(final EndpointLocations epLocations) {
+        pendingEpLocations.set(Optional.fromNullable(epLocations));
+        eventProcessor.eventReceived();
     }
 
-    public synchronized void resolvedPoliciesUpdated(final ResolvedPolicies resolvedPolicies) {
-        currentState.policyInfo = new ResolvedPolicyInfo(resolvedPolicies);
-        processState();
+    public void resolvedPoliciesUpdated(final ResolvedPolicies resolvedPolicies) {
+        pendingResolvedPolicies.set(Optional.fromNullable(resolvedPolicies));
+        eventProcessor.eventReceived();
     }
 
-    public synchronized void forwardingUpdated(final Forwarding forwarding) {
-        currentState.forwarding = forwarding;
+    public void forwardingUpdated(final Forwarding forwarding) {
+        pendingForwarding.set(Optional.fromNullable(forwarding));
+        eventProcessor.eventReceived();
+    }
+
+    public void renderersUpdated(final Renderers renderersCont) {
+        pendingRenderers.set(Optional.fromNullable(renderersCont));
+        eventProcessor.eventReceived();
+    }
+
+    /**
+     * Applies the latest version of every input updated since the last run and processes the state once.
+     * An absent input means that it was deleted, {@code null} that it was not updated.
+     */
+    private synchronized void processPendingUpdates() {
+        Optional<Endpoints> endpoints = pendingEndpoints.getAndSet(null);
+        if (endpoints != null) {
+            currentState.epInfo = endpoints.isPresent() ? new EndpointInfo(endpoints.get()) : null;
+        }
+        Optional<EndpointLocations> epLocations = pendingEpLocations.getAndSet(null);
+        if (epLocations != null) {
+            currentState.epLocInfo = epLocations.isPresent() ? new EndpointLocationInfo(epLocations.get()) : null;
+        }
+        Optional<ResolvedPolicies> resolvedPolicies = pendingResolvedPolicies.getAndSet(null);
+        if (resolvedPolicies != null) {
+            currentState.policyInfo =
+                    resolvedPolicies.isPresent() ? new ResolvedPolicyInfo(resolvedPolicies.get()) : null;
+        }
+        Optional<Forwarding> forwarding = pendingForwarding.getAndSet(null);
+        if (forwarding != null) {
+            currentState.forwarding = forwarding.orNull();
+        }
+        Optional<Renderers> renderersCont = pendingRenderers.getAndSet(null);
+        if (renderersCont != null) {
+            applyRenderers(renderersCont.orNull());
+        }
         processState();
     }
 
-    public synchronized void renderersUpdated(final Renderers renderersCont) {
+    private void applyRenderers(@Nullable final Renderers renderersCont) {
+        List<Renderer> rendererList = renderersCont == null ? null : renderersCont.getRenderer();
         ImmutableMultimap<InstanceIdentifier<?>, RendererName> renderersByNode =
-                RendererUtils.resolveRenderersByNodes(renderersCont.getRenderer());
+                RendererUtils.resolveRenderersByNodes(rendererList);
         currentState.rendererByNode = new HashMap<>();
         for (InstanceIdentifier<?> nodePath : renderersByNode.keySet()) {
             ImmutableCollection<RendererName> renderers = renderersByNode.get(nodePath);
@@ -230,9 +298,14 @@ public class RendererManager implements AutoCloseable {
             LOG.debug("Waiting for renderers. Version {} needs to be processed by renderers: {}", version,
                     processingRenderers);
             ImmutableMap<RendererName, Renderer> rendererByName =
-                    RendererUtils.resolveRendererByName(renderersCont.getRenderer());
-            for (RendererName configuredRenderer : processingRenderers) {
+                    RendererUtils.resolveRendererByName(rendererList);
+            for (RendererName configuredRenderer : ImmutableSet.copyOf(processingRenderers)) {
                 Renderer renderer = rendererByName.get(configuredRenderer);
+                if (renderer == null) {
+                    // removed renderer will never report the version
+                    processingRenderers.remove(configuredRenderer);
+                    continue;
+                }
                 RendererPolicy rendererPolicy = renderer.getRendererPolicy();
                 if (rendererPolicy != null && rendererPolicy.getVersion() != null
                         && renderer.getRendererPolicy().getVersion().equals(version)) {
@@ -250,7 +323,6 @@ public class RendererManager implements AutoCloseable {
                 }
             }
         }
-        processState();
     }
 
     private void processState() {
@@ -263,37 +335,120 @@ public class RendererManager implements AutoCloseable {
             LOG.trace("Nothing was changed in config for renderers {}", currentState);
             return;
         }
-        Map<RendererName, RendererConfigurationBuilder> rendererConfigBuilderByRendererName =
-                createRendererConfigBuilders();
+        recomputations.incrementAndGet();
         Set<RendererName> rendererNames = new HashSet<>(currentState.rendererByNode.values());
+        Set<RendererName> affectedRenderers = resolveAffectedRenderers();
+        if (affectedRenderers == null) {
+            affectedRenderers = rendererNames;
+        } else {
+            affectedRenderers.retainAll(rendererNames);
+        }
+        LOG.debug("Recomputing configuration for renderers {}", affectedRenderers);
+        Map<RendererName, RendererConfigurationBuilder> rendererConfigBuilderByRendererName =
+                createRendererConfigBuilders(affectedRenderers);
         boolean newVersionHasConfig = false;
-        Map<RendererName, Optional<Configuration>> configsByRendererName = new HashMap<>();
-        for (RendererName rendererName : rendererNames) {
+        Map<RendererName, Optional<Configuration>> changedConfigsByRendererName = new HashMap<>();
+        for (RendererName rendererName : affectedRenderers) {
             RendererConfigurationBuilder rendererPolicyBuilder = rendererConfigBuilderByRendererName.get(rendererName);
             Optional<Configuration> potentialConfig = createConfiguration(rendererPolicyBuilder);
             if (potentialConfig.isPresent()) {
                 newVersionHasConfig = true;
             }
-            configsByRendererName.put(rendererName, potentialConfig);
-        }
-        if (newVersionHasConfig || currentVersionHasConfig) {
-            version++;
-            if (!writeRenderersConfigs(configsByRendererName)) {
-                LOG.warn("Version {} was not dispatched successfully. Previous version is valid until next update.",
-                        version);
-                for (RendererName rendererName : rendererConfigBuilderByRendererName.keySet()) {
-                    processingRenderers.remove(rendererName);
-                }
-                version--;
+            if (!potentialConfig.equals(configByRendererName.get(rendererName))) {
+                changedConfigsByRendererName.put(rendererName, potentialConfig);
+            }
+        }
+        if (configuredState == null) {
+            if (!newVersionHasConfig) {
                 return;
-            } else {
-                currentVersionHasConfig = newVersionHasConfig;
-                configuredState = currentState.createCopy();
+            }
+            // initial version replaces whole renderers container so every renderer gets its configuration
+            for (RendererName rendererName : rendererNames) {
+                if (!changedConfigsByRendererName.containsKey(rendererName)) {
+                    changedConfigsByRendererName.put(rendererName, Optional.<Configuration>absent());
+                }
+            }
+        }
+        Set<RendererName> removedRenderers =
+                ImmutableSet.copyOf(Sets.difference(configByRendererName.keySet(), rendererNames));
+        if (changedConfigsByRendererName.isEmpty() && removedRenderers.isEmpty()) {
+            LOG.debug("Configuration of renderers {} was not changed", affectedRenderers);
+            configuredState = currentState.createCopy();
+            return;
+        }
+        version++;
+        if (!writeRenderersConfigs(changedConfigsByRendererName, removedRenderers, configuredState == null)) {
+            LOG.warn("Version {} was not dispatched successfully. Previous version is valid until next update.",
+                    version);
+            processingRenderers.removeAll(changedConfigsByRendererName.keySet());
+            version--;
+            return;
+        }
+        configByRendererName.putAll(changedConfigsByRendererName);
+        configByRendererName.keySet().removeAll(removedRenderers);
+        configuredState = currentState.createCopy();
+    }
+
+    /**
+     * Compares current state with configured state and resolves renderers whose configuration could be changed.
+     * A configuration of a renderer contains its endpoints, their peers and the whole forwarding therefore
+     * a renderer is affected if it has an endpoint in an endpoint-group which was changed or which is a peer
+     * of a changed endpoint-group.
+     *
+     * @return affected renderers or {@code null} if configuration of all renderers needs to be recomputed
+     */
+    @Nullable
+    private Set<RendererName> resolveAffectedRenderers() {
+        if (configuredState == null || !configuredState.isValid() || !currentState.isValid()) {
+            return null;
+        }
+        if (!DtoEquivalenceUtils.equalsForwarding(configuredState.forwarding, currentState.forwarding)
+                || !configuredState.rendererByNode.equals(currentState.rendererByNode)) {
+            return null;
+        }
+        Set<EpgKey> changedEpgs = new HashSet<>();
+        Set<AddressEndpointKey> changedAdrEps =
+                currentState.epLocInfo.findChangedAddressEps(configuredState.epLocInfo);
+        Set<ContainmentEndpointKey> changedContEps =
+                currentState.epLocInfo.findChangedContainmentEps(configuredState.epLocInfo);
+        for (InputState state : Arrays.asList(configuredState, currentState)) {
+            for (AddressEndpointKey adrEpKey : changedAdrEps) {
+                changedEpgs.addAll(state.epInfo.findEpgsOfAddressEp(adrEpKey));
+            }
+            for (ContainmentEndpointKey contEpKey : changedContEps) {
+                changedEpgs.addAll(state.epInfo.findEpgsOfContainmentEp(contEpKey));
+            }
+        }
+        changedEpgs.addAll(currentState.epInfo.findChangedEpgs(configuredState.epInfo));
+        if (configuredState.policyInfo != currentState.policyInfo) {
+            changedEpgs.addAll(currentState.policyInfo.findChangedEpgs(configuredState.policyInfo));
+        }
+        Set<EpgKey> affectedEpgs = new HashSet<>(changedEpgs);
+        for (EpgKey changedEpg : changedEpgs) {
+            affectedEpgs.addAll(configuredState.policyInfo.findPeers(changedEpg));
+            affectedEpgs.addAll(currentState.policyInfo.findPeers(changedEpg));
+        }
+        Set<RendererName> affectedRenderers = new HashSet<>();
+        for (InputState state : Arrays.asList(configuredState, currentState)) {
+            for (InstanceIdentifier<?> epLocation : state.epLocInfo.getAllExternalNodeLocations()) {
+                RendererName rendererName = state.rendererByNode.get(epLocation);
+                if (rendererName == null || affectedRenderers.contains(rendererName)) {
+                    continue;
+                }
+                for (AddressEndpointKey adrEpKey : state.epLocInfo.getAddressEpsWithExternalNodeLocation(epLocation)) {
+                    if (changedAdrEps.contains(adrEpKey) || !Collections
+                        .disjoint(state.epInfo.findEpgsOfAddressEp(adrEpKey), affectedEpgs)) {
+                        affectedRenderers.add(rendererName);
+                        break;
+                    }
+                }
             }
         }
+        return affectedRenderers;
     }
 
-    private boolean writeRenderersConfigs(Map<RendererName, Optional<Configuration>> configsByRendererName) {
+    private boolean writeRenderersConfigs(Map<RendererName, Optional<Configuration>> configsByRendererName,
+            Set<RendererName> removedRenderers, boolean replaceAll) {
         List<Renderer> renderers = new ArrayList<>();
         for (RendererName rendererName : configsByRendererName.keySet()) {
             RendererPolicy rendererPolicy;
@@ -310,8 +465,20 @@ public class RendererManager implements AutoCloseable {
             LOG.debug("Created configuration for renderer {} with version {}", rendererName.getValue(), version);
         }
         WriteTransaction wTx = dataProvider.newWriteOnlyTransaction();
-        wTx.put(LogicalDatastoreType.CONFIGURATION, InstanceIdentifier.create(Renderers.class),
-                new RenderersBuilder().setRenderer(renderers).build());
+        if (replaceAll) {
+            wTx.put(LogicalDatastoreType.CONFIGURATION, InstanceIdentifier.create(Renderers.class),
+                    new RenderersBuilder().setRenderer(renderers).build());
+        } else {
+            for (Renderer renderer : renderers) {
+                wTx.put(LogicalDatastoreType.CONFIGURATION,
+                        IidFactory.rendererIid(renderer.getName()).child(RendererPolicy.class),
+                        renderer.getRendererPolicy(), true);
+            }
+            for (RendererName rendererName : removedRenderers) {
+                LOG.debug("Removing configuration of renderer {}", rendererName.getValue());
+                wTx.delete(LogicalDatastoreType.CONFIGURATION, IidFactory.rendererIid(rendererName));
+            }
+        }
         return DataStoreHelper.submitToDs(wTx);
     }
 
@@ -319,10 +486,13 @@ public class RendererManager implements AutoCloseable {
      * Entry is added to the result map only if:<br>
      * 1. There is at least one Address EP with absolute location
      * 2. There is a renderer responsible for that EP
+     * 3. The renderer is one of requested renderers
      *
+     * @param rendererNames renderers whose configuration is created
      * @return
      */
-    private Map<RendererName, RendererConfigurationBuilder> createRendererConfigBuilders() {
+    private Map<RendererName, RendererConfigurationBuilder> createRendererConfigBuilders(
+            Set<RendererName> rendererNames) {
         if (!currentState.isValid()) {
             return Collections.emptyMap();
         }
@@ -333,6 +503,9 @@ public class RendererManager implements AutoCloseable {
                 LOG.trace("Renderer does not exist for EP with location: {}", epLocation);
                 continue;
             }
+            if (!rendererNames.contains(rendererName)) {
+                continue;
+            }
             RendererConfigurationBuilder rendererConfigBuilder = rendererConfigBuilderByRendererName.get(rendererName);
             if (rendererConfigBuilder == null) {
                 rendererConfigBuilder = new RendererConfigurationBuilder();
@@ -542,6 +715,20 @@ public class RendererManager implements AutoCloseable {
         return processingRenderers;
     }
 
+    /**
+     * @return number of updates of endpoints, locations, resolved policies, forwarding and renderers received
+     */
+    public long getReceivedEvents() {
+        return eventProcessor.getReceivedEvents();
+    }
+
+    /**
+     * @return number of times when configuration of renderers was recomputed
+     */
+    public long getRecomputations() {
+        return recomputations.get();
+    }
+
     @VisibleForTesting
     static void resetVersion() {
         version = 0;
@@ -555,6 +742,7 @@ public class RendererManager implements AutoCloseable {
             resolvedPoliciesListener.close();
             forwardingListener.close();
             renderersListener.close();
+            eventProcessor.close();
         } catch (Exception e) {
             LOG.warn("Exception while closing", e);
         }
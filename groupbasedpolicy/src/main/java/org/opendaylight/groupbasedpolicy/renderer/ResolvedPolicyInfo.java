@@ -9,9 +9,13 @@
 package org.opendaylight.groupbasedpolicy.renderer;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import org.opendaylight.groupbasedpolicy.dto.ConsEpgKey;
+import org.opendaylight.groupbasedpolicy.dto.EpgKey;
 import org.opendaylight.groupbasedpolicy.dto.EpgKeyDto;
 import org.opendaylight.groupbasedpolicy.dto.ProvEpgKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.resolved.policy.rev150828.ResolvedPolicies;
@@ -24,6 +28,7 @@ import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.ImmutableTable.Builder;
+import com.google.common.collect.Table.Cell;
 
 public class ResolvedPolicyInfo {
 
@@ -67,4 +72,38 @@ public class ResolvedPolicyInfo {
         return Optional.fromNullable(policyByEpgs.get(consKey, provKey));
     }
 
+    /**
+     * Finds consumer and provider endpoint-groups of resolved policies which were created, removed or changed
+     * comparing to the previous state.
+     *
+     * @param previous previous state of resolved policies
+     * @return endpoint-groups of changed resolved policies
+     */
+    public Set<EpgKey> findChangedEpgs(ResolvedPolicyInfo previous) {
+        Set<EpgKey> changedEpgs = new HashSet<>();
+        for (Cell<ConsEpgKey, ProvEpgKey, ResolvedPolicy> cell : policyByEpgs.cellSet()) {
+            if (!Objects.equals(cell.getValue(), previous.policyByEpgs.get(cell.getRowKey(), cell.getColumnKey()))) {
+                changedEpgs.add(cell.getRowKey());
+                changedEpgs.add(cell.getColumnKey());
+            }
+        }
+        for (Cell<ConsEpgKey, ProvEpgKey, ResolvedPolicy> cell : previous.policyByEpgs.cellSet()) {
+            if (!policyByEpgs.contains(cell.getRowKey(), cell.getColumnKey())) {
+                changedEpgs.add(cell.getRowKey());
+                changedEpgs.add(cell.getColumnKey());
+            }
+        }
+        return changedEpgs;
+    }
+
+    /**
+     * @return consumer and provider peers of the endpoint-group
+     */
+    public Set<EpgKey> findPeers(EpgKey epgKey) {
+        EpgKeyDto epg = new EpgKeyDto(epgKey.getEpgId(), epgKey.getTenantId());
+        Set<EpgKey> peers = new HashSet<>(findProviderPeers(epg));
+        peers.addAll(findConsumerPeers(epg));
+        return peers;
+    }
+
 }
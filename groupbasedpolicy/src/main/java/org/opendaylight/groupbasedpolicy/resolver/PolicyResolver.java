@@ -7,9 +7,11 @@
  */
 package org.opendaylight.groupbasedpolicy.resolver;
 
-import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -19,6 +21,7 @@ import javax.annotation.concurrent.Immutable;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.binding.api.DataObjectModification;
 import org.opendaylight.controller.md.sal.binding.api.DataTreeIdentifier;
+import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
 import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
@@ -44,12 +47,16 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.subject.feature.instances.ClassifierInstance;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.resolved.policy.rev150828.ResolvedPolicies;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.resolved.policy.rev150828.ResolvedPoliciesBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.resolved.policy.rev150828.resolved.policies.ResolvedPolicy;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.resolved.policy.rev150828.resolved.policies.ResolvedPolicyKey;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Table;
@@ -76,6 +83,12 @@ public class PolicyResolver implements PolicyValidatorRegistry, AutoCloseable {
 
     protected final ConcurrentMap<TenantId, IndexedTenant> resolvedTenants;
 
+    /*
+     * Resolved policies written to OPER for each tenant
+     */
+    private final ConcurrentMap<TenantId, Map<ResolvedPolicyKey, ResolvedPolicy>> resolvedPoliciesByTenant =
+            new ConcurrentHashMap<>();
+
     private PolicyChangeListener tenantChangeListener;
 
     /*
@@ -91,12 +104,53 @@ public class PolicyResolver implements PolicyValidatorRegistry, AutoCloseable {
     public PolicyResolver(DataBroker dataProvider) {
         this.dataProvider = dataProvider;
         resolvedTenants = new ConcurrentHashMap<>();
+        loadResolvedPolicies();
         tenantChangeListener =
                 new PolicyChangeListener(dataProvider, new DataTreeIdentifier<>(LogicalDatastoreType.CONFIGURATION,
                         InstanceIdentifier.builder(Tenants.class).child(Tenant.class).build()));
         LOG.debug("Initialized renderer common policy resolver");
     }
 
+    /**
+     * Seeds resolved policies of each tenant from OPER so that policies written before a restart are
+     * compared with newly resolved ones. Resolved policies of tenants missing in CONF are removed
+     * because no change of such a tenant will ever be received.
+     */
+    private void loadResolvedPolicies() {
+        if (dataProvider == null) {
+            return;
+        }
+        ReadOnlyTransaction rTx = dataProvider.newReadOnlyTransaction();
+        Optional<ResolvedPolicies> potentialResolvedPolicies = DataStoreHelper.readFromDs(
+                LogicalDatastoreType.OPERATIONAL, InstanceIdentifier.create(ResolvedPolicies.class), rTx);
+        Optional<Tenants> potentialTenants = DataStoreHelper.readFromDs(LogicalDatastoreType.CONFIGURATION,
+                InstanceIdentifier.create(Tenants.class), rTx);
+        rTx.close();
+        if (potentialResolvedPolicies.isPresent() && potentialResolvedPolicies.get().getResolvedPolicy() != null) {
+            for (ResolvedPolicy resolvedPolicy : potentialResolvedPolicies.get().getResolvedPolicy()) {
+                TenantId tenantId = resolvedPolicy.getConsumerTenantId();
+                Map<ResolvedPolicyKey, ResolvedPolicy> tenantPolicies = resolvedPoliciesByTenant.get(tenantId);
+                if (tenantPolicies == null) {
+                    tenantPolicies = new HashMap<>();
+                    resolvedPoliciesByTenant.put(tenantId, tenantPolicies);
+                }
+                tenantPolicies.put(resolvedPolicy.getKey(), resolvedPolicy);
+            }
+        }
+        Set<TenantId> configuredTenants = new HashSet<>();
+        if (potentialTenants.isPresent() && potentialTenants.get().getTenant() != null) {
+            for (Tenant tenant : potentialTenants.get().getTenant()) {
+                configuredTenants.add(tenant.getId());
+            }
+        }
+        for (TenantId tenantId : ImmutableSet.copyOf(resolvedPoliciesByTenant.keySet())) {
+            if (!configuredTenants.contains(tenantId)) {
+                LOG.info("Tenant {} has resolved policies in OPER but does not exist in CONF", tenantId.getValue());
+                updateTenant(tenantId, null);
+            }
+        }
+    }
+
     // *************
     // AutoCloseable
     // *************
@@ -143,8 +197,9 @@ public class PolicyResolver implements PolicyValidatorRegistry, AutoCloseable {
             resolvedTenants.remove(tenantId);
             ReadWriteTransaction rwTx = dataProvider.newReadWriteTransaction();
             DataStoreHelper.removeIfExists(LogicalDatastoreType.OPERATIONAL, IidFactory.tenantIid(tenantId), rwTx);
-            updateResolvedPolicy(rwTx);
+            updateResolvedPolicy(rwTx, tenantId);
             if (DataStoreHelper.submitToDs(rwTx)) {
+                resolvedPoliciesByTenant.remove(tenantId);
                 LOG.debug("Removed resolved tenant {} and wrote resolved policies to Datastore.", tenantId.getValue());
             } else {
                 LOG.error("Failed to remove resolved tenant {} and to write resolved policies to Datastore.",
@@ -158,8 +213,9 @@ public class PolicyResolver implements PolicyValidatorRegistry, AutoCloseable {
                 resolvedTenants.put(tenantId, new IndexedTenant(resolvedTenant));
                 WriteTransaction wTx = dataProvider.newWriteOnlyTransaction();
                 wTx.put(LogicalDatastoreType.OPERATIONAL, IidFactory.tenantIid(tenantId), resolvedTenant, true);
-                updateResolvedPolicy(wTx);
+                Map<ResolvedPolicyKey, ResolvedPolicy> tenantPolicies = updateResolvedPolicy(wTx, tenantId);
                 if (DataStoreHelper.submitToDs(wTx)) {
+                    resolvedPoliciesByTenant.put(tenantId, tenantPolicies);
                     LOG.debug("Wrote resolved tenant {} and resolved policies to Datastore.", tenantId.getValue());
                 } else {
                     LOG.error("Failed to write resolved tenant {} and resolved policies to Datastore.",
@@ -169,25 +225,49 @@ public class PolicyResolver implements PolicyValidatorRegistry, AutoCloseable {
         }
     }
 
-    private void updateResolvedPolicy(WriteTransaction wTx) {
-        Set<IndexedTenant> indexedTenants = getIndexedTenants(resolvedTenants.values());
-        Table<EgKey, EgKey, org.opendaylight.groupbasedpolicy.dto.Policy> policyMap =
-                PolicyResolverUtils.resolvePolicy(indexedTenants);
-        ResolvedPolicies resolvedPolicies =
-                new ResolvedPoliciesBuilder().setResolvedPolicy(PolicyInfoUtils.buildResolvedPolicy(policyMap, resolvedTenants)).build();
-
-        wTx.put(LogicalDatastoreType.OPERATIONAL, InstanceIdentifier.builder(ResolvedPolicies.class).build(),
-                resolvedPolicies, true);
-    }
-
-    private Set<IndexedTenant> getIndexedTenants(Collection<IndexedTenant> tenantCtxs) {
-        Set<IndexedTenant> result = new HashSet<>();
-        for (IndexedTenant tenant : tenantCtxs) {
-            if (tenant != null) {
-                result.add(tenant);
+    /**
+     * Resolves policies of the tenant and writes only resolved policies which were changed since the last
+     * resolution of the tenant. Contracts are matched only against endpoint-groups of the same tenant
+     * therefore resolved policies of other tenants are not affected.
+     *
+     * @param wTx transaction where changed resolved policies are written and removed ones are deleted
+     * @param tenantId tenant to resolve; resolved policies of a tenant missing in resolved tenants are removed
+     * @return resolved policies of the tenant
+     */
+    private Map<ResolvedPolicyKey, ResolvedPolicy> updateResolvedPolicy(WriteTransaction wTx, TenantId tenantId) {
+        Map<ResolvedPolicyKey, ResolvedPolicy> newPolicies = new HashMap<>();
+        IndexedTenant indexedTenant = resolvedTenants.get(tenantId);
+        if (indexedTenant != null) {
+            Table<EgKey, EgKey, org.opendaylight.groupbasedpolicy.dto.Policy> policyMap =
+                    PolicyResolverUtils.resolvePolicy(ImmutableSet.of(indexedTenant));
+            for (ResolvedPolicy resolvedPolicy : PolicyInfoUtils.buildResolvedPolicy(policyMap, resolvedTenants)) {
+                newPolicies.put(resolvedPolicy.getKey(), resolvedPolicy);
+            }
+        }
+        Map<ResolvedPolicyKey, ResolvedPolicy> oldPolicies = resolvedPoliciesByTenant.get(tenantId);
+        if (oldPolicies == null) {
+            oldPolicies = Collections.emptyMap();
+        }
+        wTx.merge(LogicalDatastoreType.OPERATIONAL, InstanceIdentifier.builder(ResolvedPolicies.class).build(),
+                new ResolvedPoliciesBuilder().build(), true);
+        int removed = 0;
+        for (ResolvedPolicyKey key : oldPolicies.keySet()) {
+            if (!newPolicies.containsKey(key)) {
+                wTx.delete(LogicalDatastoreType.OPERATIONAL, IidFactory.resolvedPolicyIid(key));
+                removed++;
+            }
+        }
+        int written = 0;
+        for (ResolvedPolicy resolvedPolicy : newPolicies.values()) {
+            if (!resolvedPolicy.equals(oldPolicies.get(resolvedPolicy.getKey()))) {
+                wTx.put(LogicalDatastoreType.OPERATIONAL, IidFactory.resolvedPolicyIid(resolvedPolicy.getKey()),
+                        resolvedPolicy, true);
+                written++;
             }
         }
-        return result;
+        LOG.debug("Resolved policies of tenant {}: {} written, {} removed, {} unchanged", tenantId.getValue(),
+                written, removed, newPolicies.size() - written);
+        return newPolicies;
     }
 
     @VisibleForTesting
@@ -9,33 +9,22 @@
 package org.opendaylight.groupbasedpolicy.statistics;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
-import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.groupbasedpolicy.api.StatisticsManager;
+import org.opendaylight.groupbasedpolicy.api.StatisticsManager.Resolution;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.groupbasedpolicy.util.IidFactory;
-import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.MacAddress;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.L2BridgeDomainId;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.StatRecords;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.StatRecordsBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.EpToEpStatistic;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.EpToEpStatisticBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.EpToEpStatisticKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.EpEpgToEpEpgStatistic;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.EpEpgToEpEpgStatisticBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.EpEpgToEpEpgStatisticKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.ep.epg.to.ep.epg.statistic.MatchedRuleStatistic;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.ep.epg.to.ep.epg.statistic.MatchedRuleStatisticBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.ep.epg.to.ep.epg.statistic.MatchedRuleStatisticKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.store.rev151215.RecordId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.store.rev151215.StatisticsStore;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.store.rev151215.StatisticsStoreBuilder;
@@ -51,16 +40,41 @@ import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
 
+/**
+ * Aggregates statistics in {@link StatisticsRollupStore} and serves them from it. Samples are also written to
+ * {@link StatisticsStore} in OPERATIONAL datastore where the number of records is limited by
+ * {@link #MAX_RECORDS_PROPERTY}, the oldest records are overwritten.
+ */
 public class StatisticsManagerImpl implements StatisticsManager, AutoCloseable {
 
     private static final Logger LOG = LoggerFactory.getLogger(StatisticsManagerImpl.class);
-    private static long recordKey = 0;
+    static final String RETENTION_SECONDS_PROPERTY = "gbp.statistics.retention.seconds";
+    static final String RETENTION_MINUTES_PROPERTY = "gbp.statistics.retention.minutes";
+    static final String RETENTION_HOURS_PROPERTY = "gbp.statistics.retention.hours";
+    static final String MAX_SERIES_PROPERTY = "gbp.statistics.max.series";
+    static final String MAX_RECORDS_PROPERTY = "gbp.statistics.store.max.records";
+    private static final int DEFAULT_RETENTION_SECONDS = 60;
+    private static final int DEFAULT_RETENTION_MINUTES = 60;
+    private static final int DEFAULT_RETENTION_HOURS = 24;
+    private static final int DEFAULT_MAX_SERIES = 100000;
+    private static final int DEFAULT_MAX_RECORDS = 10000;
+    private final AtomicLong recordKey = new AtomicLong();
+    private final int maxRecords;
+    private final StatisticsRollupStore rollupStore;
     private DataBroker dataBroker;
 
     public StatisticsManagerImpl(DataBroker broker) {
         this.dataBroker = broker;
+        Map<Resolution, Integer> retention = new EnumMap<>(Resolution.class);
+        retention.put(Resolution.SECOND, Integer.getInteger(RETENTION_SECONDS_PROPERTY, DEFAULT_RETENTION_SECONDS));
+        retention.put(Resolution.MINUTE, Integer.getInteger(RETENTION_MINUTES_PROPERTY, DEFAULT_RETENTION_MINUTES));
+        retention.put(Resolution.HOUR, Integer.getInteger(RETENTION_HOURS_PROPERTY, DEFAULT_RETENTION_HOURS));
+        this.rollupStore =
+                new StatisticsRollupStore(retention, Integer.getInteger(MAX_SERIES_PROPERTY, DEFAULT_MAX_SERIES));
+        this.maxRecords = Integer.getInteger(MAX_RECORDS_PROPERTY, DEFAULT_MAX_RECORDS);
+        Preconditions.checkArgument(maxRecords > 0, "Maximum number of records has to be positive.");
         inicializeStatistics();
     }
 
@@ -74,8 +88,10 @@ public class StatisticsManagerImpl implements StatisticsManager, AutoCloseable {
 
     @Override
     public boolean writeStat(StatRecords record) {
+        long now = System.currentTimeMillis();
         WriteTransaction wtx = dataBroker.newWriteOnlyTransaction();
         for (EpToEpStatistic epStats : record.getEpToEpStatistic()) {
+            long timestamp = epStats.getTimestamp() == null ? now : epStats.getTimestamp().longValue();
             SrcEndpointBuilder srcBuilder = new SrcEndpointBuilder();
             DstEndpointBuilder dstBuilder = new DstEndpointBuilder();
             srcBuilder.setMacAddress(epStats.getSrcMacAddress())
@@ -85,12 +101,15 @@ public class StatisticsManagerImpl implements StatisticsManager, AutoCloseable {
                     .setL2Context(epStats.getDstL2c())
                     .setTenant(epStats.getDstTenant());
             for (EpEpgToEpEpgStatistic epgStats : epStats.getEpEpgToEpEpgStatistic()) {
-                StatisticRecordKey key = new StatisticRecordKey(new RecordId(recordKey++));
+                // record keys are reused in a ring so that the datastore does not grow without bound
+                StatisticRecordKey key =
+                        new StatisticRecordKey(new RecordId(recordKey.getAndIncrement() % maxRecords));
                 StatisticRecord statRecord;
                 srcBuilder.setEndpointGroup(epgStats.getSrcEpg());
                 dstBuilder.setEndpointGroup(epgStats.getDstEpg());
                 List<Statistic> statisticList = new ArrayList<>();
                 for (MatchedRuleStatistic ruleStats : epgStats.getMatchedRuleStatistic()) {
+                    rollupStore.addSample(epStats, epgStats, ruleStats, timestamp);
                     Statistic statistic = new StatisticBuilder()
                             .setKey(new StatisticKey(ruleStats.getContract(),
                                     ruleStats.getMatchedRule(), ruleStats.getSubject()))
@@ -106,7 +125,7 @@ public class StatisticsManagerImpl implements StatisticsManager, AutoCloseable {
 
                 }
                 statRecord = new StatisticRecordBuilder().setKey(key)
-                        .setRecordId(new RecordId(recordKey))
+                        .setRecordId(key.getRecordId())
                         .setTimestamp(epStats.getTimestamp())
                         .setSrcEndpoint(srcBuilder.build())
                         .setDstEndpoint(dstBuilder.build())
@@ -118,123 +137,32 @@ public class StatisticsManagerImpl implements StatisticsManager, AutoCloseable {
                 wtx.put(LogicalDatastoreType.OPERATIONAL, statIID, statRecord, true);
             }
         }
+        rollupStore.evictExpired(now);
         return DataStoreHelper.submitToDs(wtx);
     }
 
+    /**
+     * Counters are served from memory, the datastore is not read.
+     */
     @Override
     public StatRecords readStats() {
-        InstanceIdentifier<StatisticsStore> statsIID = InstanceIdentifier.builder(StatisticsStore.class).build();
-        ReadOnlyTransaction rtx = dataBroker.newReadOnlyTransaction();
-        LOG.debug("Reading statistics");
-        Optional<StatisticsStore> storeOpt = Optional.absent();
-        try {
-            storeOpt = rtx.read(LogicalDatastoreType.OPERATIONAL, statsIID).get();
-        } catch (InterruptedException | ExecutionException e) {
-            LOG.error("Exception thrown on reading from Datastore: {}", e.getMessage());
-            return null;
-        }
-        if (storeOpt.isPresent()) {
-            StatisticsStore store = storeOpt.get();
-            Map<EpToEpStatisticKey, EpToEpStatisticBuilder> map = new HashMap<>();
-            for (StatisticRecord storeStat : store.getStatisticRecord()) {
-                MacAddress srcMac = storeStat.getSrcEndpoint().getMacAddress();
-                MacAddress dstMac = storeStat.getDstEndpoint().getMacAddress();
-                L2BridgeDomainId srcL2C = storeStat.getSrcEndpoint().getL2Context();
-                L2BridgeDomainId dstL2C = storeStat.getDstEndpoint().getL2Context();
-                TenantId srcTenant = storeStat.getSrcEndpoint().getTenant();
-                TenantId dstTenant = storeStat.getDstEndpoint().getTenant();
-                EpToEpStatisticKey epKey = new EpToEpStatisticKey(dstL2C, dstMac, srcL2C, srcMac);
-                EpEpgToEpEpgStatisticKey epgKey = new EpEpgToEpEpgStatisticKey(
-                        storeStat.getDstEndpoint().getEndpointGroup(), storeStat.getSrcEndpoint().getEndpointGroup());
-                EpToEpStatisticBuilder epStat = map.get(epKey);
-                if (epStat == null) {
-                    // eptoep combination doesnt exist
-                    epStat = new EpToEpStatisticBuilder();
-                    epStat.setKey(epKey)
-                        .setSrcMacAddress(srcMac)
-                        .setSrcL2c(srcL2C)
-                        .setSrcTenant(storeStat.getSrcEndpoint().getTenant())
-                        .setDstMacAddress(dstMac)
-                        .setDstL2c(dstL2C)
-                        .setDstTenant(storeStat.getDstEndpoint().getTenant());
-                }
-                List<MatchedRuleStatistic> ruleStatList = new ArrayList<>();
-                for(Statistic statistic : storeStat.getStatistic())
-                {
-                    MatchedRuleStatisticBuilder statBuilder = new MatchedRuleStatisticBuilder()
-                            .setKey(new MatchedRuleStatisticKey(statistic.getContract()
-                                    ,statistic.getRule()
-                                    ,statistic.getSubject()))
-                            .setContract(statistic.getContract())
-                            .setSubject(statistic.getSubject())
-                            .setMatchedRule(statistic.getRule())
-                            .setAction(statistic.getAction())
-                            .setClassifier(statistic.getClassifier())
-                            .setByteCount(statistic.getByteCount())
-                            .setPacketCount(statistic.getPacketCount());
-                    ruleStatList.add(statBuilder.build());
-                }
-                EpEpgToEpEpgStatisticBuilder epgtoepgBuilder = new EpEpgToEpEpgStatisticBuilder();
-                epgtoepgBuilder.setKey(epgKey)
-                    .setSrcEpg(storeStat.getSrcEndpoint().getEndpointGroup())
-                    .setDstEpg(storeStat.getDstEndpoint().getEndpointGroup())
-                    .setMatchedRuleStatistic(ruleStatList);
-                epStat.setEpEpgToEpEpgStatistic(
-                        addIfNotExists(epgtoepgBuilder, epStat.getEpEpgToEpEpgStatistic()));
-                map.put(epKey, epStat);
-            }
-            List<EpToEpStatistic> epList = new ArrayList<>();
-            for (EpToEpStatisticBuilder statBuilder : map.values()) {
-                epList.add(statBuilder.build());
-            }
-            StatRecordsBuilder statStore = new StatRecordsBuilder();
-            statStore.setEpToEpStatistic(epList);
-            return statStore.build();
-        }
-        LOG.debug("Statistics store empty");
-        return null;
+        LOG.debug("Reading statistics of {} series", rollupStore.getSeriesCount());
+        return rollupStore.getTotals();
     }
 
-    private List<EpEpgToEpEpgStatistic> addIfNotExists(EpEpgToEpEpgStatisticBuilder stat,
-            List<EpEpgToEpEpgStatistic> list) {
-        if ( list == null ) {
-            list = new ArrayList<>();
-        } else {
-            Iterator<EpEpgToEpEpgStatistic> iterator = list.iterator();
-            while (iterator.hasNext()) {
-                EpEpgToEpEpgStatistic epgStat = iterator.next();
-                if (stat.getKey().equals(epgStat.getKey())) {
-                    List<MatchedRuleStatistic> newMatches = new ArrayList<>();
-                    Iterator<MatchedRuleStatistic> iteratorNew = stat.getMatchedRuleStatistic().iterator();
-                    while(iteratorNew.hasNext()) {
-                        MatchedRuleStatistic newStat = iteratorNew.next();
-                        Iterator<MatchedRuleStatistic> iteratorOld = epgStat.getMatchedRuleStatistic().iterator();
-                        boolean matched = false;
-                        while(iteratorOld.hasNext()) {
-                            MatchedRuleStatistic oldStat = iteratorOld.next();
-                            if(oldStat.getKey().equals(newStat.getKey())) {
-                                MatchedRuleStatistic newRuleStat = new MatchedRuleStatisticBuilder(oldStat)
-                                        .setByteCount(sumNullableValues(oldStat.getByteCount(), newStat.getByteCount()))
-                                        .setPacketCount(sumNullableValues(oldStat.getPacketCount(), newStat.getPacketCount()))
-                                        .build();
-                                newMatches.add(newRuleStat);
-                                matched = true;
-                            } else {
-                                newMatches.add(oldStat);
-                            }
-                        }
-                        if (!matched) {
-                            newMatches.add(newStat);
-                        }
-                    }
-                    stat.setMatchedRuleStatistic(newMatches);
-                    iterator.remove();
-                    break;
-                }
-            }
-        }
-        list.add(stat.build());
-        return list;
+    @Override
+    public StatRecords readStats(Resolution resolution, int buckets) {
+        return rollupStore.getRollup(resolution, buckets, System.currentTimeMillis());
+    }
+
+    @Override
+    public long getSamplesAggregated() {
+        return rollupStore.getSamplesAggregated();
+    }
+
+    @Override
+    public long getSamplesDropped() {
+        return rollupStore.getSamplesDropped();
     }
 
     public Long sumNullableValues (Long... x ) {
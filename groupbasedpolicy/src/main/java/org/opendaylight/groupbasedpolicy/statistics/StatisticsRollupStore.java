@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.statistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.opendaylight.groupbasedpolicy.api.StatisticsManager.Resolution;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.ActionName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.ClassifierName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.StatRecords;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.StatRecordsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.EpToEpStatistic;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.EpToEpStatisticBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.EpToEpStatisticKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.EpEpgToEpEpgStatistic;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.EpEpgToEpEpgStatisticBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.EpEpgToEpEpgStatisticKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.ep.epg.to.ep.epg.statistic.MatchedRuleStatistic;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.ep.epg.to.ep.epg.statistic.MatchedRuleStatisticBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.ep.epg.to.ep.epg.statistic.MatchedRuleStatisticKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * In-memory store of statistics aggregated per source end-point, destination end-point and matched rule.<br>
+ * Each series keeps total counters and ring buffers of buckets in several resolutions, retention of each
+ * resolution is given by number of its buckets. Adding a sample costs constant time regardless of number of
+ * samples seen before. Series without samples for longer than retention of the coarsest resolution are evicted.
+ */
+public final class StatisticsRollupStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatisticsRollupStore.class);
+
+    private final ConcurrentMap<SeriesKey, Series> series = new ConcurrentHashMap<>();
+    private final Map<Resolution, Integer> retention;
+    private final long maxRetentionMillis;
+    private final int maxSeries;
+    private final AtomicLong samplesAggregated = new AtomicLong();
+    private final AtomicLong samplesDropped = new AtomicLong();
+    private final AtomicLong lastEviction = new AtomicLong();
+
+    /**
+     * @param retention number of buckets kept for each resolution
+     * @param maxSeries maximum number of series, samples of new series over the limit are dropped
+     */
+    StatisticsRollupStore(@Nonnull Map<Resolution, Integer> retention, int maxSeries) {
+        Preconditions.checkArgument(retention.keySet().containsAll(Arrays.asList(Resolution.values())),
+                "Retention has to be set for all resolutions.");
+        Preconditions.checkArgument(retention.values().stream().allMatch(buckets -> buckets > 0),
+                "Retention has to be positive.");
+        Preconditions.checkArgument(maxSeries > 0, "Maximum number of series has to be positive.");
+        this.retention = new EnumMap<>(retention);
+        this.maxRetentionMillis = this.retention.entrySet()
+            .stream()
+            .mapToLong(entry -> entry.getKey().getBucketMillis() * entry.getValue())
+            .max()
+            .getAsLong();
+        this.maxSeries = maxSeries;
+    }
+
+    /**
+     * Aggregates a sample to its series.
+     *
+     * @param epStat end-point pair of the sample
+     * @param epgStat end-point group pair of the sample
+     * @param ruleStat counters of the sample
+     * @param timestamp time of the sample in milliseconds
+     * @return {@code false} if the sample was dropped because maximum number of series was reached
+     */
+    boolean addSample(@Nonnull EpToEpStatistic epStat, @Nonnull EpEpgToEpEpgStatistic epgStat,
+            @Nonnull MatchedRuleStatistic ruleStat, long timestamp) {
+        SeriesKey key = new SeriesKey(
+                new EpToEpStatisticKey(epStat.getDstL2c(), epStat.getDstMacAddress(), epStat.getSrcL2c(),
+                        epStat.getSrcMacAddress()),
+                new EpEpgToEpEpgStatisticKey(epgStat.getDstEpg(), epgStat.getSrcEpg()),
+                new MatchedRuleStatisticKey(ruleStat.getContract(), ruleStat.getMatchedRule(),
+                        ruleStat.getSubject()));
+        Series ruleSeries = series.get(key);
+        if (ruleSeries == null) {
+            if (series.size() >= maxSeries) {
+                samplesDropped.incrementAndGet();
+                LOG.debug("Statistics sample dropped, {} series are stored: {}", maxSeries, key);
+                return false;
+            }
+            ruleSeries = series.computeIfAbsent(key, k -> new Series(retention));
+        }
+        ruleSeries.add(epStat, ruleStat, timestamp);
+        samplesAggregated.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Removes series without samples for longer than retention of the coarsest resolution. Series are scanned
+     * at most once per {@link Resolution#MINUTE} bucket.
+     *
+     * @param now current time in milliseconds
+     */
+    void evictExpired(long now) {
+        long last = lastEviction.get();
+        if (now - last < Resolution.MINUTE.getBucketMillis() || !lastEviction.compareAndSet(last, now)) {
+            return;
+        }
+        int before = series.size();
+        series.values().removeIf(ruleSeries -> now - ruleSeries.getLastSampleMillis() > maxRetentionMillis);
+        if (before != series.size()) {
+            LOG.debug("Evicted {} expired statistics series.", before - series.size());
+        }
+    }
+
+    /**
+     * @return total counters of all series
+     */
+    @Nonnull
+    StatRecords getTotals() {
+        return toStatRecords(null, 0, 0);
+    }
+
+    /**
+     * @param resolution resolution of buckets
+     * @param buckets number of the most recent buckets to sum, capped by retention of the resolution
+     * @param now current time in milliseconds
+     * @return counters of all series summed over the most recent buckets
+     */
+    @Nonnull
+    StatRecords getRollup(@Nonnull Resolution resolution, int buckets, long now) {
+        return toStatRecords(resolution, buckets, now);
+    }
+
+    private StatRecords toStatRecords(@Nullable Resolution resolution, int buckets, long now) {
+        Map<EpToEpStatisticKey, Map<EpEpgToEpEpgStatisticKey, List<MatchedRuleStatistic>>> rulesByEp =
+                new LinkedHashMap<>();
+        Map<EpToEpStatisticKey, EpToEpStatisticBuilder> epBuilders = new LinkedHashMap<>();
+        series.forEach((key, ruleSeries) -> {
+            MatchedRuleStatisticBuilder ruleStat = ruleSeries.toMatchedRuleStatistic(resolution, buckets, now);
+            if (ruleStat == null) {
+                return;
+            }
+            ruleStat.setKey(key.ruleKey)
+                .setContract(key.ruleKey.getContract())
+                .setSubject(key.ruleKey.getSubject())
+                .setMatchedRule(key.ruleKey.getMatchedRule());
+            epBuilders.computeIfAbsent(key.epKey, epKey -> ruleSeries.toEpToEpStatistic(epKey));
+            rulesByEp.computeIfAbsent(key.epKey, epKey -> new LinkedHashMap<>())
+                .computeIfAbsent(key.epgKey, epgKey -> new ArrayList<>())
+                .add(ruleStat.build());
+        });
+        List<EpToEpStatistic> epStats = new ArrayList<>();
+        epBuilders.forEach((epKey, epBuilder) -> {
+            List<EpEpgToEpEpgStatistic> epgStats = new ArrayList<>();
+            rulesByEp.get(epKey).forEach((epgKey, ruleStats) -> epgStats.add(new EpEpgToEpEpgStatisticBuilder()
+                .setKey(epgKey)
+                .setSrcEpg(epgKey.getSrcEpg())
+                .setDstEpg(epgKey.getDstEpg())
+                .setMatchedRuleStatistic(ruleStats)
+                .build()));
+            epStats.add(epBuilder.setEpEpgToEpEpgStatistic(epgStats).build());
+        });
+        return new StatRecordsBuilder().setEpToEpStatistic(epStats).build();
+    }
+
+    int getSeriesCount() {
+        return series.size();
+    }
+
+    long getSamplesAggregated() {
+        return samplesAggregated.get();
+    }
+
+    long getSamplesDropped() {
+        return samplesDropped.get();
+    }
+
+    private static final class SeriesKey {
+
+        private final EpToEpStatisticKey epKey;
+        private final EpEpgToEpEpgStatisticKey epgKey;
+        private final MatchedRuleStatisticKey ruleKey;
+
+        SeriesKey(EpToEpStatisticKey epKey, EpEpgToEpEpgStatisticKey epgKey, MatchedRuleStatisticKey ruleKey) {
+            this.epKey = epKey;
+            this.epgKey = epgKey;
+            this.ruleKey = ruleKey;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(epKey, epgKey, ruleKey);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof SeriesKey)) {
+                return false;
+            }
+            SeriesKey other = (SeriesKey) obj;
+            return Objects.equals(epKey, other.epKey) && Objects.equals(epgKey, other.epgKey)
+                    && Objects.equals(ruleKey, other.ruleKey);
+        }
+
+        @Override
+        public String toString() {
+            return "SeriesKey [epKey=" + epKey + ", epgKey=" + epgKey + ", ruleKey=" + ruleKey + "]";
+        }
+    }
+
+    /**
+     * Counters of a single series. Values which are not part of the series key are taken from the latest sample.
+     */
+    private static final class Series {
+
+        private final Map<Resolution, RingBuffer> rings = new EnumMap<>(Resolution.class);
+        private TenantId srcTenant;
+        private TenantId dstTenant;
+        private List<ActionName> action;
+        private List<ClassifierName> classifier;
+        private long byteCount;
+        private long packetCount;
+        private volatile long lastSampleMillis;
+
+        Series(Map<Resolution, Integer> retention) {
+            retention.forEach((resolution, buckets) -> rings.put(resolution,
+                    new RingBuffer(resolution.getBucketMillis(), buckets)));
+        }
+
+        synchronized void add(EpToEpStatistic epStat, MatchedRuleStatistic ruleStat, long timestamp) {
+            long bytes = ruleStat.getByteCount() == null ? 0 : ruleStat.getByteCount();
+            long packets = ruleStat.getPacketCount() == null ? 0 : ruleStat.getPacketCount();
+            srcTenant = epStat.getSrcTenant();
+            dstTenant = epStat.getDstTenant();
+            action = ruleStat.getAction();
+            classifier = ruleStat.getClassifier();
+            byteCount += bytes;
+            packetCount += packets;
+            rings.values().forEach(ring -> ring.add(timestamp, bytes, packets));
+            lastSampleMillis = Math.max(lastSampleMillis, timestamp);
+        }
+
+        long getLastSampleMillis() {
+            return lastSampleMillis;
+        }
+
+        synchronized EpToEpStatisticBuilder toEpToEpStatistic(EpToEpStatisticKey epKey) {
+            return new EpToEpStatisticBuilder().setKey(epKey)
+                .setSrcMacAddress(epKey.getSrcMacAddress())
+                .setSrcL2c(epKey.getSrcL2c())
+                .setSrcTenant(srcTenant)
+                .setDstMacAddress(epKey.getDstMacAddress())
+                .setDstL2c(epKey.getDstL2c())
+                .setDstTenant(dstTenant);
+        }
+
+        /**
+         * @return counters of the series or {@code null} if there are no samples in requested buckets
+         */
+        @Nullable
+        synchronized MatchedRuleStatisticBuilder toMatchedRuleStatistic(@Nullable Resolution resolution,
+                int buckets, long now) {
+            long bytes = byteCount;
+            long packets = packetCount;
+            if (resolution != null) {
+                long[] sum = rings.get(resolution).sum(now, buckets);
+                if (sum == null) {
+                    return null;
+                }
+                bytes = sum[0];
+                packets = sum[1];
+            }
+            return new MatchedRuleStatisticBuilder().setAction(action)
+                .setClassifier(classifier)
+                .setByteCount(bytes)
+                .setPacketCount(packets);
+        }
+    }
+
+    /**
+     * Fixed number of consecutive buckets of the same width. A slot is reused once its bucket falls out of
+     * retention, samples older than retention are ignored.
+     */
+    private static final class RingBuffer {
+
+        private final long bucketMillis;
+        private final long[] bucketIndex;
+        private final long[] bytes;
+        private final long[] packets;
+        private long latestIndex = Long.MIN_VALUE;
+
+        RingBuffer(long bucketMillis, int buckets) {
+            this.bucketMillis = bucketMillis;
+            this.bucketIndex = new long[buckets];
+            this.bytes = new long[buckets];
+            this.packets = new long[buckets];
+            Arrays.fill(bucketIndex, -1);
+        }
+
+        void add(long timestamp, long byteCount, long packetCount) {
+            long index = timestamp / bucketMillis;
+            if (latestIndex != Long.MIN_VALUE && index <= latestIndex - bucketIndex.length) {
+                return;
+            }
+            latestIndex = Math.max(latestIndex, index);
+            int slot = (int) (index % bucketIndex.length);
+            if (bucketIndex[slot] != index) {
+                bucketIndex[slot] = index;
+                bytes[slot] = 0;
+                packets[slot] = 0;
+            }
+            bytes[slot] += byteCount;
+            packets[slot] += packetCount;
+        }
+
+        /**
+         * @return sum of bytes and packets in the most recent buckets or {@code null} if the buckets are empty
+         */
+        @Nullable
+        long[] sum(long now, int buckets) {
+            long currentIndex = now / bucketMillis;
+            long[] sum = null;
+            for (int i = 0; i < Math.min(buckets, bucketIndex.length); i++) {
+                long index = currentIndex - i;
+                if (index < 0) {
+                    break;
+                }
+                int slot = (int) (index % bucketIndex.length);
+                if (bucketIndex[slot] == index) {
+                    if (sum == null) {
+                        sum = new long[2];
+                    }
+                    sum[0] += bytes[slot];
+                    sum[1] += packets[slot];
+                }
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+import org.opendaylight.controller.md.sal.binding.api.BindingTransactionChain;
+import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
+import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
+import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.CheckedFuture;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Wrapper of {@link BindingTransactionChain} for concurrent callers.<br>
+ * A transaction chain allows only one open transaction at a time, but any number of submitted ones which are
+ * committed in order of submission. Callers therefore wait only while another transaction is open, never for
+ * a commit to finish:
+ * <ul>
+ * <li>{@link #write(Consumer)} queues modifications and returns immediately. Queued modifications are applied
+ * in order of arrival in a single write transaction by a caller which finds the chain idle, or by the thread
+ * which releases the chain.</li>
+ * <li>{@link #newReadWriteTransaction()} and {@link #newWriteOnlyTransaction()} open a transaction for the
+ * calling thread after submitting queued writes, so the transaction sees all writes queued before it. It has
+ * to be finished by {@link #submit(WriteTransaction)}, which returns the commit future without waiting for it,
+ * or by {@link #cancel(WriteTransaction)}.</li>
+ * <li>{@link #read(LogicalDatastoreType, InstanceIdentifier)} holds the chain only to submit queued writes and
+ * to allocate the transaction, so the read sees all writes queued before it.</li>
+ * </ul>
+ */
+public class AsyncTransactionChain implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncTransactionChain.class);
+
+    private final BindingTransactionChain txChain;
+    private final ReentrantLock txLock = new ReentrantLock(true);
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger outstandingCommits = new AtomicInteger();
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong lockWaitNanos = new AtomicLong();
+    private final AtomicLong lockHoldNanos = new AtomicLong();
+    private final AtomicLong maxLockHoldNanos = new AtomicLong();
+    private final AtomicLong batchedWrites = new AtomicLong();
+    // guarded by txLock
+    private long lockedAt;
+    private volatile boolean closed;
+
+    public AsyncTransactionChain(@Nonnull BindingTransactionChain txChain) {
+        this.txChain = checkNotNull(txChain);
+    }
+
+    /**
+     * Queues modifications to be written in order with all other writes of this chain.
+     *
+     * @param modification applies modifications to a write transaction, it must not block and must not use the
+     *        transaction after returning
+     * @return future completed when the transaction containing the modifications is committed. If any queued
+     *         modification in the same transaction throws an exception, the transaction is cancelled and the
+     *         futures of all its modifications fail.
+     */
+    public ListenableFuture<Void> write(@Nonnull Consumer<WriteTransaction> modification) {
+        checkState(!closed, "Transaction chain is closed.");
+        SettableFuture<Void> future = SettableFuture.create();
+        pendingWrites.add(new PendingWrite(checkNotNull(modification), future));
+        drainPendingWrites();
+        return future;
+    }
+
+    /**
+     * Opens a read-write transaction for the calling thread, blocking while a transaction of other thread is
+     * open. Writes queued before the transaction are submitted first, so the transaction sees them. The
+     * transaction has to be finished by {@link #submit(WriteTransaction)} or {@link #cancel(WriteTransaction)}.
+     *
+     * @throws IllegalStateException if the calling thread did not finish its previous transaction
+     */
+    public ReadWriteTransaction newReadWriteTransaction() {
+        return openTransaction(txChain::newReadWriteTransaction);
+    }
+
+    /**
+     * @see #newReadWriteTransaction()
+     */
+    public WriteTransaction newWriteOnlyTransaction() {
+        return openTransaction(txChain::newWriteOnlyTransaction);
+    }
+
+    /**
+     * Submits a transaction opened by the calling thread and releases the chain without waiting for the commit.
+     *
+     * @return the commit future of the transaction
+     */
+    public CheckedFuture<Void, TransactionCommitFailedException> submit(@Nonnull WriteTransaction wTx) {
+        checkState(txLock.isHeldByCurrentThread(), "Transaction %s was not opened by this thread.", wTx);
+        CheckedFuture<Void, TransactionCommitFailedException> future;
+        try {
+            future = wTx.submit();
+        } finally {
+            release();
+        }
+        trackCommit(future);
+        drainPendingWrites();
+        return future;
+    }
+
+    /**
+     * Cancels a transaction opened by the calling thread and releases the chain.
+     */
+    public void cancel(@Nonnull WriteTransaction wTx) {
+        checkState(txLock.isHeldByCurrentThread(), "Transaction %s was not opened by this thread.", wTx);
+        try {
+            wTx.cancel();
+        } finally {
+            release();
+        }
+        drainPendingWrites();
+    }
+
+    /**
+     * Reads data from the datastore. Writes queued before the read are submitted first, so the read sees them.
+     * The read transaction is closed when the read is finished.
+     */
+    public <T extends DataObject> CheckedFuture<Optional<T>, ReadFailedException> read(
+            @Nonnull LogicalDatastoreType store, @Nonnull InstanceIdentifier<T> path) {
+        final ReadOnlyTransaction rTx;
+        CheckedFuture<Void, TransactionCommitFailedException> writesFuture = null;
+        acquire();
+        try {
+            writesFuture = submitBatch(pollPendingWrites());
+            rTx = txChain.newReadOnlyTransaction();
+        } finally {
+            release();
+            if (writesFuture != null) {
+                trackCommit(writesFuture);
+            }
+        }
+        CheckedFuture<Optional<T>, ReadFailedException> future = rTx.read(store, path);
+        future.addListener(rTx::close, MoreExecutors.directExecutor());
+        drainPendingWrites();
+        return future;
+    }
+
+    /**
+     * Reads data from datastore as synchronous call.
+     *
+     * @return {@link Optional#isPresent()} is {@code true} if reading was successful and data
+     *         exists in datastore; {@link Optional#isPresent()} is {@code false} otherwise
+     */
+    public <T extends DataObject> Optional<T> readFromDs(LogicalDatastoreType store, InstanceIdentifier<T> path) {
+        try {
+            return read(store, path).checkedGet();
+        } catch (ReadFailedException | RuntimeException e) {
+            LOG.warn("Exception while trying to read from DS. Exception: {}", e.getMessage());
+            LOG.debug("Read of {} failed.", path, e);
+            return Optional.absent();
+        }
+    }
+
+    /**
+     * @return number of transactions opened on the chain, including the ones for queued writes
+     */
+    public long getAcquisitions() {
+        return acquisitions.get();
+    }
+
+    /**
+     * @return total time callers waited for another transaction to be finished, in nanoseconds
+     */
+    public long getLockWaitNanos() {
+        return lockWaitNanos.get();
+    }
+
+    /**
+     * @return total time transactions were open, in nanoseconds
+     */
+    public long getLockHoldNanos() {
+        return lockHoldNanos.get();
+    }
+
+    public long getMaxLockHoldNanos() {
+        return maxLockHoldNanos.get();
+    }
+
+    /**
+     * @return number of queued writes and threads waiting to open a transaction
+     */
+    public int getQueueDepth() {
+        return pendingWrites.size() + txLock.getQueueLength();
+    }
+
+    /**
+     * @return number of submitted transactions which were not committed yet
+     */
+    public int getOutstandingCommits() {
+        return outstandingCommits.get();
+    }
+
+    /**
+     * @return number of writes queued by {@link #write(Consumer)} which were submitted
+     */
+    public long getBatchedWrites() {
+        return batchedWrites.get();
+    }
+
+    /**
+     * Waits for an open transaction to be finished, submits queued writes and closes the chain. Writes queued
+     * after the chain is closed fail.
+     */
+    @Override
+    public void close() {
+        CheckedFuture<Void, TransactionCommitFailedException> writesFuture = null;
+        long start = System.nanoTime();
+        txLock.lock();
+        onLocked(System.nanoTime() - start);
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            writesFuture = submitBatch(pollPendingWrites());
+            txChain.close();
+        } finally {
+            release();
+            if (writesFuture != null) {
+                trackCommit(writesFuture);
+            }
+        }
+        // writes which passed the check of closed chain before it was closed
+        failPendingWrites();
+    }
+
+    private void drainPendingWrites() {
+        while (!pendingWrites.isEmpty() && !txLock.isHeldByCurrentThread() && txLock.tryLock()) {
+            onLocked(0);
+            if (closed) {
+                release();
+                failPendingWrites();
+                return;
+            }
+            CheckedFuture<Void, TransactionCommitFailedException> future = null;
+            try {
+                future = submitBatch(pollPendingWrites());
+            } finally {
+                release();
+            }
+            if (future != null) {
+                trackCommit(future);
+            }
+        }
+    }
+
+    private void failPendingWrites() {
+        IllegalStateException closedException = new IllegalStateException("Transaction chain is closed.");
+        pollPendingWrites().forEach(pendingWrite -> pendingWrite.future.setException(closedException));
+    }
+
+    private List<PendingWrite> pollPendingWrites() {
+        List<PendingWrite> batch = new ArrayList<>();
+        for (PendingWrite pendingWrite = pendingWrites.poll(); pendingWrite != null; pendingWrite =
+                pendingWrites.poll()) {
+            batch.add(pendingWrite);
+        }
+        return batch;
+    }
+
+    private CheckedFuture<Void, TransactionCommitFailedException> submitBatch(List<PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return null;
+        }
+        WriteTransaction wTx = null;
+        try {
+            wTx = txChain.newWriteOnlyTransaction();
+            for (PendingWrite pendingWrite : batch) {
+                pendingWrite.modification.accept(wTx);
+            }
+            CheckedFuture<Void, TransactionCommitFailedException> future = wTx.submit();
+            Futures.addCallback(future, new FutureCallback<Void>() {
+
+                @Override
+                public void onSuccess(Void result) {
+                    batch.forEach(pendingWrite -> pendingWrite.future.set(null));
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    batch.forEach(pendingWrite -> pendingWrite.future.setException(t));
+                }
+            });
+            batchedWrites.addAndGet(batch.size());
+            LOG.trace("Submitted {} queued writes in transaction {}", batch.size(), wTx.getIdentifier());
+            return future;
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to write {} queued modifications: {}", batch.size(), e.getMessage());
+            LOG.debug("Failed to write queued modifications.", e);
+            if (wTx != null) {
+                wTx.cancel();
+            }
+            for (PendingWrite pendingWrite : batch) {
+                pendingWrite.future.setException(e);
+            }
+            return null;
+        }
+    }
+
+    private <T extends WriteTransaction> T openTransaction(Supplier<T> txFactory) {
+        CheckedFuture<Void, TransactionCommitFailedException> writesFuture = null;
+        acquire();
+        try {
+            writesFuture = submitBatch(pollPendingWrites());
+            return txFactory.get();
+        } catch (RuntimeException e) {
+            release();
+            throw e;
+        } finally {
+            if (writesFuture != null) {
+                trackCommit(writesFuture);
+            }
+        }
+    }
+
+    private void acquire() {
+        checkState(!txLock.isHeldByCurrentThread(), "Previous transaction of thread %s was not finished.",
+                Thread.currentThread().getName());
+        checkState(!closed, "Transaction chain is closed.");
+        long start = System.nanoTime();
+        txLock.lock();
+        onLocked(System.nanoTime() - start);
+    }
+
+    private void onLocked(long waitNanos) {
+        acquisitions.incrementAndGet();
+        lockWaitNanos.addAndGet(waitNanos);
+        lockedAt = System.nanoTime();
+        if (waitNanos > 0) {
+            LOG.trace("Thread {} waited {} ns for transaction chain", Thread.currentThread().getName(), waitNanos);
+        }
+    }
+
+    private void release() {
+        long holdNanos = System.nanoTime() - lockedAt;
+        txLock.unlock();
+        lockHoldNanos.addAndGet(holdNanos);
+        maxLockHoldNanos.accumulateAndGet(holdNanos, Math::max);
+    }
+
+    private void trackCommit(CheckedFuture<Void, TransactionCommitFailedException> future) {
+        outstandingCommits.incrementAndGet();
+        Futures.addCallback(future, new FutureCallback<Void>() {
+
+            @Override
+            public void onSuccess(Void result) {
+                outstandingCommits.decrementAndGet();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                outstandingCommits.decrementAndGet();
+                LOG.error("Failed to submit transaction {}", t.getMessage());
+            }
+        });
+    }
+
+    private static final class PendingWrite {
+
+        private final Consumer<WriteTransaction> modification;
+        private final SettableFuture<Void> future;
+
+        private PendingWrite(Consumer<WriteTransaction> modification, SettableFuture<Void> future) {
+            this.modification = modification;
+            this.future = future;
+        }
+    }
+}
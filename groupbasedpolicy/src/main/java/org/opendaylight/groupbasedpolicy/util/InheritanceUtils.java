@@ -14,6 +14,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
 
 import org.opendaylight.groupbasedpolicy.util.MatcherUtils.GetLabelName;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.CapabilityMatcherName;
@@ -84,6 +89,8 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.endpoint.group.ProviderTargetSelectorBuilder;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 
 /**
@@ -95,6 +102,16 @@ import com.google.common.collect.ImmutableList;
  */
 public class InheritanceUtils {
 
+    /**
+     * Max. number of resolved endpoint groups and max. number of resolved contracts kept
+     * by the resolution cache
+     */
+    public static final String CACHE_SIZE_PROPERTY = "gbp.inheritance.cache.size";
+    private static final long DEFAULT_CACHE_SIZE = 10000;
+
+    private static final Cache<AncestryKey<EndpointGroup>, EndpointGroup> RESOLVED_EG_CACHE = newCache();
+    private static final Cache<AncestryKey<Contract>, Contract> RESOLVED_CONTRACT_CACHE = newCache();
+
     private InheritanceUtils() {
         throw new UnsupportedOperationException("Cannot create an instance");
     }
@@ -103,7 +120,9 @@ public class InheritanceUtils {
      * Fully resolve the specified {@link Tenant}, returning a tenant with all
      * items fully normalized. This means that no items will have parent/child
      * relationships and can be interpreted simply without regard to inheritance
-     * rules
+     * rules.<br>
+     * Resolved endpoint groups and contracts are cached, an object is resolved again only
+     * if the object itself or any of its ancestors changed since it was cached.
      *
      * @param unresolvedTenant
      *            the {@link Tenant} unresolved tenant to resolve
@@ -121,13 +140,17 @@ public class InheritanceUtils {
         Policy unresolvedPolicy = unresolvedTenant.getPolicy();
         if (unresolvedPolicy != null) {
             if (unresolvedPolicy.getEndpointGroup() != null) {
+                AncestryKeys<EndpointGroupId, EndpointGroup> egKeys = new AncestryKeys<>(
+                        unresolvedPolicy.getEndpointGroup(), EndpointGroup::getId, EndpointGroup::getParent);
                 for (EndpointGroup eg : unresolvedPolicy.getEndpointGroup()) {
-                    resolveEndpointGroup(unresolvedTenant, eg, resolvedEgs);
+                    resolveEndpointGroup(unresolvedTenant, eg, resolvedEgs, egKeys);
                 }
             }
             if (unresolvedPolicy.getContract() != null) {
+                AncestryKeys<ContractId, Contract> contractKeys = new AncestryKeys<>(
+                        unresolvedPolicy.getContract(), Contract::getId, Contract::getParent);
                 for (Contract c : unresolvedPolicy.getContract()) {
-                    resolveContract(unresolvedTenant, c, resolvedContracts);
+                    resolveContract(unresolvedTenant, c, resolvedContracts, contractKeys);
                 }
             }
             resolvedTenantBuilder
@@ -145,14 +168,60 @@ public class InheritanceUtils {
         return resolvedTenantBuilder.build();
     }
 
+    /**
+     * @return number of endpoint groups and contracts taken from the resolution cache
+     */
+    public static long getCacheHitCount() {
+        return RESOLVED_EG_CACHE.stats().hitCount() + RESOLVED_CONTRACT_CACHE.stats().hitCount();
+    }
+
+    /**
+     * @return number of cacheable endpoint groups and contracts which had to be resolved
+     */
+    public static long getCacheMissCount() {
+        return RESOLVED_EG_CACHE.stats().missCount() + RESOLVED_CONTRACT_CACHE.stats().missCount();
+    }
+
+    /**
+     * @return number of endpoint groups and contracts in the resolution cache
+     */
+    public static long getCacheSize() {
+        return RESOLVED_EG_CACHE.size() + RESOLVED_CONTRACT_CACHE.size();
+    }
+
+    /**
+     * Removes all resolved objects from the resolution cache
+     */
+    public static void invalidateCache() {
+        RESOLVED_EG_CACHE.invalidateAll();
+        RESOLVED_CONTRACT_CACHE.invalidateAll();
+    }
+
     // ****************
     // Helper functions
     // ****************
 
+    private static <K, V> Cache<K, V> newCache() {
+        return CacheBuilder.newBuilder()
+            .maximumSize(Long.getLong(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE))
+            .recordStats()
+            .build();
+    }
+
     private static void resolveEndpointGroup(Tenant unresolvedTenant,
             EndpointGroup unresolvedEg,
             HashMap<EndpointGroupId,
-            EndpointGroup> resolvedEgs) {
+            EndpointGroup> resolvedEgs,
+            AncestryKeys<EndpointGroupId, EndpointGroup> egKeys) {
+        AncestryKey<EndpointGroup> key = egKeys.get(unresolvedEg);
+        if (key != null) {
+            EndpointGroup cachedEg = RESOLVED_EG_CACHE.getIfPresent(key);
+            if (cachedEg != null) {
+                resolvedEgs.put(cachedEg.getId(), cachedEg);
+                return;
+            }
+        }
+
         // put the unresolved object into the data structure to avoid loops
         resolvedEgs.put(unresolvedEg.getId(), unresolvedEg);
 
@@ -163,7 +232,7 @@ public class InheritanceUtils {
                 parent = TenantUtils.findEndpointGroup(unresolvedTenant,
                         unresolvedEg.getParent());
                 if (parent != null)
-                    resolveEndpointGroup(unresolvedTenant, parent, resolvedEgs);
+                    resolveEndpointGroup(unresolvedTenant, parent, resolvedEgs, egKeys);
             }
             parent = resolvedEgs.get(unresolvedEg.getParent());
         }
@@ -247,6 +316,9 @@ public class InheritanceUtils {
                 .setIntraGroupPolicy(igp)
                 .build();
         resolvedEgs.put(resolvedEg.getId(), resolvedEg);
+        if (key != null) {
+            RESOLVED_EG_CACHE.put(key, resolvedEg);
+        }
     }
 
     private static void resolveCts(Tenant unresolvedTenant,
@@ -459,7 +531,17 @@ public class InheritanceUtils {
     private static void resolveContract(Tenant unresolvedTenant,
             Contract unresolvedContract,
             HashMap<ContractId,
-            Contract> resolvedContracts) {
+            Contract> resolvedContracts,
+            AncestryKeys<ContractId, Contract> contractKeys) {
+        AncestryKey<Contract> key = contractKeys.get(unresolvedContract);
+        if (key != null) {
+            Contract cachedContract = RESOLVED_CONTRACT_CACHE.getIfPresent(key);
+            if (cachedContract != null) {
+                resolvedContracts.put(cachedContract.getId(), cachedContract);
+                return;
+            }
+        }
+
         // put the unresolved object into the data structure to avoid loops
         resolvedContracts.put(unresolvedContract.getId(), unresolvedContract);
 
@@ -472,7 +554,8 @@ public class InheritanceUtils {
                 if (parent != null)
                     resolveContract(unresolvedTenant,
                             parent,
-                            resolvedContracts);
+                            resolvedContracts,
+                            contractKeys);
             }
             parent = resolvedContracts.get(unresolvedContract.getParent());
         }
@@ -529,6 +612,9 @@ public class InheritanceUtils {
                 .setSubject(ImmutableList.copyOf(resolvedSubjects.values()))
                 .build();
         resolvedContracts.put(resolvedContract.getId(), resolvedContract);
+        if (key != null) {
+            RESOLVED_CONTRACT_CACHE.put(key, resolvedContract);
+        }
     }
 
     private static void resolveTarget(Tenant unresolvedTenant,
@@ -911,4 +997,99 @@ public class InheritanceUtils {
             }
         }
     }
+
+    /**
+     * Identifies the resolution of an object by the object itself and by the keys of all its ancestors.
+     * The result of resolution depends only on the unresolved objects in the inheritance chain,
+     * so equal keys always map to equal resolved objects.
+     */
+    private static final class AncestryKey<T> {
+
+        private final T object;
+        private final AncestryKey<T> parent;
+        private final int hash;
+
+        AncestryKey(T object, @Nullable AncestryKey<T> parent) {
+            this.object = object;
+            this.parent = parent;
+            this.hash = 31 * object.hashCode() + (parent == null ? 0 : parent.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof AncestryKey)) {
+                return false;
+            }
+            AncestryKey<?> key = this;
+            AncestryKey<?> other = (AncestryKey<?>) obj;
+            while (key != null && other != null) {
+                if (key == other) {
+                    return true;
+                }
+                if (key.hash != other.hash || !key.object.equals(other.object)) {
+                    return false;
+                }
+                key = key.parent;
+                other = other.parent;
+            }
+            return key == other;
+        }
+    }
+
+    /**
+     * Creates {@link AncestryKey}s for objects of one type in a tenant. Objects which are part of
+     * an inheritance loop or which inherit from such objects have no key, as their resolution depends
+     * on the order in which the objects are resolved.
+     */
+    private static final class AncestryKeys<I, T> {
+
+        private final Map<I, T> objectsById = new HashMap<>();
+        private final Function<T, I> getId;
+        private final Function<T, I> getParent;
+        private final Map<I, AncestryKey<T>> keys = new HashMap<>();
+        private final Set<I> inProgress = new HashSet<>();
+
+        AncestryKeys(List<T> objects, Function<T, I> getId, Function<T, I> getParent) {
+            this.getId = getId;
+            this.getParent = getParent;
+            for (T object : objects) {
+                objectsById.putIfAbsent(getId.apply(object), object);
+            }
+        }
+
+        @Nullable
+        AncestryKey<T> get(T object) {
+            I id = getId.apply(object);
+            if (objectsById.get(id) != object) {
+                return null;
+            }
+            return get(id);
+        }
+
+        private AncestryKey<T> get(I id) {
+            if (keys.containsKey(id)) {
+                return keys.get(id);
+            }
+            if (!inProgress.add(id)) {
+                return null;
+            }
+            T object = objectsById.get(id);
+            I parentId = getParent.apply(object);
+            AncestryKey<T> key;
+            if (parentId == null || !objectsById.containsKey(parentId)) {
+                key = new AncestryKey<>(object, null);
+            } else {
+                AncestryKey<T> parentKey = get(parentId);
+                key = parentKey == null ? null : new AncestryKey<>(object, parentKey);
+            }
+            inProgress.remove(id);
+            keys.put(id, key);
+            return key;
+        }
+    }
 }
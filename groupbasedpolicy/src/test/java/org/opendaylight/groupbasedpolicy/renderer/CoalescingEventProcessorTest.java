@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CoalescingEventProcessorTest {
+
+    @Test
+    public void testEventReceived_zeroDebounce_processedImmediately() {
+        AtomicInteger runs = new AtomicInteger();
+        try (CoalescingEventProcessor processor =
+                new CoalescingEventProcessor("test", runs::incrementAndGet, 0, 0)) {
+            processor.eventReceived();
+            processor.eventReceived();
+            Assert.assertEquals(2, runs.get());
+            Assert.assertEquals(2, processor.getReceivedEvents());
+            Assert.assertEquals(2, processor.getProcessedBatches());
+        }
+    }
+
+    @Test
+    public void testEventReceived_burst_processedOnce() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        try (CoalescingEventProcessor processor = new CoalescingEventProcessor("test", () -> {
+            runs.incrementAndGet();
+            latch.countDown();
+        }, 200, 10000)) {
+            for (int i = 0; i < 100; i++) {
+                processor.eventReceived();
+            }
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, runs.get());
+            Assert.assertEquals(100, processor.getReceivedEvents());
+            Assert.assertEquals(1, processor.getProcessedBatches());
+        }
+    }
+
+    @Test
+    public void testEventReceived_continuousEvents_processedAfterMaxLatency() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        try (CoalescingEventProcessor processor =
+                new CoalescingEventProcessor("test", latch::countDown, 100, 300)) {
+            long start = System.nanoTime();
+            while (latch.getCount() > 0 && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5)) {
+                processor.eventReceived();
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(0, latch.getCount());
+            Assert.assertTrue(processor.getReceivedEvents() > processor.getProcessedBatches());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_maxLatencyShorterThanDebounce() {
+        new CoalescingEventProcessor("test", () -> {}, 100, 10);
+    }
+}
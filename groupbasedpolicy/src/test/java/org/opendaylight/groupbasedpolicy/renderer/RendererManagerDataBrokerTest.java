@@ -45,6 +45,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.RuleName;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.SubjectName;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.forwarding.rev160427.ContextType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.forwarding.rev160427.Forwarding;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.forwarding.rev160427.ForwardingBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.forwarding.rev160427.forwarding.ForwardingByTenantBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.forwarding.rev160427.forwarding.forwarding.by.tenant.ForwardingContextBuilder;
@@ -69,6 +70,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.resolved.p
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.resolved.policy.rev150828.resolved.policies.ResolvedPolicy;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.resolved.policy.rev150828.resolved.policies.ResolvedPolicy.ExternalImplicitGroup;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.resolved.policy.rev150828.resolved.policies.resolved.policy.policy.rule.group.with.endpoint.constraints.PolicyRuleGroup;
+import org.opendaylight.groupbasedpolicy.util.IidFactory;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 
 import com.google.common.collect.ImmutableList;
@@ -78,16 +80,24 @@ import com.google.common.util.concurrent.CheckedFuture;
 public class RendererManagerDataBrokerTest {
 
     private static final RendererName RENDERER_NAME_R1 = new RendererName("R1");
+    private static final RendererName RENDERER_NAME_R2 = new RendererName("R2");
     private static final EndpointGroupId EPG_BLUE = new EndpointGroupId("blue_epg");
     private static final EndpointGroupId EPG_PURPLE = new EndpointGroupId("purple_epg");
+    private static final EndpointGroupId EPG_RED = new EndpointGroupId("red_epg");
+    private static final EndpointGroupId EPG_GREEN = new EndpointGroupId("green_epg");
     private static final ContractId CONTRACT_1 = new ContractId("contract_1");
     private static final SubjectName SUBJECT_1 = new SubjectName("subject_1");
     private static final RuleName RULE_1 = new RuleName("rule_1");
     private static final String ADR_1 = "adr_1";
     private static final String ADR_2 = "adr_2";
+    private static final String ADR_3 = "adr_3";
+    private static final String ADR_4 = "adr_4";
     private static final InstanceIdentifier<?> NODE_PATH_1 = InstanceIdentifier.create(Tenants.class);
+    private static final InstanceIdentifier<?> NODE_PATH_2 = InstanceIdentifier.create(Forwarding.class);
     private static final InternalLocationCase INT_LOC_CASE_NODE_PATH_1 =
             new InternalLocationCaseBuilder().setInternalNode(NODE_PATH_1).build();
+    private static final InternalLocationCase INT_LOC_CASE_NODE_PATH_2 =
+            new InternalLocationCaseBuilder().setInternalNode(NODE_PATH_2).build();
     private static final InternalLocation INT_LOC_NODE_PATH_1 =
             new InternalLocationBuilder().setInternalNode(NODE_PATH_1).build();
     private static final ExternalLocationCase EXT_LOC_CASE_NODE_PATH_1 =
@@ -112,7 +122,7 @@ public class RendererManagerDataBrokerTest {
         Mockito.when(wTx.submit()).thenReturn(submitFuture);
         Mockito.when(netDomainAugmentorRegistry.getNetworkDomainAugmentors()).thenReturn(Collections.emptySet());
         Mockito.when(epAugmentorRegistry.getEndpointAugmentors()).thenReturn(Collections.emptySet());
-        rendererManager = new RendererManager(dataProvider, netDomainAugmentorRegistry, epAugmentorRegistry);
+        rendererManager = new RendererManager(dataProvider, netDomainAugmentorRegistry, epAugmentorRegistry, 0, 0);
         RendererManager.resetVersion();
     }
 
@@ -210,6 +220,56 @@ public class RendererManagerDataBrokerTest {
         Assert.assertEquals(0, rendererManager.getProcessingRenderers().size());
     }
 
+    /**
+     * EP1--EPG_BLUE---SUBJECT_1---(P)EPG_PURPLE--EP2, endpoints are deleted afterwards
+     */
+    @Test
+    public void testProcessState_endpointsDeleted_configurationRemoved() throws Exception {
+        ResolvedRule rule1 = TestDataFactory.defaultResolvedRule(RULE_1).build();
+        PolicyRuleGroup ruleGrp1 = TestDataFactory.defaultPolicyRuleGrp(CONTRACT_1, SUBJECT_1, rule1).build();
+        ResolvedPolicy resolvedPolicy = TestDataFactory.defaultResolvedPolicy(EPG_BLUE, EPG_PURPLE, ruleGrp1).build();
+        rendererManager.resolvedPoliciesUpdated(
+                new ResolvedPoliciesBuilder().setResolvedPolicy(ImmutableList.of(resolvedPolicy)).build());
+
+        AddressEndpoint ep1 = TestDataFactory.defaultAdrEp(ADR_1, EPG_BLUE).build();
+        AddressEndpoint ep2 = TestDataFactory.defaultAdrEp(ADR_2, EPG_PURPLE).build();
+        rendererManager.endpointsUpdated(new EndpointsBuilder()
+            .setAddressEndpoints(new AddressEndpointsBuilder().setAddressEndpoint(ImmutableList.of(ep1, ep2)).build())
+            .build());
+        rendererManager.endpointLocationsUpdated(new EndpointLocationsBuilder()
+            .setAddressEndpointLocation(ImmutableList.of(
+                    TestDataFactory.defaultAdrEpLoc(ep1.getKey(), INT_LOC_CASE_NODE_PATH_1).build(),
+                    TestDataFactory.defaultAdrEpLoc(ep2.getKey(), INT_LOC_CASE_NODE_PATH_1).build()))
+            .build());
+        rendererManager.forwardingUpdated(new ForwardingBuilder()
+            .setForwardingByTenant(Arrays.asList(new ForwardingByTenantBuilder().setTenantId(TestDataFactory.TENANT_ID)
+                .setForwardingContext(Arrays.asList(new ForwardingContextBuilder().setContextType(ContextType.class)
+                    .setContextId(TestDataFactory.CTX_1)
+                    .build()))
+                .build()))
+            .build());
+        RendererBuilder rendererBuilder = new RendererBuilder().setName(RENDERER_NAME_R1)
+            .setRendererNodes(new RendererNodesBuilder()
+                .setRendererNode(Arrays.asList(new RendererNodeBuilder().setNodePath(NODE_PATH_1).build()))
+                .build());
+        rendererManager
+            .renderersUpdated(new RenderersBuilder().setRenderer(Arrays.asList(rendererBuilder.build())).build());
+        rendererManager.renderersUpdated(new RenderersBuilder().setRenderer(Arrays.asList(
+                rendererBuilder.setRendererPolicy(new RendererPolicyBuilder().setVersion(1L).build()).build()))
+            .build());
+        Assert.assertEquals(0, rendererManager.getProcessingRenderers().size());
+
+        rendererManager.endpointsUpdated(null);
+
+        // deleted endpoints are not replaced by the previous ones
+        ArgumentCaptor<RendererPolicy> acRendererPolicy = ArgumentCaptor.forClass(RendererPolicy.class);
+        Mockito.verify(wTx).put(Mockito.eq(LogicalDatastoreType.CONFIGURATION),
+                Mockito.eq(IidFactory.rendererIid(RENDERER_NAME_R1).child(RendererPolicy.class)),
+                acRendererPolicy.capture(), Mockito.eq(true));
+        Assert.assertEquals(2, acRendererPolicy.getValue().getVersion().longValue());
+        Assert.assertNull(acRendererPolicy.getValue().getConfiguration());
+    }
+
     /**
      * EP1--EPG_BLUE---SUBJECT_1---(P)EPG_PURPLE(EIG)--EP2(containment)
      */
@@ -380,4 +440,147 @@ public class RendererManagerDataBrokerTest {
         Assert.assertEquals(1, ruleGroups.getRuleGroup().size());
     }
 
+    /**
+     * R1: EP1--EPG_BLUE---SUBJECT_1---(P)EPG_PURPLE--EP2
+     * R2: EP3--EPG_RED---SUBJECT_1---(P)EPG_GREEN--EP4
+     */
+    @Test
+    public void testProcessState_endpointChanged_dispatchOnlyAffectedRenderer() throws Exception {
+        ResolvedRule rule1 = TestDataFactory.defaultResolvedRule(RULE_1).build();
+        PolicyRuleGroup ruleGrp1 = TestDataFactory.defaultPolicyRuleGrp(CONTRACT_1, SUBJECT_1, rule1).build();
+        ResolvedPolicy bluePurplePolicy =
+                TestDataFactory.defaultResolvedPolicy(EPG_BLUE, EPG_PURPLE, ruleGrp1).build();
+        ResolvedPolicy redGreenPolicy = TestDataFactory.defaultResolvedPolicy(EPG_RED, EPG_GREEN, ruleGrp1).build();
+        rendererManager.resolvedPoliciesUpdated(new ResolvedPoliciesBuilder()
+            .setResolvedPolicy(ImmutableList.of(bluePurplePolicy, redGreenPolicy)).build());
+
+        AddressEndpoint ep1 = TestDataFactory.defaultAdrEp(ADR_1, EPG_BLUE).build();
+        AddressEndpoint ep2 = TestDataFactory.defaultAdrEp(ADR_2, EPG_PURPLE).build();
+        AddressEndpoint ep3 = TestDataFactory.defaultAdrEp(ADR_3, EPG_RED).build();
+        AddressEndpoint ep4 = TestDataFactory.defaultAdrEp(ADR_4, EPG_GREEN).build();
+        rendererManager.endpointsUpdated(new EndpointsBuilder()
+            .setAddressEndpoints(
+                    new AddressEndpointsBuilder().setAddressEndpoint(ImmutableList.of(ep1, ep2, ep3, ep4)).build())
+            .build());
+
+        rendererManager.endpointLocationsUpdated(new EndpointLocationsBuilder()
+            .setAddressEndpointLocation(
+                    ImmutableList.of(TestDataFactory.defaultAdrEpLoc(ep1.getKey(), INT_LOC_CASE_NODE_PATH_1).build(),
+                            TestDataFactory.defaultAdrEpLoc(ep2.getKey(), INT_LOC_CASE_NODE_PATH_1).build(),
+                            TestDataFactory.defaultAdrEpLoc(ep3.getKey(), INT_LOC_CASE_NODE_PATH_2).build(),
+                            TestDataFactory.defaultAdrEpLoc(ep4.getKey(), INT_LOC_CASE_NODE_PATH_2).build()))
+            .build());
+
+        rendererManager
+            .forwardingUpdated(new ForwardingBuilder()
+                .setForwardingByTenant(
+                        Arrays.asList(new ForwardingByTenantBuilder().setTenantId(TestDataFactory.TENANT_ID)
+                            .setForwardingContext(Arrays.asList(new ForwardingContextBuilder()
+                                .setContextType(ContextType.class)
+                                .setContextId(TestDataFactory.CTX_1)
+                                .build()))
+                            .build()))
+                .build());
+
+        rendererManager.renderersUpdated(createRenderers(null));
+
+        // initial version is dispatched to both renderers
+        Assert.assertEquals(2, rendererManager.getProcessingRenderers().size());
+        Mockito.verify(wTx).put(Mockito.eq(LogicalDatastoreType.CONFIGURATION),
+                Mockito.eq(InstanceIdentifier.create(Renderers.class)), Mockito.any(Renderers.class));
+        rendererManager.renderersUpdated(createRenderers(1L));
+        Assert.assertEquals(0, rendererManager.getProcessingRenderers().size());
+
+        // only R2 is affected by change of EP4
+        AddressEndpoint changedEp4 =
+                TestDataFactory.defaultAdrEp(ADR_4, EPG_GREEN).setTimestamp(1L).build();
+        rendererManager.endpointsUpdated(new EndpointsBuilder()
+            .setAddressEndpoints(new AddressEndpointsBuilder()
+                .setAddressEndpoint(ImmutableList.of(ep1, ep2, ep3, changedEp4)).build())
+            .build());
+
+        Assert.assertEquals(1, rendererManager.getProcessingRenderers().size());
+        Assert.assertTrue(rendererManager.getProcessingRenderers().contains(RENDERER_NAME_R2));
+        ArgumentCaptor<RendererPolicy> acRendererPolicy = ArgumentCaptor.forClass(RendererPolicy.class);
+        Mockito.verify(wTx).put(Mockito.eq(LogicalDatastoreType.CONFIGURATION),
+                Mockito.eq(IidFactory.rendererIid(RENDERER_NAME_R2).child(RendererPolicy.class)),
+                acRendererPolicy.capture(), Mockito.eq(true));
+        Mockito.verify(wTx, Mockito.never()).put(Mockito.eq(LogicalDatastoreType.CONFIGURATION),
+                Mockito.eq(IidFactory.rendererIid(RENDERER_NAME_R1).child(RendererPolicy.class)),
+                Mockito.any(RendererPolicy.class), Mockito.anyBoolean());
+        RendererPolicy rendererPolicy = acRendererPolicy.getValue();
+        Assert.assertEquals(2, rendererPolicy.getVersion().longValue());
+        Assert.assertEquals(2, rendererPolicy.getConfiguration().getEndpoints().getAddressEndpointWithLocation().size());
+    }
+
+    @Test
+    public void testProcessState_equalEndpoints_noDispatch() throws Exception {
+        ResolvedRule rule1 = TestDataFactory.defaultResolvedRule(RULE_1).build();
+        PolicyRuleGroup ruleGrp1 = TestDataFactory.defaultPolicyRuleGrp(CONTRACT_1, SUBJECT_1, rule1).build();
+        ResolvedPolicy resolvedPolicy = TestDataFactory.defaultResolvedPolicy(EPG_BLUE, EPG_PURPLE, ruleGrp1).build();
+        rendererManager.resolvedPoliciesUpdated(
+                new ResolvedPoliciesBuilder().setResolvedPolicy(ImmutableList.of(resolvedPolicy)).build());
+
+        AddressEndpoint ep1 = TestDataFactory.defaultAdrEp(ADR_1, EPG_BLUE).build();
+        AddressEndpoint ep2 = TestDataFactory.defaultAdrEp(ADR_2, EPG_PURPLE).build();
+        rendererManager.endpointsUpdated(new EndpointsBuilder()
+            .setAddressEndpoints(new AddressEndpointsBuilder().setAddressEndpoint(ImmutableList.of(ep1, ep2)).build())
+            .build());
+
+        rendererManager.endpointLocationsUpdated(new EndpointLocationsBuilder()
+            .setAddressEndpointLocation(
+                    ImmutableList.of(TestDataFactory.defaultAdrEpLoc(ep1.getKey(), INT_LOC_CASE_NODE_PATH_1).build(),
+                            TestDataFactory.defaultAdrEpLoc(ep2.getKey(), INT_LOC_CASE_NODE_PATH_1).build()))
+            .build());
+
+        rendererManager
+            .forwardingUpdated(new ForwardingBuilder()
+                .setForwardingByTenant(
+                        Arrays.asList(new ForwardingByTenantBuilder().setTenantId(TestDataFactory.TENANT_ID)
+                            .setForwardingContext(Arrays.asList(new ForwardingContextBuilder()
+                                .setContextType(ContextType.class)
+                                .setContextId(TestDataFactory.CTX_1)
+                                .build()))
+                            .build()))
+                .build());
+
+        rendererManager.renderersUpdated(new RenderersBuilder()
+            .setRenderer(Arrays.asList(new RendererBuilder().setName(RENDERER_NAME_R1)
+                .setRendererNodes(new RendererNodesBuilder()
+                    .setRendererNode(Arrays.asList(new RendererNodeBuilder().setNodePath(NODE_PATH_1).build())).build())
+                .setRendererPolicy(new RendererPolicyBuilder().setVersion(1L).build())
+                .build()))
+            .build());
+        Assert.assertEquals(0, rendererManager.getProcessingRenderers().size());
+
+        // resolved policies with the same content
+        rendererManager.resolvedPoliciesUpdated(
+                new ResolvedPoliciesBuilder().setResolvedPolicy(ImmutableList.of(resolvedPolicy)).build());
+
+        Assert.assertEquals(0, rendererManager.getProcessingRenderers().size());
+        Mockito.verify(wTx).submit();
+        Mockito.verify(wTx, Mockito.never()).put(Mockito.eq(LogicalDatastoreType.CONFIGURATION),
+                Mockito.eq(IidFactory.rendererIid(RENDERER_NAME_R1).child(RendererPolicy.class)),
+                Mockito.any(RendererPolicy.class), Mockito.anyBoolean());
+    }
+
+    private Renderers createRenderers(Long version) {
+        RendererPolicy rendererPolicy =
+                version == null ? null : new RendererPolicyBuilder().setVersion(version).build();
+        return new RenderersBuilder().setRenderer(Arrays.asList(
+                new RendererBuilder().setName(RENDERER_NAME_R1)
+                    .setRendererNodes(new RendererNodesBuilder()
+                        .setRendererNode(Arrays.asList(new RendererNodeBuilder().setNodePath(NODE_PATH_1).build()))
+                        .build())
+                    .setRendererPolicy(rendererPolicy)
+                    .build(),
+                new RendererBuilder().setName(RENDERER_NAME_R2)
+                    .setRendererNodes(new RendererNodesBuilder()
+                        .setRendererNode(Arrays.asList(new RendererNodeBuilder().setNodePath(NODE_PATH_2).build()))
+                        .build())
+                    .setRendererPolicy(rendererPolicy)
+                    .build()))
+            .build();
+    }
+
 }
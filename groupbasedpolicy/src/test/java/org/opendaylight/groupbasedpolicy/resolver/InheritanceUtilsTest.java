@@ -960,4 +960,64 @@ public class InheritanceUtilsTest {
         assertEquals(1, eg.getProviderTargetSelector().size());
 
     }
+
+    @Test
+    public void testResolveTenant_unchangedTenant_resolvedFromCache() throws Exception {
+        Tenant resolved = InheritanceUtils.resolveTenant(tenant1);
+        long hits = InheritanceUtils.getCacheHitCount();
+        long misses = InheritanceUtils.getCacheMissCount();
+
+        Tenant resolvedAgain = InheritanceUtils.resolveTenant(new TenantBuilder(tenant1).build());
+
+        assertEquals(resolved, resolvedAgain);
+        assertEquals(hits + 5, InheritanceUtils.getCacheHitCount());
+        assertEquals(misses, InheritanceUtils.getCacheMissCount());
+    }
+
+    @Test
+    public void testResolveTenant_parentChanged_childResolvedAgain() throws Exception {
+        InheritanceUtils.resolveTenant(tenant1);
+        Capability c4 = new CapabilityBuilder().setName(new CapabilityName("c4")).build();
+        EndpointGroup eg1Changed = new EndpointGroupBuilder(eg1).setCapability(ImmutableList.of(c1, c4)).build();
+        Tenant tenantChanged = new TenantBuilder(tenant1)
+            .setPolicy(new PolicyBuilder(tenant1.getPolicy()).setEndpointGroup(ImmutableList.of(eg1Changed, eg2))
+                .build())
+            .build();
+        long hits = InheritanceUtils.getCacheHitCount();
+        long misses = InheritanceUtils.getCacheMissCount();
+
+        Tenant tenant = InheritanceUtils.resolveTenant(tenantChanged);
+
+        // both groups are resolved again, contracts are taken from cache
+        assertEquals(hits + 3, InheritanceUtils.getCacheHitCount());
+        assertEquals(misses + 2, InheritanceUtils.getCacheMissCount());
+        ProviderNamedSelector result =
+                TenantUtils.findPns(TenantUtils.findEndpointGroup(tenant, egId2), cnsName1);
+        assertEquals(4, result.getCapability().size());
+        assertTrue(containsCapability(result.getCapability(), c4));
+    }
+
+    @Test
+    public void testResolveTenant_inheritanceLoops_notCached() throws Exception {
+        Tenant resolved = InheritanceUtils.resolveTenant(malformed);
+        long hits = InheritanceUtils.getCacheHitCount();
+        long misses = InheritanceUtils.getCacheMissCount();
+
+        Tenant resolvedAgain = InheritanceUtils.resolveTenant(malformed);
+
+        // only orphans are cached
+        assertEquals(resolved, resolvedAgain);
+        assertEquals(hits + 2, InheritanceUtils.getCacheHitCount());
+        assertEquals(misses, InheritanceUtils.getCacheMissCount());
+    }
+
+    @Test
+    public void testInvalidateCache() throws Exception {
+        InheritanceUtils.resolveTenant(tenant1);
+        assertTrue(InheritanceUtils.getCacheSize() > 0);
+
+        InheritanceUtils.invalidateCache();
+
+        assertEquals(0, InheritanceUtils.getCacheSize());
+    }
 }
@@ -7,6 +7,8 @@
  */
 package org.opendaylight.groupbasedpolicy.resolver;
 
+import java.util.List;
+
 import com.google.common.base.Preconditions;
 
 import org.junit.After;
@@ -20,6 +22,12 @@ import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.groupbasedpolicy.test.GbpDataBrokerTest;
 import org.opendaylight.groupbasedpolicy.util.IidFactory;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.ClauseName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.ContractId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.EndpointGroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.RuleName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.SelectorName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.SubjectName;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.Tenants;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.TenantsBuilder;
@@ -27,13 +35,28 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.TenantBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.Policy;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.PolicyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.ContractBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.EndpointGroupBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.contract.ClauseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.contract.SubjectBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.contract.subject.RuleBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.endpoint.group.ConsumerNamedSelectorBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.endpoint.group.ProviderNamedSelectorBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.resolved.policy.rev150828.ResolvedPolicies;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.resolved.policy.rev150828.resolved.policies.ResolvedPolicy;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.resolved.policy.rev150828.resolved.policies.ResolvedPolicyBuilder;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
 
 public class PolicyResolverTest extends GbpDataBrokerTest {
 
     private static final TenantId TENANT_ID_1 = new TenantId("tenant_1");
+    private static final TenantId TENANT_ID_2 = new TenantId("tenant_2");
+    private static final ContractId CONTRACT_ID = new ContractId("contract");
+    private static final EndpointGroupId CONS_EPG_ID = new EndpointGroupId("consumer_epg");
+    private static final EndpointGroupId PROV_EPG_ID = new EndpointGroupId("provider_epg");
 
     private DataBroker dataProvider;
     private PolicyResolver policyResolver;
@@ -96,4 +119,105 @@ public class PolicyResolverTest extends GbpDataBrokerTest {
         Assert.assertFalse(potentialTenant.isPresent());
     }
 
+    @Test
+    public void testUpdateTenant_resolvedPoliciesOfOtherTenantsUntouched() throws Exception {
+        PolicyResolver spyPolicyResolver = Mockito.spy(policyResolver);
+        Mockito.when(spyPolicyResolver.isPolicyValid(Mockito.any(Policy.class))).thenReturn(true);
+
+        spyPolicyResolver.updateTenant(TENANT_ID_1, createTenantWithContract(TENANT_ID_1));
+        spyPolicyResolver.updateTenant(TENANT_ID_2, createTenantWithContract(TENANT_ID_2));
+        List<ResolvedPolicy> resolvedPolicies = readResolvedPolicies();
+        Assert.assertEquals(2, resolvedPolicies.size());
+
+        spyPolicyResolver.updateTenant(TENANT_ID_1, null);
+        resolvedPolicies = readResolvedPolicies();
+        Assert.assertEquals(1, resolvedPolicies.size());
+        Assert.assertEquals(TENANT_ID_2, resolvedPolicies.get(0).getConsumerTenantId());
+        Assert.assertEquals(CONS_EPG_ID, resolvedPolicies.get(0).getConsumerEpgId());
+        Assert.assertEquals(PROV_EPG_ID, resolvedPolicies.get(0).getProviderEpgId());
+    }
+
+    @Test
+    public void testConstructor_resolvedPoliciesOfMissingTenantRemoved() throws Exception {
+        WriteTransaction wTx = getDataBroker().newWriteOnlyTransaction();
+        ResolvedPolicy stalePolicy = createResolvedPolicy(TENANT_ID_2, CONS_EPG_ID, PROV_EPG_ID);
+        wTx.put(LogicalDatastoreType.OPERATIONAL, IidFactory.resolvedPolicyIid(stalePolicy.getKey()), stalePolicy,
+                true);
+        wTx.submit().get();
+
+        PolicyResolver other = new PolicyResolver(dataProvider);
+        other.close();
+
+        List<ResolvedPolicy> resolvedPolicies = readResolvedPolicies();
+        Assert.assertTrue(resolvedPolicies == null || resolvedPolicies.isEmpty());
+    }
+
+    @Test
+    public void testConstructor_staleResolvedPolicyOfExistingTenantRemovedOnUpdate() throws Exception {
+        WriteTransaction wTx = getDataBroker().newWriteOnlyTransaction();
+        ResolvedPolicy stalePolicy = createResolvedPolicy(TENANT_ID_1, new EndpointGroupId("stale_consumer_epg"),
+                new EndpointGroupId("stale_provider_epg"));
+        wTx.put(LogicalDatastoreType.OPERATIONAL, IidFactory.resolvedPolicyIid(stalePolicy.getKey()), stalePolicy,
+                true);
+        wTx.put(LogicalDatastoreType.CONFIGURATION, IidFactory.tenantIid(TENANT_ID_1),
+                new TenantBuilder().setId(TENANT_ID_1).build(), true);
+        wTx.submit().get();
+
+        PolicyResolver other = new PolicyResolver(dataProvider);
+        Assert.assertEquals(1, readResolvedPolicies().size());
+
+        PolicyResolver spyPolicyResolver = Mockito.spy(other);
+        Mockito.when(spyPolicyResolver.isPolicyValid(Mockito.any(Policy.class))).thenReturn(true);
+        spyPolicyResolver.updateTenant(TENANT_ID_1, createTenantWithContract(TENANT_ID_1));
+        other.close();
+
+        List<ResolvedPolicy> resolvedPolicies = readResolvedPolicies();
+        Assert.assertEquals(1, resolvedPolicies.size());
+        Assert.assertEquals(CONS_EPG_ID, resolvedPolicies.get(0).getConsumerEpgId());
+        Assert.assertEquals(PROV_EPG_ID, resolvedPolicies.get(0).getProviderEpgId());
+    }
+
+    private List<ResolvedPolicy> readResolvedPolicies() throws Exception {
+        ReadOnlyTransaction rTx = getDataBroker().newReadOnlyTransaction();
+        Optional<ResolvedPolicies> potentialResolvedPolicies = rTx
+            .read(LogicalDatastoreType.OPERATIONAL, InstanceIdentifier.create(ResolvedPolicies.class)).get();
+        Assert.assertTrue(potentialResolvedPolicies.isPresent());
+        return potentialResolvedPolicies.get().getResolvedPolicy();
+    }
+
+    private ResolvedPolicy createResolvedPolicy(TenantId tenantId, EndpointGroupId consEpgId,
+            EndpointGroupId provEpgId) {
+        return new ResolvedPolicyBuilder().setConsumerTenantId(tenantId)
+            .setConsumerEpgId(consEpgId)
+            .setProviderTenantId(tenantId)
+            .setProviderEpgId(provEpgId)
+            .build();
+    }
+
+    private Tenant createTenantWithContract(TenantId tenantId) {
+        SubjectName subjectName = new SubjectName("subject");
+        SelectorName selectorName = new SelectorName("selector");
+        return new TenantBuilder().setId(tenantId)
+            .setPolicy(new PolicyBuilder()
+                .setContract(ImmutableList.of(new ContractBuilder().setId(CONTRACT_ID)
+                    .setSubject(ImmutableList.of(new SubjectBuilder().setName(subjectName)
+                        .setRule(ImmutableList.of(new RuleBuilder().setName(new RuleName("rule")).build()))
+                        .build()))
+                    .setClause(ImmutableList.of(new ClauseBuilder().setName(new ClauseName("clause"))
+                        .setSubjectRefs(ImmutableList.of(subjectName))
+                        .build()))
+                    .build()))
+                .setEndpointGroup(ImmutableList.of(
+                        new EndpointGroupBuilder().setId(CONS_EPG_ID)
+                            .setConsumerNamedSelector(ImmutableList.of(new ConsumerNamedSelectorBuilder()
+                                .setName(selectorName).setContract(ImmutableList.of(CONTRACT_ID)).build()))
+                            .build(),
+                        new EndpointGroupBuilder().setId(PROV_EPG_ID)
+                            .setProviderNamedSelector(ImmutableList.of(new ProviderNamedSelectorBuilder()
+                                .setName(selectorName).setContract(ImmutableList.of(CONTRACT_ID)).build()))
+                            .build()))
+                .build())
+            .build();
+    }
+
 }
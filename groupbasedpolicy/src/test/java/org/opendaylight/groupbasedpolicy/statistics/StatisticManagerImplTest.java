@@ -9,26 +9,21 @@
 package org.opendaylight.groupbasedpolicy.statistics;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
 
-import com.google.common.base.Optional;
 import com.google.common.util.concurrent.CheckedFuture;
 import org.junit.Assert;
 import org.junit.Before;
-import org.junit.Rule;
 import org.junit.Test;
-import org.junit.rules.ExpectedException;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
-import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
-import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
 import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
 import org.opendaylight.groupbasedpolicy.util.IidFactory;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.MacAddress;
@@ -50,8 +45,6 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.ep.epg.to.ep.epg.statistic.MatchedRuleStatisticBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.ep.epg.to.ep.epg.statistic.MatchedRuleStatisticKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.store.rev151215.RecordId;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.store.rev151215.StatisticsStore;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.store.rev151215.StatisticsStoreBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.store.rev151215.dst.ep.fields.DstEndpointBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.store.rev151215.source.ep.fields.SrcEndpointBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.store.rev151215.statistics.store.StatisticRecord;
@@ -59,19 +52,12 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.store.rev151215.statistics.store.StatisticRecordKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.store.rev151215.statistics.store.statistic.record.StatisticBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.store.rev151215.statistics.store.statistic.record.StatisticKey;
-import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 
 public class StatisticManagerImplTest {
 
-    @Rule
-    public ExpectedException thrown = ExpectedException.none();
-
-    private static final String READING_EXCEPTION_MSG = "Reading throws exception";
-
     private DataBroker dataBroker;
     private StatisticsManagerImpl manager;
     private WriteTransaction wtx;
-    private ReadOnlyTransaction rtx;
     private MacAddress srcMac;
     private MacAddress dstMac;
     private L2BridgeDomainId srcL2C;
@@ -104,9 +90,7 @@ public class StatisticManagerImplTest {
 
         dataBroker = mock(DataBroker.class);
         wtx = mock(WriteTransaction.class);
-        rtx = mock(ReadOnlyTransaction.class);
         when(dataBroker.newWriteOnlyTransaction()).thenReturn(wtx);
-        when(dataBroker.newReadOnlyTransaction()).thenReturn(rtx);
 
         manager = new StatisticsManagerImpl(dataBroker);
     }
@@ -127,57 +111,46 @@ public class StatisticManagerImplTest {
 
     @Test
     public void testReadStats() throws Exception {
-        List<StatisticRecord> stats = inputForReading();
         StatRecords statRecords = outputForReading();
 
-        CheckedFuture<Optional<StatisticsStore>, ReadFailedException> future = mock(CheckedFuture.class);
-        when(future.get()).thenReturn(Optional.of(new StatisticsStoreBuilder().setStatisticRecord(stats).build()));
-        when(rtx.read(LogicalDatastoreType.OPERATIONAL, InstanceIdentifier.builder(StatisticsStore.class).build()))
-            .thenReturn(future);
+        CheckedFuture<Void, TransactionCommitFailedException> future = mock(CheckedFuture.class);
+        when(wtx.submit()).thenReturn(future);
 
+        manager.writeStat(inputForWriting());
+        manager.writeStat(inputForWriting());
         StatRecords read = manager.readStats();
 
         Assert.assertEquals(statRecords, read);
+        Assert.assertEquals(2, manager.getSamplesAggregated());
+        verify(dataBroker, never()).newReadOnlyTransaction();
     }
 
     @Test
-    public void testReadStats_throwsException() throws ExecutionException, InterruptedException {
-        CheckedFuture<Optional<StatisticsStore>, ReadFailedException> future = mock(CheckedFuture.class);
-        when(future.get()).thenThrow(new RuntimeException(READING_EXCEPTION_MSG));
-        when(rtx.read(LogicalDatastoreType.OPERATIONAL, InstanceIdentifier.builder(StatisticsStore.class).build()))
-            .thenReturn(future);
-
-        thrown.expect(RuntimeException.class);
-        thrown.expectMessage(READING_EXCEPTION_MSG);
-        manager.readStats();
+    public void testReadStats_noStatistics() {
+        StatRecords read = manager.readStats();
+
+        Assert.assertTrue(read.getEpToEpStatistic().isEmpty());
+        verify(dataBroker, never()).newReadOnlyTransaction();
     }
 
-    private List<StatisticRecord> inputForReading() {
-        SrcEndpointBuilder srcBuilder = new SrcEndpointBuilder();
-        DstEndpointBuilder dstBuilder = new DstEndpointBuilder();
-        srcBuilder.setMacAddress(srcMac).setL2Context(srcL2C).setTenant(srcTenant);
-        dstBuilder.setMacAddress(dstMac).setL2Context(dstL2C).setTenant(dstTenant);
-        srcBuilder.setEndpointGroup(srcEPG);
-        dstBuilder.setEndpointGroup(dstEPG);
-        StatisticBuilder statBuilder = new StatisticBuilder().setKey(new StatisticKey(contract, rule, subject))
-            .setContract(contract)
-            .setRule(rule)
-            .setSubject(subject)
-            .setClassifier(Collections.singletonList(classifier))
-            .setAction(Collections.singletonList(action))
-            .setByteCount(25L)
-            .setPacketCount(5L);
-        StatisticRecordKey key = new StatisticRecordKey(new RecordId(0L));
-        StatisticRecordBuilder statRecord = new StatisticRecordBuilder().setKey(key)
-            .setStatistic(Collections.singletonList(statBuilder.build()))
-            .setSrcEndpoint(srcBuilder.build())
-            .setDstEndpoint(dstBuilder.build());
-        List<StatisticRecord> stats = new ArrayList<>();
-        stats.add(statRecord.build());
-        statRecord.setKey(new StatisticRecordKey(new RecordId(1L)));
-        stats.add(statRecord.build());
+    @Test
+    public void testWriteStat_recordKeysReused() {
+        System.setProperty(StatisticsManagerImpl.MAX_RECORDS_PROPERTY, "2");
+        try {
+            manager = new StatisticsManagerImpl(dataBroker);
+        } finally {
+            System.clearProperty(StatisticsManagerImpl.MAX_RECORDS_PROPERTY);
+        }
+        CheckedFuture<Void, TransactionCommitFailedException> future = mock(CheckedFuture.class);
+        when(wtx.submit()).thenReturn(future);
+
+        manager.writeStat(inputForWriting());
+        manager.writeStat(inputForWriting());
+        manager.writeStat(inputForWriting());
 
-        return stats;
+        StatisticRecordKey key = new StatisticRecordKey(new RecordId(0L));
+        verify(wtx, times(2)).put(LogicalDatastoreType.OPERATIONAL, IidFactory.statisticRecordIid(key),
+                outputForWriting(key), true);
     }
 
     private StatRecords outputForReading() {
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.statistics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.groupbasedpolicy.api.StatisticsManager.Resolution;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.ContractId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.EndpointGroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.L2BridgeDomainId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.RuleName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.SubjectName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.StatRecords;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.EpToEpStatistic;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.EpToEpStatisticBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.EpEpgToEpEpgStatistic;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.EpEpgToEpEpgStatisticBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.ep.epg.to.ep.epg.statistic.MatchedRuleStatistic;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.statistics.rev151215.statistic.records.stat.records.ep.to.ep.statistic.ep.epg.to.ep.epg.statistic.MatchedRuleStatisticBuilder;
+
+public class StatisticsRollupStoreTest {
+
+    private static final long SECOND = Resolution.SECOND.getBucketMillis();
+    private static final long MINUTE = Resolution.MINUTE.getBucketMillis();
+    private static final long HOUR = Resolution.HOUR.getBucketMillis();
+
+    private StatisticsRollupStore store;
+    private EpToEpStatistic epStat;
+    private EpEpgToEpEpgStatistic epgStat;
+
+    @Before
+    public void init() {
+        Map<Resolution, Integer> retention = new EnumMap<>(Resolution.class);
+        retention.put(Resolution.SECOND, 10);
+        retention.put(Resolution.MINUTE, 5);
+        retention.put(Resolution.HOUR, 2);
+        store = new StatisticsRollupStore(retention, 2);
+        epStat = new EpToEpStatisticBuilder().setSrcMacAddress(new MacAddress("00:00:00:00:00:01"))
+            .setSrcL2c(new L2BridgeDomainId("srcL2C"))
+            .setDstMacAddress(new MacAddress("00:00:00:00:00:02"))
+            .setDstL2c(new L2BridgeDomainId("dstL2C"))
+            .build();
+        epgStat = new EpEpgToEpEpgStatisticBuilder().setSrcEpg(new EndpointGroupId("srcEPG"))
+            .setDstEpg(new EndpointGroupId("dstEPG"))
+            .build();
+    }
+
+    @Test
+    public void testGetRollup_samplesSummedPerBucket() {
+        long start = 100 * HOUR;
+        store.addSample(epStat, epgStat, ruleStat("rule", 10L, 1L), start);
+        store.addSample(epStat, epgStat, ruleStat("rule", 20L, 2L), start + 500);
+        store.addSample(epStat, epgStat, ruleStat("rule", 40L, 4L), start + 2 * SECOND);
+
+        Assert.assertEquals(1, store.getSeriesCount());
+        assertCounters(70L, 7L, store.getTotals());
+        assertCounters(40L, 4L, store.getRollup(Resolution.SECOND, 1, start + 2 * SECOND));
+        assertCounters(70L, 7L, store.getRollup(Resolution.SECOND, 3, start + 2 * SECOND));
+        assertCounters(70L, 7L, store.getRollup(Resolution.MINUTE, 1, start + 2 * SECOND));
+        Assert.assertTrue(store.getRollup(Resolution.SECOND, 1, start + 5 * SECOND).getEpToEpStatistic().isEmpty());
+    }
+
+    @Test
+    public void testGetRollup_bucketsOutOfRetentionReused() {
+        long start = 100 * HOUR;
+        store.addSample(epStat, epgStat, ruleStat("rule", 10L, 1L), start);
+        store.addSample(epStat, epgStat, ruleStat("rule", 20L, 2L), start + 10 * SECOND);
+        // sample older than retention of seconds is counted only in coarser resolutions
+        store.addSample(epStat, epgStat, ruleStat("rule", 40L, 4L), start + SECOND - 1);
+
+        assertCounters(20L, 2L, store.getRollup(Resolution.SECOND, 10, start + 10 * SECOND));
+        assertCounters(70L, 7L, store.getRollup(Resolution.MINUTE, 5, start + 10 * SECOND));
+        assertCounters(70L, 7L, store.getTotals());
+    }
+
+    @Test
+    public void testAddSample_seriesLimit() {
+        Assert.assertTrue(store.addSample(epStat, epgStat, ruleStat("rule1", 1L, 1L), 0));
+        Assert.assertTrue(store.addSample(epStat, epgStat, ruleStat("rule2", 1L, 1L), 0));
+        Assert.assertFalse(store.addSample(epStat, epgStat, ruleStat("rule3", 1L, 1L), 0));
+        Assert.assertTrue(store.addSample(epStat, epgStat, ruleStat("rule1", 1L, 1L), 0));
+
+        Assert.assertEquals(2, store.getSeriesCount());
+        Assert.assertEquals(3, store.getSamplesAggregated());
+        Assert.assertEquals(1, store.getSamplesDropped());
+    }
+
+    @Test
+    public void testEvictExpired() {
+        long start = 100 * HOUR;
+        store.addSample(epStat, epgStat, ruleStat("rule1", 1L, 1L), start);
+        store.addSample(epStat, epgStat, ruleStat("rule2", 1L, 1L), start + HOUR);
+
+        store.evictExpired(start + 2 * HOUR);
+        Assert.assertEquals(2, store.getSeriesCount());
+        store.evictExpired(start + 2 * HOUR + MINUTE);
+        Assert.assertEquals(1, store.getSeriesCount());
+    }
+
+    private static MatchedRuleStatistic ruleStat(String rule, Long byteCount, Long packetCount) {
+        return new MatchedRuleStatisticBuilder().setContract(new ContractId("contract"))
+            .setSubject(new SubjectName("subject"))
+            .setMatchedRule(new RuleName(rule))
+            .setByteCount(byteCount)
+            .setPacketCount(packetCount)
+            .build();
+    }
+
+    private static void assertCounters(Long byteCount, Long packetCount, StatRecords records) {
+        Assert.assertEquals(1, records.getEpToEpStatistic().size());
+        EpToEpStatistic ep = records.getEpToEpStatistic().get(0);
+        Assert.assertEquals(1, ep.getEpEpgToEpEpgStatistic().size());
+        MatchedRuleStatistic rule = ep.getEpEpgToEpEpgStatistic().get(0).getMatchedRuleStatistic().get(0);
+        Assert.assertEquals(Collections.singletonList(rule),
+                ep.getEpEpgToEpEpgStatistic().get(0).getMatchedRuleStatistic());
+        Assert.assertEquals(byteCount, rule.getByteCount());
+        Assert.assertEquals(packetCount, rule.getPacketCount());
+    }
+}
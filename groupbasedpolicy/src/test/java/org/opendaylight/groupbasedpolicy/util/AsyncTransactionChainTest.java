@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.util;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.opendaylight.controller.md.sal.binding.api.BindingTransactionChain;
+import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
+import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
+import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.Tenants;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.CheckedFuture;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+public class AsyncTransactionChainTest {
+
+    private static final InstanceIdentifier<Tenants> TENANTS_IID = InstanceIdentifier.create(Tenants.class);
+
+    private BindingTransactionChain txChain;
+    private WriteTransaction wTx;
+    private ReadWriteTransaction rwTx;
+    private AsyncTransactionChain asyncChain;
+
+    @Before
+    public void init() {
+        txChain = mock(BindingTransactionChain.class);
+        wTx = mock(WriteTransaction.class);
+        rwTx = mock(ReadWriteTransaction.class);
+        when(txChain.newWriteOnlyTransaction()).thenReturn(wTx);
+        when(txChain.newReadWriteTransaction()).thenReturn(rwTx);
+        when(wTx.submit()).thenReturn(Futures.immediateCheckedFuture(null));
+        when(rwTx.submit()).thenReturn(Futures.immediateCheckedFuture(null));
+        asyncChain = new AsyncTransactionChain(txChain);
+    }
+
+    @Test
+    public void testWrite_idleChain() throws Exception {
+        ListenableFuture<Void> future =
+                asyncChain.write(tx -> tx.delete(LogicalDatastoreType.CONFIGURATION, TENANTS_IID));
+
+        Assert.assertTrue(future.isDone());
+        future.get();
+        verify(wTx).delete(LogicalDatastoreType.CONFIGURATION, TENANTS_IID);
+        verify(wTx).submit();
+        Assert.assertEquals(1, asyncChain.getBatchedWrites());
+        Assert.assertEquals(0, asyncChain.getQueueDepth());
+    }
+
+    @Test
+    public void testWrite_queuedWhileTransactionOpen() {
+        ReadWriteTransaction openTx = asyncChain.newReadWriteTransaction();
+        ListenableFuture<Void> first =
+                asyncChain.write(tx -> tx.delete(LogicalDatastoreType.CONFIGURATION, TENANTS_IID));
+        ListenableFuture<Void> second =
+                asyncChain.write(tx -> tx.delete(LogicalDatastoreType.OPERATIONAL, TENANTS_IID));
+
+        Assert.assertFalse(first.isDone());
+        Assert.assertEquals(2, asyncChain.getQueueDepth());
+        verify(txChain, never()).newWriteOnlyTransaction();
+
+        asyncChain.submit(openTx);
+
+        // both writes are applied in order in one transaction submitted after the open one
+        InOrder inOrder = inOrder(rwTx, txChain, wTx);
+        inOrder.verify(rwTx).submit();
+        inOrder.verify(txChain).newWriteOnlyTransaction();
+        inOrder.verify(wTx).delete(LogicalDatastoreType.CONFIGURATION, TENANTS_IID);
+        inOrder.verify(wTx).delete(LogicalDatastoreType.OPERATIONAL, TENANTS_IID);
+        inOrder.verify(wTx).submit();
+        Assert.assertTrue(first.isDone());
+        Assert.assertTrue(second.isDone());
+        Assert.assertEquals(0, asyncChain.getQueueDepth());
+        Assert.assertEquals(2, asyncChain.getAcquisitions());
+    }
+
+    @Test
+    public void testWrite_failedModification() {
+        ListenableFuture<Void> future = asyncChain.write(tx -> {
+            throw new IllegalArgumentException("invalid data");
+        });
+
+        Assert.assertTrue(future.isDone());
+        verify(wTx).cancel();
+        verify(wTx, never()).submit();
+        // chain is released
+        asyncChain.submit(asyncChain.newReadWriteTransaction());
+    }
+
+    @Test
+    public void testSubmit_doesNotWaitForCommit() {
+        SettableFuture<Void> commit = SettableFuture.create();
+        CheckedFuture<Void, TransactionCommitFailedException> checkedCommit =
+                Futures.makeChecked(commit, e -> new TransactionCommitFailedException("commit failed", e));
+        when(rwTx.submit()).thenReturn(checkedCommit);
+
+        asyncChain.submit(asyncChain.newReadWriteTransaction());
+        Assert.assertEquals(1, asyncChain.getOutstandingCommits());
+        asyncChain.submit(asyncChain.newReadWriteTransaction());
+        Assert.assertEquals(2, asyncChain.getOutstandingCommits());
+
+        commit.set(null);
+        Assert.assertEquals(0, asyncChain.getOutstandingCommits());
+        verify(rwTx, times(2)).submit();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNewReadWriteTransaction_previousNotFinished() {
+        asyncChain.newReadWriteTransaction();
+        asyncChain.newReadWriteTransaction();
+    }
+
+    @Test
+    public void testCancel_releasesChain() {
+        asyncChain.cancel(asyncChain.newReadWriteTransaction());
+        asyncChain.submit(asyncChain.newReadWriteTransaction());
+
+        verify(rwTx).cancel();
+        verify(rwTx).submit();
+    }
+
+    @Test
+    public void testReadFromDs_transactionClosed() {
+        ReadOnlyTransaction rTx = mock(ReadOnlyTransaction.class);
+        when(txChain.newReadOnlyTransaction()).thenReturn(rTx);
+        CheckedFuture<Optional<Tenants>, ReadFailedException> result =
+                Futures.immediateCheckedFuture(Optional.of(mock(Tenants.class)));
+        when(rTx.read(LogicalDatastoreType.CONFIGURATION, TENANTS_IID)).thenReturn(result);
+
+        Assert.assertTrue(asyncChain.readFromDs(LogicalDatastoreType.CONFIGURATION, TENANTS_IID).isPresent());
+        verify(rTx).close();
+        // chain is not held by the read transaction
+        asyncChain.submit(asyncChain.newReadWriteTransaction());
+    }
+
+    @Test
+    public void testRead_queuedWritesSubmittedFirst() throws Exception {
+        ListenableFuture<Void> queuedWrite = queueWriteAndReleaseChain();
+        ReadOnlyTransaction rTx = mock(ReadOnlyTransaction.class);
+        when(txChain.newReadOnlyTransaction()).thenReturn(rTx);
+        CheckedFuture<Optional<Tenants>, ReadFailedException> result =
+                Futures.immediateCheckedFuture(Optional.absent());
+        when(rTx.read(LogicalDatastoreType.CONFIGURATION, TENANTS_IID)).thenReturn(result);
+
+        asyncChain.read(LogicalDatastoreType.CONFIGURATION, TENANTS_IID);
+
+        InOrder inOrder = inOrder(wTx, txChain);
+        inOrder.verify(wTx).delete(LogicalDatastoreType.CONFIGURATION, TENANTS_IID);
+        inOrder.verify(wTx).submit();
+        inOrder.verify(txChain).newReadOnlyTransaction();
+        Assert.assertTrue(queuedWrite.isDone());
+        queuedWrite.get();
+        Assert.assertEquals(0, asyncChain.getQueueDepth());
+    }
+
+    @Test
+    public void testNewReadWriteTransaction_queuedWritesSubmittedFirst() throws Exception {
+        ListenableFuture<Void> queuedWrite = queueWriteAndReleaseChain();
+        when(txChain.newReadWriteTransaction()).thenReturn(rwTx);
+
+        asyncChain.submit(asyncChain.newReadWriteTransaction());
+
+        InOrder inOrder = inOrder(wTx, txChain, rwTx);
+        inOrder.verify(wTx).delete(LogicalDatastoreType.CONFIGURATION, TENANTS_IID);
+        inOrder.verify(wTx).submit();
+        inOrder.verify(txChain).newReadWriteTransaction();
+        inOrder.verify(rwTx).submit();
+        Assert.assertTrue(queuedWrite.isDone());
+        queuedWrite.get();
+        Assert.assertEquals(0, asyncChain.getQueueDepth());
+    }
+
+    @Test
+    public void testClose_queuedWritesSubmitted() throws Exception {
+        ListenableFuture<Void> queuedWrite = queueWriteAndReleaseChain();
+
+        asyncChain.close();
+
+        InOrder inOrder = inOrder(wTx, txChain);
+        inOrder.verify(wTx).submit();
+        inOrder.verify(txChain).close();
+        Assert.assertTrue(queuedWrite.isDone());
+        queuedWrite.get();
+    }
+
+    @Test
+    public void testClose() {
+        asyncChain.close();
+        verify(txChain).close();
+        try {
+            asyncChain.write(tx -> tx.delete(LogicalDatastoreType.CONFIGURATION, TENANTS_IID));
+            Assert.fail("Write to closed chain has to fail.");
+        } catch (IllegalStateException e) {
+            verify(txChain, never()).newWriteOnlyTransaction();
+        }
+    }
+
+    /**
+     * Queues a write while the chain is held and releases the chain without draining the queue, as it happens when
+     * opening of a transaction fails.
+     */
+    private ListenableFuture<Void> queueWriteAndReleaseChain() {
+        List<ListenableFuture<Void>> queuedWrites = new ArrayList<>();
+        when(txChain.newReadWriteTransaction()).thenAnswer(invocation -> {
+            queuedWrites.add(asyncChain.write(tx -> tx.delete(LogicalDatastoreType.CONFIGURATION, TENANTS_IID)));
+            throw new IllegalStateException("chain failed");
+        });
+        try {
+            asyncChain.newReadWriteTransaction();
+            Assert.fail("Opening of transaction has to fail.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        Assert.assertEquals(1, asyncChain.getQueueDepth());
+        verify(txChain, never()).newWriteOnlyTransaction();
+        return queuedWrites.get(0);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.CapabilityName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.ContractId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.Description;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.EndpointGroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.RequirementName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.SelectorName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.SubjectName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.has.capabilities.CapabilityBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.has.requirements.RequirementBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.Tenant;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.TenantBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.PolicyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.Contract;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.ContractBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.EndpointGroup;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.EndpointGroupBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.contract.SubjectBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.endpoint.group.ConsumerNamedSelectorBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.endpoint.group.ProviderNamedSelectorBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Measures {@link InheritanceUtils#resolveTenant(Tenant)} over a synthetic tenant with {@code egCount}
+ * endpoint groups and {@code egCount / 10} contracts, organized into inheritance chains {@code depth} objects
+ * long.<br>
+ * {@link #uncached()} resolves the tenant with an empty cache, {@link #unchanged()} resolves a copy
+ * of an already resolved tenant and {@link #rootChanged()} resolves the tenant after the root of one chain
+ * was modified.<br>
+ * Not executed as part of the unit tests, run it with {@code main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InheritanceUtilsBenchmark {
+
+    private static final SelectorName SELECTOR_NAME = new SelectorName("selector");
+
+    @Param({"1000", "5000"})
+    public int egCount;
+
+    @Param({"5", "25"})
+    public int depth;
+
+    private Tenant tenant;
+    private Tenant changedTenant;
+    private int changes;
+
+    @Setup
+    public void setup() {
+        List<EndpointGroup> egs = new ArrayList<>(egCount);
+        for (int i = 0; i < egCount; i++) {
+            egs.add(createEg(i, "eg-" + i));
+        }
+        List<Contract> contracts = new ArrayList<>(egCount / 10);
+        for (int i = 0; i < egCount / 10; i++) {
+            contracts.add(createContract(i));
+        }
+        tenant = new TenantBuilder().setId(new TenantId("benchmark"))
+            .setPolicy(new PolicyBuilder().setEndpointGroup(egs).setContract(contracts).build())
+            .build();
+        InheritanceUtils.invalidateCache();
+        InheritanceUtils.resolveTenant(tenant);
+    }
+
+    @Setup(Level.Invocation)
+    public void changeRoot() {
+        List<EndpointGroup> egs = new ArrayList<>(tenant.getPolicy().getEndpointGroup());
+        egs.set(0, createEg(0, "changed-" + changes++));
+        changedTenant = new TenantBuilder(tenant)
+            .setPolicy(new PolicyBuilder(tenant.getPolicy()).setEndpointGroup(egs).build())
+            .build();
+    }
+
+    private EndpointGroup createEg(int i, String description) {
+        ContractId contractId = new ContractId("contract-" + (i % Math.max(1, egCount / 10)));
+        EndpointGroupBuilder egBuilder = new EndpointGroupBuilder().setId(new EndpointGroupId("eg-" + i))
+            .setDescription(new Description(description))
+            .setCapability(ImmutableList.of(new CapabilityBuilder().setName(new CapabilityName("cap-" + i)).build()))
+            .setRequirement(
+                    ImmutableList.of(new RequirementBuilder().setName(new RequirementName("req-" + i)).build()))
+            .setConsumerNamedSelector(ImmutableList.of(new ConsumerNamedSelectorBuilder().setName(SELECTOR_NAME)
+                .setContract(ImmutableList.of(contractId))
+                .build()))
+            .setProviderNamedSelector(ImmutableList.of(new ProviderNamedSelectorBuilder().setName(SELECTOR_NAME)
+                .setContract(ImmutableList.of(contractId))
+                .build()));
+        if (i % depth != 0) {
+            egBuilder.setParent(new EndpointGroupId("eg-" + (i - 1)));
+        }
+        return egBuilder.build();
+    }
+
+    private Contract createContract(int i) {
+        ContractBuilder contractBuilder = new ContractBuilder().setId(new ContractId("contract-" + i))
+            .setSubject(ImmutableList.of(new SubjectBuilder().setName(new SubjectName("subject-" + i)).build()));
+        if (i % depth != 0) {
+            contractBuilder.setParent(new ContractId("contract-" + (i - 1)));
+        }
+        return contractBuilder.build();
+    }
+
+    @Benchmark
+    public Tenant uncached() {
+        InheritanceUtils.invalidateCache();
+        return InheritanceUtils.resolveTenant(tenant);
+    }
+
+    @Benchmark
+    public Tenant unchanged() {
+        return InheritanceUtils.resolveTenant(new TenantBuilder(tenant).build());
+    }
+
+    @Benchmark
+    public Tenant rootChanged() {
+        return InheritanceUtils.resolveTenant(changedTenant);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(InheritanceUtilsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -38,6 +38,7 @@ import org.opendaylight.groupbasedpolicy.neutron.mapper.mapping.NeutronSubnetAwa
 import org.opendaylight.groupbasedpolicy.neutron.mapper.mapping.rule.NeutronSecurityRuleAware;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.util.MappingUtils;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.util.NetworkUtils;
+import org.opendaylight.groupbasedpolicy.neutron.mapper.util.NeutronIndex;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.Uuid;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.BaseEndpointService;
@@ -104,6 +105,8 @@ public class NeutronMapper implements ClusteredDataTreeChangeListener<Neutron>,
     private final ListenerRegistration<NeutronMapper> registerDataTreeChangeListener;
     private Neutron neutronBefore;
     private Neutron neutronAfter;
+    private NeutronIndex neutronIndexBefore;
+    private NeutronIndex neutronIndexAfter;
 
     public NeutronMapper(DataBroker dataProvider, EndpointService epService, BaseEndpointService baseEpService,
         @Nullable IpPrefix metadataIpPrefix, long metadataTcpPort) {
@@ -172,11 +175,12 @@ public class NeutronMapper implements ClusteredDataTreeChangeListener<Neutron>,
             final T dataBefore = dataModif.getDataBefore();
             final T dataAfter = dataModif.getDataAfter();
             if (dataBefore == null && dataAfter != null) {
-                neutronAware.onCreated(dataAfter, neutronAfter);
+                neutronAware.onCreated(dataAfter, neutronAfter, neutronIndexAfter);
             } else if (dataBefore != null && dataAfter != null) {
-                neutronAware.onUpdated(dataBefore, dataAfter, neutronBefore, neutronAfter);
+                neutronAware.onUpdated(dataBefore, dataAfter, neutronBefore, neutronAfter, neutronIndexBefore,
+                        neutronIndexAfter);
             } else if (dataBefore != null) {
-                neutronAware.onDeleted(dataBefore, neutronBefore, neutronAfter);
+                neutronAware.onDeleted(dataBefore, neutronBefore, neutronAfter, neutronIndexBefore, neutronIndexAfter);
             } else {
                 throw new IllegalStateException(EXC_MSG_UNKNOWN_MODIFICATION_TYPE_IN_DATA + dataModif);
             }
@@ -206,6 +210,9 @@ public class NeutronMapper implements ClusteredDataTreeChangeListener<Neutron>,
         neutronBefore = resolveAndCreateNewNeutron(oldNeutronBefore);
         Neutron oldNeutronAfter = originalNeutron.getDataAfter();
         neutronAfter = resolveAndCreateNewNeutron(oldNeutronAfter);
+        // index snapshots once, all *Aware lookups within this change reuse them
+        neutronIndexBefore = NeutronIndex.of(neutronBefore);
+        neutronIndexAfter = NeutronIndex.of(neutronAfter);
     }
 
     private @Nullable Neutron resolveAndCreateNewNeutron(@Nullable Neutron originalNeutron) {
@@ -8,6 +8,7 @@
 
 package org.opendaylight.groupbasedpolicy.neutron.mapper.mapping;
 
+import org.opendaylight.groupbasedpolicy.neutron.mapper.util.NeutronIndex;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.rev150712.Neutron;
 import org.opendaylight.yangtools.yang.binding.DataObject;
 
@@ -18,4 +19,30 @@ public interface NeutronAware<T extends DataObject> {
     void onUpdated(T oldItem, T newItem, Neutron oldNeutron, Neutron newNeutron);
 
     void onDeleted(T deletedItem, Neutron oldNeutron, Neutron newNeutron);
+
+    /**
+     * Same as {@link #onCreated(DataObject, Neutron)} with index of {@code neutron} built by caller, so that the
+     * index is shared by all items modified in one neutron change.
+     */
+    default void onCreated(T createdItem, Neutron neutron, NeutronIndex neutronIndex) {
+        onCreated(createdItem, neutron);
+    }
+
+    /**
+     * Same as {@link #onUpdated(DataObject, DataObject, Neutron, Neutron)} with indexes of {@code oldNeutron} and
+     * {@code newNeutron} built by caller.
+     */
+    default void onUpdated(T oldItem, T newItem, Neutron oldNeutron, Neutron newNeutron, NeutronIndex oldNeutronIndex,
+            NeutronIndex newNeutronIndex) {
+        onUpdated(oldItem, newItem, oldNeutron, newNeutron);
+    }
+
+    /**
+     * Same as {@link #onDeleted(DataObject, Neutron, Neutron)} with indexes of {@code oldNeutron} and
+     * {@code newNeutron} built by caller.
+     */
+    default void onDeleted(T deletedItem, Neutron oldNeutron, Neutron newNeutron, NeutronIndex oldNeutronIndex,
+            NeutronIndex newNeutronIndex) {
+        onDeleted(deletedItem, oldNeutron, newNeutron);
+    }
 }
@@ -32,8 +32,8 @@ import org.opendaylight.groupbasedpolicy.neutron.mapper.infrastructure.MetadataS
 import org.opendaylight.groupbasedpolicy.neutron.mapper.infrastructure.NetworkClient;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.infrastructure.NetworkService;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.util.MappingUtils;
+import org.opendaylight.groupbasedpolicy.neutron.mapper.util.NeutronIndex;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.util.PortUtils;
-import org.opendaylight.groupbasedpolicy.neutron.mapper.util.SubnetUtils;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.groupbasedpolicy.util.IidFactory;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
@@ -115,12 +115,17 @@ public class NeutronPortAware implements NeutronAware<Port> {
 
     @Override
     public void onCreated(Port createdItem, Neutron neutron) {
-        onCreated(createdItem, neutron, true);
+        onCreated(createdItem, neutron, NeutronIndex.of(neutron), true);
+    }
+
+    @Override
+    public void onCreated(Port createdItem, Neutron neutron, NeutronIndex neutronIndex) {
+        onCreated(createdItem, neutron, neutronIndex, true);
     }
 
     @SuppressWarnings("checkstyle:LineLength") // Longer lines in this method are caused by long package names,
                                                // this will be removed when deprecated classes will be cleared.
-    public void onCreated(Port port, Neutron neutron, boolean addBaseEpMapping) {
+    public void onCreated(Port port, Neutron neutron, NeutronIndex neutronIndex, boolean addBaseEpMapping) {
         LOG.trace("created port - {}", port);
         if (PortUtils.isRouterInterfacePort(port)) {
             LOG.trace("Port is router interface port: {}", port.getUuid().getValue());
@@ -154,22 +159,22 @@ public class NeutronPortAware implements NeutronAware<Port> {
                 AddressEndpointRegBuilder l2BaseEp =
                         createBasicMacAddrEpInputBuilder(port, networkContainment, epgsFromSecGroups);
                 AddressEndpointRegBuilder l3BaseEp =
-                        createBasicL3AddrEpInputBuilder(port, networkContainment, epgsFromSecGroups, neutron);
+                        createBasicL3AddrEpInputBuilder(port, networkContainment, epgsFromSecGroups, neutronIndex);
                 setParentChildRelationshipForEndpoints(l3BaseEp, l2BaseEp);
                 // BUILD ENDPOINT
                 org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.RegisterEndpointInputBuilder epInBuilder =
-                        createEndpointRegFromPort(port, ipWithSubnet, networkContainment, epgsFromSecGroups, neutron);
+                        createEndpointRegFromPort(port, ipWithSubnet, networkContainment, epgsFromSecGroups,
+                                neutronIndex);
                 registerBaseEndpointAndStoreMapping(ImmutableList.of(l2BaseEp.build(), l3BaseEp.build()), port, rwTx,
                         addBaseEpMapping);
                 registerEndpointAndStoreMapping(epInBuilder.build(), port, rwTx);
             }
             // change L3Context for all EPs with same subnet as router port
             changeL3ContextForEpsInSubnet(portIpWithSubnet.getSubnetId(), port.getNetworkId(),
-                    new Uuid(port.getDeviceId()), neutron, true);
+                    new Uuid(port.getDeviceId()), neutron, neutronIndex, true);
             // set L3Context as parent for bridge domain which is parent of subnet
             TenantId tenantId = new TenantId(port.getTenantId().getValue());
-            Optional<Subnet> potentialRouterPortSubnet =
-                    SubnetUtils.findSubnet(portIpWithSubnet.getSubnetId(), neutron.getSubnets());
+            Optional<Subnet> potentialRouterPortSubnet = neutronIndex.findSubnet(portIpWithSubnet.getSubnetId());
             if (!potentialRouterPortSubnet.isPresent()) {
                 LOG.warn("Illegal state - router interface port is in subnet which does not exist. {}", port);
                 return;
@@ -183,7 +188,7 @@ public class NeutronPortAware implements NeutronAware<Port> {
             rwTx.merge(LogicalDatastoreType.CONFIGURATION, L2L3IidFactory.l2BridgeDomainIid(tenantId, l2BdId), l2Bd,
                     true);
             // set virtual router IP for subnet
-            NetworkDomain subnetDomain = NeutronSubnetAware.createSubnet(routerPortSubnet, neutron, null);
+            NetworkDomain subnetDomain = NeutronSubnetAware.createSubnet(routerPortSubnet, neutron, neutronIndex, null);
             rwTx.merge(LogicalDatastoreType.CONFIGURATION,
                     L2L3IidFactory.subnetIid(tenantId, subnetDomain.getNetworkDomainId()), subnetDomain);
 
@@ -206,15 +211,15 @@ public class NeutronPortAware implements NeutronAware<Port> {
             AddressEndpointRegBuilder l2BaseEp =
                     createBasicMacAddrEpInputBuilder(port, networkContainment, Collections.emptyList());
             AddressEndpointRegBuilder l3BaseEp =
-                    createBasicL3AddrEpInputBuilder(port, networkContainment, epgsFromSecGroups, neutron);
+                    createBasicL3AddrEpInputBuilder(port, networkContainment, epgsFromSecGroups, neutronIndex);
 
             setParentChildRelationshipForEndpoints(l3BaseEp, l2BaseEp);
             org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.RegisterEndpointInputBuilder epInBuilder =
-                    createEndpointRegFromPort(port, ipWithSubnet, networkContainment, epgsFromSecGroups, neutron);
+                    createEndpointRegFromPort(port, ipWithSubnet, networkContainment, epgsFromSecGroups, neutronIndex);
             ReadWriteTransaction rwTx = dataProvider.newReadWriteTransaction();
             registerBaseEndpointAndStoreMapping(ImmutableList.of(l3BaseEp.build(), l2BaseEp.build()), port, rwTx,
                     addBaseEpMapping);
-            registerMetadataServiceForDhcpPort(port, neutron, l2BaseEp, rwTx, true);
+            registerMetadataServiceForDhcpPort(port, neutronIndex, l2BaseEp, rwTx, true);
             registerEndpointAndStoreMapping(epInBuilder.build(), port, rwTx);
             DataStoreHelper.submitToDs(rwTx);
         } else if (PortUtils.isNormalPort(port)) {
@@ -230,13 +235,14 @@ public class NeutronPortAware implements NeutronAware<Port> {
                 // endpoint has only one network containment therefore only first IP is used
                 FixedIps ipWithSubnet = firstFixedIps.get();
                 NetworkDomainId containment = new NetworkDomainId(ipWithSubnet.getSubnetId().getValue());
-                epInBuilder = createEndpointRegFromPort(port, ipWithSubnet, containment, epgsFromSecGroups, neutron);
+                epInBuilder =
+                        createEndpointRegFromPort(port, ipWithSubnet, containment, epgsFromSecGroups, neutronIndex);
                 l2BaseEp = createBasicMacAddrEpInputBuilder(port, containment, epgsFromSecGroups);
-                l3BaseEp = createBasicL3AddrEpInputBuilder(port, containment, epgsFromSecGroups, neutron);
+                l3BaseEp = createBasicL3AddrEpInputBuilder(port, containment, epgsFromSecGroups, neutronIndex);
                 setParentChildRelationshipForEndpoints(l3BaseEp, l2BaseEp);
             } else {
                 NetworkDomainId containment = new NetworkDomainId(port.getNetworkId().getValue());
-                epInBuilder = createEndpointRegFromPort(port, null, containment, epgsFromSecGroups, neutron);
+                epInBuilder = createEndpointRegFromPort(port, null, containment, epgsFromSecGroups, neutronIndex);
                 l2BaseEp = createBasicMacAddrEpInputBuilder(port, containment, epgsFromSecGroups);
             }
             List<AddressEndpointReg> baseEpRegs = new ArrayList<>();
@@ -268,8 +274,8 @@ public class NeutronPortAware implements NeutronAware<Port> {
         return new PortBuilder(port).setFixedIps(metadataIps).build();
     }
 
-    private void registerMetadataServiceForDhcpPort(Port port, Neutron neutron, AddressEndpointRegBuilder childEpToAdd,
-            ReadWriteTransaction rwTx, boolean registerMapping) {
+    private void registerMetadataServiceForDhcpPort(Port port, NeutronIndex neutronIndex,
+            AddressEndpointRegBuilder childEpToAdd, ReadWriteTransaction rwTx, boolean registerMapping) {
         Optional<NetworkDomainId> resolveNetworkContainment = PortUtils.resolveNetworkContainment(port);
         if (!resolveNetworkContainment.isPresent()) {
             LOG.warn("DHCP port does not have an IP address. {}", port);
@@ -277,7 +283,7 @@ public class NeutronPortAware implements NeutronAware<Port> {
         }
         AddressEndpointRegBuilder metadataEp =
                 createBasicL3AddrEpInputBuilder(cloneMetadataPortFromDhcpPort(port, metadataIpPrefix),
-                        resolveNetworkContainment.get(), Lists.newArrayList(MetadataService.EPG_ID), neutron);
+                        resolveNetworkContainment.get(), Lists.newArrayList(MetadataService.EPG_ID), neutronIndex);
         AddressEndpointKey aek = new AddressEndpointKey(metadataEp.getAddress(), metadataEp.getAddressType(),
                 metadataEp.getContextId(), metadataEp.getContextType());
         Optional<AddressEndpoint> optMetadataEp =
@@ -324,11 +330,11 @@ public class NeutronPortAware implements NeutronAware<Port> {
                                                // this will be removed when deprecated classes will be cleared.
     private org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.RegisterEndpointInputBuilder createEndpointRegFromPort(
             Port port, FixedIps fixedIps, NetworkDomainId networkContainment, List<EndpointGroupId> endpointGroupIds,
-            Neutron neutron) {
+            NeutronIndex neutronIndex) {
         org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.RegisterEndpointInputBuilder epInBuilder =
                 createBasicEndpointInputBuilder(port).setNetworkContainment(networkContainment);
         if (fixedIps != null) {
-            L3Address l3Address = resolveL3AddressFromPort(port, fixedIps, neutron);
+            L3Address l3Address = resolveL3AddressFromPort(port, fixedIps, neutronIndex);
             epInBuilder.setL3Address(ImmutableList.of(l3Address));
         }
         epInBuilder.setEndpointGroups(endpointGroupIds);
@@ -336,7 +342,7 @@ public class NeutronPortAware implements NeutronAware<Port> {
     }
 
     private void changeL3ContextForEpsInSubnet(Uuid subnetUuid, Uuid networkId, Uuid routerId, Neutron neutron,
-            boolean routerInterfAdded) {
+            NeutronIndex neutronIndex, boolean routerInterfAdded) {
         if (neutron == null) {
             LOG.debug("No new data are written, there is no L3 context in subnet {} to update", subnetUuid);
             return;
@@ -361,7 +367,7 @@ public class NeutronPortAware implements NeutronAware<Port> {
             }
             epRegistrator.unregisterEndpoint(metadataEpUnreg.build());
         }
-        Set<Port> portsInSameSubnet = PortUtils.findPortsBySubnet(subnetUuid, neutron.getPorts());
+        Set<Port> portsInSameSubnet = neutronIndex.findPortsBySubnet(subnetUuid);
         for (Port portInSameSubnet : portsInSameSubnet) {
             if (PortUtils.isNormalPort(portInSameSubnet) || PortUtils.isDhcpPort(portInSameSubnet)
                     || PortUtils.isQrouterOrVppRouterPort(portInSameSubnet)) {
@@ -381,7 +387,7 @@ public class NeutronPortAware implements NeutronAware<Port> {
                     AddressEndpointRegBuilder l2BaseEp =
                             createBasicMacAddrEpInputBuilder(portInSameSubnet, networkContainment, endpointGroupIds);
                     AddressEndpointRegBuilder l3BaseEp = createBasicL3AddrEpInputBuilder(portInSameSubnet,
-                            networkContainment, endpointGroupIds, neutron);
+                            networkContainment, endpointGroupIds, neutronIndex);
 
                     setParentChildRelationshipForEndpoints(l3BaseEp, l2BaseEp);
                     AddressEndpointUnregBuilder addrEpUnreg =
@@ -405,7 +411,7 @@ public class NeutronPortAware implements NeutronAware<Port> {
                     epRegistrator.registerEndpoint(regBaseEpInput);
                     if (PortUtils.isDhcpPort(portInSameSubnet)) {
                         ReadWriteTransaction rwTx = dataProvider.newReadWriteTransaction();
-                        registerMetadataServiceForDhcpPort(portInSameSubnet, neutron, l2BaseEp, rwTx, false);
+                        registerMetadataServiceForDhcpPort(portInSameSubnet, neutronIndex, l2BaseEp, rwTx, false);
                         DataStoreHelper.submitToDs(rwTx);
                     }
                     modifyL3ContextForEndpoints(portInSameSubnet, ipWithSubnet, l3BaseEp.getContextId());
@@ -476,13 +482,13 @@ public class NeutronPortAware implements NeutronAware<Port> {
     }
 
     private AddressEndpointRegBuilder createBasicL3AddrEpInputBuilder(Port port, NetworkDomainId networkContainment,
-            @Nullable List<EndpointGroupId> endpointGroupsToAdd, Neutron neutron) {
+            @Nullable List<EndpointGroupId> endpointGroupsToAdd, NeutronIndex neutronIndex) {
         Optional<FixedIps> firstFixedIps = PortUtils.resolveFirstFixedIps(port);
         if (!firstFixedIps.isPresent()) {
             throw new IllegalStateException(
                     "Failed to resolve FixedIps for port " + port.getKey() + ". Cannot register L3 Address endpoint.");
         }
-        ContextId resolveL3ContextForPort = resolveL3ContextForPort(port, port.getFixedIps().get(0), neutron);
+        ContextId resolveL3ContextForPort = resolveL3ContextForPort(port, port.getFixedIps().get(0), neutronIndex);
 
         AddressEndpointRegBuilder addrEpbuilder = new AddressEndpointRegBuilder().setAddressType(MacAddressType.class)
             .setAddress(MappingUtils.ipAddressToStringIpPrefix(firstFixedIps.get().getIpAddress()))
@@ -642,17 +648,30 @@ public class NeutronPortAware implements NeutronAware<Port> {
 
     @Override
     public void onUpdated(Port oldPort, Port newPort, Neutron oldNeutron, Neutron newNeutron) {
+        onUpdated(oldPort, newPort, oldNeutron, newNeutron, NeutronIndex.of(oldNeutron), NeutronIndex.of(newNeutron));
+    }
+
+    @Override
+    public void onUpdated(Port oldPort, Port newPort, Neutron oldNeutron, Neutron newNeutron,
+            NeutronIndex oldNeutronIndex, NeutronIndex newNeutronIndex) {
         LOG.trace("updated port - OLD: {}\nNEW: {}", oldPort, newPort);
-        onDeleted(oldPort, oldNeutron, newNeutron, false);
-        onCreated(newPort, newNeutron, false);
+        onDeleted(oldPort, oldNeutron, newNeutron, oldNeutronIndex, newNeutronIndex, false);
+        onCreated(newPort, newNeutron, newNeutronIndex, false);
     }
 
     @Override
     public void onDeleted(Port deletedItem, Neutron oldNeutron, Neutron newNeutron) {
-        onDeleted(deletedItem, oldNeutron, newNeutron, true);
+        onDeleted(deletedItem, oldNeutron, newNeutron, NeutronIndex.of(oldNeutron), NeutronIndex.of(newNeutron), true);
+    }
+
+    @Override
+    public void onDeleted(Port deletedItem, Neutron oldNeutron, Neutron newNeutron, NeutronIndex oldNeutronIndex,
+            NeutronIndex newNeutronIndex) {
+        onDeleted(deletedItem, oldNeutron, newNeutron, oldNeutronIndex, newNeutronIndex, true);
     }
 
-    public void onDeleted(Port port, Neutron oldNeutron, Neutron newNeutron, boolean removeBaseEpMapping) {
+    public void onDeleted(Port port, Neutron oldNeutron, Neutron newNeutron, NeutronIndex oldNeutronIndex,
+            NeutronIndex newNeutronIndex, boolean removeBaseEpMapping) {
         LOG.trace("deleted port - {}", port);
         if (PortUtils.isRouterInterfacePort(port)) {
             LOG.trace("Port is router interface port: {}", port.getUuid().getValue());
@@ -666,11 +685,10 @@ public class NeutronPortAware implements NeutronAware<Port> {
             L3ContextId l3Context = new L3ContextId(port.getNetworkId().getValue());
             // change L3Context for all new EPs with same subnet as router port
             changeL3ContextForEpsInSubnet(portIpWithSubnet.getSubnetId(), port.getNetworkId(),
-                    new Uuid(port.getDeviceId()), newNeutron, false);
+                    new Uuid(port.getDeviceId()), newNeutron, newNeutronIndex, false);
             // set L3Context as parent for bridge domain which is parent of subnet
             TenantId tenantId = new TenantId(port.getTenantId().getValue());
-            Optional<Subnet> potentialRouterPortSubnet =
-                    SubnetUtils.findSubnet(portIpWithSubnet.getSubnetId(), oldNeutron.getSubnets());
+            Optional<Subnet> potentialRouterPortSubnet = oldNeutronIndex.findSubnet(portIpWithSubnet.getSubnetId());
             if (!potentialRouterPortSubnet.isPresent()) {
                 LOG.warn("Illegal state - router interface port is in subnet which does not exist. {}", port);
                 return;
@@ -685,18 +703,18 @@ public class NeutronPortAware implements NeutronAware<Port> {
                 .build();
             rwTx.merge(LogicalDatastoreType.CONFIGURATION,
                     L2L3IidFactory.l2BridgeDomainIid(tenantId, fwdCtx.getContextId()), fwdCtx);
-            NetworkDomain subnet = NeutronSubnetAware.createSubnet(routerPortSubnet, newNeutron, null);
+            NetworkDomain subnet = NeutronSubnetAware.createSubnet(routerPortSubnet, newNeutron, newNeutronIndex, null);
             rwTx.put(LogicalDatastoreType.CONFIGURATION,
                     L2L3IidFactory.subnetIid(tenantId, subnet.getNetworkDomainId()), subnet);
-            unregisterEndpointAndRemoveMapping(createUnregisterEndpointInput(port, oldNeutron), port, rwTx);
-            unregisterEndpointAndRemoveMapping(createUnregisterBaseEndpointInput(port, oldNeutron), port, rwTx,
+            unregisterEndpointAndRemoveMapping(createUnregisterEndpointInput(port, oldNeutronIndex), port, rwTx);
+            unregisterEndpointAndRemoveMapping(createUnregisterBaseEndpointInput(port, oldNeutronIndex), port, rwTx,
                     removeBaseEpMapping);
             DataStoreHelper.submitToDs(rwTx);
         } else if (PortUtils.isDhcpPort(port)) {
             LOG.trace("Port is DHCP port: {}", port.getUuid().getValue());
             ReadWriteTransaction rwTx = dataProvider.newReadWriteTransaction();
-            unregisterEndpointAndRemoveMapping(createUnregisterEndpointInput(port, oldNeutron), port, rwTx);
-            unregisterEndpointAndRemoveMapping(createUnregisterBaseEndpointInput(port, oldNeutron), port, rwTx,
+            unregisterEndpointAndRemoveMapping(createUnregisterEndpointInput(port, oldNeutronIndex), port, rwTx);
+            unregisterEndpointAndRemoveMapping(createUnregisterBaseEndpointInput(port, oldNeutronIndex), port, rwTx,
                     removeBaseEpMapping);
             DataStoreHelper.submitToDs(rwTx);
             if (!oldNeutron.getPorts()
@@ -707,7 +725,7 @@ public class NeutronPortAware implements NeutronAware<Port> {
                 Port metadataPort = cloneMetadataPortFromDhcpPort(port, metadataIpPrefix);
                 if (PortUtils.resolveFirstFixedIps(metadataPort).isPresent()) {
                     ContextId metadataCtx = resolveL3ContextForPort(metadataPort,
-                            PortUtils.resolveFirstFixedIps(metadataPort).get(), oldNeutron);
+                            PortUtils.resolveFirstFixedIps(metadataPort).get(), oldNeutronIndex);
                     AddressEndpointUnregBuilder metadataEpUnreg =
                             new AddressEndpointUnregBuilder().setAddress(String.valueOf(metadataIpPrefix.getValue()))
                                 .setAddressType(IpPrefixType.class)
@@ -719,8 +737,8 @@ public class NeutronPortAware implements NeutronAware<Port> {
         } else if (PortUtils.isNormalPort(port)) {
             LOG.trace("Port is normal port: {}", port.getUuid().getValue());
             ReadWriteTransaction rwTx = dataProvider.newReadWriteTransaction();
-            unregisterEndpointAndRemoveMapping(createUnregisterEndpointInput(port, oldNeutron), port, rwTx);
-            unregisterEndpointAndRemoveMapping(createUnregisterBaseEndpointInput(port, oldNeutron), port, rwTx,
+            unregisterEndpointAndRemoveMapping(createUnregisterEndpointInput(port, oldNeutronIndex), port, rwTx);
+            unregisterEndpointAndRemoveMapping(createUnregisterBaseEndpointInput(port, oldNeutronIndex), port, rwTx,
                     removeBaseEpMapping);
             DataStoreHelper.submitToDs(rwTx);
         } else if (PortUtils.isRouterGatewayPort(port)) {
@@ -752,7 +770,7 @@ public class NeutronPortAware implements NeutronAware<Port> {
     @SuppressWarnings("checkstyle:LineLength") // Longer lines in this method are caused by long package names,
                                                // this will be removed when deprecated classes will be cleared.
     private org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.UnregisterEndpointInput createUnregisterBaseEndpointInput(
-            Port port, Neutron neutron) {
+            Port port, NeutronIndex neutronIndex) {
         List<AddressEndpointUnreg> list = new ArrayList<>();
         AddressEndpointUnregBuilder addrL2EpUnregBuilder = new AddressEndpointUnregBuilder();
         addrL2EpUnregBuilder.setAddress(port.getMacAddress().getValue())
@@ -762,7 +780,7 @@ public class NeutronPortAware implements NeutronAware<Port> {
         list.add(addrL2EpUnregBuilder.build());
         Optional<FixedIps> potentialFirstIp = PortUtils.resolveFirstFixedIps(port);
         if (potentialFirstIp.isPresent()) {
-            ContextId l3ContextId = resolveL3ContextForPort(port, potentialFirstIp.get(), neutron);
+            ContextId l3ContextId = resolveL3ContextForPort(port, potentialFirstIp.get(), neutronIndex);
             AddressEndpointUnregBuilder addrL3EpUnregBuilder = new AddressEndpointUnregBuilder();
             addrL3EpUnregBuilder
                 .setAddress(MappingUtils.ipAddressToStringIpPrefix(potentialFirstIp.get().getIpAddress()))
@@ -780,7 +798,7 @@ public class NeutronPortAware implements NeutronAware<Port> {
     @SuppressWarnings("checkstyle:LineLength") // Longer lines in this method are caused by long package names,
                                                // this will be removed when deprecated classes will be cleared.
     private org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.UnregisterEndpointInput createUnregisterEndpointInput(
-            Port port, Neutron neutron) {
+            Port port, NeutronIndex neutronIndex) {
         org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.UnregisterEndpointInputBuilder inputBuilder =
                 new org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.UnregisterEndpointInputBuilder();
         L2 l2Ep = new L2Builder().setL2Context(new L2BridgeDomainId(port.getNetworkId().getValue()))
@@ -791,7 +809,7 @@ public class NeutronPortAware implements NeutronAware<Port> {
         Optional<FixedIps> potentialFirstIp = PortUtils.resolveFirstFixedIps(port);
         if (potentialFirstIp.isPresent()) {
             FixedIps firstIp = potentialFirstIp.get();
-            L3Address l3Address = resolveL3AddressFromPort(port, firstIp, neutron);
+            L3Address l3Address = resolveL3AddressFromPort(port, firstIp, neutronIndex);
             L3 l3 = new L3Builder().setIpAddress(l3Address.getIpAddress())
                 .setL3Context(l3Address.getL3Context())
                 .build();
@@ -801,8 +819,8 @@ public class NeutronPortAware implements NeutronAware<Port> {
     }
 
     @Deprecated
-    private static L3Address resolveL3AddressFromPort(Port port, FixedIps portFixedIPs, Neutron neutron) {
-        Set<Port> routerIfacePorts = PortUtils.findRouterInterfacePorts(neutron.getPorts());
+    private static L3Address resolveL3AddressFromPort(Port port, FixedIps portFixedIPs, NeutronIndex neutronIndex) {
+        Set<Port> routerIfacePorts = neutronIndex.findRouterInterfacePorts();
         for (Port routerIfacePort : routerIfacePorts) {
             Uuid routerIfacePortSubnet = routerIfacePort.getFixedIps().get(0).getSubnetId();
             // if port is in the same subnet as router interface then we want to use L3Context of
@@ -820,8 +838,9 @@ public class NeutronPortAware implements NeutronAware<Port> {
             .build();
     }
 
-    private static ContextId resolveL3ContextForPort(Port port, FixedIps portFixedIPs, Neutron neutron) {
-        Set<Port> routerIfacePorts = PortUtils.findRouterInterfacePorts(neutron.getPorts());
+    private static ContextId resolveL3ContextForPort(Port port, FixedIps portFixedIPs,
+            NeutronIndex neutronIndex) {
+        Set<Port> routerIfacePorts = neutronIndex.findRouterInterfacePorts();
         for (Port routerIfacePort : routerIfacePorts) {
             Uuid routerIfacePortSubnet = routerIfacePort.getFixedIps().get(0).getSubnetId();
             // if port is in the same subnet as router interface then we want to use L3Context of
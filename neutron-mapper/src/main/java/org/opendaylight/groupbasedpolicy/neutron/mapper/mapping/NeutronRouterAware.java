@@ -28,8 +28,7 @@ import org.opendaylight.groupbasedpolicy.neutron.gbp.util.NeutronGbpIidFactory;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.EndpointRegistrator;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.util.MappingUtils;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.util.NetworkUtils;
-import org.opendaylight.groupbasedpolicy.neutron.mapper.util.PortUtils;
-import org.opendaylight.groupbasedpolicy.neutron.mapper.util.SubnetUtils;
+import org.opendaylight.groupbasedpolicy.neutron.mapper.util.NeutronIndex;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.groupbasedpolicy.util.IidFactory;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
@@ -135,10 +134,17 @@ public class NeutronRouterAware implements NeutronAware<Router> {
             true);
     }
 
+    @Override
+    public void onUpdated(Router oldRouter, Router newRouter, Neutron oldNeutron, Neutron newNeutron) {
+        onUpdated(oldRouter, newRouter, oldNeutron, newNeutron, NeutronIndex.of(oldNeutron),
+                NeutronIndex.of(newNeutron));
+    }
+
     @Override
     @SuppressWarnings("checkstyle:LineLength") // Longer lines in this method are caused by long package names,
                                                // this will be removed when deprecated classes will be cleared.
-    public void onUpdated(Router oldRouter, Router newRouter, Neutron oldNeutron, Neutron newNeutron) {
+    public void onUpdated(Router oldRouter, Router newRouter, Neutron oldNeutron, Neutron newNeutron,
+            NeutronIndex oldNeutronIndex, NeutronIndex newNeutronIndex) {
         LOG.trace("updated router - OLD: {}\nNEW: {}", oldRouter, newRouter);
 
         ReadWriteTransaction rwTx = dataProvider.newReadWriteTransaction();
@@ -148,7 +154,7 @@ public class NeutronRouterAware implements NeutronAware<Router> {
         if (newRouter.getGatewayPortId() != null && oldRouter.getGatewayPortId() == null) {
             // external network is attached to router
             Uuid gatewayPortId = newRouter.getGatewayPortId();
-            Optional<Port> potentialGwPort = PortUtils.findPort(gatewayPortId, newNeutron.getPorts());
+            Optional<Port> potentialGwPort = newNeutronIndex.findPort(gatewayPortId);
             if (!potentialGwPort.isPresent()) {
                 LOG.warn("Illegal state - router gateway port {} does not exist for router {}.",
                         gatewayPortId.getValue(), newRouter);
@@ -168,7 +174,7 @@ public class NeutronRouterAware implements NeutronAware<Router> {
             // router can have only one external network
             FixedIps ipWithSubnetFromGwPort = fixedIpsFromGwPort.get(0);
             Optional<org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.subnets.rev150712.subnets.attributes.subnets.Subnet>
-                potentialSubnet = SubnetUtils.findSubnet(ipWithSubnetFromGwPort.getSubnetId(), newNeutron.getSubnets());
+                potentialSubnet = newNeutronIndex.findSubnet(ipWithSubnetFromGwPort.getSubnetId());
             if (!potentialSubnet.isPresent()) {
                 LOG.warn("Illegal state - Subnet {} does not exist for router {}.",
                         ipWithSubnetFromGwPort.getSubnetId(), newRouter);
@@ -220,7 +226,7 @@ public class NeutronRouterAware implements NeutronAware<Router> {
             rwTx.put(LogicalDatastoreType.CONFIGURATION, L2L3IidFactory.l2BridgeDomainIid(tenantId, l2BdId),
                     l2BdWithGw);
         }
-        updateTenantForwarding(newNeutron, oldRouter, newRouter, new L3ContextId(routerL3CtxId), tenantId, rwTx);
+        updateTenantForwarding(newNeutronIndex, oldRouter, newRouter, new L3ContextId(routerL3CtxId), tenantId, rwTx);
         DataStoreHelper.submitToDs(rwTx);
     }
 
@@ -269,8 +275,8 @@ public class NeutronRouterAware implements NeutronAware<Router> {
     @Deprecated
     @SuppressWarnings("checkstyle:LineLength") // Longer lines in this method are caused by long package names,
                                                // this will be removed when deprecated classes will be cleared.
-    private void updateTenantForwarding(Neutron newNeutron, Router oldRouter, Router newRouter, L3ContextId l3ContextId,
-        TenantId tenantId, ReadWriteTransaction rwTx) {
+    private void updateTenantForwarding(NeutronIndex newNeutronIndex, Router oldRouter, Router newRouter,
+        L3ContextId l3ContextId, TenantId tenantId, ReadWriteTransaction rwTx) {
 
         InstanceIdentifier<L3Context> l3ContextIid = IidFactory.l3ContextIid(tenantId, l3ContextId);
         Optional<L3Context> optL3Context = DataStoreHelper.readFromDs(LogicalDatastoreType.CONFIGURATION, l3ContextIid,
@@ -284,7 +290,7 @@ public class NeutronRouterAware implements NeutronAware<Router> {
         if (newRouter.getGatewayPortId() != null && oldRouter.getGatewayPortId() == null) {
             // external network is attached to router
             Uuid gatewayPortId = newRouter.getGatewayPortId();
-            Optional<Port> potentialGwPort = PortUtils.findPort(gatewayPortId, newNeutron.getPorts());
+            Optional<Port> potentialGwPort = newNeutronIndex.findPort(gatewayPortId);
             if (!potentialGwPort.isPresent()) {
                 LOG.warn("Illegal state - router gateway port {} does not exist for router {}.",
                      gatewayPortId.getValue(), newRouter);
@@ -304,7 +310,7 @@ public class NeutronRouterAware implements NeutronAware<Router> {
             // router can have only one external network
             FixedIps ipWithSubnetFromGwPort = fixedIpsFromGwPort.get(0);
             Optional<org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.subnets.rev150712.subnets.attributes.subnets.Subnet>
-                potentialSubnet = SubnetUtils.findSubnet(ipWithSubnetFromGwPort.getSubnetId(), newNeutron.getSubnets());
+                potentialSubnet = newNeutronIndex.findSubnet(ipWithSubnetFromGwPort.getSubnetId());
             if (!potentialSubnet.isPresent()) {
                 LOG.warn("Illegal state - Subnet {} does not exist for router {}.",
                     ipWithSubnetFromGwPort.getSubnetId(), newRouter);
@@ -358,7 +364,7 @@ public class NeutronRouterAware implements NeutronAware<Router> {
 
     @SuppressWarnings("checkstyle:LineLength") // Longer lines in this method are caused by long package names,
                                                // this will be removed when deprecated classes will be cleared.
-    private void deleteTenantForwarding(Neutron newNeutron, Router oldRouter, L3ContextId l3ContextId,
+    private void deleteTenantForwarding(NeutronIndex newNeutronIndex, Router oldRouter, L3ContextId l3ContextId,
         TenantId tenantId, ReadWriteTransaction rwTx) {
 
         InstanceIdentifier<L3Context> l3ContextIid = IidFactory.l3ContextIid(tenantId, l3ContextId);
@@ -369,7 +375,7 @@ public class NeutronRouterAware implements NeutronAware<Router> {
         if (oldRouter.getGatewayPortId() != null) {
             // external network is attached to router
             Uuid gatewayPortId = oldRouter.getGatewayPortId();
-            Optional<Port> potentialGwPort = PortUtils.findPort(gatewayPortId, newNeutron.getPorts());
+            Optional<Port> potentialGwPort = newNeutronIndex.findPort(gatewayPortId);
             if (!potentialGwPort.isPresent()) {
                 LOG.trace("Gateway port {} is not present. Skipping delete of extGW from TenantForwarding",
                     gatewayPortId);
@@ -388,7 +394,7 @@ public class NeutronRouterAware implements NeutronAware<Router> {
             FixedIps ipWithSubnetFromGwPort = fixedIpsFromGwPort.get(0);
             Optional<org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.subnets.rev150712.subnets.attributes.subnets.Subnet>
                 potentialSubnet =
-                SubnetUtils.findSubnet(ipWithSubnetFromGwPort.getSubnetId(), newNeutron.getSubnets());
+                newNeutronIndex.findSubnet(ipWithSubnetFromGwPort.getSubnetId());
             if (!potentialSubnet.isPresent()) {
                 LOG.trace("Gateway port {} does not contain fixed IPs. Skipping delete of extGW from TenantForwarding",
                     gatewayPortId);
@@ -479,11 +485,17 @@ public class NeutronRouterAware implements NeutronAware<Router> {
 
     @Override
     public void onDeleted(Router router, Neutron oldNeutron, Neutron newNeutron) {
+        onDeleted(router, oldNeutron, newNeutron, NeutronIndex.of(oldNeutron), NeutronIndex.of(newNeutron));
+    }
+
+    @Override
+    public void onDeleted(Router router, Neutron oldNeutron, Neutron newNeutron, NeutronIndex oldNeutronIndex,
+            NeutronIndex newNeutronIndex) {
         LOG.debug("deleted router - {}", router);
         ReadWriteTransaction rwTx = dataProvider.newReadWriteTransaction();
         ContextId routerl3ContextId = new ContextId(router.getUuid().getValue());
         TenantId tenantId = new TenantId(router.getTenantId().getValue());
-        deleteExtGw(router, tenantId, newNeutron, rwTx);
+        deleteExtGw(router, tenantId, newNeutronIndex, rwTx);
         InstanceIdentifier<ForwardingContext> routerL3CtxIid = L2L3IidFactory.l3ContextIid(tenantId, routerl3ContextId);
 
         LOG.trace("Removing router from forwardingByTenant. Router: {} Path: {}", router, routerL3CtxIid);
@@ -500,12 +512,13 @@ public class NeutronRouterAware implements NeutronAware<Router> {
 
     @SuppressWarnings("checkstyle:LineLength") // Longer lines in this method are caused by long package names,
                                                // this will be removed when deprecated classes will be cleared.
-    private void deleteExtGw(Router router, TenantId tenantId, Neutron newNeutron, ReadWriteTransaction rwTx) {
+    private void deleteExtGw(Router router, TenantId tenantId, NeutronIndex newNeutronIndex,
+            ReadWriteTransaction rwTx) {
         ContextId routerL3CtxId = new ContextId(router.getUuid().getValue());
         if (router.getGatewayPortId() != null) {
             // external network is attached to router
             Uuid gatewayPortId = router.getGatewayPortId();
-            Optional<Port> potentialGwPort = PortUtils.findPort(gatewayPortId, newNeutron.getPorts());
+            Optional<Port> potentialGwPort = newNeutronIndex.findPort(gatewayPortId);
             if (potentialGwPort == null || !potentialGwPort.isPresent()) {
                 LOG.trace("Gateway port {} is not present. Skipping delete for external gateway", gatewayPortId);
                 return;
@@ -521,7 +534,7 @@ public class NeutronRouterAware implements NeutronAware<Router> {
 
             FixedIps ipWithSubnetFromGwPort = fixedIpsFromGwPort.get(0);
             Optional<org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.subnets.rev150712.subnets.attributes.subnets.Subnet>
-                potentialSubnet = SubnetUtils.findSubnet(ipWithSubnetFromGwPort.getSubnetId(), newNeutron.getSubnets());
+                potentialSubnet = newNeutronIndex.findSubnet(ipWithSubnetFromGwPort.getSubnetId());
             if (!potentialSubnet.isPresent()) {
                 LOG.trace("Subnet for GW port {} is not present. Skipping delete for external gateway",
                     gatewayPortId);
@@ -565,7 +578,7 @@ public class NeutronRouterAware implements NeutronAware<Router> {
                     bridgeDomain);
             }
         }
-        deleteTenantForwarding(newNeutron, router, new L3ContextId(routerL3CtxId), tenantId, rwTx);
+        deleteTenantForwarding(newNeutronIndex, router, new L3ContextId(routerL3CtxId), tenantId, rwTx);
     }
 
 }
@@ -17,6 +17,7 @@ import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.mapping.rule.NeutronSecurityRuleAware;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.util.MappingUtils;
+import org.opendaylight.groupbasedpolicy.neutron.mapper.util.NeutronIndex;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.groupbasedpolicy.util.IidFactory;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.EndpointGroupId;
@@ -49,6 +50,11 @@ public class NeutronSecurityGroupAware implements NeutronAware<SecurityGroup> {
 
     @Override
     public void onCreated(SecurityGroup createdSecGroup, Neutron neutron) {
+        onCreated(createdSecGroup, neutron, NeutronIndex.of(neutron));
+    }
+
+    @Override
+    public void onCreated(SecurityGroup createdSecGroup, Neutron neutron, NeutronIndex neutronIndex) {
         LOG.trace("created securityGroup - {}", createdSecGroup);
         ReadWriteTransaction rwTx = dataProvider.newReadWriteTransaction();
         boolean isSecGroupCreated = addNeutronSecurityGroup(createdSecGroup, rwTx);
@@ -57,7 +63,7 @@ public class NeutronSecurityGroupAware implements NeutronAware<SecurityGroup> {
         } else {
             rwTx.cancel();
         }
-        ruleAware.flushPendingSecurityRulesFor(createdSecGroup.getKey(), neutron);
+        ruleAware.flushPendingSecurityRulesFor(createdSecGroup.getKey(), neutron, neutronIndex);
     }
 
     boolean addNeutronSecurityGroup(SecurityGroup secGroup, ReadWriteTransaction rwTx) {
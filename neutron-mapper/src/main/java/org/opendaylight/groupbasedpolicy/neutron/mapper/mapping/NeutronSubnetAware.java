@@ -23,6 +23,7 @@ import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.groupbasedpolicy.domain_extension.l2_l3.util.L2L3IidFactory;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.EndpointRegistrator;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.util.MappingUtils;
+import org.opendaylight.groupbasedpolicy.neutron.mapper.util.NeutronIndex;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.util.NetworkUtils;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.groupbasedpolicy.util.IidFactory;
@@ -77,12 +78,18 @@ public class NeutronSubnetAware implements
     public void onCreated(
             org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.subnets.rev150712.subnets.attributes.subnets.Subnet neutronSubnet,
             Neutron neutron) {
+        onCreated(neutronSubnet, neutron, NeutronIndex.of(neutron));
+    }
+
+    @Override
+    public void onCreated(
+            org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.subnets.rev150712.subnets.attributes.subnets.Subnet neutronSubnet,
+            Neutron neutron, NeutronIndex neutronIndex) {
         LOG.trace("created subnet - {}", neutronSubnet);
         ReadWriteTransaction rwTx = dataProvider.newReadWriteTransaction();
         TenantId tenantId = new TenantId(neutronSubnet.getTenantId().getValue());
 
-        Optional<Network> potentialNetwork =
-                NetworkUtils.findNetwork(neutronSubnet.getNetworkId(), neutron.getNetworks());
+        Optional<Network> potentialNetwork = neutronIndex.findNetwork(neutronSubnet.getNetworkId());
         if (!potentialNetwork.isPresent()) {
             LOG.warn("Illegal state - network {} does not exist for subnet {}.",
                     neutronSubnet.getNetworkId().getValue(), neutronSubnet);
@@ -96,7 +103,7 @@ public class NeutronSubnetAware implements
         IpAddress gatewayIp = neutronSubnet.getGatewayIp();
         if (NetworkUtils.isProviderPhysicalNetwork(networkOfSubnet)) {
             // add virtual router IP only in case it is provider physical network
-            subnetDomain = createSubnet(neutronSubnet, neutron, gatewayIp);
+            subnetDomain = createSubnet(neutronSubnet, neutron, neutronIndex, gatewayIp);
             boolean registeredDefaultRoute = epRegistrator.registerExternalL3PrefixEndpoint(MappingUtils.DEFAULT_ROUTE,
                     new L3ContextId(neutronSubnet.getNetworkId().getValue()), gatewayIp, tenantId);
             if (!registeredDefaultRoute) {
@@ -109,9 +116,9 @@ public class NeutronSubnetAware implements
             // virtual router IP is not set and it will be set when router gateway port is set
             // or when a router port is attached to a network
             if (NetworkUtils.isRouterExternal(networkOfSubnet)) {
-                subnetDomain = createSubnet(neutronSubnet, neutron, gatewayIp);
+                subnetDomain = createSubnet(neutronSubnet, neutron, neutronIndex, gatewayIp);
             } else {
-                subnetDomain = createSubnet(neutronSubnet, neutron, null);
+                subnetDomain = createSubnet(neutronSubnet, neutron, neutronIndex, null);
             }
         }
         processTenantSubnet(neutronSubnet, networkOfSubnet, tenantId, rwTx);
@@ -123,6 +130,12 @@ public class NeutronSubnetAware implements
     public static NetworkDomain createSubnet(
             org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.subnets.rev150712.subnets.attributes.subnets.Subnet subnet,
             Neutron neutron, IpAddress gwIpAddress) {
+        return createSubnet(subnet, neutron, NeutronIndex.of(neutron), gwIpAddress);
+    }
+
+    public static NetworkDomain createSubnet(
+            org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.subnets.rev150712.subnets.attributes.subnets.Subnet subnet,
+            Neutron neutron, NeutronIndex neutronIndex, IpAddress gwIpAddress) {
         SubnetBuilder sb = new SubnetBuilder();
         sb.setIpPrefix(subnet.getCidr());
         sb.setDefaultSubnetGatewayIp(subnet.getGatewayIp());
@@ -157,8 +170,7 @@ public class NeutronSubnetAware implements
                 }
             }
         }
-        Optional<Network> potentialNetwork =
-                NetworkUtils.findNetwork(subnet.getNetworkId(), neutron.getNetworks());
+        Optional<Network> potentialNetwork = neutronIndex.findNetwork(subnet.getNetworkId());
         if (potentialNetwork.isPresent()) {
             sb.setIsTenant(NetworkUtils.isTenantNetwork(potentialNetwork.get()));
         }
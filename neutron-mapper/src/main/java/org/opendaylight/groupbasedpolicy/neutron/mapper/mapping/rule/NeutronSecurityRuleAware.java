@@ -36,9 +36,9 @@ import org.opendaylight.groupbasedpolicy.neutron.mapper.EndpointRegistrator;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.mapping.NeutronAware;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.mapping.NeutronSecurityGroupAware;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.util.MappingUtils;
+import org.opendaylight.groupbasedpolicy.neutron.mapper.util.NeutronIndex;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.util.NetworkUtils;
 import org.opendaylight.groupbasedpolicy.neutron.mapper.util.SecurityGroupUtils;
-import org.opendaylight.groupbasedpolicy.neutron.mapper.util.SecurityRuleUtils;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.groupbasedpolicy.util.IidFactory;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.Uuid;
@@ -113,6 +113,11 @@ public class NeutronSecurityRuleAware implements NeutronAware<SecurityRule> {
 
     @Override
     public void onCreated(SecurityRule secRule, Neutron neutron) {
+        onCreated(secRule, neutron, NeutronIndex.of(neutron));
+    }
+
+    @Override
+    public void onCreated(SecurityRule secRule, Neutron neutron, NeutronIndex neutronIndex) {
         LOG.trace("created securityRule - {}", secRule);
         if (neutron.getSecurityGroups() == null || neutron.getSecurityGroups().getSecurityGroup() == null
                 || neutron.getSecurityGroups()
@@ -127,7 +132,7 @@ public class NeutronSecurityRuleAware implements NeutronAware<SecurityRule> {
         ReadWriteTransaction rwTx = dataProvider.newReadWriteTransaction();
         boolean isNeutronSecurityRuleAdded = true;
         try {
-            isNeutronSecurityRuleAdded = addNeutronSecurityRule(secRule, neutron, rwTx);
+            isNeutronSecurityRuleAdded = addNeutronSecurityRule(secRule, neutron, neutronIndex, rwTx);
         } catch (NullPointerException e) {
             LOG.error("Failed to process rule {}", secRule.getUuid());
             isNeutronSecurityRuleAdded = false;
@@ -139,7 +144,8 @@ public class NeutronSecurityRuleAware implements NeutronAware<SecurityRule> {
         }
     }
 
-    public void flushPendingSecurityRulesFor(@Nonnull SecurityGroupKey secGroupKey, Neutron neutron) {
+    public void flushPendingSecurityRulesFor(@Nonnull SecurityGroupKey secGroupKey, Neutron neutron,
+            NeutronIndex neutronIndex) {
         List<SecurityRule> rules = pendingCreatedRules.values()
             .stream()
             .filter(sr -> sr.getSecurityGroupId().equals(secGroupKey.getUuid()))
@@ -147,7 +153,7 @@ public class NeutronSecurityRuleAware implements NeutronAware<SecurityRule> {
         rules.forEach(sr -> {
             LOG.trace("Flushing pending security rule {}", sr);
             ReadWriteTransaction rwTx = dataProvider.newReadWriteTransaction();
-            boolean isNeutronSecurityRuleAdded = addNeutronSecurityRule(sr, neutron, rwTx);
+            boolean isNeutronSecurityRuleAdded = addNeutronSecurityRule(sr, neutron, neutronIndex, rwTx);
             if (isNeutronSecurityRuleAdded) {
                 DataStoreHelper.submitToDs(rwTx);
             } else {
@@ -158,11 +164,22 @@ public class NeutronSecurityRuleAware implements NeutronAware<SecurityRule> {
     }
 
     public boolean addNeutronSecurityRule(SecurityRule secRule, Neutron neutron, ReadWriteTransaction rwTx) {
-        return addNeutronSecurityRuleWithAction(secRule, neutron, MappingUtils.ALLOW_ACTION_CHOICE, rwTx);
+        return addNeutronSecurityRule(secRule, neutron, NeutronIndex.of(neutron), rwTx);
+    }
+
+    public boolean addNeutronSecurityRule(SecurityRule secRule, Neutron neutron, NeutronIndex neutronIndex,
+            ReadWriteTransaction rwTx) {
+        return addNeutronSecurityRuleWithAction(secRule, neutron, neutronIndex, MappingUtils.ALLOW_ACTION_CHOICE,
+                rwTx);
     }
 
     public boolean addNeutronSecurityRuleWithAction(SecurityRule secRule, Neutron neutron, ActionChoice action,
             ReadWriteTransaction rwTx) {
+        return addNeutronSecurityRuleWithAction(secRule, neutron, NeutronIndex.of(neutron), action, rwTx);
+    }
+
+    public boolean addNeutronSecurityRuleWithAction(SecurityRule secRule, Neutron neutron, NeutronIndex neutronIndex,
+            ActionChoice action, ReadWriteTransaction rwTx) {
         if (secRule.getTenantId() == null) {
             LOG.warn("Skip processing rule {} because TenantId is null.", secRule);
             // TODO This needs to be reworked, SecRules shouldn't use TenantId, Neutron doesn't always configure it
@@ -183,14 +200,16 @@ public class NeutronSecurityRuleAware implements NeutronAware<SecurityRule> {
 
         if (secRule.getRemoteGroupId() != null) {
             Uuid consumerSecGroupId = secRule.getRemoteGroupId();
-            designContractsBetweenProviderAndConsumer(tenantId, providerSecGroupId, consumerSecGroupId, neutron, rwTx);
-            designContractsBetweenProviderAndConsumer(tenantId, consumerSecGroupId, providerSecGroupId, neutron, rwTx);
+            designContractsBetweenProviderAndConsumer(tenantId, providerSecGroupId, consumerSecGroupId, neutron,
+                neutronIndex, rwTx);
+            designContractsBetweenProviderAndConsumer(tenantId, consumerSecGroupId, providerSecGroupId, neutron,
+                neutronIndex, rwTx);
         } else {
-            for (Uuid consumerSecGroupId : SecurityRuleUtils.findSecurityGroupsHavingSecurityRules(neutron)) {
+            for (Uuid consumerSecGroupId : neutronIndex.findSecurityGroupsHavingSecurityRules()) {
                 designContractsBetweenProviderAndConsumer(tenantId, providerSecGroupId, consumerSecGroupId, neutron,
-                    rwTx);
+                    neutronIndex, rwTx);
                 designContractsBetweenProviderAndConsumer(tenantId, consumerSecGroupId, providerSecGroupId, neutron,
-                    rwTx);
+                    neutronIndex, rwTx);
             }
         }
 
@@ -259,9 +278,9 @@ public class NeutronSecurityRuleAware implements NeutronAware<SecurityRule> {
 
     @VisibleForTesting
     void designContractsBetweenProviderAndConsumer(TenantId tenantId, Uuid provSecGroupId, Uuid consSecGroupId,
-            Neutron neutron, ReadWriteTransaction rwTx) {
-        Set<SecurityRule> provSecRules = getProvidedSecRulesBetween(provSecGroupId, consSecGroupId, neutron);
-        Set<SecurityRule> consSecRules = getProvidedSecRulesBetween(consSecGroupId, provSecGroupId, neutron);
+            Neutron neutron, NeutronIndex neutronIndex, ReadWriteTransaction rwTx) {
+        Set<SecurityRule> provSecRules = getProvidedSecRulesBetween(provSecGroupId, consSecGroupId, neutronIndex);
+        Set<SecurityRule> consSecRules = getProvidedSecRulesBetween(consSecGroupId, provSecGroupId, neutronIndex);
         EndpointGroupId consEpgId = new EndpointGroupId(consSecGroupId.getValue());
         for (SecurityRule provSecRule : provSecRules) {
             if (isProviderSecRuleSuitableForConsumerSecRules(provSecRule, consSecRules)) {
@@ -274,10 +293,9 @@ public class NeutronSecurityRuleAware implements NeutronAware<SecurityRule> {
     }
 
     @VisibleForTesting
-    Set<SecurityRule> getProvidedSecRulesBetween(Uuid provSecGroup, Uuid consSecGroup, Neutron neutron) {
-        return Sets.union(
-            SecurityRuleUtils.findSecurityRulesBySecGroupAndRemoteSecGroup(provSecGroup, consSecGroup, neutron),
-            SecurityRuleUtils.findSecurityRulesBySecGroupAndRemoteSecGroup(provSecGroup, null, neutron));
+    Set<SecurityRule> getProvidedSecRulesBetween(Uuid provSecGroup, Uuid consSecGroup, NeutronIndex neutronIndex) {
+        return Sets.union(neutronIndex.findSecurityRulesBySecGroupAndRemoteSecGroup(provSecGroup, consSecGroup),
+            neutronIndex.findSecurityRulesBySecGroupAndRemoteSecGroup(provSecGroup, null));
     }
 
     @VisibleForTesting
@@ -374,6 +392,12 @@ public class NeutronSecurityRuleAware implements NeutronAware<SecurityRule> {
 
     @Override
     public void onDeleted(SecurityRule deletedSecRule, Neutron oldNeutron, Neutron newNeutron) {
+        onDeleted(deletedSecRule, oldNeutron, newNeutron, NeutronIndex.of(oldNeutron), NeutronIndex.of(newNeutron));
+    }
+
+    @Override
+    public void onDeleted(SecurityRule deletedSecRule, Neutron oldNeutron, Neutron newNeutron,
+            NeutronIndex oldNeutronIndex, NeutronIndex newNeutronIndex) {
         if (deletedSecRule.getTenantId() == null) {
             LOG.warn("Skip deleting SecRule {} because TenantId is null.", deletedSecRule);
             // TODO This needs to be reworked, SecGroups shouldn't use TenantId, Neutron doesn't always configure it
@@ -381,7 +405,8 @@ public class NeutronSecurityRuleAware implements NeutronAware<SecurityRule> {
         }
         LOG.trace("deleted securityRule - {}", deletedSecRule);
         ReadWriteTransaction rwTx = dataProvider.newReadWriteTransaction();
-        boolean isNeutronSecurityRuleDeleted = deleteNeutronSecurityRule(deletedSecRule, oldNeutron, rwTx);
+        boolean isNeutronSecurityRuleDeleted = deleteNeutronSecurityRule(deletedSecRule, oldNeutron, oldNeutronIndex,
+                rwTx);
         if (isNeutronSecurityRuleDeleted) {
             DataStoreHelper.submitToDs(rwTx);
             if (newNeutron == null || newNeutron.getSecurityRules() == null
@@ -406,6 +431,11 @@ public class NeutronSecurityRuleAware implements NeutronAware<SecurityRule> {
     }
 
     public boolean deleteNeutronSecurityRule(SecurityRule secRule, Neutron neutron, ReadWriteTransaction rwTx) {
+        return deleteNeutronSecurityRule(secRule, neutron, NeutronIndex.of(neutron), rwTx);
+    }
+
+    public boolean deleteNeutronSecurityRule(SecurityRule secRule, Neutron neutron, NeutronIndex neutronIndex,
+            ReadWriteTransaction rwTx) {
         TenantId tenantId = new TenantId(secRule.getTenantId().getValue());
         Uuid providerSecGroupId = secRule.getSecurityGroupId();
         EndpointGroupId providerEpgId = new EndpointGroupId(providerSecGroupId.getValue());
@@ -416,15 +446,15 @@ public class NeutronSecurityRuleAware implements NeutronAware<SecurityRule> {
         if (secRule.getRemoteGroupId() != null) {
             Uuid consumerSecGroupId = secRule.getRemoteGroupId();
             undesignContractsBetweenProviderAndConsumer(tenantId, providerSecGroupId, consumerSecGroupId, secRule,
-                neutron, rwTx);
+                neutron, neutronIndex, rwTx);
             undesignContractsBetweenProviderAndConsumer(tenantId, consumerSecGroupId, providerSecGroupId, secRule,
-                neutron, rwTx);
+                neutron, neutronIndex, rwTx);
         } else {
-            for (Uuid consumerSecGroupId : SecurityRuleUtils.findSecurityGroupsHavingSecurityRules(neutron)) {
+            for (Uuid consumerSecGroupId : neutronIndex.findSecurityGroupsHavingSecurityRules()) {
                 undesignContractsBetweenProviderAndConsumer(tenantId, providerSecGroupId, consumerSecGroupId, secRule,
-                    neutron, rwTx);
+                    neutron, neutronIndex, rwTx);
                 undesignContractsBetweenProviderAndConsumer(tenantId, consumerSecGroupId, providerSecGroupId, secRule,
-                    neutron, rwTx);
+                    neutron, neutronIndex, rwTx);
             }
         }
 
@@ -438,9 +468,10 @@ public class NeutronSecurityRuleAware implements NeutronAware<SecurityRule> {
 
     @VisibleForTesting
     void undesignContractsBetweenProviderAndConsumer(TenantId tenantId, Uuid provSecGroupId,
-            Uuid consSecGroupId, SecurityRule removedSecRule, Neutron neutron, ReadWriteTransaction rwTx) {
-        Set<SecurityRule> provSecRules = getProvidedSecRulesBetween(provSecGroupId, consSecGroupId, neutron);
-        Set<SecurityRule> consSecRules = getProvidedSecRulesBetween(consSecGroupId, provSecGroupId, neutron);
+            Uuid consSecGroupId, SecurityRule removedSecRule, Neutron neutron, NeutronIndex neutronIndex,
+            ReadWriteTransaction rwTx) {
+        Set<SecurityRule> provSecRules = getProvidedSecRulesBetween(provSecGroupId, consSecGroupId, neutronIndex);
+        Set<SecurityRule> consSecRules = getProvidedSecRulesBetween(consSecGroupId, provSecGroupId, neutronIndex);
         EndpointGroupId consEpgId = new EndpointGroupId(consSecGroupId.getValue());
         for (SecurityRule provSecRule : provSecRules) {
             if (isProvidersSecRuleSuitableForConsumersSecRulesAndGoodToRemove(provSecRule, consSecRules,
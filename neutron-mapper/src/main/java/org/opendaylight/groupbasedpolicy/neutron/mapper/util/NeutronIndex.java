@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.neutron.mapper.util;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.Uuid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.networks.rev150712.networks.attributes.networks.Network;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.ports.rev150712.port.attributes.FixedIps;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.ports.rev150712.ports.attributes.ports.Port;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.rev150712.Neutron;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.secgroups.rev150712.security.rules.attributes.security.rules.SecurityRule;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.subnets.rev150712.subnets.attributes.subnets.Subnet;
+
+/**
+ * Immutable indexed view of {@link Neutron} snapshot. Ports are indexed by UUID, subnet and device owner, subnets and
+ * networks by UUID and security rules by security group, so that lookups do not scan whole neutron lists.
+ * <p>
+ * Building the index costs one pass over the snapshot, so it pays off only when it is reused. Callers processing
+ * several modifications of the same snapshot (see {@code NeutronMapper}) build it once and pass it along.
+ */
+public final class NeutronIndex {
+
+    private static final NeutronIndex EMPTY = new NeutronIndex();
+
+    private final ImmutableMap<Uuid, Port> portsByUuid;
+    private final ImmutableSetMultimap<Uuid, Port> portsBySubnet;
+    private final ImmutableSetMultimap<String, Port> portsByDeviceOwner;
+    private final ImmutableMap<Uuid, Subnet> subnetsByUuid;
+    private final ImmutableMap<Uuid, Network> networksByUuid;
+    private final ImmutableSetMultimap<Uuid, SecurityRule> securityRulesBySecGroup;
+
+    private NeutronIndex() {
+        portsByUuid = ImmutableMap.of();
+        portsBySubnet = ImmutableSetMultimap.of();
+        portsByDeviceOwner = ImmutableSetMultimap.of();
+        subnetsByUuid = ImmutableMap.of();
+        networksByUuid = ImmutableMap.of();
+        securityRulesBySecGroup = ImmutableSetMultimap.of();
+    }
+
+    private NeutronIndex(Neutron neutron) {
+        Map<Uuid, Port> ports = new HashMap<>();
+        ImmutableSetMultimap.Builder<Uuid, Port> portsBySubnetBuilder = ImmutableSetMultimap.builder();
+        ImmutableSetMultimap.Builder<String, Port> portsByDeviceOwnerBuilder = ImmutableSetMultimap.builder();
+        if (neutron.getPorts() != null && neutron.getPorts().getPort() != null) {
+            for (Port port : neutron.getPorts().getPort()) {
+                ports.putIfAbsent(port.getUuid(), port);
+                List<FixedIps> fixedIps = port.getFixedIps();
+                if (fixedIps != null) {
+                    for (FixedIps ipWithSubnet : fixedIps) {
+                        if (ipWithSubnet.getSubnetId() != null) {
+                            portsBySubnetBuilder.put(ipWithSubnet.getSubnetId(), port);
+                        }
+                    }
+                }
+                if (port.getDeviceOwner() != null) {
+                    portsByDeviceOwnerBuilder.put(port.getDeviceOwner(), port);
+                }
+            }
+        }
+        portsByUuid = ImmutableMap.copyOf(ports);
+        portsBySubnet = portsBySubnetBuilder.build();
+        portsByDeviceOwner = portsByDeviceOwnerBuilder.build();
+
+        Map<Uuid, Subnet> subnets = new HashMap<>();
+        if (neutron.getSubnets() != null && neutron.getSubnets().getSubnet() != null) {
+            for (Subnet subnet : neutron.getSubnets().getSubnet()) {
+                subnets.putIfAbsent(subnet.getUuid(), subnet);
+            }
+        }
+        subnetsByUuid = ImmutableMap.copyOf(subnets);
+
+        Map<Uuid, Network> networks = new HashMap<>();
+        if (neutron.getNetworks() != null && neutron.getNetworks().getNetwork() != null) {
+            for (Network network : neutron.getNetworks().getNetwork()) {
+                networks.putIfAbsent(network.getUuid(), network);
+            }
+        }
+        networksByUuid = ImmutableMap.copyOf(networks);
+
+        ImmutableSetMultimap.Builder<Uuid, SecurityRule> securityRulesBuilder = ImmutableSetMultimap.builder();
+        for (SecurityRule secRule : SecurityRuleUtils.findAllSecurityRules(neutron)) {
+            if (secRule.getSecurityGroupId() != null) {
+                securityRulesBuilder.put(secRule.getSecurityGroupId(), secRule);
+            }
+        }
+        securityRulesBySecGroup = securityRulesBuilder.build();
+    }
+
+    /**
+     * Builds index of given neutron snapshot. Every call indexes the snapshot again.
+     *
+     * @param neutron neutron snapshot, {@code null} results in empty index
+     * @return indexed view of neutron snapshot
+     */
+    public static NeutronIndex of(@Nullable Neutron neutron) {
+        if (neutron == null) {
+            return EMPTY;
+        }
+        return new NeutronIndex(neutron);
+    }
+
+    public Optional<Port> findPort(Uuid uuid) {
+        return Optional.fromNullable(portsByUuid.get(uuid));
+    }
+
+    public Set<Port> findPortsBySubnet(Uuid subnetUuid) {
+        return portsBySubnet.get(subnetUuid);
+    }
+
+    public Set<Port> findRouterInterfacePorts() {
+        return portsByDeviceOwner.get(PortUtils.DEVICE_OWNER_ROUTER_IFACE);
+    }
+
+    public Optional<Subnet> findSubnet(Uuid uuid) {
+        return Optional.fromNullable(subnetsByUuid.get(uuid));
+    }
+
+    public Optional<Network> findNetwork(Uuid uuid) {
+        return Optional.fromNullable(networksByUuid.get(uuid));
+    }
+
+    public Set<SecurityRule> findSecurityRulesBySecGroupAndRemoteSecGroup(Uuid secGroup,
+            @Nullable Uuid remoteSecGroup) {
+        Preconditions.checkNotNull(secGroup);
+        ImmutableSet.Builder<SecurityRule> secRules = ImmutableSet.builder();
+        for (SecurityRule secRule : securityRulesBySecGroup.get(secGroup)) {
+            if (Objects.equal(secRule.getRemoteGroupId(), remoteSecGroup)) {
+                secRules.add(secRule);
+            }
+        }
+        return secRules.build();
+    }
+
+    public Set<Uuid> findSecurityGroupsHavingSecurityRules() {
+        return securityRulesBySecGroup.keySet();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.neutron.mapper.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.Uuid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.networks.rev150712.networks.attributes.NetworksBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.networks.rev150712.networks.attributes.networks.Network;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.networks.rev150712.networks.attributes.networks.NetworkBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.ports.rev150712.port.attributes.FixedIpsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.ports.rev150712.ports.attributes.PortsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.ports.rev150712.ports.attributes.ports.Port;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.ports.rev150712.ports.attributes.ports.PortBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.rev150712.Neutron;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.rev150712.NeutronBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.secgroups.rev150712.security.rules.attributes.SecurityRulesBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.secgroups.rev150712.security.rules.attributes.security.rules.SecurityRule;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.secgroups.rev150712.security.rules.attributes.security.rules.SecurityRuleBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.subnets.rev150712.subnets.attributes.SubnetsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.subnets.rev150712.subnets.attributes.subnets.Subnet;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.subnets.rev150712.subnets.attributes.subnets.SubnetBuilder;
+
+public class NeutronIndexTest {
+
+    private static final Uuid NETWORK_UUID = new Uuid("00000000-0000-0000-0000-000000000001");
+    private static final Uuid SUBNET_UUID = new Uuid("00000000-0000-0000-0000-000000000002");
+    private static final Uuid PORT_UUID = new Uuid("00000000-0000-0000-0000-000000000003");
+    private static final Uuid ROUTER_PORT_UUID = new Uuid("00000000-0000-0000-0000-000000000004");
+    private static final Uuid SEC_GROUP_UUID = new Uuid("00000000-0000-0000-0000-000000000005");
+    private static final Uuid REMOTE_SEC_GROUP_UUID = new Uuid("00000000-0000-0000-0000-000000000006");
+    private static final Uuid UNKNOWN_UUID = new Uuid("00000000-0000-0000-0000-0000000000ff");
+
+    private Network network;
+    private Subnet subnet;
+    private Port port;
+    private Port routerPort;
+    private SecurityRule secRule;
+    private SecurityRule secRuleWithRemote;
+    private Neutron neutron;
+
+    @Before
+    public void init() {
+        network = new NetworkBuilder().setUuid(NETWORK_UUID).build();
+        subnet = new SubnetBuilder().setUuid(SUBNET_UUID).setNetworkId(NETWORK_UUID).build();
+        port = new PortBuilder().setUuid(PORT_UUID)
+            .setFixedIps(ImmutableList.of(new FixedIpsBuilder().setSubnetId(SUBNET_UUID).build()))
+            .build();
+        routerPort = new PortBuilder().setUuid(ROUTER_PORT_UUID)
+            .setDeviceOwner(PortUtils.DEVICE_OWNER_ROUTER_IFACE)
+            .setFixedIps(ImmutableList.of(new FixedIpsBuilder().setSubnetId(SUBNET_UUID).build()))
+            .build();
+        secRule = new SecurityRuleBuilder().setUuid(new Uuid("00000000-0000-0000-0000-000000000007"))
+            .setSecurityGroupId(SEC_GROUP_UUID)
+            .build();
+        secRuleWithRemote = new SecurityRuleBuilder().setUuid(new Uuid("00000000-0000-0000-0000-000000000008"))
+            .setSecurityGroupId(SEC_GROUP_UUID)
+            .setRemoteGroupId(REMOTE_SEC_GROUP_UUID)
+            .build();
+        neutron = new NeutronBuilder()
+            .setNetworks(new NetworksBuilder().setNetwork(ImmutableList.of(network)).build())
+            .setSubnets(new SubnetsBuilder().setSubnet(ImmutableList.of(subnet)).build())
+            .setPorts(new PortsBuilder().setPort(ImmutableList.of(port, routerPort)).build())
+            .setSecurityRules(
+                    new SecurityRulesBuilder().setSecurityRule(ImmutableList.of(secRule, secRuleWithRemote)).build())
+            .build();
+    }
+
+    @Test
+    public void testOf_notCached() {
+        NeutronIndex index = NeutronIndex.of(neutron);
+        NeutronIndex otherIndex = NeutronIndex.of(neutron);
+        // indexes are not cached, every call builds new index with the same content
+        assertNotSame(index, otherIndex);
+        assertEquals(index.findPort(PORT_UUID), otherIndex.findPort(PORT_UUID));
+        assertEquals(index.findSecurityGroupsHavingSecurityRules(), otherIndex.findSecurityGroupsHavingSecurityRules());
+    }
+
+    @Test
+    public void testOf_nullNeutron() {
+        NeutronIndex index = NeutronIndex.of(null);
+        assertFalse(index.findPort(PORT_UUID).isPresent());
+        assertTrue(index.findSecurityGroupsHavingSecurityRules().isEmpty());
+    }
+
+    @Test
+    public void testFindByUuid() {
+        NeutronIndex index = NeutronIndex.of(neutron);
+        assertEquals(port, index.findPort(PORT_UUID).get());
+        assertEquals(subnet, index.findSubnet(SUBNET_UUID).get());
+        assertEquals(network, index.findNetwork(NETWORK_UUID).get());
+        assertFalse(index.findPort(UNKNOWN_UUID).isPresent());
+        assertFalse(index.findSubnet(UNKNOWN_UUID).isPresent());
+        assertFalse(index.findNetwork(UNKNOWN_UUID).isPresent());
+    }
+
+    @Test
+    public void testFindPorts() {
+        NeutronIndex index = NeutronIndex.of(neutron);
+        assertEquals(ImmutableSet.of(port, routerPort), index.findPortsBySubnet(SUBNET_UUID));
+        assertTrue(index.findPortsBySubnet(UNKNOWN_UUID).isEmpty());
+        assertEquals(ImmutableSet.of(routerPort), index.findRouterInterfacePorts());
+    }
+
+    @Test
+    public void testFindSecurityRules() {
+        NeutronIndex index = NeutronIndex.of(neutron);
+        assertEquals(ImmutableSet.of(secRule),
+                index.findSecurityRulesBySecGroupAndRemoteSecGroup(SEC_GROUP_UUID, null));
+        assertEquals(ImmutableSet.of(secRuleWithRemote),
+                index.findSecurityRulesBySecGroupAndRemoteSecGroup(SEC_GROUP_UUID, REMOTE_SEC_GROUP_UUID));
+        assertTrue(index.findSecurityRulesBySecGroupAndRemoteSecGroup(REMOTE_SEC_GROUP_UUID, null).isEmpty());
+        assertEquals(ImmutableSet.of(SEC_GROUP_UUID), index.findSecurityGroupsHavingSecurityRules());
+    }
+}
@@ -15,14 +15,13 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
-import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.AsyncTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.controller.md.sal.common.api.data.TransactionChain;
 import org.opendaylight.controller.md.sal.common.api.data.TransactionChainListener;
+import org.opendaylight.groupbasedpolicy.util.AsyncTransactionChain;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
-import org.opendaylight.groupbasedpolicy.util.SyncedChain;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Prefix;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.PhysAddress;
@@ -86,18 +85,18 @@ public class PortHandler implements TransactionChainListener {
     static final String DEFAULT_NODE = "default";
 
     private final NodeId routingNode;
-    private SyncedChain syncedChain;
+    private AsyncTransactionChain txChain;
     private DataBroker dataBroker;
 
     PortHandler(DataBroker dataBroker, NodeId routingNodeId) {
         this.dataBroker = dataBroker;
         this.routingNode = routingNodeId;
-        this.syncedChain = new SyncedChain(Preconditions.checkNotNull(dataBroker.createTransactionChain(this)));
+        this.txChain = new AsyncTransactionChain(Preconditions.checkNotNull(dataBroker.createTransactionChain(this)));
     }
 
     void processCreated(Port port) {
         Optional<BaseEndpointByPort> optBaseEpByPort =
-                syncedChain.readFromDs(LogicalDatastoreType.OPERATIONAL, createBaseEpByPortIid(port.getUuid()));
+                txChain.readFromDs(LogicalDatastoreType.OPERATIONAL, createBaseEpByPortIid(port.getUuid()));
         if (!optBaseEpByPort.isPresent()) {
             return;
         }
@@ -106,7 +105,7 @@ public class PortHandler implements TransactionChainListener {
 
     void processCreated(BaseEndpointByPort bebp) {
         Optional<Port> optPort =
-                syncedChain.readFromDs(LogicalDatastoreType.CONFIGURATION, createPortIid(bebp.getPortId()));
+                txChain.readFromDs(LogicalDatastoreType.CONFIGURATION, createPortIid(bebp.getPortId()));
         if (!optPort.isPresent()) {
             return;
         }
@@ -156,7 +155,7 @@ public class PortHandler implements TransactionChainListener {
         LOG.trace("Updating port before: {}, after: {}", original, delta);
         if (isValidVhostUser(original)) {
             Optional<BaseEndpointByPort> optBebp =
-                    syncedChain.readFromDs(LogicalDatastoreType.OPERATIONAL, createBaseEpByPortIid(original.getUuid()));
+                    txChain.readFromDs(LogicalDatastoreType.OPERATIONAL, createBaseEpByPortIid(original.getUuid()));
             if (!optBebp.isPresent()) {
                 return;
             }
@@ -220,21 +219,21 @@ public class PortHandler implements TransactionChainListener {
         VppEndpointKey vppEpKey = new VppEndpointKey(bebp.getAddress(), bebp.getAddressType(), bebp.getContextId(),
                 bebp.getContextType());
         InstanceIdentifier<VppEndpoint> vppEpIid = createVppEndpointIid(vppEpKey);
-        Optional<VppEndpoint> readVppEp = syncedChain.readFromDs(LogicalDatastoreType.CONFIGURATION, vppEpIid);
+        Optional<VppEndpoint> readVppEp = txChain.readFromDs(LogicalDatastoreType.CONFIGURATION, vppEpIid);
         if (readVppEp.isPresent()) {
             writeVppEndpoint(vppEpIid, null);
             LOG.debug("Deleted vpp-endpoint {}", vppEpKey);
         }
     }
 
-    private synchronized void writeVppEndpoint(InstanceIdentifier<VppEndpoint> vppEpIid, VppEndpoint vppEp) {
-        WriteTransaction wTx = syncedChain.newWriteOnlyTransaction();
-        if (vppEp != null) {
-            wTx.put(LogicalDatastoreType.CONFIGURATION, vppEpIid, vppEp, true);
-        } else {
-            wTx.delete(LogicalDatastoreType.CONFIGURATION, vppEpIid);
-        }
-        syncedChain.submitNow(wTx);
+    private void writeVppEndpoint(InstanceIdentifier<VppEndpoint> vppEpIid, VppEndpoint vppEp) {
+        txChain.write(wTx -> {
+            if (vppEp != null) {
+                wTx.put(LogicalDatastoreType.CONFIGURATION, vppEpIid, vppEp, true);
+            } else {
+                wTx.delete(LogicalDatastoreType.CONFIGURATION, vppEpIid);
+            }
+        });
     }
 
     @VisibleForTesting
@@ -282,7 +281,7 @@ public class PortHandler implements TransactionChainListener {
                 vppEpBuilder.setVppNodeId(routingNode);
             } else if (port.getDeviceId() != null) {
                 LOG.debug("Resolving host-id for unbound router port {}", port.getUuid());
-                Optional<Ports> optPorts = syncedChain.readFromDs(LogicalDatastoreType.CONFIGURATION,
+                Optional<Ports> optPorts = txChain.readFromDs(LogicalDatastoreType.CONFIGURATION,
                         InstanceIdentifier.builder(Neutron.class).child(Ports.class).build());
                 if (optPorts.isPresent() && optPorts.get().getPort() != null) {
                     java.util.Optional<Port> optPortOnTheSameNode = optPorts.get()
@@ -327,7 +326,7 @@ public class PortHandler implements TransactionChainListener {
         Optional<FixedIps> fixedIpsOptional = resolveFirstFixedIps(port);
         if (fixedIpsOptional.isPresent() && fixedIpsOptional.get().getIpAddress() != null) {
             loopbackCase.setIpAddress(fixedIpsOptional.get().getIpAddress());
-            Optional<Subnet> subnetOptional = syncedChain.readFromDs(LogicalDatastoreType.CONFIGURATION,
+            Optional<Subnet> subnetOptional = txChain.readFromDs(LogicalDatastoreType.CONFIGURATION,
                     InstanceIdentifier.builder(Neutron.class)
                         .child(Subnets.class)
                         .child(Subnet.class, new SubnetKey(fixedIpsOptional.get().getSubnetId()))
@@ -376,7 +375,7 @@ public class PortHandler implements TransactionChainListener {
         }
         InstanceIdentifier<Router> routerIid =
                 InstanceIdentifier.builder(Neutron.class).child(Routers.class).child(Router.class, routerKey).build();
-        Optional<Router> optRouter = syncedChain.readFromDs(LogicalDatastoreType.CONFIGURATION, routerIid);
+        Optional<Router> optRouter = txChain.readFromDs(LogicalDatastoreType.CONFIGURATION, routerIid);
         return optRouter;
     }
 
@@ -443,8 +442,8 @@ public class PortHandler implements TransactionChainListener {
             Throwable cause) {
         LOG.error("Transaction chain failed. {} \nTransaction which caused the chain to fail {}", cause.getMessage(),
                 transaction, cause);
-        syncedChain.closeChain();
-        this.syncedChain = new SyncedChain(Preconditions.checkNotNull(dataBroker.createTransactionChain(this)));
+        txChain.close();
+        this.txChain = new AsyncTransactionChain(Preconditions.checkNotNull(dataBroker.createTransactionChain(this)));
     }
 
     @Override
@@ -34,7 +34,9 @@ import org.opendaylight.groupbasedpolicy.api.StatisticsManager;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.endpoint.EndpointManager;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.endpoint.OfOverlayAug;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.endpoint.OfOverlayL3NatAug;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow.OrdinalFactory;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.node.SwitchManager;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.reactive.ConversationListener;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.sf.Action;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.sf.ActionDefinitionListener;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.sf.ClassifierDefinitionListener;
@@ -71,6 +73,7 @@ public class OFOverlayRenderer implements AutoCloseable, DataTreeChangeListener<
     private final ActionDefinitionListener actionDefinitionListener;
     private final OfOverlayAug ofOverlayAug;
     private final OfOverlayL3NatAug ofOverlayL3NatAug;
+    private final ListenerRegistration<ConversationListener> conversationListenerReg;
 
     private final ScheduledExecutorService executor;
 
@@ -97,6 +100,9 @@ public class OFOverlayRenderer implements AutoCloseable, DataTreeChangeListener<
         endpointManager = new EndpointManager(dataProvider, packetProcessingService, flowService, notificationService,
                 executor, switchManager);
 
+        // ordinals are loaded in background, the first flow update waits for them
+        OrdinalFactory.loadOrdinals(dataProvider);
+
         classifierDefinitionListener = new ClassifierDefinitionListener(dataBroker);
         actionDefinitionListener = new ActionDefinitionListener(dataProvider);
 
@@ -111,6 +117,8 @@ public class OFOverlayRenderer implements AutoCloseable, DataTreeChangeListener<
                 endpointManager,
                 executor,
                 tableOffset);
+        conversationListenerReg = notificationService.registerNotificationListener(
+                new ConversationListener(policyManager, endpointManager));
         ofOverlayAug = new OfOverlayAug(dataProvider, epRendererAugmentationRegistry);
         ofOverlayL3NatAug = new OfOverlayL3NatAug(epRendererAugmentationRegistry);
         Optional<OfOverlayConfig> config = readConfig();
@@ -158,6 +166,9 @@ public class OFOverlayRenderer implements AutoCloseable, DataTreeChangeListener<
         if (ofOverlayL3NatAug != null) {
             ofOverlayL3NatAug.close();
         }
+        if (conversationListenerReg != null) {
+            conversationListenerReg.close();
+        }
         if (policyManager != null) {
             policyManager.close();
         }
@@ -222,6 +233,11 @@ public class OFOverlayRenderer implements AutoCloseable, DataTreeChangeListener<
         switchManager.setEncapsulationFormat(config.getEncapsulationFormat());
         endpointManager.setLearningMode(config.getLearningMode());
         policyManager.setLearningMode(config.getLearningMode());
+        // removed leaf restores the default parallelism
+        Integer parallelism = config.getFlowPipelineParallelism();
+        policyManager.setFlowPipelineParallelism(parallelism != null ? parallelism : 0);
+        policyManager.setFlowProgrammingMode(config.getFlowProgrammingMode(), config.getReactiveFlowIdleTimeout(),
+                config.getReactiveMaxConversationsPerNode());
         if (config.getGbpOfoverlayTableOffset() != null) {
             configFutures.add(policyManager.changeOpenFlowTableOffset(config.getGbpOfoverlayTableOffset()));
         }
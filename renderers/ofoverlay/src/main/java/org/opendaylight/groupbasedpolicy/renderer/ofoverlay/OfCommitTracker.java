@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Limits the number of node transactions submitted by {@link OfWriter} which are not committed yet
+ * and keeps commit latency and size of the last delta for every node. Nodes with groups known from
+ * the previous commit are tracked as well, groups of other nodes are read from the datastore.
+ */
+public class OfCommitTracker {
+
+    private final int maxInFlightSubmits;
+    private final Semaphore inFlightSubmits;
+    private final ConcurrentMap<NodeId, Long> commitLatencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<NodeId, Integer> deltaSizes = new ConcurrentHashMap<>();
+    private final Set<NodeId> nodesWithKnownGroups = ConcurrentHashMap.newKeySet();
+
+    public OfCommitTracker(int maxInFlightSubmits) {
+        Preconditions.checkArgument(maxInFlightSubmits > 0, "Max. number of in-flight submits has to be positive");
+        this.maxInFlightSubmits = maxInFlightSubmits;
+        this.inFlightSubmits = new Semaphore(maxInFlightSubmits);
+    }
+
+    /**
+     * Blocks until a new transaction can be submitted
+     *
+     * @return start time of the submit, passed to {@link #submitFinished(NodeId, long)}
+     * @throws InterruptedException if interrupted while waiting
+     */
+    long beforeSubmit() throws InterruptedException {
+        inFlightSubmits.acquire();
+        return System.nanoTime();
+    }
+
+    void submitFinished(NodeId nodeId, long submitStart) {
+        inFlightSubmits.release();
+        commitLatencies.put(nodeId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitStart));
+    }
+
+    void recordDeltaSize(NodeId nodeId, int deltaSize) {
+        deltaSizes.put(nodeId, deltaSize);
+    }
+
+    /**
+     * @return {@code true} if groups of the node are the groups of the previous commit
+     */
+    boolean areGroupsKnown(NodeId nodeId) {
+        return nodesWithKnownGroups.contains(nodeId);
+    }
+
+    void groupsRead(NodeId nodeId) {
+        nodesWithKnownGroups.add(nodeId);
+    }
+
+    /**
+     * Groups of the node have to be read again, e.g. because a commit failed
+     */
+    void groupsUnknown(NodeId nodeId) {
+        nodesWithKnownGroups.remove(nodeId);
+    }
+
+    /**
+     * @return number of submitted transactions which are not finished yet
+     */
+    public int getInFlightSubmits() {
+        return maxInFlightSubmits - inFlightSubmits.availablePermits();
+    }
+
+    /**
+     * @return duration of the last commit in milliseconds per node
+     */
+    public Map<NodeId, Long> getCommitLatencies() {
+        return ImmutableMap.copyOf(commitLatencies);
+    }
+
+    /**
+     * @return number of flows and groups written or deleted during the last commit per node
+     */
+    public Map<NodeId, Integer> getDeltaSizes() {
+        return ImmutableMap.copyOf(deltaSizes);
+    }
+}
@@ -117,6 +117,13 @@ public class OfContext {
         return resolvedTenants.get(tenant);
     }
 
+    /**
+     * @return all resolved tenants
+     */
+    public Collection<IndexedTenant> getTenants() {
+        return resolvedTenants.values();
+    }
+
     /**
      * Get a snapshot of the current policy
      *
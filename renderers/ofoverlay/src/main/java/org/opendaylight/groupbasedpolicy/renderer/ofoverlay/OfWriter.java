@@ -13,19 +13,21 @@ import static org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow.FlowUtil
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutionException;
 
 import com.google.common.base.Equivalence;
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Collections2;
+import com.google.common.base.Predicate;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.FutureCallback;
@@ -33,16 +35,19 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
-import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
+import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.equivalence.EquivalenceFabric;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow.FlowUtils;
+import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.Table;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.GroupId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.GroupTypes;
@@ -51,6 +56,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.Group;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.GroupBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +65,9 @@ public class OfWriter {
 
     private final ConcurrentMap<InstanceIdentifier<Table>, TableBuilder> flowMap =
             new ConcurrentHashMap<>();
+    // flows already present in flowMap per table, wrapped with FlowEquivalence - kept in sync by writeFlow
+    private final ConcurrentMap<InstanceIdentifier<Table>, Set<Equivalence.Wrapper<Flow>>> flowIndex =
+            new ConcurrentHashMap<>();
     private final ConcurrentMap<InstanceIdentifier<Group>, GroupBuilder> groupByIid =
             new ConcurrentHashMap<>();
     private final ConcurrentMap<NodeId, Set<GroupId>> groupIdsByNode = new ConcurrentHashMap<>();
@@ -70,10 +79,14 @@ public class OfWriter {
     }
 
     private TableBuilder getTableBuilderForNode(NodeId nodeId, short tableId) {
-        InstanceIdentifier<Table> tableIid = FlowUtils.createTablePath(nodeId, tableId);
+        return getTableBuilder(FlowUtils.createTablePath(nodeId, tableId), tableId);
+    }
+
+    private TableBuilder getTableBuilder(InstanceIdentifier<Table> tableIid, short tableId) {
         if (this.flowMap.get(tableIid) == null) {
             this.flowMap.put(tableIid,
                     new TableBuilder().setId(tableId).setFlow(new ArrayList<Flow>()));
+            this.flowIndex.put(tableIid, new HashSet<Equivalence.Wrapper<Flow>>());
         }
         return this.flowMap.get(tableIid);
     }
@@ -175,15 +188,12 @@ public class OfWriter {
         if (flow.getMatch() == null) {
             flow = new FlowBuilder(flow).setMatch(new MatchBuilder().build()).build();
         }
-        TableBuilder tableBuilder = this.getTableBuilderForNode(nodeId, tableId);
-        // transforming List<Flow> to Set (with customized equals/hashCode) to eliminate duplicate entries
-        List<Flow> flows = tableBuilder.getFlow();
-        Set<Equivalence.Wrapper<Flow>> wrappedFlows = new HashSet<>(
-                Collections2.transform(flows, EquivalenceFabric.FLOW_WRAPPER_FUNCTION));
-
+        InstanceIdentifier<Table> tableIid = FlowUtils.createTablePath(nodeId, tableId);
+        TableBuilder tableBuilder = this.getTableBuilder(tableIid, tableId);
+        // index of already written flows (with customized equals/hashCode) eliminates duplicate entries
         Equivalence.Wrapper<Flow> wFlow = EquivalenceFabric.FLOW_EQUIVALENCE.wrap(flow);
 
-        if (!wrappedFlows.contains(wFlow)) {
+        if (flowIndex.get(tableIid).add(wFlow)) {
             tableBuilder.getFlow().add(flow);
         } else {
             LOG.debug("Flow already exists in OfData - {}", flow);
@@ -191,185 +201,321 @@ public class OfWriter {
     }
 
     /**
-     * Update groups and flows on every node
-     * Only flows created by gbp - which are present in actualFlowMap - can be removed. It ensures no other flows
-     * are deleted
-     * Newly created flows are returned and will be used as actual in next update
+     * Adds flows and groups of another writer to this one. Shards are expected to be computed
+     * for different nodes, flows of a table present in both writers are deduplicated.
      *
-     * @param actualFlowMap map of flows which are currently present on all nodes
-     * @return map of newly created flows. These flows will be "actual" in next update
+     * @param shard writer with flows and groups to add
      */
-    public Map<InstanceIdentifier<Table>, TableBuilder> commitToDataStore(DataBroker dataBroker,
-                                                                          Map<InstanceIdentifier<Table>, TableBuilder> actualFlowMap) {
-        Map<InstanceIdentifier<Table>, TableBuilder> actualFlows = new HashMap<>();
-        if (dataBroker != null) {
-
-            for (NodeId nodeId : groupIdsByNode.keySet()) {
-                try {
-                    updateGroups(dataBroker, nodeId);
-                } catch (ExecutionException | InterruptedException e) {
-                    LOG.error("Could not update Group table on node {}", nodeId);
+    public void merge(OfWriter shard) {
+        merge(shard, Collections.<NodeId>emptySet());
+    }
+
+    /**
+     * Adds flows and groups of another writer to this one, except of those on excluded nodes.
+     *
+     * @param shard writer with flows and groups to add
+     * @param excludedNodes nodes which are skipped
+     */
+    public void merge(OfWriter shard, Set<NodeId> excludedNodes) {
+        Preconditions.checkNotNull(shard);
+
+        for (Map.Entry<InstanceIdentifier<Table>, TableBuilder> entry : shard.flowMap.entrySet()) {
+            if (excludedNodes.contains(getNodeId(entry.getKey()))) {
+                continue;
+            }
+            if (this.flowMap.get(entry.getKey()) == null) {
+                this.flowMap.put(entry.getKey(), entry.getValue());
+                this.flowIndex.put(entry.getKey(), shard.flowIndex.get(entry.getKey()));
+                continue;
+            }
+            TableBuilder tableBuilder = this.flowMap.get(entry.getKey());
+            Set<Equivalence.Wrapper<Flow>> index = this.flowIndex.get(entry.getKey());
+            for (Flow flow : entry.getValue().getFlow()) {
+                if (index.add(EquivalenceFabric.FLOW_EQUIVALENCE.wrap(flow))) {
+                    tableBuilder.getFlow().add(flow);
                 }
             }
+        }
+        for (Map.Entry<InstanceIdentifier<Group>, GroupBuilder> entry : shard.groupByIid.entrySet()) {
+            if (!excludedNodes.contains(getNodeId(entry.getKey()))) {
+                this.groupByIid.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<NodeId, Set<GroupId>> entry : shard.groupIdsByNode.entrySet()) {
+            if (excludedNodes.contains(entry.getKey())) {
+                continue;
+            }
+            if (this.groupIdsByNode.get(entry.getKey()) == null) {
+                this.groupIdsByNode.put(entry.getKey(), new HashSet<GroupId>());
+            }
+            this.groupIdsByNode.get(entry.getKey()).addAll(entry.getValue());
+        }
+    }
 
-            for (Map.Entry<InstanceIdentifier<Table>, TableBuilder> newEntry : flowMap.entrySet()) {
-                try {
-                    // Get actual flows on the same node/table
-                    Map.Entry<InstanceIdentifier<Table>, TableBuilder> actualEntry = null;
-                    for (Map.Entry<InstanceIdentifier<Table>, TableBuilder> a : actualFlowMap.entrySet()) {
-                        if (a.getKey().equals(newEntry.getKey())) {
-                            actualEntry = a;
-                        }
-                    }
-                    // Get the currently configured flows for this table
-                    updateFlowTable(dataBroker, newEntry, actualEntry);
-                    actualFlows.put(newEntry.getKey(), newEntry.getValue());
-                } catch (Exception e) {
-                    LOG.warn("Couldn't read flow table {}", newEntry.getKey());
+    /**
+     * Writes flows of another writer to this one, every flow is transformed before it is written.
+     * Groups of the other writer are not copied.
+     *
+     * @param shard writer with flows to write
+     * @param transformation applied to every flow
+     */
+    public void writeFlows(OfWriter shard, Function<Flow, Flow> transformation) {
+        Preconditions.checkNotNull(shard);
+        Preconditions.checkNotNull(transformation);
+
+        for (Map.Entry<InstanceIdentifier<Table>, TableBuilder> entry : shard.flowMap.entrySet()) {
+            NodeId nodeId = getNodeId(entry.getKey());
+            short tableId = entry.getValue().getId();
+            for (Flow flow : entry.getValue().getFlow()) {
+                writeFlow(nodeId, tableId, transformation.apply(flow));
+            }
+        }
+    }
+
+    /**
+     * Removes flows of the node matching the predicate from this writer
+     *
+     * @param nodeId the node
+     * @param predicate selects flows to remove
+     * @return paths of removed flows
+     */
+    public List<InstanceIdentifier<Flow>> removeFlows(NodeId nodeId, Predicate<Flow> predicate) {
+        Preconditions.checkNotNull(nodeId);
+        Preconditions.checkNotNull(predicate);
+
+        List<InstanceIdentifier<Flow>> removed = new ArrayList<>();
+        for (Map.Entry<InstanceIdentifier<Table>, TableBuilder> entry : flowMap.entrySet()) {
+            if (!nodeId.equals(getNodeId(entry.getKey()))) {
+                continue;
+            }
+            Set<Equivalence.Wrapper<Flow>> index = flowIndex.get(entry.getKey());
+            Iterator<Flow> flows = entry.getValue().getFlow().iterator();
+            while (flows.hasNext()) {
+                Flow flow = flows.next();
+                if (predicate.apply(flow)) {
+                    flows.remove();
+                    index.remove(EquivalenceFabric.FLOW_EQUIVALENCE.wrap(flow));
+                    removed.add(entry.getKey().child(Flow.class, new FlowKey(flow.getId())));
                 }
             }
         }
-        return actualFlows;
+        return removed;
     }
 
-    private void updateFlowTable(DataBroker dataBroker, Map.Entry<InstanceIdentifier<Table>, TableBuilder> desiredFlowMap,
-                                 Map.Entry<InstanceIdentifier<Table>, TableBuilder> actualFlowMap)
-            throws ExecutionException, InterruptedException {
+    /**
+     * Update groups and flows on every node present in this writer or in previous writer. All changes
+     * of one node are written in a single transaction.
+     * Only flows and groups created by gbp - which are present in previous writer - can be removed.
+     * It ensures no other flows or groups are deleted.
+     * This writer is used as previous state in next update.
+     *
+     * @param dataBroker the {@link DataBroker}
+     * @param previous writer committed by previous update, may be null
+     * @param commitTracker limits the number of transactions in flight and collects commit statistics
+     * @throws InterruptedException if interrupted while waiting for a transaction to be committed
+     */
+    public void commitToDataStore(DataBroker dataBroker, @Nullable OfWriter previous, OfCommitTracker commitTracker)
+            throws InterruptedException {
+        Set<NodeId> nodeIds = getNodeIds();
+        if (previous != null) {
+            // flows and groups of nodes which disappeared have to be deleted
+            nodeIds.addAll(previous.getNodeIds());
+        }
+        commitToDataStore(dataBroker, previous, nodeIds, commitTracker);
+    }
 
-        // Actual state
-        List<Flow> actualFlows = new ArrayList<>();
-        if (actualFlowMap != null && actualFlowMap.getValue() != null) {
-            actualFlows = actualFlowMap.getValue().getFlow();
+    /**
+     * Update groups and flows on given nodes. Flows and groups of previous writer on a node which has
+     * nothing in this writer are deleted, other nodes are not touched.
+     *
+     * @param dataBroker the {@link DataBroker}
+     * @param previous writer committed by previous update, may be null
+     * @param nodeIds nodes to update
+     * @param commitTracker limits the number of transactions in flight and collects commit statistics
+     * @throws InterruptedException if interrupted while waiting for a transaction to be committed
+     * @see #commitToDataStore(DataBroker, OfWriter, OfCommitTracker)
+     */
+    public void commitToDataStore(DataBroker dataBroker, @Nullable OfWriter previous, Set<NodeId> nodeIds,
+            OfCommitTracker commitTracker) throws InterruptedException {
+        if (dataBroker == null) {
+            return;
+        }
+        if (previous == null) {
+            previous = new OfWriter();
+        }
+        Map<NodeId, Set<InstanceIdentifier<Table>>> tablesByNode = new HashMap<>();
+        for (NodeId nodeId : nodeIds) {
+            tablesByNode.put(nodeId, new HashSet<InstanceIdentifier<Table>>());
         }
-        // New state
-        List<Flow> desiredFlows = new ArrayList<>(desiredFlowMap.getValue().getFlow());
+        // tables which are not written anymore have to be cleared as well
+        addTables(tablesByNode, flowMap.keySet());
+        addTables(tablesByNode, previous.flowMap.keySet());
+
+        for (Map.Entry<NodeId, Set<InstanceIdentifier<Table>>> nodeEntry : tablesByNode.entrySet()) {
+            final NodeId nodeId = nodeEntry.getKey();
+            WriteTransaction wTx = dataBroker.newWriteOnlyTransaction();
+            int deltaSize = updateGroups(wTx, nodeId, getExistingGroups(dataBroker, nodeId, previous, commitTracker));
+            for (InstanceIdentifier<Table> tableIid : nodeEntry.getValue()) {
+                deltaSize += updateFlowTable(wTx, tableIid, previous);
+            }
+            commitTracker.recordDeltaSize(nodeId, deltaSize);
+            if (deltaSize == 0) {
+                wTx.cancel();
+                LOG.trace("No change of flows and groups on node {}", nodeId);
+                continue;
+            }
+            final long submitStart = commitTracker.beforeSubmit();
+            CheckedFuture<Void, TransactionCommitFailedException> f;
+            try {
+                f = wTx.submit();
+            } catch (RuntimeException e) {
+                commitTracker.groupsUnknown(nodeId);
+                commitTracker.submitFinished(nodeId, submitStart);
+                throw e;
+            }
+            Futures.addCallback(f, new FutureCallback<Void>() {
+
+                @Override
+                public void onFailure(Throwable t) {
+                    commitTracker.groupsUnknown(nodeId);
+                    commitTracker.submitFinished(nodeId, submitStart);
+                    LOG.error("Could not write flows and groups on node {}: {}", nodeId, t);
+                }
+
+                @Override
+                public void onSuccess(Void result) {
+                    commitTracker.submitFinished(nodeId, submitStart);
+                    LOG.debug("Flows and groups on node {} updated.", nodeId);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+    }
+
+    private static void addTables(Map<NodeId, Set<InstanceIdentifier<Table>>> tablesByNode,
+            Set<InstanceIdentifier<Table>> tableIids) {
+        for (InstanceIdentifier<Table> tableIid : tableIids) {
+            Set<InstanceIdentifier<Table>> nodeTables = tablesByNode.get(getNodeId(tableIid));
+            if (nodeTables != null) {
+                nodeTables.add(tableIid);
+            }
+        }
+    }
 
+    private Set<NodeId> getNodeIds() {
+        Set<NodeId> nodeIds = new HashSet<>(groupIdsByNode.keySet());
+        for (InstanceIdentifier<Table> tableIid : flowMap.keySet()) {
+            nodeIds.add(getNodeId(tableIid));
+        }
+        return nodeIds;
+    }
+
+    private int updateFlowTable(WriteTransaction wTx, InstanceIdentifier<Table> tableIid, OfWriter previous) {
         // Sets with custom equivalence rules
-        Set<Equivalence.Wrapper<Flow>> wrappedActualFlows = new HashSet<>(
-                Collections2.transform(actualFlows, EquivalenceFabric.FLOW_WRAPPER_FUNCTION));
-        Set<Equivalence.Wrapper<Flow>> wrappedDesiredFlows = new HashSet<>(
-                Collections2.transform(desiredFlows, EquivalenceFabric.FLOW_WRAPPER_FUNCTION));
+        Set<Equivalence.Wrapper<Flow>> wrappedActualFlows = previous.flowIndex.get(tableIid);
+        if (wrappedActualFlows == null) {
+            wrappedActualFlows = Collections.emptySet();
+        }
+        Set<Equivalence.Wrapper<Flow>> wrappedDesiredFlows = flowIndex.get(tableIid);
+        if (wrappedDesiredFlows == null) {
+            wrappedDesiredFlows = Collections.emptySet();
+        }
 
         // All gbp flows which are not updated will be removed
         Sets.SetView<Equivalence.Wrapper<Flow>> deletions = Sets.difference(wrappedActualFlows, wrappedDesiredFlows);
         // New flows (they were not there before)
         Sets.SetView<Equivalence.Wrapper<Flow>> additions = Sets.difference(wrappedDesiredFlows, wrappedActualFlows);
 
-        final InstanceIdentifier<Table> tableIid = desiredFlowMap.getKey();
-        ReadWriteTransaction t = dataBroker.newReadWriteTransaction();
-
-        if (!deletions.isEmpty()) {
-            for (Equivalence.Wrapper<Flow> wf : deletions) {
-                Flow f = wf.get();
-                if (f != null) {
-                    t.delete(LogicalDatastoreType.CONFIGURATION,
-                            FlowUtils.createFlowPath(tableIid, f.getId()));
-                }
+        int deltaSize = 0;
+        for (Equivalence.Wrapper<Flow> wf : deletions) {
+            Flow f = wf.get();
+            if (f != null) {
+                wTx.delete(LogicalDatastoreType.CONFIGURATION, FlowUtils.createFlowPath(tableIid, f.getId()));
+                deltaSize++;
             }
         }
-        if (!additions.isEmpty()) {
-            for (Equivalence.Wrapper<Flow> wf : additions) {
-                Flow f = wf.get();
-                if (f != null) {
-                    if (f.getMatch() == null) {
-                        f = new FlowBuilder(f).setMatch(new MatchBuilder().build()).build();
-                    }
-                    t.put(LogicalDatastoreType.CONFIGURATION,
-                            FlowUtils.createFlowPath(tableIid, f.getId()), f, true);
+        for (Equivalence.Wrapper<Flow> wf : additions) {
+            Flow f = wf.get();
+            if (f != null) {
+                if (f.getMatch() == null) {
+                    f = new FlowBuilder(f).setMatch(new MatchBuilder().build()).build();
                 }
+                wTx.put(LogicalDatastoreType.CONFIGURATION, FlowUtils.createFlowPath(tableIid, f.getId()), f, true);
+                deltaSize++;
             }
         }
-        CheckedFuture<Void, TransactionCommitFailedException> f = t.submit();
-        Futures.addCallback(f, new FutureCallback<Void>() {
-
-            @Override
-            public void onFailure(Throwable t) {
-                LOG.error("Could not write flow table {}: {}", tableIid, t);
-            }
-
-            @Override
-            public void onSuccess(Void result) {
-                LOG.debug("Flow table {} updated.", tableIid);
-            }
-        }, MoreExecutors.directExecutor());
+        return deltaSize;
     }
 
-    private void updateGroups(DataBroker dataBroker, final NodeId nodeId)
-            throws ExecutionException, InterruptedException {
-
-        if (this.groupIdsByNode.get(nodeId) == null) {
-            this.groupIdsByNode.put(nodeId, new HashSet<GroupId>());
+    /**
+     * Groups of the previous commit are used if it succeeded. Groups of a node without successful commit
+     * (e.g. after restart or failed commit) are read from operational datastore once, so that stale groups
+     * are removed too.
+     */
+    private static Set<Equivalence.Wrapper<Group>> getExistingGroups(DataBroker dataBroker, NodeId nodeId,
+            OfWriter previous, OfCommitTracker commitTracker) {
+        if (commitTracker.areGroupsKnown(nodeId)) {
+            return previous.getWrappedGroups(nodeId);
         }
-        Set<GroupId> createdGroupIds = new HashSet<>(this.groupIdsByNode.get(nodeId));
-        // groups from inner structure
-        Set<Group> createdGroups = new HashSet<>();
-        for (GroupId gid : createdGroupIds) {
-            Group g = getGroupForNode(nodeId, gid.getValue());
-            if (g != null) {
-                createdGroups.add(g);
+        Set<Equivalence.Wrapper<Group>> existingGroupsWrap = new HashSet<>();
+        ReadOnlyTransaction rTx = dataBroker.newReadOnlyTransaction();
+        Optional<FlowCapableNode> fcn = DataStoreHelper.readFromDs(LogicalDatastoreType.OPERATIONAL,
+                createNodePath(nodeId).builder().augmentation(FlowCapableNode.class).build(), rTx);
+        rTx.close();
+        if (fcn.isPresent() && fcn.get().getGroup() != null) {
+            for (Group g : fcn.get().getGroup()) {
+                existingGroupsWrap.add(EquivalenceFabric.GROUP_EQUIVALENCE.wrap(g));
             }
         }
-        // groups from datastore
-        Set<Group> existingGroups = new HashSet<>();
-        ReadWriteTransaction t = dataBroker.newReadWriteTransaction();
-        FlowCapableNode fcn = null;
-        InstanceIdentifier<FlowCapableNode> fcniid =
-                createNodePath(nodeId).builder().augmentation(FlowCapableNode.class).build();
-        Optional<FlowCapableNode> r = t.read(LogicalDatastoreType.OPERATIONAL, fcniid).get();
-        if (!r.isPresent()) {
-            LOG.warn("Node {} is not present", fcniid);
-            return;
-        }
-        fcn = r.get();
-
-        if (fcn.getGroup() != null) {
-            existingGroups = new HashSet<>(fcn.getGroup());
-        }
+        LOG.debug("Read {} existing groups of node {}", existingGroupsWrap.size(), nodeId);
+        commitTracker.groupsRead(nodeId);
+        return existingGroupsWrap;
+    }
 
-        Set<Equivalence.Wrapper<Group>> existingGroupsWrap = new HashSet<>(
-                Collections2.transform(existingGroups, EquivalenceFabric.GROUP_WRAPPER_FUNCTION));
-        Set<Equivalence.Wrapper<Group>> createdGroupsWrap = new HashSet<>(
-                Collections2.transform(createdGroups, EquivalenceFabric.GROUP_WRAPPER_FUNCTION));
+    private int updateGroups(WriteTransaction wTx, NodeId nodeId, Set<Equivalence.Wrapper<Group>> existingGroupsWrap) {
+        Set<Equivalence.Wrapper<Group>> createdGroupsWrap = getWrappedGroups(nodeId);
 
         Sets.SetView<Equivalence.Wrapper<Group>> deletions =
                 Sets.difference(existingGroupsWrap, createdGroupsWrap);
         Sets.SetView<Equivalence.Wrapper<Group>> additions =
                 Sets.difference(createdGroupsWrap, existingGroupsWrap);
 
-        if (!deletions.isEmpty()) {
-            for (Equivalence.Wrapper<Group> groupWrapper : deletions) {
-                Group g = groupWrapper.get();
-                if (g != null) {
-                    LOG.debug("Deleting group {} on node {}", g.getGroupId(), nodeId);
-                    t.delete(LogicalDatastoreType.CONFIGURATION,
-                            createGroupPath(nodeId, g.getGroupId()));
-                }
+        int deltaSize = 0;
+        for (Equivalence.Wrapper<Group> groupWrapper : deletions) {
+            Group g = groupWrapper.get();
+            if (g != null) {
+                LOG.debug("Deleting group {} on node {}", g.getGroupId(), nodeId);
+                wTx.delete(LogicalDatastoreType.CONFIGURATION, createGroupPath(nodeId, g.getGroupId()));
+                deltaSize++;
             }
         }
-        if (!additions.isEmpty()) {
-            for (Equivalence.Wrapper<Group> groupWrapper : additions) {
-                Group g = groupWrapper.get();
-                if (g != null) {
-                    LOG.debug("Putting node {}, group {}", nodeId, g.getGroupId());
-                    t.put(LogicalDatastoreType.CONFIGURATION,
-                            createGroupPath(nodeId, g.getGroupId()), g, true);
-                }
+        for (Equivalence.Wrapper<Group> groupWrapper : additions) {
+            Group g = groupWrapper.get();
+            if (g != null) {
+                LOG.debug("Putting node {}, group {}", nodeId, g.getGroupId());
+                wTx.put(LogicalDatastoreType.CONFIGURATION, createGroupPath(nodeId, g.getGroupId()), g, true);
+                deltaSize++;
             }
         }
+        return deltaSize;
+    }
 
-        CheckedFuture<Void, TransactionCommitFailedException> f = t.submit();
-        Futures.addCallback(f, new FutureCallback<Void>() {
-
-            @Override
-            public void onFailure(Throwable t) {
-                LOG.error("Could not write group table on node {}: {}", nodeId, t);
+    private Set<Equivalence.Wrapper<Group>> getWrappedGroups(NodeId nodeId) {
+        Set<Equivalence.Wrapper<Group>> wrappedGroups = new HashSet<>();
+        Set<GroupId> groupIds = groupIdsByNode.get(nodeId);
+        if (groupIds == null) {
+            return wrappedGroups;
+        }
+        for (GroupId gid : groupIds) {
+            Group g = getGroupForNode(nodeId, gid.getValue());
+            if (g != null) {
+                wrappedGroups.add(EquivalenceFabric.GROUP_EQUIVALENCE.wrap(g));
             }
+        }
+        return wrappedGroups;
+    }
 
-            @Override
-            public void onSuccess(Void result) {
-                LOG.debug("Group table on node {} updated.", nodeId);
-            }
-        }, MoreExecutors.directExecutor());
+    private static NodeId getNodeId(InstanceIdentifier<?> iid) {
+        return iid.firstKeyOf(Node.class).getId();
     }
 
 }
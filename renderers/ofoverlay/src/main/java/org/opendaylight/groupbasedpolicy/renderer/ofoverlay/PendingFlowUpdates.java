@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.opendaylight.groupbasedpolicy.dto.EgKey;
+import org.opendaylight.groupbasedpolicy.dto.PolicyInfo;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.endpoint.EndpointManager;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Collects nodes and endpoint groups affected by events since the last flow update.<br>
+ * Flows rendered by {@link org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow.OfTable}s for an endpoint
+ * are always written to the node where the endpoint is located, but their content depends on endpoints
+ * of the same and of peer groups located elsewhere. A change of a group therefore makes dirty every node
+ * which hosts an endpoint of that group or of any of its peers.
+ */
+public class PendingFlowUpdates {
+
+    private boolean fullUpdate;
+    private final Set<NodeId> dirtyNodes = new HashSet<>();
+    private final Set<EgKey> dirtyGroups = new HashSet<>();
+
+    /**
+     * All nodes have to be recomputed during the next flow update
+     */
+    public synchronized void markAll() {
+        fullUpdate = true;
+        dirtyNodes.clear();
+        dirtyGroups.clear();
+    }
+
+    public synchronized void markNode(NodeId nodeId) {
+        if (!fullUpdate && nodeId != null) {
+            dirtyNodes.add(nodeId);
+        }
+    }
+
+    public synchronized void markGroup(EgKey egKey) {
+        if (!fullUpdate && egKey != null) {
+            dirtyGroups.add(egKey);
+        }
+    }
+
+    public synchronized void markGroups(Set<EgKey> egKeys) {
+        if (!fullUpdate) {
+            dirtyGroups.addAll(egKeys);
+        }
+    }
+
+    /**
+     * Returns collected changes and resets this object
+     *
+     * @return changes collected since the last call
+     */
+    public synchronized Snapshot drain() {
+        Snapshot snapshot = new Snapshot(fullUpdate, ImmutableSet.copyOf(dirtyNodes), ImmutableSet.copyOf(dirtyGroups));
+        fullUpdate = false;
+        dirtyNodes.clear();
+        dirtyGroups.clear();
+        return snapshot;
+    }
+
+    /**
+     * Returns changes of a snapshot which could not be processed, so that they are part of the next
+     * flow update
+     *
+     * @param snapshot changes previously returned by {@link #drain()}
+     */
+    public synchronized void requeue(Snapshot snapshot) {
+        if (snapshot.fullUpdate) {
+            markAll();
+        } else if (!fullUpdate) {
+            dirtyNodes.addAll(snapshot.dirtyNodes);
+            dirtyGroups.addAll(snapshot.dirtyGroups);
+        }
+    }
+
+    public static class Snapshot {
+
+        private final boolean fullUpdate;
+        private final Set<NodeId> dirtyNodes;
+        private final Set<EgKey> dirtyGroups;
+
+        private Snapshot(boolean fullUpdate, Set<NodeId> dirtyNodes, Set<EgKey> dirtyGroups) {
+            this.fullUpdate = fullUpdate;
+            this.dirtyNodes = dirtyNodes;
+            this.dirtyGroups = dirtyGroups;
+        }
+
+        public boolean isFullUpdate() {
+            return fullUpdate;
+        }
+
+        public boolean isEmpty() {
+            return !fullUpdate && dirtyNodes.isEmpty() && dirtyGroups.isEmpty();
+        }
+
+        /**
+         * Resolves dirty groups to nodes where flows have to be recomputed
+         *
+         * @param endpointManager provides nodes for groups
+         * @param policyInfo current policy used to find peers of dirty groups
+         * @return nodes to recompute or {@code null} if all nodes have to be recomputed
+         */
+        @Nullable
+        public Set<NodeId> getAffectedNodes(EndpointManager endpointManager, @Nullable PolicyInfo policyInfo) {
+            if (fullUpdate) {
+                return null;
+            }
+            Set<EgKey> affectedGroups = new HashSet<>(dirtyGroups);
+            if (policyInfo != null) {
+                for (EgKey egKey : dirtyGroups) {
+                    affectedGroups.addAll(policyInfo.getPeers(egKey));
+                }
+            }
+            Set<NodeId> affectedNodes = new HashSet<>(dirtyNodes);
+            for (EgKey egKey : affectedGroups) {
+                affectedNodes.addAll(endpointManager.getNodesForGroup(egKey));
+            }
+            return Collections.unmodifiableSet(affectedNodes);
+        }
+    }
+}
@@ -10,20 +10,27 @@ package org.opendaylight.groupbasedpolicy.renderer.ofoverlay;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CompletionService;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
+
 import org.opendaylight.controller.md.sal.binding.api.ClusteredDataTreeChangeListener;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.DataObjectModification;
 import org.opendaylight.controller.md.sal.binding.api.DataTreeIdentifier;
 import org.opendaylight.controller.md.sal.binding.api.DataTreeModification;
 import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
@@ -31,10 +38,12 @@ import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.groupbasedpolicy.dto.EgKey;
 import org.opendaylight.groupbasedpolicy.dto.EpKey;
+import org.opendaylight.groupbasedpolicy.dto.PolicyInfo;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.endpoint.EndpointManager;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow.FlowUtils;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow.GroupTable;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow.OfTable;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow.OrdinalFactory;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.mapper.destination.DestinationMapper;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.mapper.egressnat.EgressNatMapper;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.mapper.external.ExternalMapper;
@@ -44,15 +53,18 @@ import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.mapper.portsecurity.
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.mapper.source.SourceMapper;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.node.SwitchListener;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.node.SwitchManager;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.reactive.ConversationCache;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.sfcutils.SfcIidFactory;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.groupbasedpolicy.util.IidFactory;
+import org.opendaylight.groupbasedpolicy.util.SetUtils;
 import org.opendaylight.groupbasedpolicy.util.SingletonTask;
 import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.SfcOfRendererConfig;
 import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.of.renderer.rev151123.SfcOfRendererConfigBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.Table;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.endpoints.Endpoint;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.ofoverlay.rev140528.OfOverlayConfig.FlowProgrammingMode;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.ofoverlay.rev140528.OfOverlayConfig.LearningMode;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.interests.followed.tenants.followed.tenant.FollowedEndpointGroup;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.interests.followed.tenants.followed.tenant.FollowedEndpointGroupBuilder;
@@ -68,6 +80,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -83,7 +96,7 @@ public class PolicyManager
 
     private static final Logger LOG = LoggerFactory.getLogger(PolicyManager.class);
 
-    private Map<InstanceIdentifier<Table>, TableBuilder> previousGbpFlows  = new HashMap<>();
+    private OfWriter previousGbpState = new OfWriter();
 
     private short tableOffset;
     private static final short TABLEID_PORTSECURITY = 0;
@@ -103,6 +116,13 @@ public class PolicyManager
 
     private final ScheduledExecutorService executor;
     private final SingletonTask flowUpdateTask;
+    private final PendingFlowUpdates pendingUpdates = new PendingFlowUpdates();
+    private final ConcurrentMap<NodeId, Long> nodeComputeTimes = new ConcurrentHashMap<>();
+    private volatile ForkJoinPool flowPipelinePool;
+    private volatile ConversationCache conversationCache;
+    private volatile PolicyInfo currentPolicy;
+    private volatile long flowUpdateDelay = FLOW_UPDATE_DELAY;
+    private final ConcurrentMap<NodeId, Set<BigInteger>> expiredFlowCookies = new ConcurrentHashMap<>();
     private final DataBroker dataBroker;
 
     /**
@@ -111,6 +131,20 @@ public class PolicyManager
      */
     private final static int FLOW_UPDATE_DELAY = 250;
 
+    /**
+     * Max. delay before retrying a failed flow update task in milliseconds.
+     */
+    private final static int MAX_FLOW_UPDATE_RETRY_DELAY = 30000;
+
+    private final static int DEFAULT_REACTIVE_FLOW_IDLE_TIMEOUT = 60;
+    private final static int DEFAULT_REACTIVE_MAX_CONVERSATIONS_PER_NODE = 10000;
+
+    /**
+     * Max. number of node transactions submitted by flow update task which are not committed yet.
+     */
+    private final static int MAX_IN_FLIGHT_SUBMITS = 32;
+    private final OfCommitTracker commitTracker = new OfCommitTracker(MAX_IN_FLIGHT_SUBMITS);
+
     public PolicyManager(DataBroker dataBroker, SwitchManager switchManager, EndpointManager endpointManager,
             ScheduledExecutorService executor, short tableOffset) {
         super();
@@ -144,8 +178,9 @@ public class PolicyManager
         if (!setSfcTableOffset(TABLEID_SFC_INGRESS, TABLEID_SFC_EGRESS)) {
             LOG.error("Could not set SFC Ingress Table offset.");
         }
+        setFlowPipelineParallelism(0);
         flowUpdateTask = new SingletonTask(executor, new FlowUpdateTask());
-        scheduleUpdate();
+        scheduleFullUpdate();
 
         LOG.debug("Initialized OFOverlay policy manager");
     }
@@ -192,7 +227,7 @@ public class PolicyManager
 
             @Override
             public Void apply(Void tablesRemoved) {
-                scheduleUpdate();
+                scheduleFullUpdate();
                 return null;
             }
         }, MoreExecutors.directExecutor());
@@ -294,17 +329,34 @@ public class PolicyManager
 
     @Override
     public void switchReady(final NodeId nodeId) {
-        scheduleUpdate();
+        scheduleSwitchUpdate(nodeId);
     }
 
     @Override
     public void switchRemoved(NodeId sw) {
         // XXX TODO purge switch flows
-        scheduleUpdate();
+        scheduleSwitchUpdate(sw);
     }
 
     @Override
     public void switchUpdated(NodeId sw) {
+        scheduleSwitchUpdate(sw);
+    }
+
+    /**
+     * Tunnels of a switch are used by flows on all nodes hosting peers of its endpoints,
+     * so groups located on the switch are marked as well
+     */
+    private void scheduleSwitchUpdate(NodeId nodeId) {
+        if (!switchManager.getReadySwitches().contains(nodeId)) {
+            ConversationCache conversations = conversationCache;
+            if (conversations != null) {
+                conversations.nodeRemoved(nodeId);
+            }
+            OrdinalFactory.releaseOrdinals(nodeId);
+        }
+        pendingUpdates.markNode(nodeId);
+        pendingUpdates.markGroups(endpointManager.getGroupsForNode(nodeId));
         scheduleUpdate();
     }
 
@@ -314,11 +366,20 @@ public class PolicyManager
 
     @Override
     public void endpointUpdated(EpKey epKey) {
+        // removed endpoints are handled by node and group notifications
+        Endpoint endpoint = endpointManager.getEndpoint(epKey);
+        if (endpoint != null) {
+            pendingUpdates.markNode(endpointManager.getEndpointNodeId(endpoint));
+            pendingUpdates.markGroups(endpointManager.getEgKeysForEndpoint(endpoint));
+        } else {
+            OrdinalFactory.releaseOrdinals(epKey);
+        }
         scheduleUpdate();
     }
 
     @Override
     public void nodeEndpointUpdated(NodeId nodeId, EpKey epKey) {
+        pendingUpdates.markNode(nodeId);
         scheduleUpdate();
     }
 
@@ -334,6 +395,7 @@ public class PolicyManager
         wTx.put(LogicalDatastoreType.OPERATIONAL, IidFactory.followedEndpointgroupIid(OFOverlayRenderer.RENDERER_NAME,
                 egKey.getTenantId(), egKey.getEgId()), followedEpg, true);
         DataStoreHelper.submitToDs(wTx);
+        pendingUpdates.markGroup(egKey);
         scheduleUpdate();
     }
 
@@ -343,9 +405,23 @@ public class PolicyManager
 
     @Override
     public void onDataTreeChanged(Collection<DataTreeModification<ResolvedPolicy>> changes) {
+        for (DataTreeModification<ResolvedPolicy> change : changes) {
+            DataObjectModification<ResolvedPolicy> rootNode = change.getRootNode();
+            markPolicyGroups(rootNode.getDataBefore());
+            markPolicyGroups(rootNode.getDataAfter());
+        }
         scheduleUpdate();
     }
 
+    private void markPolicyGroups(ResolvedPolicy resolvedPolicy) {
+        if (resolvedPolicy != null) {
+            pendingUpdates.markGroup(
+                    new EgKey(resolvedPolicy.getConsumerTenantId(), resolvedPolicy.getConsumerEpgId()));
+            pendingUpdates.markGroup(
+                    new EgKey(resolvedPolicy.getProviderTenantId(), resolvedPolicy.getProviderEpgId()));
+        }
+    }
+
     // *************
     // PolicyManager
     // *************
@@ -359,53 +435,248 @@ public class PolicyManager
         // No-op for now
     }
 
+    /**
+     * Set the number of threads computing flows of different nodes in parallel
+     *
+     * @param parallelism number of threads, value lower than 1 means number of available processors
+     */
+    public synchronized void setFlowPipelineParallelism(int parallelism) {
+        if (parallelism < 1) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        if (flowPipelinePool != null && flowPipelinePool.getParallelism() == parallelism) {
+            return;
+        }
+        ForkJoinPool oldPool = flowPipelinePool;
+        flowPipelinePool = new ForkJoinPool(parallelism);
+        if (oldPool != null) {
+            oldPool.shutdown();
+        }
+        LOG.info("Flow pipeline parallelism set to {}", parallelism);
+    }
+
+    /**
+     * Set how policy flows are programmed. In reactive mode flows are installed only for conversations
+     * observed on a node, all conversations are forgotten when the mode or its parameters change.
+     *
+     * @param mode the flow programming mode, {@code null} means proactive
+     * @param idleTimeout idle timeout of conversation flows in seconds, {@code null} means default
+     * @param maxConversationsPerNode max. number of conversations on a node, {@code null} means default
+     */
+    public synchronized void setFlowProgrammingMode(@Nullable FlowProgrammingMode mode, @Nullable Integer idleTimeout,
+            @Nullable Long maxConversationsPerNode) {
+        ConversationCache newCache = null;
+        if (mode == FlowProgrammingMode.Reactive) {
+            int timeout = idleTimeout != null ? idleTimeout : DEFAULT_REACTIVE_FLOW_IDLE_TIMEOUT;
+            int maxConversations = maxConversationsPerNode != null
+                    ? (int) Math.min(maxConversationsPerNode, Integer.MAX_VALUE)
+                    : DEFAULT_REACTIVE_MAX_CONVERSATIONS_PER_NODE;
+            if (conversationCache != null && conversationCache.getIdleTimeout() == timeout
+                    && conversationCache.getMaxConversationsPerNode() == maxConversations) {
+                return;
+            }
+            newCache = new ConversationCache(timeout, maxConversations);
+        } else if (conversationCache == null) {
+            return;
+        }
+        conversationCache = newCache;
+        LOG.info("Flow programming mode set to {}", newCache == null ? FlowProgrammingMode.Proactive
+                : FlowProgrammingMode.Reactive);
+        scheduleFullUpdate();
+    }
+
+    /**
+     * @return conversations observed on nodes in reactive mode, {@code null} in proactive mode
+     */
+    @Nullable
+    public ConversationCache getConversationCache() {
+        return conversationCache;
+    }
+
+    /**
+     * @return policy used by the last flow update, {@code null} until a policy is resolved
+     */
+    @Nullable
+    public PolicyInfo getCurrentPolicy() {
+        return currentPolicy;
+    }
+
+    /**
+     * Schedule an update of the node whose conversations changed in reactive mode
+     *
+     * @param nodeId the node
+     */
+    public void conversationsChanged(NodeId nodeId) {
+        pendingUpdates.markNode(nodeId);
+        scheduleUpdate();
+    }
+
+    /**
+     * Schedule an update of the node whose conversation flow was removed by the switch in reactive mode.
+     * The flow is deleted from the data store before the update.
+     *
+     * @param nodeId the node
+     * @param cookie cookie of the removed flow
+     */
+    public void conversationFlowRemoved(NodeId nodeId, BigInteger cookie) {
+        SetUtils.getNestedSet(nodeId, expiredFlowCookies).add(cookie);
+        conversationsChanged(nodeId);
+    }
+
+    /**
+     * @return statistics of flow and group commits
+     */
+    public OfCommitTracker getCommitTracker() {
+        return commitTracker;
+    }
+
+    /**
+     * @return time in milliseconds spent on computing flows of each node during its last update
+     */
+    public Map<NodeId, Long> getNodeComputeTimes() {
+        return ImmutableMap.copyOf(nodeComputeTimes);
+    }
+
     // **************
     // Implementation
     // **************
 
+    /**
+     * Flows removed by switches are deleted from the data store and from the previous state, so that
+     * they are written again if they are still required
+     */
+    private void deleteExpiredFlows() {
+        if (expiredFlowCookies.isEmpty() || dataBroker == null) {
+            return;
+        }
+        WriteTransaction wTx = dataBroker.newWriteOnlyTransaction();
+        int deleted = 0;
+        for (NodeId nodeId : expiredFlowCookies.keySet()) {
+            final Set<BigInteger> cookies = expiredFlowCookies.remove(nodeId);
+            if (cookies == null) {
+                continue;
+            }
+            for (InstanceIdentifier<Flow> flowIid : previousGbpState.removeFlows(nodeId,
+                    flow -> flow.getCookie() != null && cookies.contains(flow.getCookie().getValue()))) {
+                wTx.delete(LogicalDatastoreType.CONFIGURATION, flowIid);
+                deleted++;
+            }
+        }
+        if (deleted == 0) {
+            wTx.cancel();
+            return;
+        }
+        if (!DataStoreHelper.submitToDs(wTx)) {
+            LOG.warn("Failed to delete {} expired conversation flows", deleted);
+        }
+    }
+
+    private void scheduleFullUpdate() {
+        pendingUpdates.markAll();
+        scheduleUpdate();
+    }
+
     private void scheduleUpdate() {
         if (switchManager != null) {
             LOG.trace("Scheduling flow update task");
-            flowUpdateTask.reschedule(FLOW_UPDATE_DELAY, TimeUnit.MILLISECONDS);
+            // delay is increased while updates keep failing so that a persistent failure does not spin
+            flowUpdateTask.reschedule(flowUpdateDelay, TimeUnit.MILLISECONDS);
         }
     }
 
     /**
-     * Update the flows on a particular switch
+     * Update the flows on switches affected by pending changes. Returns nodes which were
+     * recomputed or {@code null} if all nodes were recomputed
      */
-    private class SwitchFlowUpdateTask implements Callable<Void> {
+    private class SwitchFlowUpdateTask implements Callable<Set<NodeId>> {
 
         private final OfWriter ofWriter;
+        private final PendingFlowUpdates.Snapshot pending;
 
-        public SwitchFlowUpdateTask(OfWriter ofWriter) {
+        public SwitchFlowUpdateTask(OfWriter ofWriter, PendingFlowUpdates.Snapshot pending) {
             this.ofWriter = ofWriter;
+            this.pending = pending;
         }
 
         @Override
-        public Void call() throws Exception {
+        public Set<NodeId> call() throws Exception {
             OfContext ofCtx = new OfContext(dataBroker, PolicyManager.this, switchManager, endpointManager, executor);
-            if (ofCtx.getCurrentPolicy() == null)
-                return null;
+            if (ofCtx.getCurrentPolicy() == null) {
+                // changes are kept until the first policy is resolved
+                pendingUpdates.requeue(pending);
+                return Collections.emptySet();
+            }
+            currentPolicy = ofCtx.getCurrentPolicy();
+            OrdinalFactory.tenantsResolved(ofCtx.getTenants());
+            Set<NodeId> affectedNodes = pending.getAffectedNodes(endpointManager, ofCtx.getCurrentPolicy());
+            if (affectedNodes != null && affectedNodes.isEmpty()) {
+                return affectedNodes;
+            }
+            Map<NodeId, List<Endpoint>> endpointsByNode = new HashMap<>();
+            for (Endpoint endpoint : endpointManager.getEndpoints()) {
+                NodeId nodeId = endpointManager.getEndpointNodeId(endpoint);
+                if (switchManager.getReadySwitches().contains(nodeId)
+                        && (affectedNodes == null || affectedNodes.contains(nodeId))) {
+                    if (endpointsByNode.get(nodeId) == null) {
+                        endpointsByNode.put(nodeId, new ArrayList<Endpoint>());
+                    }
+                    endpointsByNode.get(nodeId).add(endpoint);
+                }
+            }
+            LOG.debug("Recomputing flows on nodes {}", affectedNodes == null ? "all" : affectedNodes);
+            List<NodeFlowUpdateTask> nodeTasks = new ArrayList<>();
+            for (Map.Entry<NodeId, List<Endpoint>> entry : endpointsByNode.entrySet()) {
+                nodeTasks.add(new NodeFlowUpdateTask(ofCtx, entry.getKey(), entry.getValue()));
+            }
+            // every node is computed into its own shard, shards are merged when all are done
+            for (Future<OfWriter> shard : flowPipelinePool.invokeAll(nodeTasks)) {
+                ofWriter.merge(shard.get());
+            }
+
+            return affectedNodes;
+        }
+    }
+
+    /**
+     * Computes flows of the whole pipeline for endpoints located on a single node
+     */
+    private class NodeFlowUpdateTask implements Callable<OfWriter> {
+
+        private final OfContext ofCtx;
+        private final NodeId nodeId;
+        private final List<Endpoint> endpoints;
+
+        NodeFlowUpdateTask(OfContext ofCtx, NodeId nodeId, List<Endpoint> endpoints) {
+            this.ofCtx = ofCtx;
+            this.nodeId = nodeId;
+            this.endpoints = endpoints;
+        }
+
+        @Override
+        public OfWriter call() {
+            long start = System.nanoTime();
+            OfWriter ofWriter = new OfWriter();
             List<? extends OfTable> flowPipeline = createFlowPipeline(ofCtx);
             for (OfTable table : flowPipeline) {
                 try {
-                    for (Endpoint endpoint : endpointManager.getEndpoints()) {
-                        if (switchManager.getReadySwitches().contains(endpointManager.getEndpointNodeId(endpoint))) {
-                            table.sync(endpoint, ofWriter);
-                        }
+                    for (Endpoint endpoint : endpoints) {
+                        table.sync(endpoint, ofWriter);
                     }
                 } catch (Exception e) {
-                    LOG.error("Failed to write Openflow table {}", table.getClass().getSimpleName(), e);
+                    LOG.error("Failed to write Openflow table {} on node {}", table.getClass().getSimpleName(),
+                            nodeId, e);
                 }
             }
-
-            return null;
+            long computeTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            nodeComputeTimes.put(nodeId, computeTime);
+            LOG.debug("Flows for {} endpoints on node {} computed in {} ms", endpoints.size(), nodeId, computeTime);
+            return ofWriter;
         }
     }
 
     /**
      * Update all flows on all switches as needed. Note that this will block
-     * one of the threads on the executor.
+     * one of the threads on the executor while nodes are computed in the flow pipeline pool.
      */
     private class FlowUpdateTask implements Runnable {
 
@@ -413,22 +684,49 @@ public class PolicyManager
         public void run() {
             LOG.debug("Beginning flow update task");
 
-            CompletionService<Void> ecs = new ExecutorCompletionService<>(executor);
+            ListenableFuture<Void> ordinalsLoaded = OrdinalFactory.getOrdinalsLoaded();
+            if (!ordinalsLoaded.isDone()) {
+                // pending changes are kept, flows computed now would use ordinals which are not loaded yet
+                LOG.debug("Ordinals are not loaded yet, flow update postponed");
+                ordinalsLoaded.addListener(PolicyManager.this::scheduleUpdate, MoreExecutors.directExecutor());
+                return;
+            }
+            PendingFlowUpdates.Snapshot pending = pendingUpdates.drain();
+            if (pending.isEmpty()) {
+                LOG.debug("No pending changes, flow update skipped");
+                return;
+            }
+            deleteExpiredFlows();
 
             OfWriter ofWriter = new OfWriter();
 
-            SwitchFlowUpdateTask swut = new SwitchFlowUpdateTask(ofWriter);
-            ecs.submit(swut);
+            SwitchFlowUpdateTask swut = new SwitchFlowUpdateTask(ofWriter, pending);
 
             try {
-                ecs.take().get();
-                // Current gbp flow must be independent, find out where this run() ends,
-                // set flows to one field and reset another
-                Map<InstanceIdentifier<Table>, TableBuilder> actualGbpFlows = new HashMap<>();
-                actualGbpFlows.putAll(ofWriter.commitToDataStore(dataBroker, previousGbpFlows));
-                previousGbpFlows = actualGbpFlows;
-            } catch (InterruptedException | ExecutionException e) {
-                LOG.error("Failed to update flow tables", e);
+                Set<NodeId> updatedNodes = swut.call();
+                if (updatedNodes != null && updatedNodes.isEmpty()) {
+                    LOG.debug("Flow update completed, no node affected");
+                    flowUpdateDelay = FLOW_UPDATE_DELAY;
+                    return;
+                }
+                // ordinals used by new flows are persisted in background so that they survive a restart
+                OrdinalFactory.persistOrdinals();
+                if (updatedNodes == null) {
+                    OrdinalFactory.fullUpdateCompleted();
+                    ofWriter.commitToDataStore(dataBroker, previousGbpState, commitTracker);
+                } else {
+                    // recomputed nodes are updated even if they have no flows anymore
+                    ofWriter.commitToDataStore(dataBroker, previousGbpState, updatedNodes, commitTracker);
+                    // keep flows and groups of nodes which were not recomputed
+                    ofWriter.merge(previousGbpState, updatedNodes);
+                }
+                previousGbpState = ofWriter;
+                flowUpdateDelay = FLOW_UPDATE_DELAY;
+            } catch (Exception e) {
+                flowUpdateDelay = Math.min(flowUpdateDelay * 2, MAX_FLOW_UPDATE_RETRY_DELAY);
+                LOG.error("Failed to update flow tables, retrying in {} ms", flowUpdateDelay, e);
+                pendingUpdates.markAll();
+                scheduleUpdate();
             }
             LOG.debug("Flow update completed");
         }
@@ -438,6 +736,7 @@ public class PolicyManager
     public void close() throws IOException {
         if (registerDataTreeChangeListener != null)
             registerDataTreeChangeListener.close();
+        flowPipelinePool.shutdownNow();
         // TODO unregister classifier and action instance validators
     }
 
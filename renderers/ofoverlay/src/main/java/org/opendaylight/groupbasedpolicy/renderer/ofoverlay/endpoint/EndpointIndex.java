@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.endpoint;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.opendaylight.groupbasedpolicy.dto.EgKey;
+import org.opendaylight.groupbasedpolicy.dto.EpKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+/**
+ * Immutable snapshot of endpoint indexes used for rendering.<br>
+ * A new snapshot is created by {@link Updater} which copies only the entries touched by an update, indexes are
+ * {@link LayeredMap}s sharing untouched entries with the previous snapshot. Readers of a published snapshot do not
+ * need any locking and always see all indexes in the same state.
+ */
+final class EndpointIndex {
+
+    static final EndpointIndex EMPTY = new EndpointIndex(LayeredMap.empty(), LayeredMap.empty(), LayeredMap.empty(),
+            LayeredMap.empty(), LayeredMap.empty());
+
+    private final LayeredMap<NodeId, ImmutableMap<EgKey, ImmutableSet<EpKey>>> endpointsByGroupByNode;
+    private final LayeredMap<NodeId, ImmutableSet<EpKey>> endpointsByNode;
+    private final LayeredMap<EgKey, ImmutableSet<EpKey>> endpointsByGroup;
+    private final LayeredMap<EgKey, ImmutableSet<NodeId>> nodesByGroup;
+    /**
+     * Endpoints on a node by MAC address normalized to lower case
+     */
+    private final LayeredMap<NodeId, ImmutableMap<String, ImmutableSet<EpKey>>> endpointsByMacByNode;
+
+    private EndpointIndex(LayeredMap<NodeId, ImmutableMap<EgKey, ImmutableSet<EpKey>>> endpointsByGroupByNode,
+            LayeredMap<NodeId, ImmutableSet<EpKey>> endpointsByNode,
+            LayeredMap<EgKey, ImmutableSet<EpKey>> endpointsByGroup,
+            LayeredMap<EgKey, ImmutableSet<NodeId>> nodesByGroup,
+            LayeredMap<NodeId, ImmutableMap<String, ImmutableSet<EpKey>>> endpointsByMacByNode) {
+        this.endpointsByGroupByNode = endpointsByGroupByNode;
+        this.endpointsByNode = endpointsByNode;
+        this.endpointsByGroup = endpointsByGroup;
+        this.nodesByGroup = nodesByGroup;
+        this.endpointsByMacByNode = endpointsByMacByNode;
+    }
+
+    @Nonnull
+    ImmutableSet<EgKey> getGroupsForNode(NodeId nodeId) {
+        ImmutableMap<EgKey, ImmutableSet<EpKey>> nodeEps = endpointsByGroupByNode.get(nodeId);
+        return nodeEps == null ? ImmutableSet.of() : nodeEps.keySet();
+    }
+
+    @Nonnull
+    ImmutableSet<NodeId> getNodesForGroup(EgKey egKey) {
+        return nullToEmpty(nodesByGroup.get(egKey));
+    }
+
+    @Nonnull
+    ImmutableSet<EpKey> getEndpointsForNode(NodeId nodeId, EgKey egKey) {
+        ImmutableMap<EgKey, ImmutableSet<EpKey>> nodeEps = endpointsByGroupByNode.get(nodeId);
+        return nodeEps == null ? ImmutableSet.of() : nullToEmpty(nodeEps.get(egKey));
+    }
+
+    @Nonnull
+    ImmutableSet<EpKey> getEndpointsForNode(NodeId nodeId) {
+        return nullToEmpty(endpointsByNode.get(nodeId));
+    }
+
+    /**
+     * MAC addresses are compared case insensitively
+     */
+    @Nonnull
+    ImmutableSet<EpKey> getEndpointsForNode(NodeId nodeId, MacAddress mac) {
+        ImmutableMap<String, ImmutableSet<EpKey>> nodeEps = endpointsByMacByNode.get(nodeId);
+        return nodeEps == null ? ImmutableSet.of() : nullToEmpty(nodeEps.get(toMacKey(mac)));
+    }
+
+    @Nonnull
+    ImmutableSet<EpKey> getEndpointsForGroup(EgKey egKey) {
+        return nullToEmpty(endpointsByGroup.get(egKey));
+    }
+
+    Updater updater() {
+        return new Updater(this);
+    }
+
+    private static <T> ImmutableSet<T> nullToEmpty(@Nullable ImmutableSet<T> set) {
+        return set == null ? ImmutableSet.of() : set;
+    }
+
+    @Nullable
+    private static String toMacKey(@Nullable MacAddress mac) {
+        return mac == null ? null : mac.getValue().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Collects changes of endpoint locations and builds a new snapshot. Not thread-safe, changes of indexes
+     * have to be serialized by the caller.
+     */
+    static final class Updater {
+
+        private final EndpointIndex base;
+        private LayeredMap.Editor<NodeId, ImmutableMap<EgKey, ImmutableSet<EpKey>>> endpointsByGroupByNode;
+        private LayeredMap.Editor<NodeId, ImmutableSet<EpKey>> endpointsByNode;
+        private LayeredMap.Editor<EgKey, ImmutableSet<EpKey>> endpointsByGroup;
+        private LayeredMap.Editor<EgKey, ImmutableSet<NodeId>> nodesByGroup;
+        private LayeredMap.Editor<NodeId, ImmutableMap<String, ImmutableSet<EpKey>>> endpointsByMacByNode;
+
+        private Updater(EndpointIndex base) {
+            this.base = base;
+        }
+
+        /**
+         * @return {@code true} if the endpoint is the first one on the node
+         */
+        boolean addEndpoint(@Nonnull NodeId nodeId, @Nonnull EpKey epKey, @Nonnull Set<EgKey> egKeys) {
+            copyOnWrite();
+            ImmutableSet<EpKey> nodeEps = endpointsByNode.get(nodeId);
+            endpointsByNode.put(nodeId, with(nodeEps, epKey));
+            Map<EgKey, ImmutableSet<EpKey>> groupsOnNode = new HashMap<>(nullToEmpty(endpointsByGroupByNode.get(nodeId)));
+            for (EgKey egKey : egKeys) {
+                ImmutableSet<EpKey> groupEpsOnNode = groupsOnNode.get(egKey);
+                if (groupEpsOnNode == null) {
+                    nodesByGroup.put(egKey, with(nodesByGroup.get(egKey), nodeId));
+                }
+                groupsOnNode.put(egKey, with(groupEpsOnNode, epKey));
+                endpointsByGroup.put(egKey, with(endpointsByGroup.get(egKey), epKey));
+            }
+            endpointsByGroupByNode.put(nodeId, ImmutableMap.copyOf(groupsOnNode));
+            String mac = toMacKey(epKey.getMacAddress());
+            if (mac != null) {
+                Map<String, ImmutableSet<EpKey>> macsOnNode = new HashMap<>(nullToEmpty(endpointsByMacByNode.get(nodeId)));
+                macsOnNode.put(mac, with(macsOnNode.get(mac), epKey));
+                endpointsByMacByNode.put(nodeId, ImmutableMap.copyOf(macsOnNode));
+            }
+            return nodeEps == null;
+        }
+
+        /**
+         * @return {@code true} if the endpoint was the last one on the node
+         */
+        boolean removeEndpoint(@Nonnull NodeId nodeId, @Nonnull EpKey epKey, @Nonnull Set<EgKey> egKeys) {
+            copyOnWrite();
+            boolean nodeRemoved = false;
+            ImmutableSet<EpKey> nodeEps = endpointsByNode.get(nodeId);
+            if (nodeEps != null) {
+                ImmutableSet<EpKey> remaining = without(nodeEps, epKey);
+                if (remaining == null) {
+                    endpointsByNode.remove(nodeId);
+                    nodeRemoved = true;
+                } else {
+                    endpointsByNode.put(nodeId, remaining);
+                }
+            }
+            Map<EgKey, ImmutableSet<EpKey>> groupsOnNode = new HashMap<>(nullToEmpty(endpointsByGroupByNode.get(nodeId)));
+            for (EgKey egKey : egKeys) {
+                ImmutableSet<EpKey> groupEpsOnNode = groupsOnNode.get(egKey);
+                if (groupEpsOnNode != null) {
+                    ImmutableSet<EpKey> remaining = without(groupEpsOnNode, epKey);
+                    if (remaining == null) {
+                        groupsOnNode.remove(egKey);
+                        ImmutableSet<NodeId> remainingNodes = without(nodesByGroup.get(egKey), nodeId);
+                        putOrRemove(nodesByGroup, egKey, remainingNodes);
+                    } else {
+                        groupsOnNode.put(egKey, remaining);
+                    }
+                }
+                putOrRemove(endpointsByGroup, egKey, without(endpointsByGroup.get(egKey), epKey));
+            }
+            if (groupsOnNode.isEmpty()) {
+                endpointsByGroupByNode.remove(nodeId);
+            } else {
+                endpointsByGroupByNode.put(nodeId, ImmutableMap.copyOf(groupsOnNode));
+            }
+            String mac = toMacKey(epKey.getMacAddress());
+            if (mac != null && endpointsByMacByNode.get(nodeId) != null) {
+                Map<String, ImmutableSet<EpKey>> macsOnNode = new HashMap<>(endpointsByMacByNode.get(nodeId));
+                putOrRemove(macsOnNode, mac, without(macsOnNode.get(mac), epKey));
+                if (macsOnNode.isEmpty()) {
+                    endpointsByMacByNode.remove(nodeId);
+                } else {
+                    endpointsByMacByNode.put(nodeId, ImmutableMap.copyOf(macsOnNode));
+                }
+            }
+            return nodeRemoved;
+        }
+
+        boolean isModified() {
+            return endpointsByNode != null;
+        }
+
+        @Nonnull
+        EndpointIndex build() {
+            if (!isModified()) {
+                return base;
+            }
+            return new EndpointIndex(endpointsByGroupByNode.build(), endpointsByNode.build(), endpointsByGroup.build(),
+                    nodesByGroup.build(), endpointsByMacByNode.build());
+        }
+
+        private void copyOnWrite() {
+            if (!isModified()) {
+                endpointsByGroupByNode = base.endpointsByGroupByNode.edit();
+                endpointsByNode = base.endpointsByNode.edit();
+                endpointsByGroup = base.endpointsByGroup.edit();
+                nodesByGroup = base.nodesByGroup.edit();
+                endpointsByMacByNode = base.endpointsByMacByNode.edit();
+            }
+        }
+
+        private static <K, V> Map<K, V> nullToEmpty(@Nullable Map<K, V> map) {
+            return map == null ? ImmutableMap.of() : map;
+        }
+
+        private static <K, T> void putOrRemove(Map<K, ImmutableSet<T>> map, K key, @Nullable ImmutableSet<T> value) {
+            if (value == null) {
+                map.remove(key);
+            } else {
+                map.put(key, value);
+            }
+        }
+
+        private static <K, T> void putOrRemove(LayeredMap.Editor<K, ImmutableSet<T>> map, K key,
+                @Nullable ImmutableSet<T> value) {
+            if (value == null) {
+                map.remove(key);
+            } else {
+                map.put(key, value);
+            }
+        }
+
+        private static <T> ImmutableSet<T> with(@Nullable ImmutableSet<T> set, T item) {
+            if (set == null) {
+                return ImmutableSet.of(item);
+            }
+            if (set.contains(item)) {
+                return set;
+            }
+            return ImmutableSet.<T>builder().addAll(set).add(item).build();
+        }
+
+        /**
+         * @return set without the item or {@code null} if the set is empty
+         */
+        @Nullable
+        private static <T> ImmutableSet<T> without(@Nullable ImmutableSet<T> set, T item) {
+            if (set == null) {
+                return null;
+            }
+            if (!set.contains(item)) {
+                return set.isEmpty() ? null : set;
+            }
+            return set.size() == 1 ? null : ImmutableSet.copyOf(Sets.filter(set, other -> !item.equals(other)));
+        }
+    }
+}
@@ -35,7 +35,6 @@ import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.node.SwitchManager;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.statistics.OFStatisticsManager;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.groupbasedpolicy.util.IidFactory;
-import org.opendaylight.groupbasedpolicy.util.SetUtils;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.MacAddress;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.SalFlowService;
@@ -68,10 +67,10 @@ import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
 
 /**
  * Keep track of endpoints on the system. Maintain an index of endpoints and
@@ -90,10 +89,8 @@ public class EndpointManager implements AutoCloseable {
     private final OfOverlayL3ContextListener ofOverlayL3ContextListener;
     private final ConcurrentMap<EpKey, Endpoint> endpoints = new ConcurrentHashMap<>();
     private final ConcurrentMap<EpKey, Endpoint> externalEndpointsWithoutLocation = new ConcurrentHashMap<>();
-    private final ConcurrentMap<NodeId, ConcurrentMap<EgKey, Set<EpKey>>> endpointsByGroupByNode =
-            new ConcurrentHashMap<>();
-    private final ConcurrentMap<NodeId, Set<EpKey>> endpointsByNode = new ConcurrentHashMap<>();
-    private final ConcurrentMap<EgKey, Set<EpKey>> endpointsByGroup = new ConcurrentHashMap<>();
+    // indexes of endpoints are replaced as a whole under the lock of this object and read without locking
+    private volatile EndpointIndex index = EndpointIndex.EMPTY;
     private final ScheduledExecutorService executor;
     private final DataBroker dataProvider;
     private final ArpTasker arpTasker;
@@ -147,11 +144,8 @@ public class EndpointManager implements AutoCloseable {
      * @param nodeId - the nodeId of the switch to get endpoints for
      * @return a collection of {@link Endpoint} objects.
      */
-    public synchronized Set<EgKey> getGroupsForNode(NodeId nodeId) {
-        Map<EgKey, Set<EpKey>> nodeEps = endpointsByGroupByNode.get(nodeId);
-        if (nodeEps == null)
-            return Collections.emptySet();
-        return ImmutableSet.copyOf(nodeEps.keySet());
+    public Set<EgKey> getGroupsForNode(NodeId nodeId) {
+        return index.getGroupsForNode(nodeId);
     }
 
     /**
@@ -160,16 +154,8 @@ public class EndpointManager implements AutoCloseable {
      * @param egKey - the egKey of the endpoint group to get nodes for
      * @return a collection of {@link NodeId} objects.
      */
-    public synchronized Set<NodeId> getNodesForGroup(final EgKey egKey) {
-        return ImmutableSet.copyOf(Sets.filter(endpointsByGroupByNode.keySet(), new Predicate<NodeId>() {
-
-            @Override
-            public boolean apply(NodeId input) {
-                Map<EgKey, Set<EpKey>> nodeEps = endpointsByGroupByNode.get(input);
-                return (nodeEps != null && nodeEps.containsKey(egKey));
-            }
-
-        }));
+    public Set<NodeId> getNodesForGroup(final EgKey egKey) {
+        return index.getNodesForGroup(egKey);
     }
 
     /**
@@ -179,17 +165,11 @@ public class EndpointManager implements AutoCloseable {
      * @param eg - the group to look up
      * @return the endpoints
      */
-    public synchronized Collection<Endpoint> getEndpointsForNode(NodeId nodeId, EgKey eg) {
+    public Collection<Endpoint> getEndpointsForNode(NodeId nodeId, EgKey eg) {
         // TODO: alagalah Create method findEndpointsByNode() that uses
         // data store
 
-        Map<EgKey, Set<EpKey>> nodeEps = endpointsByGroupByNode.get(nodeId);
-        if (nodeEps == null)
-            return Collections.emptyList();
-        Collection<EpKey> ebn = nodeEps.get(eg);
-        if (ebn == null)
-            return Collections.emptyList();
-        return ImmutableList.copyOf(Collections2.transform(ebn, indexTransform));
+        return toEndpoints(index.getEndpointsForNode(nodeId, eg));
     }
 
     /**
@@ -198,14 +178,23 @@ public class EndpointManager implements AutoCloseable {
      * @param nodeId - the node ID to look up
      * @return the endpoints
      */
-    public synchronized Collection<Endpoint> getEndpointsForNode(final NodeId nodeId) {
+    public Collection<Endpoint> getEndpointsForNode(final NodeId nodeId) {
         // TODO: alagalah Create method findEndpointsByNode() that uses
         // data store. See commented code below.
 
-        Collection<EpKey> ebn = endpointsByNode.get(nodeId);
-        if (ebn == null)
-            return Collections.emptyList();
-        return ImmutableList.copyOf(Collections2.transform(ebn, indexTransform));
+        return toEndpoints(index.getEndpointsForNode(nodeId));
+    }
+
+    /**
+     * Get the endpoints with the MAC address on a particular node. MAC addresses are compared
+     * case insensitively.
+     *
+     * @param nodeId - the node ID to look up
+     * @param mac - the MAC address to look up
+     * @return the endpoints
+     */
+    public Collection<Endpoint> getEndpointsForNode(NodeId nodeId, MacAddress mac) {
+        return toEndpoints(index.getEndpointsForNode(nodeId, mac));
     }
 
     /**
@@ -232,11 +221,19 @@ public class EndpointManager implements AutoCloseable {
      * @param eg - Endpoint group key (contains endpoint group and tenant ID)
      * @return a collection of {@link Endpoint} objects.
      */
-    public synchronized Collection<Endpoint> getEndpointsForGroup(EgKey eg) {
-        Collection<EpKey> ebg = endpointsByGroup.get(eg);
-        if (ebg == null)
+    public Collection<Endpoint> getEndpointsForGroup(EgKey eg) {
+        return toEndpoints(index.getEndpointsForGroup(eg));
+    }
+
+    /**
+     * Snapshot of indexes read without locking may still reference endpoints which were removed meanwhile,
+     * these are skipped.
+     */
+    private Collection<Endpoint> toEndpoints(Collection<EpKey> epKeys) {
+        if (epKeys.isEmpty())
             return Collections.emptyList();
-        return ImmutableList.copyOf(Collections2.transform(ebg, indexTransform));
+        return ImmutableList.copyOf(Collections2.filter(Collections2.transform(epKeys, indexTransform),
+                Predicates.notNull()));
     }
 
     /**
@@ -245,7 +242,7 @@ public class EndpointManager implements AutoCloseable {
      * @param eg - Endpoint group key (contains endpoint group and tenant ID)
      * @return a collection of {@link Endpoint} objects.
      */
-    public synchronized Collection<Endpoint> getExtEpsNoLocForGroup(final EgKey eg) {
+    public Collection<Endpoint> getExtEpsNoLocForGroup(final EgKey eg) {
 
         return ImmutableSet
             .copyOf(Collections2.filter(externalEndpointsWithoutLocation.values(), new Predicate<Endpoint>() {
@@ -320,13 +317,15 @@ public class EndpointManager implements AutoCloseable {
         boolean notifyNewLoc = false;
         boolean notifyOldEg = false;
         boolean notifyNewEg = false;
+        EpKey updatedEpKey = null;
+        EndpointIndex.Updater indexUpdater = index.updater();
 
         // create endpoint
         if (oldEp == null && newEp != null) {
             if (newLoc != null) {
-                createEndpoint(newLoc, newEpKey, newEpgIds, tenantId);
+                createEndpoint(indexUpdater, newLoc, newEpKey, newEpgIds, tenantId);
                 endpoints.put(newEpKey, newEp);
-                notifyEndpointUpdated(newEpKey);
+                updatedEpKey = newEpKey;
                 notifyNewLoc = true;
                 notifyNewEg = true;
             } else {
@@ -338,19 +337,19 @@ public class EndpointManager implements AutoCloseable {
         else if (oldEp != null && newEp != null && oldEpKey != null && newEpKey != null) {
             // endpoint is not external anymore
             if (newLoc != null && oldLoc == null) {
-                createEndpoint(newLoc, newEpKey, newEpgIds, tenantId);
+                createEndpoint(indexUpdater, newLoc, newEpKey, newEpgIds, tenantId);
                 externalEndpointsWithoutLocation.remove(oldEpKey);
                 endpoints.put(newEpKey, newEp);
-                notifyEndpointUpdated(newEpKey);
+                updatedEpKey = newEpKey;
                 notifyNewLoc = true;
                 notifyNewEg = true;
             }
             // endpoint changed to external
             else if (newLoc == null && oldLoc != null) {
-                removeEndpoint(oldEp, oldLoc, oldEpKey, oldEpgIds);
+                removeEndpoint(indexUpdater, oldEp, oldLoc, oldEpKey, oldEpgIds);
                 externalEndpointsWithoutLocation.put(newEpKey, newEp);
                 endpoints.remove(oldEpKey);
-                notifyEndpointUpdated(oldEpKey);
+                updatedEpKey = oldEpKey;
                 notifyOldLoc = true;
                 notifyOldEg = true;
             // endpoint might have changed location, EPGs or it's properties
@@ -365,18 +364,18 @@ public class EndpointManager implements AutoCloseable {
                         notifyOldEg = true;
                         notifyNewEg = true;
                     }
-                    removeEndpoint(oldEp, oldLoc, oldEpKey, oldEpgIds);
-                    createEndpoint(newLoc, newEpKey, newEpgIds, tenantId);
-                    notifyEndpointUpdated(newEpKey);
+                    removeEndpoint(indexUpdater, oldEp, oldLoc, oldEpKey, oldEpgIds);
+                    createEndpoint(indexUpdater, newLoc, newEpKey, newEpgIds, tenantId);
+                    updatedEpKey = newEpKey;
             }
         }
 
         // remove endpoint
         else if (oldEp != null && newEp == null) {
             if (oldLoc != null) {
-                removeEndpoint(oldEp, oldLoc, oldEpKey, oldEpgIds);
+                removeEndpoint(indexUpdater, oldEp, oldLoc, oldEpKey, oldEpgIds);
                 endpoints.remove(oldEpKey);
-                notifyEndpointUpdated(oldEpKey);
+                updatedEpKey = oldEpKey;
                 notifyOldLoc = true;
                 notifyOldEg = true;
             } else {
@@ -384,7 +383,14 @@ public class EndpointManager implements AutoCloseable {
             }
         }
 
+        // publish indexes before listeners are notified
+        if (indexUpdater.isModified()) {
+            index = indexUpdater.build();
+        }
+
         // notifications
+        if (updatedEpKey != null)
+            notifyEndpointUpdated(updatedEpKey);
         if (notifyOldLoc)
             notifyNodeEndpointUpdated(oldLoc, oldEpKey);
         if (notifyNewLoc)
@@ -401,72 +407,29 @@ public class EndpointManager implements AutoCloseable {
             }
     }
 
-    private void createEndpoint(NodeId newLoc, EpKey newEpKey, Set<EndpointGroupId> newEpgIds, TenantId tenantId) {
-        // Update endpointsByNode
-        if (endpointsByNode.get(newLoc) == null) {
-            Set<EpKey> epsNode = new HashSet<>();
-            epsNode.add(newEpKey);
-            endpointsByNode.put(newLoc, epsNode);
-            SwitchManager.activatingSwitch(newLoc);
-        } else {
-            Set<EpKey> epsNode = endpointsByNode.get(newLoc);
-            epsNode.add(newEpKey);
-        }
-
-        // Update endpointsByGroupByNode and endpointsByGroup
+    private void createEndpoint(EndpointIndex.Updater indexUpdater, NodeId newLoc, EpKey newEpKey,
+            Set<EndpointGroupId> newEpgIds, TenantId tenantId) {
+        Set<EgKey> newEgKeys = new HashSet<>();
         for (EndpointGroupId newEpgId : newEpgIds) {
-            // endpointsByGroupByNode
-            EgKey newEgKey = new EgKey(tenantId, newEpgId);
-            Set<EpKey> eps = getEpNGSet(newLoc, newEgKey);
-            eps.add(newEpKey);
-            // endpointsByGroup
-            Set<EpKey> geps = endpointsByGroup.get(newEgKey);
-            if (geps == null) {
-                geps = new HashSet<>();
-            }
-            geps.add(newEpKey);
-            endpointsByGroup.put(newEgKey, geps);
-            LOG.debug("Endpoint {} added to node {}", newEpKey, newLoc);
-
+            newEgKeys.add(new EgKey(tenantId, newEpgId));
         }
-    }
-
-    private void removeEndpoint(Endpoint oldEp, NodeId oldLoc, EpKey oldEpKey, Set<EndpointGroupId> oldEpgIds) {
-        // Update endpointsByNode
-        Set<EpKey> epsNode = endpointsByNode.get(oldLoc);
-        if (epsNode != null) {
-            epsNode.remove(oldEpKey);
-            if (epsNode.isEmpty()) {
-                endpointsByNode.remove(oldLoc);
-                SwitchManager.deactivatingSwitch(oldLoc);
-            }
+        // Update endpointsByNode, endpointsByGroupByNode and endpointsByGroup
+        if (indexUpdater.addEndpoint(newLoc, newEpKey, newEgKeys)) {
+            SwitchManager.activatingSwitch(newLoc);
         }
+        LOG.debug("Endpoint {} added to node {}", newEpKey, newLoc);
+    }
 
-        // Update endpointsByGroupByNode and endpointsByGroup, get map of EPGs and their Endpoints
-        // for Node
-        ConcurrentMap<EgKey, Set<EpKey>> map = endpointsByGroupByNode.get(oldLoc);
+    private void removeEndpoint(EndpointIndex.Updater indexUpdater, Endpoint oldEp, NodeId oldLoc, EpKey oldEpKey,
+            Set<EndpointGroupId> oldEpgIds) {
+        Set<EgKey> oldEgKeys = new HashSet<>();
         for (EndpointGroupId oldEpgId : oldEpgIds) {
-            // endpointsByGroupByNode
-            EgKey oldEgKey = new EgKey(oldEp.getTenant(), oldEpgId);
-            Set<EpKey> eps = map.get(oldEgKey);
-            if (eps != null) {
-                eps.remove(oldEpKey);
-                if (eps.isEmpty())
-                    map.remove(oldEgKey, Collections.emptySet());
-            }
-            // endpointsByGroup
-            Set<EpKey> geps = endpointsByGroup.get(oldEgKey);
-            if (geps != null) {
-                geps.remove(oldEpKey);
-                if (geps.isEmpty())
-                    endpointsByGroup.remove(oldEgKey);
-            }
+            oldEgKeys.add(new EgKey(oldEp.getTenant(), oldEpgId));
+        }
+        // Update endpointsByNode, endpointsByGroupByNode and endpointsByGroup
+        if (indexUpdater.removeEndpoint(oldLoc, oldEpKey, oldEgKeys)) {
+            SwitchManager.deactivatingSwitch(oldLoc);
         }
-
-        // If map is empty, no more EPGs on this node, remove node from map
-        if (map.isEmpty())
-            endpointsByGroupByNode.remove(oldLoc);
-
     }
 
     private void createL3Endpoint(EndpointL3 newL3Ep) {
@@ -524,17 +487,6 @@ public class EndpointManager implements AutoCloseable {
         }
     }
 
-    private Set<EpKey> getEpNGSet(NodeId location, EgKey eg) {
-        ConcurrentMap<EgKey, Set<EpKey>> map = endpointsByGroupByNode.get(location);
-        if (map == null) {
-            map = new ConcurrentHashMap<>();
-            ConcurrentMap<EgKey, Set<EpKey>> old = endpointsByGroupByNode.putIfAbsent(location, map);
-            if (old != null)
-                map = old;
-        }
-        return SetUtils.getNestedSet(eg, map);
-    }
-
     /**
      * An endpoint is external if its endpoint-group is external implicit group.
      *
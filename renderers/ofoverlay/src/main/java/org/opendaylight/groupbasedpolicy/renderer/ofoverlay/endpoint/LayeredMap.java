@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.endpoint;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Immutable map made of a shared base and a small overlay of entries changed since the base was built.<br>
+ * A new version copies only the overlay, the base is shared by all versions until the overlay grows over
+ * square root of the base size and both are compacted into a new base. An update so costs O(sqrt(n)) amortized
+ * instead of copying the whole map. Removed entries are kept in the overlay as {@code null} values.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+final class LayeredMap<K, V> {
+
+    private static final int MIN_COMPACTION_SIZE = 16;
+    private static final LayeredMap<?, ?> EMPTY = new LayeredMap<>(ImmutableMap.of(), Collections.emptyMap());
+
+    private final ImmutableMap<K, V> base;
+    private final Map<K, V> overlay;
+
+    private LayeredMap(ImmutableMap<K, V> base, Map<K, V> overlay) {
+        this.base = base;
+        this.overlay = overlay;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> LayeredMap<K, V> empty() {
+        return (LayeredMap<K, V>) EMPTY;
+    }
+
+    @Nullable
+    V get(K key) {
+        if (overlay.containsKey(key)) {
+            return overlay.get(key);
+        }
+        return base.get(key);
+    }
+
+    Editor<K, V> edit() {
+        return new Editor<>(this);
+    }
+
+    int getOverlaySize() {
+        return overlay.size();
+    }
+
+    /**
+     * Collects changes of a map and builds its new version. Not thread-safe.
+     */
+    static final class Editor<K, V> {
+
+        private final ImmutableMap<K, V> base;
+        private final Map<K, V> overlay;
+
+        private Editor(LayeredMap<K, V> origin) {
+            this.base = origin.base;
+            this.overlay = new HashMap<>(origin.overlay);
+        }
+
+        @Nullable
+        V get(K key) {
+            if (overlay.containsKey(key)) {
+                return overlay.get(key);
+            }
+            return base.get(key);
+        }
+
+        void put(K key, @Nonnull V value) {
+            overlay.put(key, Preconditions.checkNotNull(value));
+        }
+
+        void remove(K key) {
+            if (base.containsKey(key)) {
+                overlay.put(key, null);
+            } else {
+                overlay.remove(key);
+            }
+        }
+
+        @Nonnull
+        LayeredMap<K, V> build() {
+            if (overlay.size() <= Math.max(MIN_COMPACTION_SIZE, Math.sqrt(base.size()))) {
+                return new LayeredMap<>(base, Collections.unmodifiableMap(overlay));
+            }
+            Map<K, V> compacted = new HashMap<>(base);
+            for (Map.Entry<K, V> entry : overlay.entrySet()) {
+                if (entry.getValue() == null) {
+                    compacted.remove(entry.getKey());
+                } else {
+                    compacted.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return new LayeredMap<>(ImmutableMap.copyOf(compacted), Collections.emptyMap());
+        }
+    }
+}
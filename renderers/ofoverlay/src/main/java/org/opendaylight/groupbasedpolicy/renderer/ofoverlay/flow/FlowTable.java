@@ -8,7 +8,11 @@
 
 package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow;
 
+import javax.annotation.Nullable;
+
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.OfContext;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.PolicyManager;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.reactive.ConversationCache;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
@@ -41,6 +45,15 @@ public abstract class FlowTable extends OfTable {
     // Utility methods
     // ***************
 
+    /**
+     * @return observed conversations if flows are programmed reactively, {@code null} otherwise
+     */
+    @Nullable
+    protected ConversationCache getConversationCache() {
+        PolicyManager policyManager = ctx.getPolicyManager();
+        return policyManager == null ? null : policyManager.getConversationCache();
+    }
+
     /**
      * Get a base flow builder with some common features already set
      *
@@ -82,4 +95,21 @@ public abstract class FlowTable extends OfTable {
         flowb.setId(flowid);
         return flowb.build();
     }
+
+    /**
+     * Write a flow sending traffic matching the given match to the controller at the given priority.
+     * Used in reactive mode to learn conversations which have no flows installed yet.
+     *
+     * @param priority the priority
+     * @param match the match
+     * @param tableId the table id
+     * @return a punt flow for the given match at the given priority
+     */
+    public Flow puntFlow(Integer priority, Match match, Short tableId) {
+        return base().setPriority(priority)
+            .setId(FlowIdUtils.newFlowId(tableId, "punt", match))
+            .setMatch(match)
+            .setInstructions(FlowUtils.instructions(FlowUtils.applyActionIns(FlowUtils.outputToControllerAction())))
+            .build();
+    }
 }
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Assigns ordinals to {@link OrdinalKey}s and counts references to them.<br>
+ * A key is referenced by owners (e.g. endpoints) through {@link #setReferences(Object, Set)} or
+ * {@link #getOrdinal(Object, OrdinalKey)}. When the last reference is removed the key is released,
+ * but it keeps its ordinal until the ordinal is reused. Released
+ * ordinals are reused in the order in which they were released and only when more than
+ * {@code reuseThreshold} ordinals are released, so a released key which is requested again shortly
+ * after gets its former ordinal back.<br>
+ * Changes of assignments are collected and returned by {@link #drainChanges()}.
+ */
+class OrdinalAllocator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrdinalAllocator.class);
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int reuseThreshold;
+    private final ConcurrentMap<OrdinalKey, Integer> ordinalsByKey = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, Set<OrdinalKey>> keysByOwner = new ConcurrentHashMap<>();
+
+    // guarded by this
+    private OrdinalKey[] keysByOrdinal = new OrdinalKey[INITIAL_CAPACITY];
+    private int[] refCounts = new int[INITIAL_CAPACITY];
+    private final Map<OrdinalKey, Integer> releasedKeys = new HashMap<>();
+    private final Deque<Integer> releasedOrdinals = new ArrayDeque<>();
+    private final Map<String, Integer> pendingChanges = new HashMap<>();
+    private int nextOrdinal = 1;
+
+    /**
+     * @param reuseThreshold number of released ordinals which are kept before the oldest one is reused
+     */
+    OrdinalAllocator(int reuseThreshold) {
+        Preconditions.checkArgument(reuseThreshold >= 0, "Reuse threshold cannot be negative");
+        this.reuseThreshold = reuseThreshold;
+    }
+
+    /**
+     * @param key the key
+     * @return ordinal assigned to the key, a new one is assigned if the key has none
+     */
+    int getOrdinal(OrdinalKey key) {
+        Integer ordinal = ordinalsByKey.get(key);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        return allocate(key);
+    }
+
+    /**
+     * Adds a reference of the owner to the key, other keys referenced by the owner are kept
+     *
+     * @param owner the owner of references
+     * @param key the key
+     * @return ordinal assigned to the key
+     */
+    int getOrdinal(Object owner, OrdinalKey key) {
+        Set<OrdinalKey> keys = keysByOwner.get(owner);
+        if (keys != null && keys.contains(key)) {
+            return getOrdinal(key);
+        }
+        synchronized (this) {
+            Set<OrdinalKey> previousKeys = keysByOwner.get(owner);
+            int ordinal = allocate(key);
+            if (previousKeys == null || !previousKeys.contains(key)) {
+                Set<OrdinalKey> newKeys = new HashSet<>();
+                if (previousKeys != null) {
+                    newKeys.addAll(previousKeys);
+                }
+                newKeys.add(key);
+                keysByOwner.put(owner, Collections.unmodifiableSet(newKeys));
+                refCounts[ordinal]++;
+            }
+            return ordinal;
+        }
+    }
+
+    /**
+     * Replaces keys referenced by the owner
+     *
+     * @param owner the owner of references
+     * @param keys all keys currently referenced by the owner
+     */
+    void setReferences(Object owner, Set<OrdinalKey> keys) {
+        if (keys.equals(keysByOwner.get(owner))) {
+            return;
+        }
+        synchronized (this) {
+            Set<OrdinalKey> previousKeys = keysByOwner.put(owner, keys);
+            if (previousKeys == null) {
+                previousKeys = Collections.emptySet();
+            }
+            for (OrdinalKey key : keys) {
+                if (!previousKeys.contains(key)) {
+                    int ordinal = allocate(key);
+                    refCounts[ordinal]++;
+                }
+            }
+            for (OrdinalKey key : previousKeys) {
+                if (!keys.contains(key)) {
+                    release(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all references of the owner
+     *
+     * @param owner the owner of references
+     */
+    synchronized void releaseReferences(Object owner) {
+        Set<OrdinalKey> previousKeys = keysByOwner.remove(owner);
+        if (previousKeys != null) {
+            for (OrdinalKey key : previousKeys) {
+                release(key);
+            }
+        }
+    }
+
+    /**
+     * Releases keys which have an ordinal but are not referenced by any owner, e.g. loaded keys which are
+     * not used any more or keys requested only by {@link #getOrdinal(OrdinalKey)}
+     *
+     * @return number of released keys
+     */
+    synchronized int releaseUnreferenced() {
+        int released = 0;
+        for (Map.Entry<OrdinalKey, Integer> assignment : ordinalsByKey.entrySet()) {
+            int ordinal = assignment.getValue();
+            if (refCounts[ordinal] == 0) {
+                ordinalsByKey.remove(assignment.getKey());
+                releasedKeys.put(assignment.getKey(), ordinal);
+                releasedOrdinals.add(ordinal);
+                released++;
+            }
+        }
+        return released;
+    }
+
+    private synchronized int allocate(OrdinalKey key) {
+        Integer ordinal = ordinalsByKey.get(key);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        ordinal = releasedKeys.remove(key);
+        if (ordinal == null) {
+            ordinal = takeOrdinal();
+            ensureCapacity(ordinal);
+            keysByOrdinal[ordinal] = key;
+            pendingChanges.put(key.toId(), ordinal);
+        }
+        ordinalsByKey.put(key, ordinal);
+        return ordinal;
+    }
+
+    private int takeOrdinal() {
+        while (releasedOrdinals.size() > reuseThreshold) {
+            int ordinal = releasedOrdinals.poll();
+            OrdinalKey previousKey = keysByOrdinal[ordinal];
+            if (previousKey == null) {
+                return ordinal;
+            }
+            // skip ordinals whose keys were requested again after release
+            if (releasedKeys.remove(previousKey) != null) {
+                keysByOrdinal[ordinal] = null;
+                pendingChanges.put(previousKey.toId(), null);
+                LOG.trace("Ordinal {} of released key {} reused", ordinal, previousKey);
+                return ordinal;
+            }
+        }
+        Preconditions.checkState(nextOrdinal < Integer.MAX_VALUE, "No ordinal left");
+        return nextOrdinal++;
+    }
+
+    private void release(OrdinalKey key) {
+        Integer ordinal = ordinalsByKey.get(key);
+        if (ordinal == null || refCounts[ordinal] == 0) {
+            return;
+        }
+        if (--refCounts[ordinal] == 0) {
+            ordinalsByKey.remove(key);
+            releasedKeys.put(key, ordinal);
+            releasedOrdinals.add(ordinal);
+        }
+    }
+
+    private void ensureCapacity(int ordinal) {
+        if (ordinal >= keysByOrdinal.length) {
+            int capacity = Math.max(ordinal + 1, keysByOrdinal.length * 2);
+            keysByOrdinal = Arrays.copyOf(keysByOrdinal, capacity);
+            refCounts = Arrays.copyOf(refCounts, capacity);
+        }
+    }
+
+    /**
+     * Replaces the current state by persisted assignments. Loaded keys are not referenced and they are kept
+     * until they are referenced and released or until {@link #releaseUnreferenced()}. Ordinals lower than the highest loaded one which are not
+     * assigned are reused first.
+     *
+     * @param assignments ordinals by IDs of keys
+     */
+    synchronized void load(Map<String, Integer> assignments) {
+        reset();
+        int maxOrdinal = 0;
+        for (Map.Entry<String, Integer> assignment : assignments.entrySet()) {
+            OrdinalKey key = OrdinalKey.fromId(assignment.getKey());
+            int ordinal = assignment.getValue();
+            if (key == null || ordinal < 1) {
+                LOG.warn("Ignoring malformed ordinal assignment {} -> {}", assignment.getKey(), ordinal);
+                continue;
+            }
+            ensureCapacity(ordinal);
+            if (keysByOrdinal[ordinal] != null) {
+                LOG.warn("Ignoring ordinal assignment {} -> {}, ordinal is already assigned to {}",
+                        assignment.getKey(), ordinal, keysByOrdinal[ordinal]);
+                pendingChanges.put(assignment.getKey(), null);
+                continue;
+            }
+            keysByOrdinal[ordinal] = key;
+            ordinalsByKey.put(key, ordinal);
+            maxOrdinal = Math.max(maxOrdinal, ordinal);
+        }
+        for (int ordinal = 1; ordinal < maxOrdinal; ordinal++) {
+            if (keysByOrdinal[ordinal] == null) {
+                releasedOrdinals.add(ordinal);
+            }
+        }
+        nextOrdinal = maxOrdinal + 1;
+        LOG.info("Loaded {} ordinal assignments", ordinalsByKey.size());
+    }
+
+    /**
+     * Returns changes of assignments since the last call
+     *
+     * @return ordinals by IDs of keys, {@code null} value means that the assignment was removed
+     */
+    synchronized Map<String, Integer> drainChanges() {
+        Map<String, Integer> changes = new HashMap<>(pendingChanges);
+        pendingChanges.clear();
+        return changes;
+    }
+
+    /**
+     * Returns changes which were not persisted, changes made since they were drained take precedence
+     *
+     * @param changes changes returned by {@link #drainChanges()}
+     */
+    synchronized void restoreChanges(Map<String, Integer> changes) {
+        for (Map.Entry<String, Integer> change : changes.entrySet()) {
+            if (!pendingChanges.containsKey(change.getKey())) {
+                pendingChanges.put(change.getKey(), change.getValue());
+            }
+        }
+    }
+
+    synchronized void reset() {
+        ordinalsByKey.clear();
+        keysByOwner.clear();
+        keysByOrdinal = new OrdinalKey[INITIAL_CAPACITY];
+        refCounts = new int[INITIAL_CAPACITY];
+        releasedKeys.clear();
+        releasedOrdinals.clear();
+        pendingChanges.clear();
+        nextOrdinal = 1;
+    }
+
+    /**
+     * @return number of keys which have an ordinal and were not released
+     */
+    int getAssignedCount() {
+        return ordinalsByKey.size();
+    }
+
+    /**
+     * @return number of released keys which still keep their ordinal
+     */
+    synchronized int getReleasedCount() {
+        return releasedKeys.size();
+    }
+
+    /**
+     * @param key the key
+     * @return number of owners referencing the key
+     */
+    synchronized int getRefCount(OrdinalKey key) {
+        Integer ordinal = ordinalsByKey.get(key);
+        return ordinal == null ? 0 : refCounts[ordinal];
+    }
+}
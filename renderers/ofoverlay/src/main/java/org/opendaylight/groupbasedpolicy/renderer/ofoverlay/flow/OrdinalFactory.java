@@ -7,15 +7,30 @@
  */
 package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.google.common.annotations.VisibleForTesting;
-
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.groupbasedpolicy.dto.ConditionGroup;
 import org.opendaylight.groupbasedpolicy.dto.EgKey;
 import org.opendaylight.groupbasedpolicy.dto.EpKey;
@@ -29,28 +44,52 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.UniqueId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.endpoints.Endpoint;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.ofoverlay.rev140528.OrdinalAssignments;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.ofoverlay.rev140528.ordinal.assignments.OrdinalAssignment;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.ofoverlay.rev140528.ordinal.assignments.OrdinalAssignmentBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.ofoverlay.rev140528.ordinal.assignments.OrdinalAssignmentKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.Tenant;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.ForwardingContext;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.forwarding.context.L2BridgeDomain;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.forwarding.context.L2FloodDomain;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.forwarding.context.L3Context;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.forwarding.context.Subnet;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.tenants.tenant.policy.EndpointGroup;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Allocates ordinals for forwarding contexts, endpoint groups, condition groups and VNIDs.<br>
+ * Ordinals are referenced by endpoints, nodes and tenants which use them, ordinals no longer referenced
+ * by anybody are reused. Assignments are persisted in CONFIGURATION datastore by {@link #persistOrdinals()}
+ * and loaded by {@link #loadOrdinals(DataBroker)} when the renderer starts.
+ */
 public class OrdinalFactory {
 
     private final static Logger LOG = LoggerFactory.getLogger(OrdinalFactory.class);
 
     /**
-     * Counter used to allocate ordinal values for forwarding contexts and VNIDs
+     * Number of released ordinals kept before they are reused, so that flows of endpoints
+     * being removed are gone when their ordinals are assigned again
      */
-    private final static AtomicInteger policyOrdinal = new AtomicInteger(1);
+    private final static int REUSE_THRESHOLD = 1024;
+
+    private final static InstanceIdentifier<OrdinalAssignments> ORDINAL_ASSIGNMENTS_IID =
+            InstanceIdentifier.create(OrdinalAssignments.class);
+
+    private final static OrdinalAllocator allocator = new OrdinalAllocator(REUSE_THRESHOLD);
+
+    private static volatile DataBroker dataBroker;
 
-    private final static ConcurrentMap<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private final static AtomicBoolean persisting = new AtomicBoolean();
 
-    // XXX - need to garbage collect
-    private final static ConcurrentMap<ConditionGroup, Integer> cgOrdinals = new ConcurrentHashMap<>();
+    private final static AtomicBoolean releaseUnreferenced = new AtomicBoolean();
+
+    private final static Set<TenantId> tenantOwners = ConcurrentHashMap.newKeySet();
+
+    private static volatile ListenableFuture<Void> ordinalsLoaded = Futures.immediateFuture(null);
 
     /**
      * Creates an ordinal for the OfOverlay pipeline comparison, based on @TenantId and a
@@ -63,7 +102,11 @@ public class OrdinalFactory {
     public static int getContextOrdinal(final TenantId tenantId, final UniqueId id) {
         if (tenantId == null || id == null)
             return 0;
-        return getContextOrdinalFromString(tenantId.getValue() + "|" + id.getValue());
+        return allocator.getOrdinal(contextKey(tenantId, id));
+    }
+
+    private static OrdinalKey contextKey(TenantId tenantId, UniqueId id) {
+        return OrdinalKey.create(OrdinalKey.Type.CONTEXT, tenantId.getValue(), id.getValue());
     }
 
     /**
@@ -77,14 +120,7 @@ public class OrdinalFactory {
     public static int getCondGroupOrdinal(final ConditionGroup cg) {
         if (cg == null)
             return 0;
-        Integer ord = cgOrdinals.get(cg);
-        if (ord == null) {
-            ord = policyOrdinal.getAndIncrement();
-            Integer old = cgOrdinals.putIfAbsent(cg, ord);
-            if (old != null)
-                ord = old;
-        }
-        return ord.intValue();
+        return allocator.getOrdinal(OrdinalKey.forConditionGroup(cg));
     }
 
     /**
@@ -98,11 +134,19 @@ public class OrdinalFactory {
      */
 
     public static int getContextOrdinal(NodeId destNode) throws Exception {
-        return getContextOrdinalFromString(destNode.getValue());
+        // the node owns its ordinal until it is released by releaseOrdinals(NodeId)
+        return allocator.getOrdinal(destNode, OrdinalKey.create(OrdinalKey.Type.NODE, destNode.getValue()));
     }
 
     public static int getContextOrdinal(Endpoint ep, NetworkDomainId networkContainment) {
+        return allocator.getOrdinal(tunnelKey(ep, networkContainment));
+    }
+
+    public static int getContextOrdinal(Endpoint ep) {
+        return allocator.getOrdinal(endpointGroupsKey(ep));
+    }
 
+    private static List<String> getTenantAndSortedEpgs(Endpoint ep) {
         Set<String> epgs = new TreeSet<>();
 
         // Get EPGs and add to ordered Set
@@ -115,62 +159,191 @@ public class OrdinalFactory {
             }
         }
 
-        StringBuilder key = new StringBuilder(ep.getTenant().getValue());
+        List<String> components = new ArrayList<>(epgs.size() + 2);
+        components.add(ep.getTenant().getValue());
+        components.addAll(epgs);
+        return components;
+    }
 
-        for (String epg : epgs) {
-            key.append('|');
-            key.append(epg);
-        }
+    private static OrdinalKey endpointGroupsKey(Endpoint ep) {
+        return OrdinalKey.create(OrdinalKey.Type.ENDPOINT_GROUPS, getTenantAndSortedEpgs(ep));
+    }
 
-        key.append("|").append(networkContainment);
+    private static OrdinalKey tunnelKey(Endpoint ep, NetworkDomainId networkContainment) {
+        List<String> components = getTenantAndSortedEpgs(ep);
+        components.add(networkContainment == null ? "" : networkContainment.getValue());
+        return OrdinalKey.create(OrdinalKey.Type.TUNNEL, components);
+    }
 
-        return getContextOrdinalFromString(key.toString());
+    /**
+     * Replaces ordinals assigned so far by assignments persisted in CONFIGURATION datastore without
+     * blocking the caller. Flow updates have to wait for the returned future. The data broker is used for
+     * {@link #persistOrdinals()} afterwards. Loaded assignments which are not referenced after the next
+     * full flow update are released by {@link #fullUpdateCompleted()}.
+     *
+     * @param dataBroker the data broker
+     * @return future which is done when assignments are loaded
+     */
+    public static ListenableFuture<Void> loadOrdinals(final DataBroker dataBroker) {
+        final SettableFuture<Void> loaded = SettableFuture.create();
+        ordinalsLoaded = loaded;
+        final ReadOnlyTransaction rTx = dataBroker.newReadOnlyTransaction();
+        Futures.addCallback(rTx.read(LogicalDatastoreType.CONFIGURATION, ORDINAL_ASSIGNMENTS_IID),
+                new FutureCallback<Optional<OrdinalAssignments>>() {
+
+                    @Override
+                    public void onSuccess(Optional<OrdinalAssignments> potentialAssignments) {
+                        rTx.close();
+                        load(dataBroker, potentialAssignments);
+                        loaded.set(null);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        rTx.close();
+                        LOG.warn("Failed to read ordinal assignments, ordinals are assigned from scratch", t);
+                        load(dataBroker, Optional.<OrdinalAssignments>absent());
+                        loaded.set(null);
+                    }
+                }, MoreExecutors.directExecutor());
+        return loaded;
+    }
 
+    private static void load(DataBroker dataBroker, Optional<OrdinalAssignments> potentialAssignments) {
+        Map<String, Integer> assignments = new HashMap<>();
+        if (potentialAssignments.isPresent() && potentialAssignments.get().getOrdinalAssignment() != null) {
+            for (OrdinalAssignment assignment : potentialAssignments.get().getOrdinalAssignment()) {
+                if (assignment.getOrdinal() != null) {
+                    assignments.put(assignment.getId(), assignment.getOrdinal().intValue());
+                }
+            }
+        }
+        allocator.load(assignments);
+        tenantOwners.clear();
+        releaseUnreferenced.set(true);
+        OrdinalFactory.dataBroker = dataBroker;
     }
 
-    public static int getContextOrdinal(Endpoint ep) {
+    /**
+     * @return future which is done when ordinals are loaded by {@link #loadOrdinals(DataBroker)}
+     */
+    public static ListenableFuture<Void> getOrdinalsLoaded() {
+        return ordinalsLoaded;
+    }
 
-        Set<String> epgs = new TreeSet<>();
+    /**
+     * Releases assignments which are not referenced by anybody after the first full flow update following
+     * {@link #loadOrdinals(DataBroker)}, all ordinals which are still used were requested by then
+     */
+    public static void fullUpdateCompleted() {
+        if (releaseUnreferenced.compareAndSet(true, false)) {
+            LOG.info("Released {} ordinal assignments not used since load", allocator.releaseUnreferenced());
+        }
+    }
 
-        // Get EPGs and add to ordered Set
-        if (ep.getEndpointGroup() != null) {
-            epgs.add(ep.getEndpointGroup().getValue());
+    /**
+     * Forwarding contexts of tenants own their ordinals. Ordinals of contexts which are not present in
+     * any of the tenants any more are released.
+     *
+     * @param tenants all resolved tenants
+     */
+    public static void tenantsResolved(Collection<IndexedTenant> tenants) {
+        Set<TenantId> resolvedTenants = new HashSet<>();
+        for (IndexedTenant indexedTenant : tenants) {
+            Tenant tenant = indexedTenant.getTenant();
+            if (tenant == null || tenant.getId() == null) {
+                continue;
+            }
+            resolvedTenants.add(tenant.getId());
+            ImmutableSet.Builder<OrdinalKey> keys = ImmutableSet.builder();
+            ForwardingContext fwdCtx = tenant.getForwardingContext();
+            if (fwdCtx != null) {
+                if (fwdCtx.getL3Context() != null) {
+                    fwdCtx.getL3Context().forEach(l3c -> keys.add(contextKey(tenant.getId(), l3c.getId())));
+                }
+                if (fwdCtx.getL2BridgeDomain() != null) {
+                    fwdCtx.getL2BridgeDomain().forEach(bd -> keys.add(contextKey(tenant.getId(), bd.getId())));
+                }
+                if (fwdCtx.getL2FloodDomain() != null) {
+                    fwdCtx.getL2FloodDomain().forEach(fd -> keys.add(contextKey(tenant.getId(), fd.getId())));
+                }
+            }
+            allocator.setReferences(tenant.getId(), keys.build());
         }
-        if (ep.getEndpointGroups() != null) {
-            for (EndpointGroupId epgId : ep.getEndpointGroups()) {
-                epgs.add(epgId.getValue());
+        for (TenantId tenantId : tenantOwners) {
+            if (!resolvedTenants.contains(tenantId)) {
+                allocator.releaseReferences(tenantId);
             }
         }
+        tenantOwners.retainAll(resolvedTenants);
+        tenantOwners.addAll(resolvedTenants);
+    }
 
-        StringBuilder key = new StringBuilder(ep.getTenant().getValue());
-
-        for (String epg : epgs) {
-            key.append('|');
-            key.append(epg);
+    /**
+     * Writes assignments changed since the last call to CONFIGURATION datastore without waiting for the
+     * commit. Only one write is in flight, changes made meanwhile are written when it finishes.
+     * Changes are dropped if no data broker was set by {@link #loadOrdinals(DataBroker)}.
+     */
+    public static void persistOrdinals() {
+        DataBroker broker = dataBroker;
+        if (broker == null) {
+            allocator.drainChanges();
+            return;
+        }
+        if (!persisting.compareAndSet(false, true)) {
+            return;
+        }
+        final Map<String, Integer> changes = allocator.drainChanges();
+        if (changes.isEmpty()) {
+            persisting.set(false);
+            return;
         }
+        WriteTransaction wTx = broker.newWriteOnlyTransaction();
+        for (Map.Entry<String, Integer> change : changes.entrySet()) {
+            InstanceIdentifier<OrdinalAssignment> iid =
+                    ORDINAL_ASSIGNMENTS_IID.child(OrdinalAssignment.class, new OrdinalAssignmentKey(change.getKey()));
+            if (change.getValue() == null) {
+                wTx.delete(LogicalDatastoreType.CONFIGURATION, iid);
+            } else {
+                wTx.put(LogicalDatastoreType.CONFIGURATION, iid, new OrdinalAssignmentBuilder()
+                    .setId(change.getKey()).setOrdinal(change.getValue().longValue()).build(), true);
+            }
+        }
+        Futures.addCallback(wTx.submit(), new FutureCallback<Void>() {
 
-        return getContextOrdinalFromString(key.toString());
+            @Override
+            public void onSuccess(Void result) {
+                LOG.debug("Persisted {} ordinal assignment changes", changes.size());
+                persisting.set(false);
+                persistOrdinals();
+            }
 
+            @Override
+            public void onFailure(Throwable t) {
+                LOG.warn("Failed to persist {} ordinal assignment changes, retrying with the next update",
+                        changes.size(), t);
+                allocator.restoreChanges(changes);
+                persisting.set(false);
+            }
+        }, MoreExecutors.directExecutor());
     }
 
     /**
-     * Get a 32-bit context ordinal suitable for use in the OF data plane for
-     * the given policy item.
+     * Removes references of an endpoint to its ordinals
      *
-     * @param id
-     *        the unique ID for the element
-     * @return the 32-bit ordinal value
+     * @param epKey key of removed endpoint
      */
-    private static int getContextOrdinalFromString(final String id) {
-
-        Integer ord = ordinals.get(id);
-        if (ord == null) {
-            ord = policyOrdinal.getAndIncrement();
-            Integer old = ordinals.putIfAbsent(id, ord);
-            if (old != null)
-                ord = old;
-        }
-        return ord.intValue();
+    public static void releaseOrdinals(EpKey epKey) {
+        allocator.releaseReferences(epKey);
+    }
+
+    /**
+     * Removes references of a removed node to its ordinals
+     *
+     * @param nodeId ID of removed node
+     */
+    public static void releaseOrdinals(NodeId nodeId) {
+        allocator.releaseReferences(nodeId);
     }
 
     public static final EndpointFwdCtxOrdinals getEndpointFwdCtxOrdinals(OfContext ctx,
@@ -214,7 +387,10 @@ public class OrdinalFactory {
             // out of scope until broader bugs with conditions are fixed.
             List<ConditionName> conds = ctx.getEndpointManager().getConditionsForEndpoint(ep);
             ConditionGroup cg = ctx.getCurrentPolicy().getEgCondGroup(new EgKey(ep.getTenant(), ep.getEndpointGroup()), conds);
-            this.cgId = getCondGroupOrdinal(cg);
+            ImmutableSet.Builder<OrdinalKey> keys = ImmutableSet.builder();
+            if (cg != null) {
+                this.cgId = getOrdinal(OrdinalKey.forConditionGroup(cg), keys);
+            }
 
             // Based on network containment, determine components of
             // forwarding context
@@ -228,17 +404,23 @@ public class OrdinalFactory {
             // Set ordinal id's for use in flows for each forwarding context
             // component
 
-            this.epgId = getContextOrdinal(ep);
+            this.epgId = getOrdinal(endpointGroupsKey(ep), keys);
 
             // TODO: alagalah Li/Be: This idea can be extended to include conditions.
-            this.tunnelId = getContextOrdinal(ep, networkContainment);
+            this.tunnelId = getOrdinal(tunnelKey(ep, networkContainment), keys);
             if (bd != null)
-                this.bdId = getContextOrdinal(ep.getTenant(), bd.getId());
+                this.bdId = getOrdinal(contextKey(ep.getTenant(), bd.getId()), keys);
             if (fd != null)
-                this.fdId = getContextOrdinal(ep.getTenant(), fd.getId());
+                this.fdId = getOrdinal(contextKey(ep.getTenant(), fd.getId()), keys);
             if (l3c != null)
-                this.l3Id = getContextOrdinal(ep.getTenant(), l3c.getId());
+                this.l3Id = getOrdinal(contextKey(ep.getTenant(), l3c.getId()), keys);
+
+            allocator.setReferences(this.ep, keys.build());
+        }
 
+        private static int getOrdinal(OrdinalKey key, ImmutableSet.Builder<OrdinalKey> keys) {
+            keys.add(key);
+            return allocator.getOrdinal(key);
         }
 
         public int getTunnelId() {
@@ -277,6 +459,9 @@ public class OrdinalFactory {
     @VisibleForTesting
     // Used only for unit testing
     public static void resetPolicyOrdinalValue() {
-        policyOrdinal.set(1);
+        allocator.reset();
+        persisting.set(false);
+        releaseUnreferenced.set(false);
+        tenantOwners.clear();
     }
 }
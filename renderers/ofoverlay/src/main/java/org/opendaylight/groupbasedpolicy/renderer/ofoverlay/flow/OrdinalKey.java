@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.opendaylight.groupbasedpolicy.dto.ConditionGroup;
+import org.opendaylight.groupbasedpolicy.dto.ConditionSet;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.ConditionName;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+
+/**
+ * Identifies an object which gets an ordinal from {@link OrdinalFactory}.<br>
+ * Keys of different types never collide even if their components are equal. A key can be converted
+ * to an ID by {@link #toId()} and restored by {@link #fromId(String)}.
+ */
+final class OrdinalKey {
+
+    enum Type {
+        CONTEXT("context"),
+        NODE("node"),
+        ENDPOINT_GROUPS("epgs"),
+        TUNNEL("tunnel"),
+        CONDITION_GROUP("cg");
+
+        private final String prefix;
+
+        Type(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Nullable
+        static Type fromPrefix(String prefix) {
+            for (Type type : values()) {
+                if (type.prefix.equals(prefix)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final char SEPARATOR = '|';
+    private static final char LENGTH_SEPARATOR = ':';
+
+    private final Type type;
+    private final List<String> components;
+    private final int hashCode;
+
+    private OrdinalKey(Type type, List<String> components) {
+        this.type = Preconditions.checkNotNull(type);
+        this.components = ImmutableList.copyOf(components);
+        this.hashCode = 31 * type.hashCode() + this.components.hashCode();
+    }
+
+    static OrdinalKey create(Type type, String... components) {
+        return new OrdinalKey(type, ImmutableList.copyOf(components));
+    }
+
+    static OrdinalKey create(Type type, List<String> components) {
+        return new OrdinalKey(type, components);
+    }
+
+    /**
+     * Every condition set of the group is encoded into one component and components are sorted,
+     * so equal condition groups have equal keys regardless of iteration order of their sets.
+     * The empty condition group has no component.
+     */
+    static OrdinalKey forConditionGroup(ConditionGroup conditionGroup) {
+        List<String> components = new ArrayList<>();
+        for (ConditionSet conditionSet : conditionGroup.getConditionSets()) {
+            components.add(encodeConditionSet(conditionSet));
+        }
+        return new OrdinalKey(Type.CONDITION_GROUP, Ordering.natural().sortedCopy(components));
+    }
+
+    private static String encodeConditionSet(ConditionSet conditionSet) {
+        List<String> anyNames = new ArrayList<>();
+        if (conditionSet.getTypeAny() != null) {
+            for (Set<ConditionName> names : conditionSet.getTypeAny()) {
+                anyNames.add(encodeConditionNames(names));
+            }
+        }
+        StringBuilder encoded = new StringBuilder();
+        encoded.append(encodeConditionNames(conditionSet.getTypeAll())).append(SEPARATOR);
+        encoded.append(encodeConditionNames(conditionSet.getTypeNone())).append(SEPARATOR);
+        encode(anyNames, encoded);
+        return encoded.toString();
+    }
+
+    private static String encodeConditionNames(@Nullable Collection<ConditionName> names) {
+        List<String> values = new ArrayList<>();
+        if (names != null) {
+            for (ConditionName name : names) {
+                values.add(name.getValue());
+            }
+        }
+        StringBuilder encoded = new StringBuilder();
+        encode(values, encoded);
+        return encoded.toString();
+    }
+
+    /**
+     * Writes sorted values with their length so that the result is unambiguous
+     */
+    private static void encode(List<String> values, StringBuilder encoded) {
+        for (String value : Ordering.natural().sortedCopy(values)) {
+            encoded.append(value.length()).append(LENGTH_SEPARATOR).append(value);
+        }
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    /**
+     * Components are written with their length so that the ID is unambiguous
+     * whatever characters the components contain.
+     *
+     * @return ID of the key
+     */
+    String toId() {
+        StringBuilder id = new StringBuilder(type.prefix);
+        for (String component : components) {
+            id.append(SEPARATOR).append(component.length()).append(LENGTH_SEPARATOR).append(component);
+        }
+        return id.toString();
+    }
+
+    /**
+     * @param id ID created by {@link #toId()}
+     * @return the key or {@code null} if ID is malformed
+     */
+    @Nullable
+    static OrdinalKey fromId(String id) {
+        int position = id.indexOf(SEPARATOR);
+        Type type = Type.fromPrefix(position < 0 ? id : id.substring(0, position));
+        if (type == null) {
+            return null;
+        }
+        List<String> components = new ArrayList<>();
+        while (position >= 0 && position < id.length()) {
+            if (id.charAt(position) != SEPARATOR) {
+                return null;
+            }
+            int lengthEnd = id.indexOf(LENGTH_SEPARATOR, position);
+            if (lengthEnd < 0) {
+                return null;
+            }
+            int length;
+            try {
+                length = Integer.parseInt(id.substring(position + 1, lengthEnd));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            int end = lengthEnd + 1 + length;
+            if (length < 0 || end > id.length()) {
+                return null;
+            }
+            components.add(id.substring(lengthEnd + 1, end));
+            position = end;
+        }
+        return new OrdinalKey(type, components);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        OrdinalKey other = (OrdinalKey) obj;
+        return hashCode == other.hashCode && type == other.type && components.equals(other.components);
+    }
+
+    @Override
+    public String toString() {
+        return "OrdinalKey [type=" + type + ", components=" + components + "]";
+    }
+}
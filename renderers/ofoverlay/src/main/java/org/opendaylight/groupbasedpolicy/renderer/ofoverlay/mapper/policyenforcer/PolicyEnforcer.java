@@ -22,11 +22,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import org.opendaylight.groupbasedpolicy.api.sf.AllowActionDefinition;
 import org.opendaylight.groupbasedpolicy.api.sf.ChainActionDefinition;
 import org.opendaylight.groupbasedpolicy.dto.EgKey;
+import org.opendaylight.groupbasedpolicy.dto.EpKey;
 import org.opendaylight.groupbasedpolicy.dto.EndpointConstraint;
 import org.opendaylight.groupbasedpolicy.dto.IndexedTenant;
 import org.opendaylight.groupbasedpolicy.dto.Policy;
@@ -40,6 +42,7 @@ import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow.FlowUtils;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow.FlowUtils.RegMatch;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow.OrdinalFactory;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow.OrdinalFactory.EndpointFwdCtxOrdinals;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.reactive.ConversationCache;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.sf.Action;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.sf.ChainAction;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.sf.ClassificationResult;
@@ -79,12 +82,16 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.Layer3Match;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv4MatchBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv6MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowjava.nx.match.rev140421.NxmNxReg;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowjava.nx.match.rev140421.NxmNxReg0;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowjava.nx.match.rev140421.NxmNxReg1;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowjava.nx.match.rev140421.NxmNxReg2;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowjava.nx.match.rev140421.NxmNxReg3;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowjava.nx.match.rev140421.NxmNxReg5;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowjava.nx.match.rev140421.NxmNxReg7;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralAugMatchNodesNodeTableFlow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.general.extension.list.grouping.ExtensionList;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.nicira.match.rev140714.NxAugMatchNodesNodeTableFlow;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.overlay.rev150105.TunnelTypeVxlan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -141,6 +148,17 @@ import com.google.common.collect.Table.Cell;
  * - Reg5 {@link NxmNxReg5}<br>
  * Actions:<br>
  * - output:port (Reg7) {@link NxmNxReg7}
+ * <p>
+ * <i>Punt flow (reactive mode only)</i><br>
+ * Priority = 2<br>
+ * Matches:<br>
+ * - Reg0 {@link NxmNxReg0}<br>
+ * - Reg2 {@link NxmNxReg2}<br>
+ * Actions:<br>
+ * - output:CONTROLLER<br>
+ * In reactive mode policy flows are created only for endpoints with a conversation observed
+ * on the node, see {@link ConversationCache}. Until then traffic between endpoint groups allowed by
+ * policy is sent to the controller, other traffic is dropped.
  */
 public class PolicyEnforcer extends FlowTable {
 
@@ -169,6 +187,7 @@ public class PolicyEnforcer extends FlowTable {
         NodeId nodeId = ctx.getEndpointManager().getEndpointNodeId(endpoint);
 
         ofWriter.writeFlow(nodeId, TABLE_ID, dropFlow(1, null, TABLE_ID));
+        ConversationCache conversations = getConversationCache();
 
         NodeConnectorId tunPort = ctx.getSwitchManager().getTunnelPort(nodeId, TunnelTypeVxlan.class);
         if (tunPort != null) {
@@ -180,6 +199,7 @@ public class PolicyEnforcer extends FlowTable {
             LOG.debug("Method getEndpointFwdCtxOrdinals returned null for EP {}", endpoint);
             return;
         }
+        EpKey srcEpKey = new EpKey(endpoint.getL2Context(), endpoint.getMacAddress());
         for (EgKey sourceEpg : ctx.getEndpointManager().getEgKeysForEndpoint(endpoint)) {
             for (EgKey destEpg : ctx.getCurrentPolicy().getPeers(sourceEpg)) {
                 Collection<Endpoint> destinationEndpoints = getEndpointsForGroup(destEpg);
@@ -191,6 +211,18 @@ public class PolicyEnforcer extends FlowTable {
                         continue;
                     }
 
+                    // endpoints without location are external and their flows are always created
+                    boolean conversationFlows = conversations != null
+                            && ctx.getEndpointManager().getEndpointNodeId(destinationEndpoint) != null;
+                    EpKey dstEpKey = new EpKey(destinationEndpoint.getL2Context(), destinationEndpoint.getMacAddress());
+                    if (conversationFlows && !conversations.isActive(nodeId, srcEpKey, dstEpKey)) {
+                        // ARP is allowed and the first packet is punted so that a conversation can start
+                        ofWriter.writeFlow(nodeId, TABLE_ID, createArpFlow(srcEpFwdCxtOrdinals.getFdId()));
+                        ofWriter.writeFlow(nodeId, TABLE_ID,
+                                createPuntFlow(srcEpFwdCxtOrdinals.getEpgId(), dstEpFwdCxtOrdinals.getEpgId()));
+                        continue;
+                    }
+
                     NetworkElements netElements =
                             new NetworkElements(endpoint, destinationEndpoint, sourceEpg, destEpg, nodeId, ctx);
 
@@ -201,7 +233,14 @@ public class PolicyEnforcer extends FlowTable {
                     // Resolve flows in both directions if possible according to policy. Get back
                     // status
                     // of resolution
-                    resolveSourceEpgPolicy(ofWriter, netElements, sourceEpgPolicy, destinationEpgPolicy);
+                    if (conversationFlows) {
+                        OfWriter conversationWriter = new OfWriter();
+                        resolveSourceEpgPolicy(conversationWriter, netElements, sourceEpgPolicy, destinationEpgPolicy);
+                        writeConversationFlows(ofWriter, conversationWriter, conversations, nodeId, endpoint,
+                                srcEpFwdCxtOrdinals.getEpgId(), destinationEndpoint, dstEpFwdCxtOrdinals.getEpgId());
+                    } else {
+                        resolveSourceEpgPolicy(ofWriter, netElements, sourceEpgPolicy, destinationEpgPolicy);
+                    }
 
                     ofWriter.writeFlow(nodeId, TABLE_ID, createArpFlow(srcEpFwdCxtOrdinals.getFdId()));
                 }
@@ -211,6 +250,59 @@ public class PolicyEnforcer extends FlowTable {
         }
     }
 
+    /**
+     * Writes flows resolved for a conversation of the endpoint with the peer. Flows of the policy enforcer
+     * table are made specific to the endpoints, the direction of a flow is given by its source EPG match.
+     * Flows of chains in other tables are not conversation specific.
+     */
+    private void writeConversationFlows(OfWriter ofWriter, OfWriter conversationWriter,
+            ConversationCache conversations, NodeId nodeId, Endpoint endpoint, int endpointEpgId, Endpoint peer,
+            int peerEpgId) {
+        EpKey endpointKey = new EpKey(endpoint.getL2Context(), endpoint.getMacAddress());
+        EpKey peerKey = new EpKey(peer.getL2Context(), peer.getMacAddress());
+        NodeConnectorId endpointPort = getLocalPort(nodeId, endpoint);
+        NodeConnectorId peerPort = getLocalPort(nodeId, peer);
+        ofWriter.writeFlows(conversationWriter, flow -> {
+            if (!Objects.equals(flow.getTableId(), TABLE_ID)) {
+                return flow;
+            }
+            Long sourceEpgId = getRegMatchValue(flow.getMatch(), NxmNxReg0.class);
+            if (sourceEpgId != null && sourceEpgId == endpointEpgId) {
+                return conversations.toConversationFlow(nodeId, endpointKey, peerKey, endpointPort, flow);
+            }
+            return conversations.toConversationFlow(nodeId, peerKey, endpointKey, peerPort, flow);
+        });
+        if (endpointEpgId == peerEpgId) {
+            // flows of both directions match the same EPGs, the peer's variants were not written yet
+            ofWriter.writeFlows(conversationWriter,
+                    flow -> Objects.equals(flow.getTableId(), TABLE_ID)
+                            ? conversations.toConversationFlow(nodeId, peerKey, endpointKey, peerPort, flow) : flow);
+        }
+    }
+
+    private NodeConnectorId getLocalPort(NodeId nodeId, Endpoint endpoint) {
+        if (!nodeId.equals(ctx.getEndpointManager().getEndpointNodeId(endpoint))) {
+            return null;
+        }
+        return ctx.getEndpointManager().getEndpointNodeConnectorId(endpoint);
+    }
+
+    private static Long getRegMatchValue(Match match, Class<? extends NxmNxReg> reg) {
+        GeneralAugMatchNodesNodeTableFlow extensions =
+                match == null ? null : match.getAugmentation(GeneralAugMatchNodesNodeTableFlow.class);
+        if (extensions == null || extensions.getExtensionList() == null) {
+            return null;
+        }
+        for (ExtensionList extension : extensions.getExtensionList()) {
+            NxAugMatchNodesNodeTableFlow nxMatch = extension.getExtension() == null ? null
+                    : extension.getExtension().getAugmentation(NxAugMatchNodesNodeTableFlow.class);
+            if (nxMatch != null && nxMatch.getNxmNxReg() != null && reg.equals(nxMatch.getNxmNxReg().getReg())) {
+                return nxMatch.getNxmNxReg().getValue();
+            }
+        }
+        return null;
+    }
+
     private Set<Endpoint> getEndpointsForGroup(EgKey epg) {
         Set<Endpoint> destinationEndpoints = new HashSet<>();
         destinationEndpoints.addAll(ctx.getEndpointManager().getEndpointsForGroup(epg));
@@ -451,6 +543,12 @@ public class PolicyEnforcer extends FlowTable {
             .build();
     }
 
+    private Flow createPuntFlow(int srcEpgId, int dstEpgId) {
+        MatchBuilder mb = new MatchBuilder();
+        addNxRegMatch(mb, RegMatch.of(NxmNxReg0.class, (long) srcEpgId), RegMatch.of(NxmNxReg2.class, (long) dstEpgId));
+        return puntFlow(2, mb.build(), TABLE_ID);
+    }
+
     private Flow allowSameEpg(int epgId) {
 
         MatchBuilder mb = new MatchBuilder();
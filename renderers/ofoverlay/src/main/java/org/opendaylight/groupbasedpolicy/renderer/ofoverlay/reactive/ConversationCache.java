@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.reactive;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import org.opendaylight.groupbasedpolicy.dto.EpKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.FlowCookie;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.FlowModFlags;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.ethernet.match.fields.EthernetDestinationBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.EthernetMatchBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Conversations observed on switches in reactive flow programming mode.<br>
+ * A conversation is a pair of endpoints which exchanged traffic on a node. Flows required by
+ * conversations match the endpoints, they are installed with an idle timeout and with a cookie allocated
+ * for the flow ID on the node.
+ * Conversations which produced a flow are bound to its cookie and they are forgotten when a switch
+ * removes the idle flow. Number of conversations on a node is limited, the least recently observed
+ * conversation is evicted when the limit is reached.
+ */
+public class ConversationCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConversationCache.class);
+
+    /**
+     * Upper 16 bits of cookies of conversation flows, they distinguish them from other flows
+     */
+    private static final long COOKIE_PREFIX = 0x6762L << 48;
+    private static final long COOKIE_PREFIX_MASK = 0xffffL << 48;
+    private static final long COOKIE_VALUE_MASK = ~COOKIE_PREFIX_MASK;
+    private static final String FLOW_ID_SEPARATOR = "|conversation|";
+    private static final FlowModFlags SEND_FLOW_REMOVED = new FlowModFlags(false, false, false, false, true);
+
+    private final int idleTimeout;
+    private final int maxConversationsPerNode;
+    private final ConcurrentMap<NodeId, NodeConversations> conversationsByNode = new ConcurrentHashMap<>();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    /**
+     * @param idleTimeout idle timeout of conversation flows in seconds
+     * @param maxConversationsPerNode max. number of conversations kept for a node
+     */
+    public ConversationCache(int idleTimeout, int maxConversationsPerNode) {
+        Preconditions.checkArgument(idleTimeout > 0 && idleTimeout <= 0xffff, "Invalid idle timeout %s",
+                idleTimeout);
+        Preconditions.checkArgument(maxConversationsPerNode > 0, "Max. conversations per node has to be positive");
+        this.idleTimeout = idleTimeout;
+        this.maxConversationsPerNode = maxConversationsPerNode;
+    }
+
+    /**
+     * Records traffic from source to destination endpoint observed on the node
+     *
+     * @return {@code true} if the conversation is new and flows of the node have to be updated
+     */
+    public boolean conversationObserved(NodeId nodeId, EpKey source, EpKey destination) {
+        NodeConversations conversations = getNodeConversations(nodeId);
+        synchronized (conversations) {
+            Conversation conversation = conversations.find(source, destination);
+            if (conversation != null) {
+                // refresh position in LRU order
+                conversations.lru.get(conversation);
+                return false;
+            }
+            conversations.lru.put(new Conversation(source, destination), Boolean.TRUE);
+        }
+        LOG.debug("New conversation {} -> {} on node {}", source, destination, nodeId.getValue());
+        return true;
+    }
+
+    /**
+     * Checks whether the endpoints communicate in either direction on the node. LRU order is not affected.
+     */
+    public boolean isActive(NodeId nodeId, EpKey endpoint, EpKey peer) {
+        NodeConversations conversations = conversationsByNode.get(nodeId);
+        if (conversations == null) {
+            return false;
+        }
+        synchronized (conversations) {
+            return conversations.find(endpoint, peer) != null;
+        }
+    }
+
+    /**
+     * Marks the flow as required by the conversation between endpoints and makes it specific to them. The
+     * receiver is matched by destination MAC, which is set to the MAC of the receiver for routed traffic
+     * as well, and a sender located on the node by its ingress port. Source MAC is not matched because
+     * routed traffic carries the MAC of the gateway. The flow is removed by the switch when idle, the switch
+     * notifies about the removal and the conversation is forgotten.
+     *
+     * @param nodeId node of the conversation
+     * @param sender endpoint sending traffic matched by the flow
+     * @param receiver endpoint receiving traffic matched by the flow
+     * @param senderPort port of the sender if it is located on the node
+     * @param flow flow required by the conversation
+     * @return the flow with endpoint specific match and ID, idle timeout, cookie and flags set
+     */
+    public Flow toConversationFlow(NodeId nodeId, EpKey sender, EpKey receiver, @Nullable NodeConnectorId senderPort,
+            Flow flow) {
+        MatchBuilder match = flow.getMatch() == null ? new MatchBuilder() : new MatchBuilder(flow.getMatch());
+        EthernetMatchBuilder ethernetMatch = match.getEthernetMatch() == null ? new EthernetMatchBuilder()
+                : new EthernetMatchBuilder(match.getEthernetMatch());
+        match.setEthernetMatch(ethernetMatch
+            .setEthernetDestination(new EthernetDestinationBuilder().setAddress(receiver.getMacAddress()).build())
+            .build());
+        if (senderPort != null) {
+            match.setInPort(senderPort);
+        }
+        // the ID is derived from the added match fields, so that equal flows share their ID and cookie
+        String flowId = (flow.getId() == null ? "" : flow.getId().getValue()) + FLOW_ID_SEPARATOR
+                + (senderPort == null ? "" : senderPort.getValue()) + FLOW_ID_SEPARATOR
+                + receiver.getMacAddress().getValue();
+        NodeConversations conversations = getNodeConversations(nodeId);
+        BigInteger cookie;
+        synchronized (conversations) {
+            cookie = conversations.getCookie(flowId);
+            Conversation conversation = conversations.find(sender, receiver);
+            if (conversation != null) {
+                conversations.byCookie.get(cookie).add(conversation);
+            }
+        }
+        return new FlowBuilder(flow).setId(new FlowId(flowId))
+            .setMatch(match.build())
+            .setIdleTimeout(idleTimeout)
+            .setCookie(new FlowCookie(cookie))
+            .setFlags(SEND_FLOW_REMOVED)
+            .build();
+    }
+
+    /**
+     * Forgets conversations bound to the flow removed by a switch
+     *
+     * @param nodeId node of the removed flow
+     * @param cookie cookie of the removed flow
+     * @return {@code true} if the cookie belongs to a conversation flow
+     */
+    public boolean flowRemoved(NodeId nodeId, @Nullable BigInteger cookie) {
+        if (!isConversationCookie(cookie)) {
+            return false;
+        }
+        NodeConversations conversations = conversationsByNode.get(nodeId);
+        if (conversations == null) {
+            return true;
+        }
+        int removed = 0;
+        synchronized (conversations) {
+            Set<Conversation> bound = conversations.removeCookie(cookie);
+            if (bound != null) {
+                for (Conversation conversation : bound) {
+                    if (conversations.lru.remove(conversation) != null) {
+                        removed++;
+                    }
+                }
+            }
+        }
+        expiredCount.addAndGet(removed);
+        LOG.debug("Flow with cookie {} removed from node {}, {} conversations expired", cookie, nodeId.getValue(),
+                removed);
+        return true;
+    }
+
+    /**
+     * Forgets all conversations on the node
+     */
+    public void nodeRemoved(NodeId nodeId) {
+        conversationsByNode.remove(nodeId);
+    }
+
+    /**
+     * @return {@code true} if the cookie was set by
+     *         {@link #toConversationFlow(NodeId, EpKey, EpKey, NodeConnectorId, Flow)}
+     */
+    public static boolean isConversationCookie(@Nullable BigInteger cookie) {
+        return cookie != null && (cookie.longValue() & COOKIE_PREFIX_MASK) == COOKIE_PREFIX;
+    }
+
+    private NodeConversations getNodeConversations(NodeId nodeId) {
+        NodeConversations conversations = conversationsByNode.get(nodeId);
+        if (conversations == null) {
+            conversationsByNode.putIfAbsent(nodeId, new NodeConversations());
+            conversations = conversationsByNode.get(nodeId);
+        }
+        return conversations;
+    }
+
+    public int getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public int getMaxConversationsPerNode() {
+        return maxConversationsPerNode;
+    }
+
+    /**
+     * @return number of conversations currently kept for the node
+     */
+    public int getConversationCount(NodeId nodeId) {
+        NodeConversations conversations = conversationsByNode.get(nodeId);
+        if (conversations == null) {
+            return 0;
+        }
+        synchronized (conversations) {
+            return conversations.lru.size();
+        }
+    }
+
+    /**
+     * @return number of conversations evicted because the limit of a node was reached
+     */
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    /**
+     * @return number of conversations forgotten because their flows were removed by a switch
+     */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    /**
+     * Conversations of one node, guarded by itself. Conversations bound to cookies are not removed
+     * from {@link #byCookie} on eviction, a removal of the flow is a no-op for them.<br>
+     * Cookies are allocated sequentially for flow IDs, so that a flow required by several conversations
+     * is written only once and different flows never share a cookie. A cookie is released when its flow
+     * is removed or when no conversation is bound to it anymore.
+     */
+    private class NodeConversations {
+
+        private final Map<BigInteger, Set<Conversation>> byCookie = new HashMap<>();
+        private final Map<String, BigInteger> cookiesByFlowId = new HashMap<>();
+        private final Map<BigInteger, String> flowIdsByCookie = new HashMap<>();
+        private long lastCookie;
+        private final LinkedHashMap<Conversation, Boolean> lru = new LinkedHashMap<Conversation, Boolean>(16, 0.75f,
+                true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Conversation, Boolean> eldest) {
+                if (size() <= maxConversationsPerNode) {
+                    return false;
+                }
+                evictedCount.incrementAndGet();
+                LOG.trace("Conversation {} -> {} evicted", eldest.getKey().source, eldest.getKey().destination);
+                if (byCookie.size() > maxConversationsPerNode) {
+                    pruneBindings();
+                }
+                return true;
+            }
+        };
+
+        /**
+         * Finds the conversation in either direction without affecting LRU order
+         */
+        @Nullable
+        Conversation find(EpKey endpoint, EpKey peer) {
+            Conversation conversation = new Conversation(endpoint, peer);
+            if (lru.containsKey(conversation)) {
+                return conversation;
+            }
+            conversation = new Conversation(peer, endpoint);
+            return lru.containsKey(conversation) ? conversation : null;
+        }
+
+        BigInteger getCookie(String flowId) {
+            BigInteger cookie = cookiesByFlowId.get(flowId);
+            if (cookie == null) {
+                do {
+                    lastCookie = (lastCookie + 1) & COOKIE_VALUE_MASK;
+                    cookie = BigInteger.valueOf(COOKIE_PREFIX | lastCookie);
+                } while (flowIdsByCookie.containsKey(cookie));
+                cookiesByFlowId.put(flowId, cookie);
+                flowIdsByCookie.put(cookie, flowId);
+                byCookie.put(cookie, new HashSet<>());
+            }
+            return cookie;
+        }
+
+        @Nullable
+        Set<Conversation> removeCookie(BigInteger cookie) {
+            String flowId = flowIdsByCookie.remove(cookie);
+            if (flowId != null) {
+                cookiesByFlowId.remove(flowId);
+            }
+            return byCookie.remove(cookie);
+        }
+
+        private void pruneBindings() {
+            Iterator<Map.Entry<BigInteger, Set<Conversation>>> iterator = byCookie.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<BigInteger, Set<Conversation>> binding = iterator.next();
+                binding.getValue().retainAll(lru.keySet());
+                if (binding.getValue().isEmpty()) {
+                    iterator.remove();
+                    String flowId = flowIdsByCookie.remove(binding.getKey());
+                    if (flowId != null) {
+                        cookiesByFlowId.remove(flowId);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Conversation {
+
+        private final EpKey source;
+        private final EpKey destination;
+        private final int hashCode;
+
+        Conversation(EpKey source, EpKey destination) {
+            this.source = Preconditions.checkNotNull(source);
+            this.destination = Preconditions.checkNotNull(destination);
+            this.hashCode = Objects.hash(source, destination);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            Conversation other = (Conversation) obj;
+            return source.equals(other.source) && destination.equals(other.destination);
+        }
+    }
+}
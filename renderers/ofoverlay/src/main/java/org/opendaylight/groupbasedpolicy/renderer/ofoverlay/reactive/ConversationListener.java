@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.reactive;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.opendaylight.groupbasedpolicy.dto.EgKey;
+import org.opendaylight.groupbasedpolicy.dto.EpKey;
+import org.opendaylight.groupbasedpolicy.dto.PolicyInfo;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.PolicyManager;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.arp.ArpUtils;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.endpoint.EndpointManager;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Address;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.FlowAdded;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.FlowRemoved;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.FlowUpdated;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.NodeErrorNotification;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.NodeExperimenterErrorNotification;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.SalFlowListener;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.SwitchFlowRemoved;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.endpoint.fields.L3Address;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.endpoints.Endpoint;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.endpoints.EndpointL3;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketProcessingListener;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketReceived;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+
+/**
+ * Feeds {@link ConversationCache} of {@link PolicyManager} in reactive flow programming mode.<br>
+ * Packets sent to the controller by punt flows are resolved to a pair of source and destination
+ * endpoint and recorded as a conversation on the ingress node if policy allows traffic between
+ * groups of the endpoints. Conversations are forgotten when
+ * a switch removes an idle flow they required. The affected node is updated in both cases.
+ */
+public class ConversationListener implements PacketProcessingListener, SalFlowListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConversationListener.class);
+    private static final int ETHERNET_HEADER_LENGTH = 14;
+    private static final int VLAN_TAG_LENGTH = 4;
+    private static final int ETHER_TYPE_VLAN = 0x8100;
+    private static final int ETHER_TYPE_IPV4 = 0x0800;
+    private static final int IPV4_DST_OFFSET = 16;
+    private static final int MAC_LENGTH = 6;
+
+    private final PolicyManager policyManager;
+    private final EndpointManager endpointManager;
+
+    public ConversationListener(PolicyManager policyManager, EndpointManager endpointManager) {
+        this.policyManager = Preconditions.checkNotNull(policyManager);
+        this.endpointManager = Preconditions.checkNotNull(endpointManager);
+    }
+
+    @Override
+    public void onPacketReceived(PacketReceived packet) {
+        ConversationCache conversationCache = policyManager.getConversationCache();
+        if (conversationCache == null || packet.getIngress() == null || packet.getPayload() == null) {
+            return;
+        }
+        NodeKey nodeKey = packet.getIngress().getValue().firstKeyOf(Node.class, NodeKey.class);
+        byte[] payload = packet.getPayload();
+        if (nodeKey == null || payload.length < ETHERNET_HEADER_LENGTH) {
+            return;
+        }
+        NodeId nodeId = nodeKey.getId();
+        MacAddress dstMac = ArpUtils.bytesToMac(Arrays.copyOfRange(payload, 0, MAC_LENGTH));
+        MacAddress srcMac = ArpUtils.bytesToMac(Arrays.copyOfRange(payload, MAC_LENGTH, 2 * MAC_LENGTH));
+        Endpoint source = findLocalEndpoint(nodeId, srcMac);
+        if (source == null) {
+            LOG.trace("Source of packet {} -> {} is not an endpoint on node {}", srcMac, dstMac, nodeId.getValue());
+            return;
+        }
+        Endpoint destination = findDestination(source, dstMac, payload);
+        if (destination == null) {
+            LOG.trace("Destination of packet from {} to {} is unknown", srcMac, dstMac);
+            return;
+        }
+        if (!isAllowed(source, destination)) {
+            LOG.trace("Policy does not allow traffic from {} to {}", srcMac, dstMac);
+            return;
+        }
+        if (conversationCache.conversationObserved(nodeId, new EpKey(source.getL2Context(), source.getMacAddress()),
+                new EpKey(destination.getL2Context(), destination.getMacAddress()))) {
+            policyManager.conversationsChanged(nodeId);
+        }
+    }
+
+    @Nullable
+    private Endpoint findLocalEndpoint(NodeId nodeId, @Nullable MacAddress mac) {
+        if (mac == null) {
+            return null;
+        }
+        return Iterables.getFirst(endpointManager.getEndpointsForNode(nodeId, mac), null);
+    }
+
+    /**
+     * Checks whether the current policy has rules between groups of the endpoints. Traffic which is not allowed
+     * is dropped by the switch anyway, a conversation would only add flows.
+     */
+    private boolean isAllowed(Endpoint source, Endpoint destination) {
+        PolicyInfo policy = policyManager.getCurrentPolicy();
+        if (policy == null) {
+            return false;
+        }
+        Set<EgKey> destinationEpgs = endpointManager.getEgKeysForEndpoint(destination);
+        for (EgKey sourceEpg : endpointManager.getEgKeysForEndpoint(source)) {
+            if (!Collections.disjoint(policy.getPeers(sourceEpg), destinationEpgs)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Destination is an endpoint in L2 context of the source with destination MAC or, for routed IPv4
+     * traffic, an L3 endpoint in any L3 context of the source with destination IP address.
+     */
+    @Nullable
+    private Endpoint findDestination(Endpoint source, @Nullable MacAddress dstMac, byte[] payload) {
+        if (dstMac != null) {
+            // MAC addresses of endpoints are not normalized
+            for (String mac : new String[] {dstMac.getValue(), dstMac.getValue().toUpperCase()}) {
+                Endpoint l2Destination =
+                        endpointManager.getEndpoint(new EpKey(source.getL2Context(), new MacAddress(mac)));
+                if (l2Destination != null) {
+                    return l2Destination;
+                }
+            }
+        }
+        Ipv4Address dstIp = getIpv4Destination(payload);
+        if (dstIp == null || source.getL3Address() == null) {
+            return null;
+        }
+        for (L3Address l3Address : source.getL3Address()) {
+            EndpointL3 l3Destination =
+                    endpointManager.getL3Endpoint(l3Address.getL3Context(), new IpAddress(dstIp), null);
+            if (l3Destination != null && l3Destination.getL2Context() != null
+                    && l3Destination.getMacAddress() != null) {
+                return endpointManager.getEndpoint(
+                        new EpKey(l3Destination.getL2Context(), l3Destination.getMacAddress()));
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Ipv4Address getIpv4Destination(byte[] payload) {
+        int offset = ETHERNET_HEADER_LENGTH;
+        int etherType = readEtherType(payload, offset - 2);
+        if (etherType == ETHER_TYPE_VLAN && payload.length >= offset + VLAN_TAG_LENGTH) {
+            offset += VLAN_TAG_LENGTH;
+            etherType = readEtherType(payload, offset - 2);
+        }
+        if (etherType != ETHER_TYPE_IPV4 || payload.length < offset + IPV4_DST_OFFSET + 4) {
+            return null;
+        }
+        int dstOffset = offset + IPV4_DST_OFFSET;
+        return ArpUtils.bytesToIp(Arrays.copyOfRange(payload, dstOffset, dstOffset + 4));
+    }
+
+    private static int readEtherType(byte[] payload, int offset) {
+        return ((payload[offset] & 0xff) << 8) | (payload[offset + 1] & 0xff);
+    }
+
+    @Override
+    public void onSwitchFlowRemoved(SwitchFlowRemoved notification) {
+        ConversationCache conversationCache = policyManager.getConversationCache();
+        if (conversationCache == null || notification.getCookie() == null || notification.getNode() == null) {
+            return;
+        }
+        NodeKey nodeKey = notification.getNode().getValue().firstKeyOf(Node.class, NodeKey.class);
+        if (nodeKey == null) {
+            return;
+        }
+        BigInteger cookie = notification.getCookie().getValue();
+        if (conversationCache.flowRemoved(nodeKey.getId(), cookie)) {
+            policyManager.conversationFlowRemoved(nodeKey.getId(), cookie);
+        }
+    }
+
+    @Override
+    public void onFlowAdded(FlowAdded notification) {
+        // NOOP
+    }
+
+    @Override
+    public void onFlowRemoved(FlowRemoved notification) {
+        // NOOP - only flows removed by a switch are relevant
+    }
+
+    @Override
+    public void onFlowUpdated(FlowUpdated notification) {
+        // NOOP
+    }
+
+    @Override
+    public void onNodeErrorNotification(NodeErrorNotification notification) {
+        // NOOP
+    }
+
+    @Override
+    public void onNodeExperimenterErrorNotification(NodeExperimenterErrorNotification notification) {
+        // NOOP
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.statistics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of statistics ingested from sFlow-RT. A batch is a set of samples from one poll of a flow cache
+ * written to {@link org.opendaylight.groupbasedpolicy.api.StatisticsManager} at once.
+ */
+public final class IngestionCounters {
+
+    private final long createdNanos = System.nanoTime();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong samplesIngested = new AtomicLong();
+    private final AtomicLong samplesDropped = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong lastBatchSize = new AtomicLong();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+
+    void batchWritten(int batchSize) {
+        batches.incrementAndGet();
+        samplesIngested.addAndGet(batchSize);
+        lastBatchSize.set(batchSize);
+        maxBatchSize.accumulateAndGet(batchSize, Math::max);
+    }
+
+    void batchFailed(int batchSize) {
+        failedBatches.incrementAndGet();
+        samplesDropped.addAndGet(batchSize);
+    }
+
+    void samplesDropped(int count) {
+        samplesDropped.addAndGet(count);
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getSamplesIngested() {
+        return samplesIngested.get();
+    }
+
+    /**
+     * @return number of samples which were malformed, could not be matched to end-points or their EPGs, or
+     *         whose batch failed to be written
+     */
+    public long getSamplesDropped() {
+        return samplesDropped.get();
+    }
+
+    public long getFailedBatches() {
+        return failedBatches.get();
+    }
+
+    public long getLastBatchSize() {
+        return lastBatchSize.get();
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    /**
+     * @return average number of ingested samples per second since the counters were created
+     */
+    public double getIngestionRate() {
+        double seconds = (double) (System.nanoTime() - createdNanos) / TimeUnit.SECONDS.toNanos(1);
+        return seconds > 0 ? samplesIngested.get() / seconds : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestionCounters [batches=" + batches + ", samplesIngested=" + samplesIngested + ", samplesDropped="
+                + samplesDropped + ", failedBatches=" + failedBatches + ", lastBatchSize=" + lastBatchSize
+                + ", maxBatchSize=" + maxBatchSize + ", ingestionRate=" + getIngestionRate() + "]";
+    }
+}
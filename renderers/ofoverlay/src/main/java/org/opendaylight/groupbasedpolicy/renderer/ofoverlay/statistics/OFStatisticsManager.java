@@ -8,16 +8,11 @@
 
 package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.statistics;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
@@ -51,6 +46,10 @@ public class OFStatisticsManager implements AutoCloseable {
     private static ConcurrentMap<String, EndpointL3> endpointL3ByIpMap = new ConcurrentHashMap<>();
     private static final int CONNECT_TIMEOUT_MILLISEC = 20000;
     private static final int READ_TIMEOUT_MILLISEC = 30000;
+    static final String FETCH_THREADS_PROPERTY = "gbp.sflow.fetch.threads";
+    static final String MAX_REQUESTS_PER_SECOND_PROPERTY = "gbp.sflow.max.requests.per.second";
+    private static final int DEFAULT_FETCH_THREADS = 4;
+    private static final int DEFAULT_MAX_REQUESTS_PER_SECOND = 50;
 
     private static final Logger LOG = LoggerFactory.getLogger(OFStatisticsManager.class);
 
@@ -58,7 +57,9 @@ public class OFStatisticsManager implements AutoCloseable {
     private final StatisticsManager statisticsManager;
     private final Set<String> flowCacheNames = new HashSet<>();
     private static final SetMultimap<ContractId, Pair<ConsEpgKey, ProvEpgKey>> epgsByContractId = HashMultimap.create();
-    private List<ScheduledFuture<?>> collectStatsTasks = new ArrayList<>();
+    private JsonRestClient restClient;
+    private SFlowRTCollector collector;
+    private final IngestionCounters ingestionCounters = new IngestionCounters();
 
     private static int MAX_FLOWS = 100;
     private static double MIN_VALUE_IN_FLOW = 0.1;
@@ -96,24 +97,53 @@ public class OFStatisticsManager implements AutoCloseable {
         epgsByContractId.put(contractId, Pair.of(consEpgKey, provEpgKey));
         boolean isFlowCacheNew = flowCacheNames.add(flowCacheName);
         if (isFlowCacheNew) {
-            SFlowRTConnection sFlowRTConnection = new SFlowRTConnection(executor, sflowCollectorUri, flowCache, new JsonRestClient(sflowCollectorUri, CONNECT_TIMEOUT_MILLISEC,
-                    READ_TIMEOUT_MILLISEC));
-            ScheduledFuture<?> collectStatsTask = this.executor.scheduleWithFixedDelay(new ReadGbpFlowCacheTask(flowCacheName, sFlowRTConnection,
-                    statisticsManager, MAX_FLOWS, MIN_VALUE_IN_FLOW, AGG_MODE), 0, delay, TimeUnit.SECONDS);
-            collectStatsTasks.add(collectStatsTask);
+            SFlowRTConnection sFlowRTConnection =
+                    new SFlowRTConnection(executor, sflowCollectorUri, flowCache, getRestClient());
+            getCollector().register(flowCacheName, new ReadGbpFlowCacheTask(flowCacheName, sFlowRTConnection,
+                    statisticsManager, MAX_FLOWS, MIN_VALUE_IN_FLOW, AGG_MODE, ingestionCounters));
         }
     }
 
+    /**
+     * All flow caches share one client, connections to the collector are reused.
+     */
+    private JsonRestClient getRestClient() {
+        if (restClient == null) {
+            restClient = new JsonRestClient(sflowCollectorUri, CONNECT_TIMEOUT_MILLISEC, READ_TIMEOUT_MILLISEC);
+        }
+        return restClient;
+    }
+
+    private SFlowRTCollector getCollector() {
+        if (collector == null) {
+            collector = new SFlowRTCollector(executor, delay,
+                    Integer.getInteger(FETCH_THREADS_PROPERTY, DEFAULT_FETCH_THREADS),
+                    Integer.getInteger(MAX_REQUESTS_PER_SECOND_PROPERTY, DEFAULT_MAX_REQUESTS_PER_SECOND));
+        }
+        return collector;
+    }
+
     public synchronized static Set<Pair<ConsEpgKey, ProvEpgKey>> getEpgsForContract(ContractId contractId) {
         return epgsByContractId.get(contractId);
     }
 
     public synchronized void setSflowCollectorUri(String sflowCollectorUri) {
         this.sflowCollectorUri = sflowCollectorUri;
+        this.restClient = null;
     }
 
     public synchronized void setDelay(Long delay) {
         this.delay = delay;
+        if (collector != null && delay != null) {
+            collector.setDelay(delay);
+        }
+    }
+
+    /**
+     * @return counters of statistics ingested from all flow caches
+     */
+    public IngestionCounters getIngestionCounters() {
+        return ingestionCounters;
     }
 
     public static EndpointL3 getEndpointL3ForIp(@Nullable String ipAddress) {
@@ -140,12 +170,11 @@ public class OFStatisticsManager implements AutoCloseable {
 
     @Override
     public synchronized void close() throws Exception {
-        Iterator<ScheduledFuture<?>> tasksIterator = collectStatsTasks.iterator();
-        while (tasksIterator.hasNext()) {
-            ScheduledFuture<?> scheduledFuture = tasksIterator.next();
-            scheduledFuture.cancel(false);
-            tasksIterator.remove();
+        if (collector != null) {
+            collector.close();
+            collector = null;
         }
+        flowCacheNames.clear();
         epgsByContractId.clear();
     }
 
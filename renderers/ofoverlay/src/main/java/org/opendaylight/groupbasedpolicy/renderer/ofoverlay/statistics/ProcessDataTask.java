@@ -8,11 +8,13 @@
 package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.statistics;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.opendaylight.groupbasedpolicy.api.StatisticsManager;
@@ -24,8 +26,11 @@ import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.statistics.flowcache
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.statistics.flowcache.FlowCacheData;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.statistics.util.FlowCacheCons;
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.statistics.util.IidSflowNameUtil;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.ClassifierName;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.ContractId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.EndpointGroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.RuleName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.SubjectName;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.endpoints.EndpointL3;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.policy.rev140421.HasDirection.Direction;
@@ -48,18 +53,40 @@ public class ProcessDataTask implements Runnable {
     private FlowCache flowCache;
     private BigInteger timestamp;
     private StatisticsManager statisticsManager;
+    private final IngestionCounters counters;
     List<FlowCacheData> dataList;
 
     public ProcessDataTask(FlowCache flowCache, List<FlowCacheData> dataList, BigInteger timestamp,
             StatisticsManager statisticsManager) {
+        this(flowCache, dataList, timestamp, statisticsManager, new IngestionCounters());
+    }
+
+    public ProcessDataTask(FlowCache flowCache, List<FlowCacheData> dataList, BigInteger timestamp,
+            StatisticsManager statisticsManager, IngestionCounters counters) {
         this.flowCache = flowCache;
         this.dataList = dataList;
         this.timestamp = timestamp;
         this.statisticsManager = statisticsManager;
+        this.counters = counters;
     }
 
+    /**
+     * All samples of the flow cache are written to {@link StatisticsManager} in a single batch. Name of the flow
+     * cache is parsed once for all samples.
+     */
     @Override
     public void run() {
+        long start = System.nanoTime();
+        String flowCacheName = flowCache.getName();
+        ContractId contractId = IidSflowNameUtil.resolveContractIdFromFlowCacheName(flowCacheName);
+        SubjectName subjectName = IidSflowNameUtil.resolveSubjectNameFromFlowCacheName(flowCacheName);
+        RuleName ruleName = IidSflowNameUtil.resolveRuleNameFromFlowCacheName(flowCacheName);
+        List<ClassifierName> classifierNames =
+                ImmutableList.of(IidSflowNameUtil.resolveClassifierNameFromFlowCacheName(flowCacheName));
+        String flowCacheValue = IidSflowNameUtil.resolveFlowCacheValue(flowCacheName);
+        Set<Pair<ConsEpgKey, ProvEpgKey>> epgsForContract = OFStatisticsManager.getEpgsForContract(contractId);
+
+        List<EpToEpStatistic> batch = new ArrayList<>(dataList.size());
         for (FlowCacheData flowCacheData : dataList) {
             Map<String, String> flowCacheDataMap = createFlowCacheDataMap(flowCacheData);
             if (flowCacheDataMap == null) {
@@ -71,20 +98,17 @@ public class ProcessDataTask implements Runnable {
             EndpointL3 srcEpL3 = OFStatisticsManager.getEndpointL3ForIp(srcIp);
             EndpointL3 dstEpL3 = OFStatisticsManager.getEndpointL3ForIp(dstIp);
             if (srcEpL3 != null && dstEpL3 != null) {
-                ContractId contractId = IidSflowNameUtil.resolveContractIdFromFlowCacheName(flowCache.getName());
                 MatchedRuleStatisticBuilder matchedRuleStatisticBuilder = new MatchedRuleStatisticBuilder()
                 .setContract(contractId)
-                .setSubject(IidSflowNameUtil.resolveSubjectNameFromFlowCacheName(flowCache.getName()))
-                .setMatchedRule(IidSflowNameUtil.resolveRuleNameFromFlowCacheName(flowCache.getName()))
-                .setClassifier(ImmutableList
-                    .of(IidSflowNameUtil.resolveClassifierNameFromFlowCacheName(flowCache.getName())));
-                if (FlowCacheCons.Value.BYTES.get().equals(IidSflowNameUtil.resolveFlowCacheValue(flowCache.getName()))) {
+                .setSubject(subjectName)
+                .setMatchedRule(ruleName)
+                .setClassifier(classifierNames);
+                if (FlowCacheCons.Value.BYTES.get().equals(flowCacheValue)) {
                     matchedRuleStatisticBuilder.setByteCount(Math.round(flowCacheData.getValue()));
-                } else if (FlowCacheCons.Value.FRAMES.get().equals(IidSflowNameUtil.resolveFlowCacheValue(flowCache.getName()))) {
+                } else if (FlowCacheCons.Value.FRAMES.get().equals(flowCacheValue)) {
                     matchedRuleStatisticBuilder.setPacketCount(Math.round(flowCacheData.getValue()));
                 }
 
-                Set<Pair<ConsEpgKey, ProvEpgKey>> epgsForContract = OFStatisticsManager.getEpgsForContract(contractId);
                 Set<EpgKey> epgsFromSrcEp = getEpgsFromEndpoint(srcEpL3);
                 Set<EpgKey> epgsFromDstEp = getEpgsFromEndpoint(dstEpL3);
                 Pair<? extends EpgKey, ? extends EpgKey> leftSrcEpgRightDstEpg = getMatchingEpgs(epgsForContract, epgsFromSrcEp, epgsFromDstEp, flowCache.getDirection());
@@ -108,15 +132,29 @@ public class ProcessDataTask implements Runnable {
                     .setEpEpgToEpEpgStatistic(ImmutableList.of(epEpgToEpEpgStats))
                     .setTimestamp(timestamp)
                     .build();
-
-                StatRecords statRecords = new StatRecordsBuilder().setEpToEpStatistic(ImmutableList.of(e2e)).build();
-
-                if (LOG.isTraceEnabled()) {
-                    LOG.trace("[sflow] writing StatRecords: {}", statRecords);
-                }
-                statisticsManager.writeStat(statRecords);
+                batch.add(e2e);
             }
         }
+        counters.samplesDropped(dataList.size() - batch.size());
+        if (batch.isEmpty()) {
+            LOG.trace("[sflow] no stats to write for flow cache {}", flowCacheName);
+            return;
+        }
+
+        StatRecords statRecords = new StatRecordsBuilder().setEpToEpStatistic(batch).build();
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("[sflow] writing StatRecords: {}", statRecords);
+        }
+        if (statisticsManager.writeStat(statRecords)) {
+            counters.batchWritten(batch.size());
+        } else {
+            LOG.warn("[sflow] failed to write {} stats of flow cache {}", batch.size(), flowCacheName);
+            counters.batchFailed(batch.size());
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("[sflow] processed {} stats of flow cache {} in {} ms, {}", dataList.size(), flowCacheName,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), counters);
+        }
     }
 
     private Set<EpgKey> getEpgsFromEndpoint(EndpointL3 epL3) {
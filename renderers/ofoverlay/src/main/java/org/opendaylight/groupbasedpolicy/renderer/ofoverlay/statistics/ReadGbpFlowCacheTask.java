@@ -39,15 +39,24 @@ public class ReadGbpFlowCacheTask implements Runnable {
     private final String minValue;
     private final String aggMode;
     private final String path;
+    private final IngestionCounters counters;
 
     public ReadGbpFlowCacheTask(String flowCacheName, SFlowRTConnection sFlowRTConnection,
             StatisticsManager statisticsManager, Integer maxFlows, Double minValue, String aggMode) {
+        this(flowCacheName, sFlowRTConnection, statisticsManager, maxFlows, minValue, aggMode,
+                new IngestionCounters());
+    }
+
+    public ReadGbpFlowCacheTask(String flowCacheName, SFlowRTConnection sFlowRTConnection,
+            StatisticsManager statisticsManager, Integer maxFlows, Double minValue, String aggMode,
+            IngestionCounters counters) {
         this.path = "/activeflows/ALL/" + checkNotNull(flowCacheName) + "/json";
         this.sFlowRTConnection = checkNotNull(sFlowRTConnection);
         this.statisticsManager = checkNotNull(statisticsManager);
         this.maxFlows = String.valueOf(checkNotNull(maxFlows));
         this.minValue = String.valueOf(checkNotNull(minValue));
         this.aggMode = checkNotNull(aggMode);
+        this.counters = checkNotNull(counters);
     }
 
     @Override
@@ -70,7 +79,7 @@ public class ReadGbpFlowCacheTask implements Runnable {
 
             if (result.getStatusCode() < 300) {
                 sFlowRTConnection.getExecutor().execute((new ProcessDataTask(sFlowRTConnection.getFlowCache(), dataList,
-                        BigInteger.valueOf(new Date().getTime()), statisticsManager)));
+                        BigInteger.valueOf(new Date().getTime()), statisticsManager, counters)));
             } else if (result.getStatusCode() < 400) {
                 LOG.warn("Status code {}, not processing data. Response: {}", result.getStatusCode(),
                         result.getClientResponse().toString());
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.statistics;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Polls all flow caches of a sFlow-RT collector from a single periodic task.<br>
+ * Each poll of a flow cache is executed on a small pool of fetch threads so that HTTP requests do not block
+ * the renderer executor. Requests of all flow caches are limited by a global rate, a flow cache is not polled
+ * again while its previous poll is in progress.
+ */
+public class SFlowRTCollector implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SFlowRTCollector.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService fetchExecutor;
+    private final RateLimiter rateLimiter;
+    private long delay;
+    private final ConcurrentMap<String, Runnable> pollTasks = new ConcurrentHashMap<>();
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong skippedPolls = new AtomicLong();
+    private ScheduledFuture<?> collectTask;
+    private volatile boolean closed;
+
+    /**
+     * @param scheduler executor running the periodic task
+     * @param delay delay between polls in seconds
+     * @param fetchThreads number of threads executing polls
+     * @param maxRequestsPerSecond maximum number of polls started per second
+     */
+    public SFlowRTCollector(@Nonnull ScheduledExecutorService scheduler, long delay, int fetchThreads,
+            double maxRequestsPerSecond) {
+        Preconditions.checkArgument(delay > 0, "Delay has to be positive.");
+        Preconditions.checkArgument(fetchThreads > 0, "Number of fetch threads has to be positive.");
+        Preconditions.checkArgument(maxRequestsPerSecond > 0, "Request rate has to be positive.");
+        this.scheduler = Preconditions.checkNotNull(scheduler);
+        this.delay = delay;
+        this.rateLimiter = RateLimiter.create(maxRequestsPerSecond);
+        this.fetchExecutor = Executors.newFixedThreadPool(fetchThreads,
+                new ThreadFactoryBuilder().setNameFormat("gbp-sflow-fetch-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Adds flow cache to polling. The periodic task is started with the first flow cache.
+     *
+     * @param flowCacheName name of the flow cache
+     * @param pollTask reads the flow cache and processes its data
+     */
+    public synchronized void register(@Nonnull String flowCacheName, @Nonnull Runnable pollTask) {
+        Preconditions.checkState(!closed, "Collector is closed.");
+        pollTasks.put(flowCacheName, pollTask);
+        if (collectTask == null) {
+            collectTask = scheduler.scheduleWithFixedDelay(this::poll, 0, delay, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Changes delay between polls. A running periodic task is rescheduled, the next poll starts after the new delay.
+     *
+     * @param delay delay between polls in seconds
+     */
+    public synchronized void setDelay(long delay) {
+        Preconditions.checkArgument(delay > 0, "Delay has to be positive.");
+        if (this.delay == delay) {
+            return;
+        }
+        this.delay = delay;
+        if (collectTask != null) {
+            collectTask.cancel(false);
+            collectTask = scheduler.scheduleWithFixedDelay(this::poll, delay, delay, TimeUnit.SECONDS);
+        }
+        LOG.info("Delay between polls of flow caches set to {} s", delay);
+    }
+
+    /**
+     * Submits a poll for each registered flow cache which is not being polled already.
+     */
+    void poll() {
+        for (Map.Entry<String, Runnable> entry : pollTasks.entrySet()) {
+            String flowCacheName = entry.getKey();
+            if (closed) {
+                return;
+            }
+            if (!inProgress.add(flowCacheName)) {
+                skippedPolls.incrementAndGet();
+                LOG.debug("Previous poll of flow cache {} is still in progress, skipping.", flowCacheName);
+                continue;
+            }
+            try {
+                fetchExecutor.execute(() -> {
+                    try {
+                        rateLimiter.acquire();
+                        entry.getValue().run();
+                    } catch (RuntimeException e) {
+                        LOG.warn("Poll of flow cache {} failed: {}", flowCacheName, e.getMessage());
+                        LOG.debug("Poll of flow cache {} failed.", flowCacheName, e);
+                    } finally {
+                        inProgress.remove(flowCacheName);
+                        polls.incrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inProgress.remove(flowCacheName);
+                return;
+            }
+        }
+    }
+
+    public int getFlowCacheCount() {
+        return pollTasks.size();
+    }
+
+    /**
+     * @return number of finished polls of all flow caches, including failed ones
+     */
+    public long getPolls() {
+        return polls.get();
+    }
+
+    /**
+     * @return number of polls skipped because previous poll of the flow cache was still in progress
+     */
+    public long getSkippedPolls() {
+        return skippedPolls.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (collectTask != null) {
+            collectTask.cancel(false);
+            collectTask = null;
+        }
+        pollTasks.clear();
+        fetchExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Equivalence;
+import com.google.common.collect.Collections2;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.equivalence.EquivalenceFabric;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the time needed to fill one table of {@link OfWriter} with {@code flowCount} flows.<br>
+ * {@link #perCallRebuild()} reproduces the former behavior of {@link OfWriter#writeFlow(NodeId, short, Flow)},
+ * which wrapped the whole table into a new set on every call, {@link #indexedWriter()} uses the current
+ * {@link OfWriter}.<br>
+ * Not executed as part of the unit tests, run it with {@code main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class OfWriterBenchmark {
+
+    private static final NodeId NODE_ID = new NodeId("openflow:1");
+    private static final short TABLE_ID = 2;
+
+    @Param({"10000", "100000"})
+    public int flowCount;
+
+    private List<Flow> flows;
+
+    @Setup
+    public void setup() {
+        flows = new ArrayList<>(flowCount);
+        for (int i = 0; i < flowCount; i++) {
+            flows.add(new FlowBuilder().setId(new FlowId("flow|" + i))
+                .setFlowName("flow")
+                .setPriority(i)
+                .setTableId(TABLE_ID)
+                .setMatch(new MatchBuilder().build())
+                .build());
+        }
+    }
+
+    @Benchmark
+    public int indexedWriter() {
+        OfWriter ofWriter = new OfWriter();
+        for (Flow flow : flows) {
+            ofWriter.writeFlow(NODE_ID, TABLE_ID, flow);
+        }
+        return ofWriter.getTableForNode(NODE_ID, TABLE_ID).getFlow().size();
+    }
+
+    @Benchmark
+    public int perCallRebuild() {
+        List<Flow> table = new ArrayList<>();
+        for (Flow flow : flows) {
+            Set<Equivalence.Wrapper<Flow>> wrappedFlows =
+                    new HashSet<>(Collections2.transform(table, EquivalenceFabric.FLOW_WRAPPER_FUNCTION));
+            if (!wrappedFlows.contains(EquivalenceFabric.FLOW_EQUIVALENCE.wrap(flow))) {
+                table.add(flow);
+            }
+        }
+        return table.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(OfWriterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
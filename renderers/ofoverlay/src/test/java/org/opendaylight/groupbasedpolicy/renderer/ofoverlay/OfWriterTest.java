@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.GroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+public class OfWriterTest {
+
+    private static final NodeId NODE_ID = new NodeId("openflow:1");
+    private static final short TABLE_ID = 2;
+
+    private OfWriter ofWriter;
+
+    @Before
+    public void init() {
+        ofWriter = new OfWriter();
+    }
+
+    @Test
+    public void testWriteFlow_duplicateFlowIgnored() {
+        ofWriter.writeFlow(NODE_ID, TABLE_ID, createFlow("flow", 10));
+        ofWriter.writeFlow(NODE_ID, TABLE_ID, createFlow("flow", 10));
+
+        assertEquals(1, ofWriter.getTableForNode(NODE_ID, TABLE_ID).getFlow().size());
+    }
+
+    @Test
+    public void testWriteFlow_differentFlowsAdded() {
+        ofWriter.writeFlow(NODE_ID, TABLE_ID, createFlow("flow", 10));
+        ofWriter.writeFlow(NODE_ID, TABLE_ID, createFlow("flow", 20));
+        ofWriter.writeFlow(NODE_ID, TABLE_ID, createFlow("otherFlow", 10));
+
+        assertEquals(3, ofWriter.getTableForNode(NODE_ID, TABLE_ID).getFlow().size());
+    }
+
+    @Test
+    public void testWriteFlow_sameFlowInDifferentTables() {
+        ofWriter.writeFlow(NODE_ID, TABLE_ID, createFlow("flow", 10));
+        ofWriter.writeFlow(NODE_ID, (short) (TABLE_ID + 1), createFlow("flow", 10));
+
+        assertEquals(1, ofWriter.getTableForNode(NODE_ID, TABLE_ID).getFlow().size());
+        assertEquals(1, ofWriter.getTableForNode(NODE_ID, (short) (TABLE_ID + 1)).getFlow().size());
+    }
+
+    @Test
+    public void testMerge() {
+        NodeId otherNodeId = new NodeId("openflow:2");
+        OfWriter shard = new OfWriter();
+        ofWriter.writeFlow(NODE_ID, TABLE_ID, createFlow("flow", 10));
+        shard.writeFlow(NODE_ID, TABLE_ID, createFlow("flow", 10));
+        shard.writeFlow(NODE_ID, TABLE_ID, createFlow("flow", 20));
+        shard.writeFlow(otherNodeId, TABLE_ID, createFlow("flow", 10));
+        shard.writeGroup(otherNodeId, new GroupId(5L));
+
+        ofWriter.merge(shard);
+
+        assertEquals(2, ofWriter.getTableForNode(NODE_ID, TABLE_ID).getFlow().size());
+        assertEquals(1, ofWriter.getTableForNode(otherNodeId, TABLE_ID).getFlow().size());
+        assertTrue(ofWriter.groupExists(otherNodeId, 5L));
+
+        // merged table keeps deduplicating
+        ofWriter.writeFlow(otherNodeId, TABLE_ID, createFlow("flow", 10));
+        assertEquals(1, ofWriter.getTableForNode(otherNodeId, TABLE_ID).getFlow().size());
+    }
+
+    @Test
+    public void testWriteFlows_transformed() {
+        OfWriter shard = new OfWriter();
+        shard.writeFlow(NODE_ID, TABLE_ID, createFlow("flow", 10));
+        shard.writeGroup(NODE_ID, new GroupId(5L));
+
+        ofWriter.writeFlows(shard, flow -> new FlowBuilder(flow).setIdleTimeout(30).build());
+
+        Flow flow = ofWriter.getTableForNode(NODE_ID, TABLE_ID).getFlow().get(0);
+        assertEquals(Integer.valueOf(30), flow.getIdleTimeout());
+        assertFalse(ofWriter.groupExists(NODE_ID, 5L));
+    }
+
+    @Test
+    public void testRemoveFlows() {
+        NodeId otherNodeId = new NodeId("openflow:2");
+        ofWriter.writeFlow(NODE_ID, TABLE_ID, createFlow("flow", 10));
+        ofWriter.writeFlow(NODE_ID, TABLE_ID, createFlow("flow", 20));
+        ofWriter.writeFlow(otherNodeId, TABLE_ID, createFlow("flow", 10));
+
+        List<InstanceIdentifier<Flow>> removed = ofWriter.removeFlows(NODE_ID, flow -> flow.getPriority() == 10);
+
+        assertEquals(1, removed.size());
+        assertEquals(new FlowId("flow|10"), removed.get(0).firstKeyOf(Flow.class).getId());
+        assertEquals(1, ofWriter.getTableForNode(NODE_ID, TABLE_ID).getFlow().size());
+        assertEquals(1, ofWriter.getTableForNode(otherNodeId, TABLE_ID).getFlow().size());
+        // removed flow can be written again
+        ofWriter.writeFlow(NODE_ID, TABLE_ID, createFlow("flow", 10));
+        assertEquals(2, ofWriter.getTableForNode(NODE_ID, TABLE_ID).getFlow().size());
+    }
+
+    private static Flow createFlow(String name, int priority) {
+        return new FlowBuilder().setId(new FlowId(name + "|" + priority))
+            .setFlowName(name)
+            .setPriority(priority)
+            .setTableId(TABLE_ID)
+            .build();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.groupbasedpolicy.dto.EgKey;
+import org.opendaylight.groupbasedpolicy.dto.PolicyInfo;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.endpoint.EndpointManager;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.EndpointGroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+
+import com.google.common.collect.ImmutableSet;
+
+public class PendingFlowUpdatesTest {
+
+    private static final TenantId TENANT_ID = new TenantId("tenant");
+    private static final EgKey EG_1 = new EgKey(TENANT_ID, new EndpointGroupId("epg1"));
+    private static final EgKey EG_2 = new EgKey(TENANT_ID, new EndpointGroupId("epg2"));
+    private static final NodeId NODE_1 = new NodeId("openflow:1");
+    private static final NodeId NODE_2 = new NodeId("openflow:2");
+    private static final NodeId NODE_3 = new NodeId("openflow:3");
+
+    private PendingFlowUpdates pendingUpdates;
+    private EndpointManager endpointManager;
+    private PolicyInfo policyInfo;
+
+    @Before
+    public void init() {
+        pendingUpdates = new PendingFlowUpdates();
+        endpointManager = mock(EndpointManager.class);
+        policyInfo = mock(PolicyInfo.class);
+        when(endpointManager.getNodesForGroup(EG_1)).thenReturn(ImmutableSet.of(NODE_1));
+        when(endpointManager.getNodesForGroup(EG_2)).thenReturn(ImmutableSet.of(NODE_2));
+        when(policyInfo.getPeers(EG_1)).thenReturn(ImmutableSet.of(EG_2));
+        when(policyInfo.getPeers(EG_2)).thenReturn(ImmutableSet.of(EG_1));
+    }
+
+    @Test
+    public void testDrain_empty() {
+        assertTrue(pendingUpdates.drain().isEmpty());
+    }
+
+    @Test
+    public void testDrain_fullUpdate() {
+        pendingUpdates.markNode(NODE_3);
+        pendingUpdates.markAll();
+        pendingUpdates.markGroup(EG_1);
+
+        PendingFlowUpdates.Snapshot snapshot = pendingUpdates.drain();
+        assertTrue(snapshot.isFullUpdate());
+        assertNull(snapshot.getAffectedNodes(endpointManager, policyInfo));
+        assertTrue(pendingUpdates.drain().isEmpty());
+    }
+
+    @Test
+    public void testGetAffectedNodes_groupWithPeers() {
+        pendingUpdates.markGroup(EG_1);
+        pendingUpdates.markNode(NODE_3);
+
+        PendingFlowUpdates.Snapshot snapshot = pendingUpdates.drain();
+        assertFalse(snapshot.isFullUpdate());
+        Set<NodeId> affectedNodes = snapshot.getAffectedNodes(endpointManager, policyInfo);
+        assertEquals(ImmutableSet.of(NODE_1, NODE_2, NODE_3), affectedNodes);
+    }
+
+    @Test
+    public void testGetAffectedNodes_noPolicy() {
+        pendingUpdates.markGroups(Collections.singleton(EG_2));
+
+        Set<NodeId> affectedNodes = pendingUpdates.drain().getAffectedNodes(endpointManager, null);
+        assertEquals(ImmutableSet.of(NODE_2), affectedNodes);
+    }
+
+    @Test
+    public void testRequeue() {
+        pendingUpdates.markGroup(EG_2);
+        pendingUpdates.requeue(pendingUpdates.drain());
+        pendingUpdates.markNode(NODE_3);
+
+        Set<NodeId> affectedNodes = pendingUpdates.drain().getAffectedNodes(endpointManager, null);
+        assertEquals(ImmutableSet.of(NODE_2, NODE_3), affectedNodes);
+    }
+
+    @Test
+    public void testRequeue_fullUpdate() {
+        pendingUpdates.markAll();
+        pendingUpdates.requeue(pendingUpdates.drain());
+
+        assertTrue(pendingUpdates.drain().isFullUpdate());
+    }
+}
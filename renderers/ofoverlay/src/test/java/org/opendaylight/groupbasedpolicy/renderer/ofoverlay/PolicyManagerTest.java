@@ -10,14 +10,16 @@ package org.opendaylight.groupbasedpolicy.renderer.ofoverlay;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.junit.Before;
@@ -25,6 +27,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InOrder;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
 import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
@@ -36,17 +39,21 @@ import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.endpoint.EndpointMan
 import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.node.SwitchManager;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.MacAddress;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.Table;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNodeBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.GroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.Group;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.GroupBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.EndpointGroupId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.L2ContextId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yangtools.yang.binding.DataObject;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 
 import com.google.common.base.Optional;
 import com.google.common.util.concurrent.CheckedFuture;
+import com.google.common.util.concurrent.Futures;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
@@ -71,11 +78,14 @@ public class PolicyManagerTest {
     private short tableOffset;
 
     private ReadWriteTransaction readWriteTransaction;
+    private ReadOnlyTransaction readOnlyTransaction;
+    private WriteTransaction writeTransaction;
 
     private NodeId nodeId;
     private short tableId;
     private Flow flow;
 
+    @SuppressWarnings("unchecked")
     @Before
     public void setUp() throws Exception {
         EndpointManager endpointManager = mock(EndpointManager.class);
@@ -84,12 +94,19 @@ public class PolicyManagerTest {
         switchManager = mock(SwitchManager.class);
         tableOffset = 5;
 
-        WriteTransaction writeTransaction = mock(WriteTransaction.class);
+        writeTransaction = mock(WriteTransaction.class);
         when(dataBroker.newWriteOnlyTransaction()).thenReturn(writeTransaction);
 
         readWriteTransaction = mock(ReadWriteTransaction.class);
         when(dataBroker.newReadWriteTransaction()).thenReturn(readWriteTransaction);
 
+        readOnlyTransaction = mock(ReadOnlyTransaction.class);
+        CheckedFuture<Optional<DataObject>, ReadFailedException> readFuture =
+                Futures.immediateCheckedFuture(Optional.<DataObject>absent());
+        when(readOnlyTransaction.read(any(LogicalDatastoreType.class), any(InstanceIdentifier.class)))
+            .thenReturn(readFuture);
+        when(dataBroker.newReadOnlyTransaction()).thenReturn(readOnlyTransaction);
+
         PowerMockito.stub(PowerMockito.method(DataStoreHelper.class, "submitToDs")).toReturn(true);
         manager = new PolicyManager(dataBroker, switchManager,
                 endpointManager, executor, tableOffset);
@@ -101,30 +118,110 @@ public class PolicyManagerTest {
         flow = mock(Flow.class);
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void flowMapTestStaleGroupsRemoved() throws Exception {
+        Group staleGroup = new GroupBuilder().setGroupId(new GroupId(1L)).build();
+        CheckedFuture<Optional<DataObject>, ReadFailedException> readFuture = Futures.immediateCheckedFuture(
+                Optional.<DataObject>of(new FlowCapableNodeBuilder().setGroup(Collections.singletonList(staleGroup))
+                    .build()));
+        when(readOnlyTransaction.read(any(LogicalDatastoreType.class), any(InstanceIdentifier.class)))
+            .thenReturn(readFuture);
+        CheckedFuture<Void, TransactionCommitFailedException> submitFuture = mock(CheckedFuture.class);
+        when(writeTransaction.submit()).thenReturn(submitFuture);
+
+        OfCommitTracker commitTracker = new OfCommitTracker(2);
+        OfWriter flowMap = new OfWriter();
+        flowMap.commitToDataStore(dataBroker, new OfWriter(), Collections.singleton(nodeId), commitTracker);
+        // groups of the previous commit are used once they are known
+        new OfWriter().commitToDataStore(dataBroker, flowMap, Collections.singleton(nodeId), commitTracker);
+
+        verify(dataBroker, times(1)).newReadOnlyTransaction();
+        verify(writeTransaction).delete(any(LogicalDatastoreType.class), any(InstanceIdentifier.class));
+        assertEquals(0, commitTracker.getDeltaSizes().get(nodeId).intValue());
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void flowMapTestAddition() throws Exception {
         OfWriter flowMap = new OfWriter();
         flowMap.writeFlow(nodeId, tableId, flow);
 
-        Optional<Table> optional = mock(Optional.class);
-        CheckedFuture<Optional<Table>, ReadFailedException> readFuture = mock(CheckedFuture.class);
-        when(readWriteTransaction.read(any(LogicalDatastoreType.class),
-                any(InstanceIdentifier.class))).thenReturn(readFuture);
-        when(readFuture.get()).thenReturn(optional);
-        when(optional.isPresent()).thenReturn(true);
-        Table currentTable = mock(Table.class);
-        when(optional.get()).thenReturn(currentTable);
-
         CheckedFuture<Void, TransactionCommitFailedException> submitFuture = mock(CheckedFuture.class);
-        when(readWriteTransaction.submit()).thenReturn(submitFuture);
+        when(writeTransaction.submit()).thenReturn(submitFuture);
 
-        flowMap.commitToDataStore(dataBroker, new HashMap<InstanceIdentifier<Table>, TableBuilder>());
+        OfCommitTracker commitTracker = new OfCommitTracker(1);
+        flowMap.commitToDataStore(dataBroker, new OfWriter(), commitTracker);
 
-        InOrder orderCheck = inOrder(readWriteTransaction);
-        orderCheck.verify(readWriteTransaction).put(any(LogicalDatastoreType.class), any(InstanceIdentifier.class),
+        InOrder orderCheck = inOrder(writeTransaction);
+        orderCheck.verify(writeTransaction).put(any(LogicalDatastoreType.class), any(InstanceIdentifier.class),
                 any(Flow.class), any(Boolean.class));
-        orderCheck.verify(readWriteTransaction).submit();
+        orderCheck.verify(writeTransaction).submit();
+        assertEquals(1, commitTracker.getDeltaSizes().get(nodeId).intValue());
+        assertEquals(1, commitTracker.getInFlightSubmits());
+    }
+
+    @Test
+    public void flowMapTestNoChange() throws Exception {
+        OfWriter previous = new OfWriter();
+        previous.writeFlow(nodeId, tableId, flow);
+        OfWriter flowMap = new OfWriter();
+        flowMap.writeFlow(nodeId, tableId, flow);
+
+        OfCommitTracker commitTracker = new OfCommitTracker(1);
+        flowMap.commitToDataStore(dataBroker, previous, commitTracker);
+
+        verify(writeTransaction, never()).submit();
+        assertEquals(0, commitTracker.getDeltaSizes().get(nodeId).intValue());
+    }
+
+    @Test
+    public void flowMapTestRecomputedNodeWithoutFlows() throws Exception {
+        OfWriter previous = new OfWriter();
+        previous.writeFlow(nodeId, tableId, flow);
+        OfWriter flowMap = new OfWriter();
+
+        CheckedFuture<Void, TransactionCommitFailedException> submitFuture = mock(CheckedFuture.class);
+        when(writeTransaction.submit()).thenReturn(submitFuture);
+
+        OfCommitTracker commitTracker = new OfCommitTracker(1);
+        flowMap.commitToDataStore(dataBroker, previous, Collections.singleton(nodeId), commitTracker);
+
+        InOrder orderCheck = inOrder(writeTransaction);
+        orderCheck.verify(writeTransaction).delete(any(LogicalDatastoreType.class), any(InstanceIdentifier.class));
+        orderCheck.verify(writeTransaction).submit();
+        assertEquals(1, commitTracker.getDeltaSizes().get(nodeId).intValue());
+    }
+
+    @Test
+    public void flowMapTestDisappearedNode() throws Exception {
+        OfWriter previous = new OfWriter();
+        previous.writeFlow(nodeId, tableId, flow);
+
+        CheckedFuture<Void, TransactionCommitFailedException> submitFuture = mock(CheckedFuture.class);
+        when(writeTransaction.submit()).thenReturn(submitFuture);
+
+        OfCommitTracker commitTracker = new OfCommitTracker(1);
+        new OfWriter().commitToDataStore(dataBroker, previous, commitTracker);
+
+        verify(writeTransaction).delete(any(LogicalDatastoreType.class), any(InstanceIdentifier.class));
+        verify(writeTransaction).submit();
+    }
+
+    @Test
+    public void flowMapTestSubmitFailure() throws Exception {
+        OfWriter flowMap = new OfWriter();
+        flowMap.writeFlow(nodeId, tableId, flow);
+        when(writeTransaction.submit()).thenThrow(new IllegalStateException("transaction chain closed"));
+
+        OfCommitTracker commitTracker = new OfCommitTracker(1);
+        try {
+            flowMap.commitToDataStore(dataBroker, new OfWriter(), commitTracker);
+            fail("Exception from submit expected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(0, commitTracker.getInFlightSubmits());
     }
 
     @Test
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.endpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.opendaylight.groupbasedpolicy.dto.EgKey;
+import org.opendaylight.groupbasedpolicy.dto.EpKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.EndpointGroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.L2BridgeDomainId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+
+import com.google.common.collect.ImmutableSet;
+
+public class EndpointIndexTest {
+
+    private static final NodeId NODE_1 = new NodeId("openflow:1");
+    private static final NodeId NODE_2 = new NodeId("openflow:2");
+    private static final EgKey EG_1 = new EgKey(new TenantId("tenant"), new EndpointGroupId("epg1"));
+    private static final EgKey EG_2 = new EgKey(new TenantId("tenant"), new EndpointGroupId("epg2"));
+    private static final EpKey EP_1 = new EpKey(new L2BridgeDomainId("l2bd"), new MacAddress("00:00:00:00:00:01"));
+    private static final EpKey EP_2 = new EpKey(new L2BridgeDomainId("l2bd"), new MacAddress("00:00:00:00:00:02"));
+
+    @Test
+    public void testAddEndpoint() {
+        EndpointIndex.Updater updater = EndpointIndex.EMPTY.updater();
+        assertTrue(updater.addEndpoint(NODE_1, EP_1, ImmutableSet.of(EG_1, EG_2)));
+        assertFalse(updater.addEndpoint(NODE_1, EP_2, ImmutableSet.of(EG_1)));
+        assertTrue(updater.addEndpoint(NODE_2, EP_2, ImmutableSet.of(EG_2)));
+        EndpointIndex index = updater.build();
+
+        assertEquals(ImmutableSet.of(EG_1, EG_2), index.getGroupsForNode(NODE_1));
+        assertEquals(ImmutableSet.of(NODE_1, NODE_2), index.getNodesForGroup(EG_2));
+        assertEquals(ImmutableSet.of(EP_1, EP_2), index.getEndpointsForNode(NODE_1, EG_1));
+        assertEquals(ImmutableSet.of(EP_1, EP_2), index.getEndpointsForNode(NODE_1));
+        assertEquals(ImmutableSet.of(EP_1, EP_2), index.getEndpointsForGroup(EG_2));
+    }
+
+    @Test
+    public void testRemoveEndpoint() {
+        EndpointIndex.Updater updater = EndpointIndex.EMPTY.updater();
+        updater.addEndpoint(NODE_1, EP_1, ImmutableSet.of(EG_1));
+        updater.addEndpoint(NODE_1, EP_2, ImmutableSet.of(EG_2));
+        EndpointIndex index = updater.build();
+
+        updater = index.updater();
+        assertFalse(updater.removeEndpoint(NODE_1, EP_1, ImmutableSet.of(EG_1)));
+        assertTrue(updater.removeEndpoint(NODE_1, EP_2, ImmutableSet.of(EG_2)));
+        EndpointIndex emptyIndex = updater.build();
+
+        assertTrue(emptyIndex.getGroupsForNode(NODE_1).isEmpty());
+        assertTrue(emptyIndex.getNodesForGroup(EG_1).isEmpty());
+        assertTrue(emptyIndex.getEndpointsForNode(NODE_1).isEmpty());
+        assertTrue(emptyIndex.getEndpointsForGroup(EG_2).isEmpty());
+        // published snapshot is not changed by updates
+        assertEquals(ImmutableSet.of(EP_1, EP_2), index.getEndpointsForNode(NODE_1));
+        assertEquals(ImmutableSet.of(NODE_1), index.getNodesForGroup(EG_1));
+    }
+
+    @Test
+    public void testGetEndpointsForNodeByMac() {
+        EndpointIndex.Updater updater = EndpointIndex.EMPTY.updater();
+        updater.addEndpoint(NODE_1, EP_1, ImmutableSet.of(EG_1));
+        updater.addEndpoint(NODE_2, EP_2, ImmutableSet.of(EG_1));
+        EndpointIndex index = updater.build();
+
+        assertEquals(ImmutableSet.of(EP_1), index.getEndpointsForNode(NODE_1, EP_1.getMacAddress()));
+        assertEquals(ImmutableSet.of(EP_2), index.getEndpointsForNode(NODE_2, new MacAddress("00:00:00:00:00:02")));
+        assertTrue(index.getEndpointsForNode(NODE_1, EP_2.getMacAddress()).isEmpty());
+
+        EpKey upperCaseEp = new EpKey(new L2BridgeDomainId("l2bd"), new MacAddress("00:00:00:00:00:AB"));
+        updater = index.updater();
+        updater.addEndpoint(NODE_1, upperCaseEp, ImmutableSet.of(EG_2));
+        updater.removeEndpoint(NODE_1, EP_1, ImmutableSet.of(EG_1));
+        index = updater.build();
+
+        assertEquals(ImmutableSet.of(upperCaseEp),
+                index.getEndpointsForNode(NODE_1, new MacAddress("00:00:00:00:00:ab")));
+        assertTrue(index.getEndpointsForNode(NODE_1, EP_1.getMacAddress()).isEmpty());
+    }
+
+    @Test
+    public void testBuild_notModified() {
+        EndpointIndex.Updater updater = EndpointIndex.EMPTY.updater();
+        assertFalse(updater.isModified());
+        assertSame(EndpointIndex.EMPTY, updater.build());
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.endpoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.opendaylight.groupbasedpolicy.dto.EgKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.EndpointGroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.L2BridgeDomainId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.endpoints.Endpoint;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.endpoint.rev140421.endpoints.EndpointBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.ofoverlay.rev140528.OfOverlayContext;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.ofoverlay.rev140528.OfOverlayContextBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures throughput of index reads done by the flow pipeline ({@code OfTable.sync}) on {@link EndpointManager}.
+ * <br>
+ * {@link #readsOnly()} reads indexes without any updates, group {@code churn} runs the same reads while one thread
+ * keeps adding and removing endpoints. Reads of snapshots are not blocked by the writer, so throughput of reads
+ * in {@code churn} should stay close to {@link #readsOnly()}.<br>
+ * Not executed as part of the unit tests, run it with {@code main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EndpointManagerBenchmark {
+
+    private static final TenantId TENANT_ID = new TenantId("tenant");
+    private static final L2BridgeDomainId L2BD_ID = new L2BridgeDomainId("l2bd");
+    private static final int NODE_COUNT = 16;
+    private static final int GROUP_COUNT = 8;
+    private static final int ENDPOINTS_PER_NODE = 64;
+    private static final int CHURN_ENDPOINTS = 256;
+
+    private MockEndpointManager endpointManager;
+    private List<NodeId> nodes;
+    private List<EgKey> groups;
+    private List<Endpoint> churnEndpoints;
+
+    @Setup
+    public void setup() {
+        endpointManager = new MockEndpointManager();
+        nodes = new ArrayList<>(NODE_COUNT);
+        groups = new ArrayList<>(GROUP_COUNT);
+        for (int g = 0; g < GROUP_COUNT; g++) {
+            groups.add(new EgKey(TENANT_ID, new EndpointGroupId("epg" + g)));
+        }
+        int mac = 0;
+        for (int n = 0; n < NODE_COUNT; n++) {
+            NodeId nodeId = new NodeId("openflow:" + n);
+            nodes.add(nodeId);
+            for (int e = 0; e < ENDPOINTS_PER_NODE; e++) {
+                endpointManager.addEndpoint(endpoint(mac++, nodeId, groups.get(e % GROUP_COUNT)));
+            }
+        }
+        churnEndpoints = new ArrayList<>(CHURN_ENDPOINTS);
+        for (int c = 0; c < CHURN_ENDPOINTS; c++) {
+            churnEndpoints.add(endpoint(mac++, nodes.get(c % NODE_COUNT), groups.get(c % GROUP_COUNT)));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int position;
+
+        int next() {
+            return position++ & Integer.MAX_VALUE;
+        }
+    }
+
+    @Benchmark
+    public int readsOnly(Cursor cursor) {
+        return read(cursor.next());
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(3)
+    public int reads(Cursor cursor) {
+        return read(cursor.next());
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public void updates(Cursor cursor) {
+        int position = cursor.next();
+        Endpoint endpoint = churnEndpoints.get(position % CHURN_ENDPOINTS);
+        if ((position / CHURN_ENDPOINTS) % 2 == 0) {
+            endpointManager.processEndpoint(null, endpoint);
+        } else {
+            endpointManager.processEndpoint(endpoint, null);
+        }
+    }
+
+    private int read(int position) {
+        NodeId nodeId = nodes.get(position % NODE_COUNT);
+        EgKey egKey = groups.get(position % GROUP_COUNT);
+        int size = endpointManager.getGroupsForNode(nodeId).size();
+        size += endpointManager.getNodesForGroup(egKey).size();
+        size += endpointManager.getEndpointsForNode(nodeId, egKey).size();
+        size += endpointManager.getEndpointsForNode(nodeId).size();
+        return size;
+    }
+
+    private static Endpoint endpoint(int mac, NodeId nodeId, EgKey egKey) {
+        OfOverlayContext ofOverlayContext = new OfOverlayContextBuilder().setNodeId(nodeId).build();
+        return new EndpointBuilder().setTenant(egKey.getTenantId())
+            .setL2Context(L2BD_ID)
+            .setMacAddress(new MacAddress(String.format("00:00:00:00:%02x:%02x", (mac >> 8) & 0xff, mac & 0xff)))
+            .setEndpointGroup(egKey.getEgId())
+            .addAugmentation(OfOverlayContext.class, ofOverlayContext)
+            .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EndpointManagerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.endpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LayeredMapTest {
+
+    @Test
+    public void testEdit_previousVersionUnchanged() {
+        LayeredMap.Editor<String, Integer> editor = LayeredMap.<String, Integer>empty().edit();
+        editor.put("a", 1);
+        editor.put("b", 2);
+        LayeredMap<String, Integer> first = editor.build();
+
+        editor = first.edit();
+        editor.put("a", 10);
+        editor.remove("b");
+        editor.put("c", 3);
+        LayeredMap<String, Integer> second = editor.build();
+
+        assertEquals(Integer.valueOf(1), first.get("a"));
+        assertEquals(Integer.valueOf(2), first.get("b"));
+        assertNull(first.get("c"));
+        assertEquals(Integer.valueOf(10), second.get("a"));
+        assertNull(second.get("b"));
+        assertEquals(Integer.valueOf(3), second.get("c"));
+    }
+
+    @Test
+    public void testBuild_overlayCompacted() {
+        LayeredMap<Integer, Integer> map = LayeredMap.empty();
+        for (int i = 0; i < 1000; i++) {
+            LayeredMap.Editor<Integer, Integer> editor = map.edit();
+            editor.put(i, i);
+            if (i % 2 == 1) {
+                editor.remove(i - 1);
+            }
+            map = editor.build();
+            // overlay is kept around square root of the base size
+            assertTrue(map.getOverlaySize() <= Math.max(16, Math.sqrt(i + 1)) + 2);
+        }
+        for (int i = 0; i < 1000; i++) {
+            if (i % 2 == 0) {
+                assertNull(map.get(i));
+            } else {
+                assertEquals(Integer.valueOf(i), map.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.groupbasedpolicy.dto.ConditionGroup;
+import org.opendaylight.groupbasedpolicy.dto.ConditionSet;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+public class OrdinalAllocatorTest {
+
+    private static final OrdinalKey KEY_1 = OrdinalKey.create(OrdinalKey.Type.CONTEXT, "tenant", "ctx1");
+    private static final OrdinalKey KEY_2 = OrdinalKey.create(OrdinalKey.Type.CONTEXT, "tenant", "ctx2");
+    private static final OrdinalKey KEY_3 = OrdinalKey.create(OrdinalKey.Type.CONTEXT, "tenant", "ctx3");
+    private static final String OWNER_1 = "owner1";
+    private static final String OWNER_2 = "owner2";
+
+    private OrdinalAllocator allocator;
+
+    @Before
+    public void init() {
+        allocator = new OrdinalAllocator(0);
+    }
+
+    @Test
+    public void testGetOrdinal_sameKeySameOrdinal() {
+        int ordinal = allocator.getOrdinal(KEY_1);
+        assertEquals(1, ordinal);
+        assertEquals(ordinal, allocator.getOrdinal(OrdinalKey.create(OrdinalKey.Type.CONTEXT, "tenant", "ctx1")));
+        assertEquals(2, allocator.getOrdinal(KEY_2));
+    }
+
+    @Test
+    public void testGetOrdinal_keysOfDifferentTypesDoNotCollide() {
+        int contextOrdinal = allocator.getOrdinal(OrdinalKey.create(OrdinalKey.Type.CONTEXT, "a|b"));
+        int epgsOrdinal = allocator.getOrdinal(OrdinalKey.create(OrdinalKey.Type.ENDPOINT_GROUPS, "a", "b"));
+        int nodeOrdinal = allocator.getOrdinal(OrdinalKey.create(OrdinalKey.Type.NODE, "a|b"));
+        assertEquals(3, ImmutableSet.of(contextOrdinal, epgsOrdinal, nodeOrdinal).size());
+    }
+
+    @Test
+    public void testSetReferences_releasedOrdinalReused() {
+        allocator.setReferences(OWNER_1, ImmutableSet.of(KEY_1, KEY_2));
+        allocator.setReferences(OWNER_2, ImmutableSet.of(KEY_1));
+        int ordinal2 = allocator.getOrdinal(KEY_2);
+        assertEquals(2, allocator.getRefCount(KEY_1));
+
+        allocator.releaseReferences(OWNER_1);
+        assertEquals(1, allocator.getRefCount(KEY_1));
+        assertEquals(1, allocator.getReleasedCount());
+
+        assertEquals(ordinal2, allocator.getOrdinal(KEY_3));
+        assertEquals(0, allocator.getReleasedCount());
+        assertNotEquals(ordinal2, allocator.getOrdinal(KEY_2));
+    }
+
+    @Test
+    public void testSetReferences_releasedKeyRequestedAgain_keepsOrdinal() {
+        allocator.setReferences(OWNER_1, ImmutableSet.of(KEY_1));
+        int ordinal = allocator.getOrdinal(KEY_1);
+        allocator.setReferences(OWNER_1, ImmutableSet.of(KEY_2));
+        assertEquals(1, allocator.getReleasedCount());
+
+        assertEquals(ordinal, allocator.getOrdinal(KEY_1));
+        // the ordinal of revived key is not reused
+        assertNotEquals(ordinal, allocator.getOrdinal(KEY_3));
+    }
+
+    @Test
+    public void testSetReferences_reuseThreshold() {
+        allocator = new OrdinalAllocator(1);
+        allocator.setReferences(OWNER_1, ImmutableSet.of(KEY_1));
+        int ordinal = allocator.getOrdinal(KEY_1);
+        allocator.releaseReferences(OWNER_1);
+
+        assertNotEquals(ordinal, allocator.getOrdinal(KEY_2));
+        allocator.setReferences(OWNER_2, ImmutableSet.of(KEY_2));
+        allocator.releaseReferences(OWNER_2);
+        assertEquals(ordinal, allocator.getOrdinal(KEY_3));
+    }
+
+    @Test
+    public void testDrainChanges() {
+        int ordinal = allocator.getOrdinal(KEY_1);
+        OrdinalKey cgKey = OrdinalKey.forConditionGroup(new ConditionGroup(ImmutableSet.of(ConditionSet.EMPTY)));
+        int cgOrdinal = allocator.getOrdinal(cgKey);
+
+        Map<String, Integer> changes = allocator.drainChanges();
+        assertEquals(ImmutableMap.of(KEY_1.toId(), ordinal, cgKey.toId(), cgOrdinal), changes);
+        assertTrue(allocator.drainChanges().isEmpty());
+
+        allocator.restoreChanges(changes);
+        assertEquals(changes, allocator.drainChanges());
+    }
+
+    @Test
+    public void testDrainChanges_reusedOrdinal() {
+        allocator.setReferences(OWNER_1, ImmutableSet.of(KEY_1));
+        allocator.releaseReferences(OWNER_1);
+        allocator.drainChanges();
+
+        int ordinal = allocator.getOrdinal(KEY_2);
+
+        Map<String, Integer> changes = allocator.drainChanges();
+        assertEquals(2, changes.size());
+        assertTrue(changes.containsKey(KEY_1.toId()));
+        assertNull(changes.get(KEY_1.toId()));
+        assertEquals(Integer.valueOf(ordinal), changes.get(KEY_2.toId()));
+    }
+
+    @Test
+    public void testLoad() {
+        allocator.getOrdinal(KEY_3);
+        allocator.load(ImmutableMap.of(KEY_1.toId(), 1, KEY_2.toId(), 3, "malformed", 2));
+
+        assertEquals(2, allocator.getAssignedCount());
+        assertEquals(1, allocator.getOrdinal(KEY_1));
+        assertEquals(3, allocator.getOrdinal(KEY_2));
+        assertTrue(allocator.drainChanges().isEmpty());
+        // gap is reused first
+        assertEquals(2, allocator.getOrdinal(KEY_3));
+        assertEquals(4, allocator.getOrdinal(OrdinalKey.create(OrdinalKey.Type.NODE, "node")));
+    }
+
+    @Test
+    public void testGetOrdinal_ownerReferencesAdded() {
+        int ordinal = allocator.getOrdinal(OWNER_1, KEY_1);
+        assertEquals(ordinal, allocator.getOrdinal(OWNER_1, KEY_1));
+        allocator.getOrdinal(OWNER_1, KEY_2);
+        assertEquals(1, allocator.getRefCount(KEY_1));
+        assertEquals(1, allocator.getRefCount(KEY_2));
+
+        allocator.releaseReferences(OWNER_1);
+        assertEquals(0, allocator.getAssignedCount());
+        assertEquals(2, allocator.getReleasedCount());
+    }
+
+    @Test
+    public void testReleaseUnreferenced() {
+        allocator.load(ImmutableMap.of(KEY_1.toId(), 1, KEY_2.toId(), 2));
+        allocator.setReferences(OWNER_1, ImmutableSet.of(KEY_1));
+        allocator.getOrdinal(KEY_3);
+
+        assertEquals(2, allocator.releaseUnreferenced());
+        assertEquals(1, allocator.getAssignedCount());
+        assertEquals(1, allocator.getRefCount(KEY_1));
+        assertEquals(2, allocator.getReleasedCount());
+        // released key requested again gets its ordinal back
+        assertEquals(2, allocator.getOrdinal(KEY_2));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Set;
+
+import org.junit.Test;
+import org.opendaylight.groupbasedpolicy.dto.ConditionGroup;
+import org.opendaylight.groupbasedpolicy.dto.ConditionSet;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.ConditionName;
+
+import com.google.common.collect.ImmutableSet;
+
+public class OrdinalKeyTest {
+
+    @Test
+    public void testToId_fromId() {
+        OrdinalKey key = OrdinalKey.create(OrdinalKey.Type.TUNNEL, "tenant", "a|1:b", "", "nd");
+        String id = key.toId();
+        assertEquals("tunnel|6:tenant|5:a|1:b|0:|2:nd", id);
+        assertEquals(key, OrdinalKey.fromId(id));
+
+        OrdinalKey emptyCg = OrdinalKey.forConditionGroup(ConditionGroup.EMPTY);
+        assertEquals(emptyCg, OrdinalKey.fromId(emptyCg.toId()));
+    }
+
+    @Test
+    public void testFromId_malformed() {
+        assertNull(OrdinalKey.fromId("unknown|1:a"));
+        assertNull(OrdinalKey.fromId("context|5:a"));
+        assertNull(OrdinalKey.fromId("context|x:a"));
+        assertNull(OrdinalKey.fromId("context|1a"));
+    }
+
+    @Test
+    public void testEquals_componentsNotConcatenated() {
+        assertNotEquals(OrdinalKey.create(OrdinalKey.Type.CONTEXT, "a|b", "c"),
+                OrdinalKey.create(OrdinalKey.Type.CONTEXT, "a", "b|c"));
+        assertNotEquals(OrdinalKey.create(OrdinalKey.Type.CONTEXT, "a"),
+                OrdinalKey.create(OrdinalKey.Type.NODE, "a"));
+    }
+
+    @Test
+    public void testForConditionGroup() {
+        ConditionName c1 = new ConditionName("c1");
+        ConditionName c2 = new ConditionName("c2");
+        ConditionSet cs1 = new ConditionSet(ImmutableSet.of(c1, c2), ImmutableSet.<ConditionName>of(),
+                ImmutableSet.of(ImmutableSet.of(c2)));
+        ConditionSet cs2 = new ConditionSet(ImmutableSet.of(c2, c1), ImmutableSet.of(c2),
+                ImmutableSet.<Set<ConditionName>>of());
+        OrdinalKey key = OrdinalKey.forConditionGroup(new ConditionGroup(ImmutableSet.of(cs1, cs2)));
+
+        assertEquals(key, OrdinalKey.forConditionGroup(new ConditionGroup(ImmutableSet.of(cs2, cs1))));
+        assertEquals(key, OrdinalKey.fromId(key.toId()));
+        assertNotEquals(key, OrdinalKey.forConditionGroup(new ConditionGroup(ImmutableSet.of(cs1))));
+        assertNotEquals(OrdinalKey.forConditionGroup(ConditionGroup.EMPTY),
+                OrdinalKey.forConditionGroup(new ConditionGroup(ImmutableSet.of(ConditionSet.EMPTY))));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.reactive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.groupbasedpolicy.dto.EpKey;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.flow.FlowUtils;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.L2ContextId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+
+public class ConversationCacheTest {
+
+    private static final NodeId NODE_1 = new NodeId("openflow:1");
+    private static final NodeId NODE_2 = new NodeId("openflow:2");
+    private static final L2ContextId L2_CONTEXT = new L2ContextId("bd");
+    private static final EpKey EP_1 = new EpKey(L2_CONTEXT, new MacAddress("00:00:00:00:00:01"));
+    private static final EpKey EP_2 = new EpKey(L2_CONTEXT, new MacAddress("00:00:00:00:00:02"));
+    private static final EpKey EP_3 = new EpKey(L2_CONTEXT, new MacAddress("00:00:00:00:00:03"));
+    private static final EpKey EP_4 = new EpKey(L2_CONTEXT, new MacAddress("00:00:00:00:00:04"));
+    private static final NodeConnectorId PORT_1 = new NodeConnectorId("openflow:1:1");
+    private static final NodeConnectorId PORT_2 = new NodeConnectorId("openflow:1:2");
+    private static final Flow FLOW = new FlowBuilder().setId(new FlowId("flow")).setTableId((short) 4).build();
+
+    private ConversationCache cache;
+
+    @Before
+    public void init() {
+        cache = new ConversationCache(30, 2);
+    }
+
+    @Test
+    public void testConversationObserved_eitherDirection() {
+        assertTrue(cache.conversationObserved(NODE_1, EP_1, EP_2));
+        assertFalse(cache.conversationObserved(NODE_1, EP_1, EP_2));
+        assertFalse(cache.conversationObserved(NODE_1, EP_2, EP_1));
+
+        assertTrue(cache.isActive(NODE_1, EP_1, EP_2));
+        assertTrue(cache.isActive(NODE_1, EP_2, EP_1));
+        assertFalse(cache.isActive(NODE_2, EP_1, EP_2));
+        assertFalse(cache.isActive(NODE_1, EP_1, EP_3));
+        assertEquals(1, cache.getConversationCount(NODE_1));
+    }
+
+    @Test
+    public void testConversationObserved_leastRecentlyObservedEvicted() {
+        cache.conversationObserved(NODE_1, EP_1, EP_2);
+        cache.conversationObserved(NODE_1, EP_1, EP_3);
+        // refresh the first conversation
+        cache.conversationObserved(NODE_1, EP_2, EP_1);
+        cache.conversationObserved(NODE_1, EP_1, EP_4);
+
+        assertEquals(2, cache.getConversationCount(NODE_1));
+        assertEquals(1, cache.getEvictedCount());
+        assertTrue(cache.isActive(NODE_1, EP_1, EP_2));
+        assertFalse(cache.isActive(NODE_1, EP_1, EP_3));
+        assertTrue(cache.isActive(NODE_1, EP_1, EP_4));
+    }
+
+    @Test
+    public void testToConversationFlow() {
+        cache.conversationObserved(NODE_1, EP_1, EP_2);
+        Flow flow = cache.toConversationFlow(NODE_1, EP_1, EP_2, PORT_1, FLOW);
+
+        assertEquals(Integer.valueOf(30), flow.getIdleTimeout());
+        assertTrue(flow.getFlags().isSENDFLOWREM());
+        assertTrue(ConversationCache.isConversationCookie(flow.getCookie().getValue()));
+        assertEquals(PORT_1, flow.getMatch().getInPort());
+        assertEquals(EP_2.getMacAddress(), flow.getMatch().getEthernetMatch().getEthernetDestination().getAddress());
+        assertEquals(flow, cache.toConversationFlow(NODE_1, EP_1, EP_2, PORT_1, FLOW));
+    }
+
+    @Test
+    public void testToConversationFlow_endpointSpecific() {
+        cache.conversationObserved(NODE_1, EP_1, EP_2);
+        cache.conversationObserved(NODE_1, EP_1, EP_3);
+        Flow match = new FlowBuilder(FLOW)
+            .setMatch(new MatchBuilder().setEthernetMatch(FlowUtils.ethernetMatch(null, null, 0x0800L)).build())
+            .build();
+        Flow flow = cache.toConversationFlow(NODE_1, EP_1, EP_2, PORT_1, match);
+        Flow reverseFlow = cache.toConversationFlow(NODE_1, EP_2, EP_1, PORT_2, match);
+        Flow otherPeerFlow = cache.toConversationFlow(NODE_1, EP_1, EP_3, PORT_1, match);
+
+        assertEquals(Long.valueOf(0x0800L),
+                flow.getMatch().getEthernetMatch().getEthernetType().getType().getValue());
+        assertNotEquals(flow.getId(), reverseFlow.getId());
+        assertNotEquals(flow.getId(), otherPeerFlow.getId());
+        assertNotEquals(flow.getCookie(), otherPeerFlow.getCookie());
+        assertEquals(EP_1.getMacAddress(),
+                reverseFlow.getMatch().getEthernetMatch().getEthernetDestination().getAddress());
+    }
+
+    @Test
+    public void testToConversationFlow_remoteSender() {
+        cache.conversationObserved(NODE_1, EP_1, EP_2);
+        Flow flow = cache.toConversationFlow(NODE_1, EP_2, EP_1, null, FLOW);
+
+        assertNull(flow.getMatch().getInPort());
+        assertEquals(EP_1.getMacAddress(), flow.getMatch().getEthernetMatch().getEthernetDestination().getAddress());
+    }
+
+    @Test
+    public void testToConversationFlow_distinctCookies() {
+        cache.conversationObserved(NODE_1, EP_1, EP_2);
+        // flow IDs with equal hash codes
+        Flow flow1 = new FlowBuilder(FLOW).setId(new FlowId("Aa")).build();
+        Flow flow2 = new FlowBuilder(FLOW).setId(new FlowId("BB")).build();
+
+        BigInteger cookie1 = cache.toConversationFlow(NODE_1, EP_1, EP_2, PORT_1, flow1).getCookie().getValue();
+        BigInteger cookie2 = cache.toConversationFlow(NODE_1, EP_1, EP_2, PORT_1, flow2).getCookie().getValue();
+
+        assertNotEquals(cookie1, cookie2);
+        assertTrue(ConversationCache.isConversationCookie(cookie2));
+        assertEquals(cookie1, cache.toConversationFlow(NODE_1, EP_1, EP_2, PORT_1, flow1).getCookie().getValue());
+    }
+
+    @Test
+    public void testFlowRemoved_cookieReleased() {
+        cache.conversationObserved(NODE_1, EP_1, EP_2);
+        BigInteger cookie = cache.toConversationFlow(NODE_1, EP_1, EP_2, PORT_1, FLOW).getCookie().getValue();
+        cache.flowRemoved(NODE_1, cookie);
+
+        cache.conversationObserved(NODE_1, EP_1, EP_2);
+        assertNotEquals(cookie, cache.toConversationFlow(NODE_1, EP_1, EP_2, PORT_1, FLOW).getCookie().getValue());
+        assertEquals(1, cache.getExpiredCount());
+        // removal of the old cookie does not affect the conversation bound to the new one
+        cache.flowRemoved(NODE_1, cookie);
+        assertTrue(cache.isActive(NODE_1, EP_1, EP_2));
+    }
+
+    @Test
+    public void testFlowRemoved_boundConversationsForgotten() {
+        cache.conversationObserved(NODE_1, EP_1, EP_2);
+        cache.conversationObserved(NODE_1, EP_1, EP_3);
+        cache.conversationObserved(NODE_2, EP_1, EP_2);
+        // remote senders to the same receiver share the flow
+        BigInteger cookie = cache.toConversationFlow(NODE_1, EP_2, EP_1, null, FLOW).getCookie().getValue();
+        cache.toConversationFlow(NODE_1, EP_3, EP_1, null, FLOW);
+        cache.toConversationFlow(NODE_2, EP_2, EP_1, null, FLOW);
+
+        assertTrue(cache.flowRemoved(NODE_1, cookie));
+        assertFalse(cache.isActive(NODE_1, EP_1, EP_2));
+        assertFalse(cache.isActive(NODE_1, EP_1, EP_3));
+        assertTrue(cache.isActive(NODE_2, EP_1, EP_2));
+        assertEquals(2, cache.getExpiredCount());
+    }
+
+    @Test
+    public void testFlowRemoved_otherCookie() {
+        cache.conversationObserved(NODE_1, EP_1, EP_2);
+        cache.toConversationFlow(NODE_1, EP_1, EP_2, PORT_1, FLOW);
+
+        assertFalse(cache.flowRemoved(NODE_1, BigInteger.ONE));
+        assertFalse(cache.flowRemoved(NODE_1, null));
+        assertTrue(cache.isActive(NODE_1, EP_1, EP_2));
+    }
+}
@@ -10,6 +10,8 @@ package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.statistics;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigInteger;
@@ -19,9 +21,11 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.opendaylight.groupbasedpolicy.api.StatisticsManager;
 import org.opendaylight.groupbasedpolicy.dto.ConsEpgKey;
 import org.opendaylight.groupbasedpolicy.dto.EpgKeyDto;
@@ -44,6 +48,8 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import com.google.common.collect.ImmutableList;
+
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({OFStatisticsManager.class, IidSflowNameUtil.class, OFStatisticsManager.class})
 public class ProcessDataTaskTest {
@@ -60,6 +66,7 @@ public class ProcessDataTaskTest {
     private FlowCache flowCache;
     private FlowCacheData data;
     private ProcessDataTask task;
+    private StatisticsManager statisticsManager;
 
     private EndpointL3 srcEpL3;
     private EndpointL3 dstEpL3;
@@ -84,7 +91,7 @@ public class ProcessDataTaskTest {
         List<FlowCacheData> dataList = new ArrayList<>();
         dataList.add(data);
         BigInteger timestamp = BigInteger.ZERO;
-        StatisticsManager statisticsManager = mock(StatisticsManager.class);
+        statisticsManager = mock(StatisticsManager.class);
         when(statisticsManager.writeStat(any(StatRecords.class))).thenReturn(true);
 
         task = new ProcessDataTask(flowCache, dataList, timestamp, statisticsManager);
@@ -145,10 +152,35 @@ public class ProcessDataTaskTest {
         task.run();
     }
 
+    @Test
+    public void testRun_samplesWrittenInSingleBatch() {
+        when(OFStatisticsManager.getEndpointL3ForIp(SRC_IP)).thenReturn(srcEpL3);
+        when(OFStatisticsManager.getEndpointL3ForIp(DST_IP)).thenReturn(dstEpL3);
+        when(IidSflowNameUtil.resolveContractIdFromFlowCacheName(flowCache.getName())).thenReturn(contractId);
+        when(IidSflowNameUtil.resolveClassifierNameFromFlowCacheName(flowCache.getName())).thenReturn(classifierName);
+        when(IidSflowNameUtil.resolveFlowCacheValue(flowCache.getName())).thenReturn(FlowCacheCons.Value.BYTES.get());
+        FlowCacheData wrongData = mock(FlowCacheData.class);
+        when(wrongData.getKey()).thenReturn("1,2");
+        IngestionCounters counters = new IngestionCounters();
+        task = new ProcessDataTask(flowCache, ImmutableList.of(data, data, wrongData), BigInteger.ZERO,
+                statisticsManager, counters);
+
+        task.run();
+
+        ArgumentCaptor<StatRecords> captor = ArgumentCaptor.forClass(StatRecords.class);
+        verify(statisticsManager).writeStat(captor.capture());
+        Assert.assertEquals(2, captor.getValue().getEpToEpStatistic().size());
+        Assert.assertEquals(1, counters.getBatches());
+        Assert.assertEquals(2, counters.getSamplesIngested());
+        Assert.assertEquals(1, counters.getSamplesDropped());
+        Assert.assertEquals(2, counters.getLastBatchSize());
+    }
+
     @Test
     public void testRun_wrongDataResponse() {
         when(data.getKey()).thenReturn("1,2");
         task.run();
+        verify(statisticsManager, never()).writeStat(any(StatRecords.class));
     }
 
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.ofoverlay.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.opendaylight.groupbasedpolicy.api.StatisticsManager;
+import org.opendaylight.groupbasedpolicy.renderer.ofoverlay.statistics.flowcache.FlowCache;
+
+import com.sun.jersey.api.container.grizzly2.GrizzlyServerFactory;
+import com.sun.jersey.api.core.ClassNamesResourceConfig;
+
+public class SFlowRTCollectorTest {
+
+    private static final String SFLOW_URI = "http://localhost:1235";
+    private static final ConcurrentMap<String, AtomicInteger> REQUESTS = new ConcurrentHashMap<>();
+    private static HttpServer server;
+
+    private ScheduledExecutorService executor;
+    private SFlowRTCollector collector;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        server = GrizzlyServerFactory.createHttpServer(java.net.URI.create(SFLOW_URI),
+                new ClassNamesResourceConfig(SFlowRTStub.class));
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (server != null && server.isStarted()) {
+            server.stop();
+        }
+    }
+
+    @Before
+    public void init() {
+        REQUESTS.clear();
+        executor = mock(ScheduledExecutorService.class);
+        collector = new SFlowRTCollector(executor, 10, 2, 100);
+    }
+
+    @After
+    public void close() {
+        collector.close();
+    }
+
+    @Test
+    public void testPoll_flowCachesShareClient() throws Exception {
+        JsonRestClient client = new JsonRestClient(SFLOW_URI, 1000, 1000);
+        StatisticsManager statisticsManager = mock(StatisticsManager.class);
+        for (String name : new String[] {"cache1", "cache2", "cache3"}) {
+            SFlowRTConnection connection = new SFlowRTConnection(executor, SFLOW_URI, flowCache(name), client);
+            collector.register(name, new ReadGbpFlowCacheTask(name, connection, statisticsManager, 100, 0.1, "sum"));
+        }
+        verify(executor).scheduleWithFixedDelay(Matchers.any(Runnable.class), Matchers.eq(0L), Matchers.eq(10L),
+                Matchers.eq(TimeUnit.SECONDS));
+
+        collector.poll();
+        awaitPolls(3);
+
+        assertEquals(3, collector.getFlowCacheCount());
+        for (String name : new String[] {"cache1", "cache2", "cache3"}) {
+            assertEquals(1, REQUESTS.get(name).get());
+        }
+        verify(executor, times(3)).execute(Matchers.any(ProcessDataTask.class));
+    }
+
+    @Test
+    public void testPoll_pollInProgressSkipped() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        collector.register("cache1", () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        collector.poll();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        collector.poll();
+        assertEquals(1, collector.getSkippedPolls());
+
+        release.countDown();
+        awaitPolls(1);
+        collector.poll();
+        awaitPolls(2);
+        assertEquals(1, collector.getSkippedPolls());
+    }
+
+    @Test
+    public void testPoll_rateLimited() throws Exception {
+        collector.close();
+        collector = new SFlowRTCollector(executor, 10, 4, 5);
+        for (int i = 0; i < 6; i++) {
+            collector.register("cache" + i, () -> {});
+        }
+        long start = System.nanoTime();
+        collector.poll();
+        awaitPolls(6);
+
+        // first permit is granted immediately, the others are spread by 200 ms
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 800);
+    }
+
+    @Test
+    public void testSetDelay_collectTaskRescheduled() {
+        ScheduledFuture<?> collectTask = mock(ScheduledFuture.class);
+        Mockito.<ScheduledFuture<?>>when(executor.scheduleWithFixedDelay(Matchers.any(Runnable.class),
+                Matchers.anyLong(), Matchers.anyLong(), Matchers.any(TimeUnit.class))).thenReturn(collectTask);
+        collector.register("cache1", () -> {});
+
+        collector.setDelay(30);
+
+        verify(collectTask).cancel(false);
+        verify(executor).scheduleWithFixedDelay(Matchers.any(Runnable.class), Matchers.eq(30L), Matchers.eq(30L),
+                Matchers.eq(TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRegister_closed() {
+        collector.close();
+        collector.register("cache1", () -> {});
+    }
+
+    private void awaitPolls(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (collector.getPolls() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, collector.getPolls());
+    }
+
+    private static FlowCache flowCache(String name) {
+        FlowCache flowCache = mock(FlowCache.class);
+        when(flowCache.getName()).thenReturn(name);
+        when(flowCache.getPath()).thenReturn("/flow/" + name + "/json");
+        when(flowCache.getJsonDefinition()).thenReturn("{}");
+        return flowCache;
+    }
+
+    @Path("/")
+    public static class SFlowRTStub {
+
+        @PUT
+        @Path("flow/{name}/json")
+        public Response putFlow(@PathParam("name") String name) {
+            return Response.status(Response.Status.NO_CONTENT).build();
+        }
+
+        @GET
+        @Path("activeflows/ALL/{name}/json")
+        @Produces(MediaType.APPLICATION_JSON)
+        public Response getActiveFlows(@PathParam("name") String name) {
+            REQUESTS.computeIfAbsent(name, n -> new AtomicInteger()).incrementAndGet();
+            return Response.status(Response.Status.OK).entity("[{\"key\":\"6,10.0.0.1,10.0.0.2\",\"value\":1.0}]")
+                .build();
+        }
+    }
+}
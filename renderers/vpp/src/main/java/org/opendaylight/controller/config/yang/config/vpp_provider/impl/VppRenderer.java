@@ -49,8 +49,11 @@ import org.opendaylight.groupbasedpolicy.renderer.vpp.sf.Classifier;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.sf.EtherTypeClassifier;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.sf.IpProtoClassifier;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.sf.L4Classifier;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.GbpNetconfTransaction;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.MountedDataBrokerProvider;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.NetconfTransactionPipeline;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.VppIidFactory;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.VppTaskScheduler;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.RendererName;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.Renderer;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.RendererBuilder;
@@ -91,6 +94,8 @@ public class VppRenderer implements AutoCloseable, BindingAwareProvider {
     private RendererPolicyListener rendererPolicyListener;
     private GbpSubnetListener vppGbpSubnetListener;
     private GbpSubnetEventManager subnetEventManager;
+    private VppTaskScheduler taskScheduler;
+    private NetconfTransactionPipeline netconfPipeline;
 
     VppRenderer(@Nonnull DataBroker dataBroker, @Nonnull BindingAwareBroker bindingAwareBroker,
                        @Nullable String publicInterfaces) {
@@ -136,6 +141,13 @@ public class VppRenderer implements AutoCloseable, BindingAwareProvider {
         if (vppGbpSubnetListener != null) {
             vppGbpSubnetListener.close();
         }
+        if (netconfPipeline != null) {
+            GbpNetconfTransaction.setPipeline(null);
+            netconfPipeline.close();
+        }
+        if (taskScheduler != null) {
+            taskScheduler.close();
+        }
         unregisterFromRendererManager();
     }
 
@@ -146,7 +158,6 @@ public class VppRenderer implements AutoCloseable, BindingAwareProvider {
         MountPointService mountService =
                 Preconditions.checkNotNull(providerContext.getSALService(MountPointService.class));
         mountDataProvider = new MountedDataBrokerProvider(mountService, dataBroker);
-        VppNodeManager vppNodeManager = new VppNodeManager(dataBroker, providerContext, publicInterfaces);
         EventBus dtoEventBus = new EventBus((exception, context) -> LOG.error("Could not dispatch event: {} to {}",
                 context.getSubscriber(), context.getSubscriberMethod(), exception));
         vppEndpointListener = new VppEndpointListener(dataBroker, dtoEventBus);
@@ -155,7 +166,11 @@ public class VppRenderer implements AutoCloseable, BindingAwareProvider {
         LoopbackManager loopbackManager = new LoopbackManager();
 
         interfaceManager = new InterfaceManager(mountDataProvider, dataBroker);
-        AclManager aclManager = new AclManager(mountDataProvider, interfaceManager);
+        taskScheduler = new VppTaskScheduler(ConfigUtil.getInstance().getWorkerPoolSize(),
+                ConfigUtil.getInstance().getWorkerQueueLimit());
+        netconfPipeline = GbpNetconfTransaction.createPipeline(taskScheduler.getCommitExecutor());
+        GbpNetconfTransaction.setPipeline(netconfPipeline);
+        AclManager aclManager = new AclManager(mountDataProvider, interfaceManager, taskScheduler);
         NatManager natManager =
             (ConfigUtil.getInstance().isL3FlatEnabled()) ? new DvrNatImpl(dataBroker) : new CentralizedNatImpl(
                 dataBroker);
@@ -173,6 +188,8 @@ public class VppRenderer implements AutoCloseable, BindingAwareProvider {
             new VppRendererPolicyManager(fwManager, aclManager, dataBroker);
         dtoEventBus.register(vppRendererPolicyManager);
 
+        VppNodeManager vppNodeManager =
+                new VppNodeManager(dataBroker, providerContext, publicInterfaces, aclManager);
         vppNodeListener = new VppNodeListener(dataBroker, vppNodeManager, dtoEventBus);
         rendererPolicyListener = new RendererPolicyListener(dataBroker, dtoEventBus);
         vppGbpSubnetListener = new GbpSubnetListener(dataBroker, dtoEventBus);
@@ -21,6 +21,8 @@ public class ConfigUtil {
     private static final boolean DEFAULT_LISP_OVERLAY_ENABLED = false;
     private static final boolean DEFAULT_LISP_MAPREGISTER_ENABLED = true;
     private static final boolean DEFAULT_L3_FLAT_ENABLED = false;
+    private static final int DEFAULT_WORKER_POOL_SIZE = 8;
+    private static final int DEFAULT_WORKER_QUEUE_LIMIT = 1024;
     private static final String DEFAULT_TRUE_STRING_VALUE = "true";
     private static final String CONFIGURATION_VARIABLE_MESSAGE =
             "Configuration variable {} is being unset. Setting the variable to {}";
@@ -29,11 +31,15 @@ public class ConfigUtil {
     private boolean lispOverlayEnabled = DEFAULT_LISP_OVERLAY_ENABLED;
     private boolean lispMapRegisterEnabled = DEFAULT_LISP_MAPREGISTER_ENABLED;
     private boolean l3FlatEnabled = DEFAULT_L3_FLAT_ENABLED;
+    private int workerPoolSize = DEFAULT_WORKER_POOL_SIZE;
+    private int workerQueueLimit = DEFAULT_WORKER_QUEUE_LIMIT;
 
     static final String ODL_IP = "odl.ip";
     static final String LISP_OVERLAY_ENABLED = "gbp.lisp.enabled";
     static final String LISP_MAPREGISTER_ENABLED = "vpp.lisp.mapregister.enabled";
     static final String L3_FLAT_ENABLED = "vpp.l3.flat.enabled";
+    static final String WORKER_POOL_SIZE = "vpp.worker.pool.size";
+    static final String WORKER_QUEUE_LIMIT = "vpp.worker.queue.limit";
 
     private static final ConfigUtil INSTANCE = new ConfigUtil();
 
@@ -42,6 +48,8 @@ public class ConfigUtil {
         configureLispOverlayEnabled(null);
         configureMapRegister(null);
         configL3FlatEnabled(null);
+        configureWorkerPoolSize(null);
+        configureWorkerQueueLimit(null);
     }
 
     public static ConfigUtil getInstance() {
@@ -88,6 +96,32 @@ public class ConfigUtil {
         l3FlatEnabled = configStr.trim().equalsIgnoreCase(DEFAULT_TRUE_STRING_VALUE);
     }
 
+    void configureWorkerPoolSize(String configStr) {
+        workerPoolSize = parsePositiveInt(WORKER_POOL_SIZE, configStr, DEFAULT_WORKER_POOL_SIZE);
+    }
+
+    void configureWorkerQueueLimit(String configStr) {
+        workerQueueLimit = parsePositiveInt(WORKER_QUEUE_LIMIT, configStr, DEFAULT_WORKER_QUEUE_LIMIT);
+    }
+
+    private static int parsePositiveInt(String variable, String configStr, int defaultValue) {
+        if (configStr == null) {
+            LOG.debug(CONFIGURATION_VARIABLE_MESSAGE, variable, defaultValue);
+            return defaultValue;
+        }
+        try {
+            int value = Integer.parseInt(configStr.trim());
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+        LOG.warn("Configuration variable {} has invalid value {}. Setting the variable to {}", variable, configStr,
+                defaultValue);
+        return defaultValue;
+    }
+
     public IpAddress getOdlIp() {
         return odlTenantIp;
     }
@@ -107,4 +141,12 @@ public class ConfigUtil {
     public boolean isL3FlatEnabled() {
         return l3FlatEnabled;
     }
+
+    public int getWorkerPoolSize() {
+        return workerPoolSize;
+    }
+
+    public int getWorkerQueueLimit() {
+        return workerQueueLimit;
+    }
 }
@@ -76,5 +76,9 @@ public class ConfigurationService implements ManagedService{
                 overlayConfig -> configUtil.configureLispOverlayEnabled((String) overlayConfig));
         configMethods.put(ConfigUtil.L3_FLAT_ENABLED,
                 l3FlatConfig -> configUtil.configL3FlatEnabled((String) l3FlatConfig));
+        configMethods.put(ConfigUtil.WORKER_POOL_SIZE,
+                poolSize -> configUtil.configureWorkerPoolSize((String) poolSize));
+        configMethods.put(ConfigUtil.WORKER_QUEUE_LIMIT,
+                queueLimit -> configUtil.configureWorkerQueueLimit((String) queueLimit));
     }
 }
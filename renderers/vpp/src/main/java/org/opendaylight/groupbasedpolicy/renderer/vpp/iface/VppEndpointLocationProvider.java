@@ -14,6 +14,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -25,14 +26,13 @@ import org.opendaylight.controller.md.sal.binding.api.DataObjectModification;
 import org.opendaylight.controller.md.sal.binding.api.DataTreeIdentifier;
 import org.opendaylight.controller.md.sal.binding.api.DataTreeModification;
 import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
-import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.manager.VppNodeManager;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.CloseOnFailTransactionChain;
+import org.opendaylight.groupbasedpolicy.util.AsyncTransactionChain;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.groupbasedpolicy.util.EndpointUtils;
 import org.opendaylight.groupbasedpolicy.util.IidFactory;
-import org.opendaylight.groupbasedpolicy.util.SyncedChain;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.Endpoints;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.endpoints.AddressEndpoints;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.endpoints.address.endpoints.AddressEndpoint;
@@ -69,7 +69,7 @@ public class VppEndpointLocationProvider
     public static final ProviderName VPP_ENDPOINT_LOCATION_PROVIDER =
             new ProviderName("VPP endpoint location provider");
     public static final long PROVIDER_PRIORITY = 10L;
-    private final SyncedChain syncedChain;
+    private final AsyncTransactionChain txChain;
     private final Map<VppEndpointKey, VppEndpoint> vppEndpoints = new HashMap<>();
     private final Table<VppEndpointKey, AddressEndpointKey, AddressEndpoint> pendingAddrEndpoints =
             HashBasedTable.create();
@@ -81,12 +81,10 @@ public class VppEndpointLocationProvider
         LocationProvider locationProvider = new LocationProviderBuilder().setProvider(VPP_ENDPOINT_LOCATION_PROVIDER)
             .setPriority(PROVIDER_PRIORITY)
             .build();
-        syncedChain = new SyncedChain(checkNotNull(dataProvider).createTransactionChain(
+        txChain = new AsyncTransactionChain(checkNotNull(dataProvider).createTransactionChain(
                 new CloseOnFailTransactionChain(VppEndpointLocationProvider.class.getSimpleName())));
-        WriteTransaction wTx = syncedChain.newWriteOnlyTransaction();
-        wTx.put(LogicalDatastoreType.CONFIGURATION, IidFactory.locationProviderIid(VPP_ENDPOINT_LOCATION_PROVIDER),
-                locationProvider, true);
-        syncedChain.submitNow(wTx);
+        txChain.write(wTx -> wTx.put(LogicalDatastoreType.CONFIGURATION,
+                IidFactory.locationProviderIid(VPP_ENDPOINT_LOCATION_PROVIDER), locationProvider, true));
         registeredListener =
                 dataProvider.registerDataTreeChangeListener(
                         checkNotNull(
@@ -103,22 +101,25 @@ public class VppEndpointLocationProvider
         try {
             THREAD_LOCK.lock();
             change.forEach(dtm -> {
-                ReadWriteTransaction rwTx = syncedChain.newReadWriteTransaction();
-                DataObjectModification<AddressEndpoint> rootNode = dtm.getRootNode();
-                if (rootNode.getDataBefore() != null) {
-                    InstanceIdentifier<ProviderAddressEndpointLocation> iid =
-                            IidFactory.locationProviderIid(VPP_ENDPOINT_LOCATION_PROVIDER,
-                                    VppLocationUtils.locationProviderKey(rootNode.getDataBefore().getKey()));
-                    LOG.debug("Clearing location {}", iid);
-                    DataStoreHelper.removeIfExists(LogicalDatastoreType.CONFIGURATION, iid, rwTx);
+                ReadWriteTransaction rwTx = txChain.newReadWriteTransaction();
+                try {
+                    DataObjectModification<AddressEndpoint> rootNode = dtm.getRootNode();
+                    if (rootNode.getDataBefore() != null) {
+                        InstanceIdentifier<ProviderAddressEndpointLocation> iid =
+                                IidFactory.locationProviderIid(VPP_ENDPOINT_LOCATION_PROVIDER,
+                                        VppLocationUtils.locationProviderKey(rootNode.getDataBefore().getKey()));
+                        LOG.debug("Clearing location {}", iid);
+                        DataStoreHelper.removeIfExists(LogicalDatastoreType.CONFIGURATION, iid, rwTx);
+                    }
+                    if (rootNode.getDataAfter() != null && canCreateLocation(rootNode.getDataAfter())) {
+                        LOG.debug("Resolving location for {}", rootNode.getDataAfter().getKey());
+                        syncEndpointLocation(rwTx, rootNode.getDataAfter());
+                    }
+                } catch (RuntimeException e) {
+                    txChain.cancel(rwTx);
+                    throw e;
                 }
-                if (rootNode.getDataAfter() == null || !canCreateLocation(rootNode.getDataAfter())) {
-                    syncedChain.submitNow(rwTx);
-                    return;
-                }
-                LOG.debug("Resolving location for {}", rootNode.getDataAfter().getKey());
-                syncEndpointLocation(rwTx, rootNode.getDataAfter());
-                syncedChain.submitNow(rwTx);
+                txChain.submit(rwTx);
             });
         } catch (Exception e) {
             LOG.error("Failed to resolve location. {} ", e);
@@ -147,12 +148,17 @@ public class VppEndpointLocationProvider
             if (cachedAddrEp == null || cachedAddrEp.isEmpty()) {
                 return Futures.immediateFuture(null);
             }
-            ReadWriteTransaction rwTx = syncedChain.newReadWriteTransaction();
-            List<AddressEndpoint> result =
-                    cachedAddrEp.stream().filter(ep -> canCreateLocation(ep)).collect(Collectors.toList());
-            result.forEach(ep -> syncEndpointLocation(rwTx, ep));
-            result.forEach(ep -> pendingAddrEndpoints.remove(vppEndpoint.getKey(), ep.getKey()));
-            syncedChain.submitNow(rwTx);
+            ReadWriteTransaction rwTx = txChain.newReadWriteTransaction();
+            try {
+                List<AddressEndpoint> result =
+                        cachedAddrEp.stream().filter(ep -> canCreateLocation(ep)).collect(Collectors.toList());
+                result.forEach(ep -> syncEndpointLocation(rwTx, ep));
+                result.forEach(ep -> pendingAddrEndpoints.remove(vppEndpoint.getKey(), ep.getKey()));
+            } catch (RuntimeException e) {
+                txChain.cancel(rwTx);
+                throw e;
+            }
+            return txChain.submit(rwTx);
         } catch (Exception e) {
             LOG.error("Failed to resolve location for vpp endpoint {}. {}", vppEndpoint.getKey(), e);
         } finally {
@@ -182,24 +188,30 @@ public class VppEndpointLocationProvider
         try {
             InstanceIdentifier<ProviderAddressEndpointLocation> iid = IidFactory.locationProviderIid(
                     VPP_ENDPOINT_LOCATION_PROVIDER, VppLocationUtils.providerLocationKey(addrEpWithLocKey));
-            ReadWriteTransaction rwTx = syncedChain.newReadWriteTransaction();
-            Optional<ProviderAddressEndpointLocation> optLoc =
-                    DataStoreHelper.readFromDs(LogicalDatastoreType.CONFIGURATION, iid, rwTx);
-            if (!optLoc.isPresent() || optLoc.get().getAbsoluteLocation() == null) {
-                LOG.warn("No absolute location. Cannot modify bridge domain for endpoint {}.", addrEpWithLocKey);
-                // TODO failed future
-                syncedChain.submitNow(rwTx);
-                return Futures.immediateFuture(null);
+            ReadWriteTransaction rwTx = txChain.newReadWriteTransaction();
+            try {
+                Optional<ProviderAddressEndpointLocation> optLoc =
+                        DataStoreHelper.readFromDs(LogicalDatastoreType.CONFIGURATION, iid, rwTx);
+                if (!optLoc.isPresent() || optLoc.get().getAbsoluteLocation() == null) {
+                    LOG.warn("No absolute location. Cannot modify bridge domain for endpoint {}.", addrEpWithLocKey);
+                    // TODO failed future
+                    txChain.cancel(rwTx);
+                    return Futures.immediateFuture(null);
+                }
+                AbsoluteLocation absoluteLocation = optLoc.get().getAbsoluteLocation();
+                ProviderAddressEndpointLocation providerLocation = new ProviderAddressEndpointLocationBuilder()
+                    .setKey(iid.firstKeyOf(ProviderAddressEndpointLocation.class))
+                    .setAbsoluteLocation(
+                            new AbsoluteLocationBuilder(absoluteLocation).setLocationType(location).build())
+                    .build();
+                rwTx.put(LogicalDatastoreType.CONFIGURATION,
+                        IidFactory.locationProviderIid(VPP_ENDPOINT_LOCATION_PROVIDER, providerLocation.getKey()),
+                        providerLocation);
+            } catch (RuntimeException e) {
+                txChain.cancel(rwTx);
+                throw e;
             }
-            AbsoluteLocation absoluteLocation = optLoc.get().getAbsoluteLocation();
-            ProviderAddressEndpointLocation providerLocation = new ProviderAddressEndpointLocationBuilder()
-                .setKey(iid.firstKeyOf(ProviderAddressEndpointLocation.class))
-                .setAbsoluteLocation(new AbsoluteLocationBuilder(absoluteLocation).setLocationType(location).build())
-                .build();
-            rwTx.put(LogicalDatastoreType.CONFIGURATION,
-                    IidFactory.locationProviderIid(VPP_ENDPOINT_LOCATION_PROVIDER, providerLocation.getKey()),
-                    providerLocation);
-            syncedChain.submitNow(rwTx);
+            return txChain.submit(rwTx);
         } catch (Exception e) {
             LOG.error("Failed to replace location for endpoint {}", addrEpWithLocKey);
         } finally {
@@ -227,9 +239,17 @@ public class VppEndpointLocationProvider
     @Override
     public void close() {
         registeredListener.close();
-        WriteTransaction wTx = syncedChain.newWriteOnlyTransaction();
-        wTx.delete(LogicalDatastoreType.CONFIGURATION, IidFactory.locationProviderIid(VPP_ENDPOINT_LOCATION_PROVIDER));
-        syncedChain.submitNow(wTx);
+        ListenableFuture<Void> deleted = txChain.write(wTx -> wTx.delete(LogicalDatastoreType.CONFIGURATION,
+                IidFactory.locationProviderIid(VPP_ENDPOINT_LOCATION_PROVIDER)));
+        try {
+            deleted.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOG.warn("Failed to remove location provider {}", VPP_ENDPOINT_LOCATION_PROVIDER.getValue(), e);
+        } finally {
+            txChain.close();
+        }
     }
 
     private abstract class LocationWriter {
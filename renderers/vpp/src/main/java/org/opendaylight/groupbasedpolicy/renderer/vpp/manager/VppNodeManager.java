@@ -35,6 +35,7 @@ import org.opendaylight.controller.sal.binding.api.BindingAwareBroker;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.lisp.info.container.HostRelatedInfoContainer;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.lisp.info.container.states.PhysicalInterfaces;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.nat.NatUtil;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.policy.acl.AclManager;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.MountedDataBrokerProvider;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.VppIidFactory;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.VppRendererProcessingException;
@@ -94,9 +95,20 @@ public class VppNodeManager {
     private final MountPointService mountService;
     private final HostRelatedInfoContainer hostRelatedInfoContainer = HostRelatedInfoContainer.getInstance();
     private final MountedDataBrokerProvider mountProvider;
+    private final AclManager aclManager;
 
     public VppNodeManager(@Nonnull final DataBroker dataBroker,
             @Nonnull final BindingAwareBroker.ProviderContext session, @Nullable String physicalInterfaces) {
+        this(dataBroker, session, physicalInterfaces, null);
+    }
+
+    /**
+     * @param aclManager forgets access list entries of nodes which are removed, disconnected or mounted again
+     */
+    public VppNodeManager(@Nonnull final DataBroker dataBroker,
+            @Nonnull final BindingAwareBroker.ProviderContext session, @Nullable String physicalInterfaces,
+            @Nullable AclManager aclManager) {
+        this.aclManager = aclManager;
         this.dataBroker = Preconditions.checkNotNull(dataBroker);
         this.mountService = Preconditions.checkNotNull(session.getSALService(MountPointService.class));
         this.mountProvider = new MountedDataBrokerProvider(mountService, dataBroker);
@@ -229,6 +241,8 @@ public class VppNodeManager {
         final String nodeId = node.getNodeId().getValue();
         final InstanceIdentifier<Node> mountPointIid = getMountpointIid(node);
         final RendererNode rendererNode = remapNode(mountPointIid);
+        // node might have been mounted again, previously programmed content is not known
+        forgetNodeState(node);
         if (!isCapableNetconfDevice(node, netconfNode)) {
             final String message = String.format("Node %s is not connected", nodeId);
             return Futures.immediateFuture(message);
@@ -255,6 +269,7 @@ public class VppNodeManager {
     private ListenableFuture<String> resolveDisconnectedNode(final Node node, final String cause) {
         final InstanceIdentifier<Node> mountPointIid = getMountpointIid(node);
         final RendererNode rendererNode = remapNode(mountPointIid);
+        forgetNodeState(node);
         final WriteTransaction wTx = dataBroker.newWriteOnlyTransaction();
         wTx.delete(LogicalDatastoreType.OPERATIONAL, VppIidFactory.getRendererNodeIid(rendererNode));
         final CheckedFuture<Void, TransactionCommitFailedException> checkedFuture = wTx.submit();
@@ -268,6 +283,12 @@ public class VppNodeManager {
         }
     }
 
+    private void forgetNodeState(final Node node) {
+        if (aclManager != null) {
+            aclManager.nodeRemoved(node.getNodeId());
+        }
+    }
+
     private RendererNode remapNode(final InstanceIdentifier<Node> path) {
         final RendererNodeBuilder rendererNodeBuilder = new RendererNodeBuilder();
         rendererNodeBuilder.setKey(new RendererNodeKey(path)).setNodePath(path);
@@ -509,10 +509,18 @@ public final class ForwardingManager {
     }
 
     void syncRouting(PolicyContext policyCtx) {
+        syncRouting(policyCtx, null);
+    }
+
+    /**
+     * @param policyCtx policy context with forwarding
+     * @param tenants tenants for which routing is applied, all tenants if {@code null}
+     */
+    void syncRouting(PolicyContext policyCtx, @Nullable Set<TenantId> tenants) {
         Configuration cfg = policyCtx.getPolicy().getConfiguration();
         if (cfg != null && cfg.getRendererForwarding() != null) {
             for (RendererForwardingByTenant fwd : cfg.getRendererForwarding().getRendererForwardingByTenant()) {
-                if (fwd == null) {
+                if (fwd == null || (tenants != null && !tenants.contains(fwd.getTenantId()))) {
                     continue;
                 }
 
@@ -531,10 +539,18 @@ public final class ForwardingManager {
     }
 
     void deleteRouting(PolicyContext policyCtx) {
+        deleteRouting(policyCtx, null);
+    }
+
+    /**
+     * @param policyCtx policy context with forwarding
+     * @param tenants tenants for which routing is removed, all tenants if {@code null}
+     */
+    void deleteRouting(PolicyContext policyCtx, @Nullable Set<TenantId> tenants) {
         Configuration cfg = policyCtx.getPolicy().getConfiguration();
         if (cfg != null && cfg.getRendererForwarding() != null) {
             for (RendererForwardingByTenant fwd : cfg.getRendererForwarding().getRendererForwardingByTenant()) {
-                if (fwd == null) {
+                if (fwd == null || (tenants != null && !tenants.contains(fwd.getTenantId()))) {
                     continue;
                 }
                 List<InstanceIdentifier<PhysicalInterface>>
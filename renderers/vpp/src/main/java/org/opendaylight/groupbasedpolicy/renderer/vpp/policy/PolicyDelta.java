@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.vpp.policy;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.KeyFactory;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.has.absolute.location.absolute.location.location.type.ExternalLocationCase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.NatAddressRenderer;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.RendererPolicy;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.endpoints.AddressEndpointWithLocation;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.renderer.endpoints.RendererEndpointKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.renderer.forwarding.RendererForwardingByTenant;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.rule.groups.RuleGroupKey;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.MapDifference;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Sets.SetView;
+
+/**
+ * Difference between two versions of renderer policy. Each part of the difference is resolved once so that
+ * only affected end-points, rule groups and tenants are processed by the renderer.
+ */
+final class PolicyDelta {
+
+    private final SetView<RendererEndpointKey> removedEndpoints;
+    private final SetView<RendererEndpointKey> createdEndpoints;
+    private final ImmutableSet<RendererEndpointKey> movedEndpoints;
+    private final SetView<RuleGroupKey> removedRuleGroups;
+    private final SetView<RuleGroupKey> createdRuleGroups;
+    private final ImmutableSet<TenantId> removedForwarding;
+    private final ImmutableSet<TenantId> createdForwarding;
+    private final ImmutableSet<TenantId> routingTenants;
+    private final boolean natChanged;
+
+    PolicyDelta(@Nonnull PolicyContext before, @Nonnull PolicyContext after) {
+        ImmutableSet<RendererEndpointKey> rendEpsBefore = before.getPolicyTable().rowKeySet();
+        ImmutableSet<RendererEndpointKey> rendEpsAfter = after.getPolicyTable().rowKeySet();
+        removedEndpoints = Sets.difference(rendEpsBefore, rendEpsAfter);
+        createdEndpoints = Sets.difference(rendEpsAfter, rendEpsBefore);
+        movedEndpoints = Sets.intersection(rendEpsBefore, rendEpsAfter)
+            .stream()
+            .filter(rEpKey -> isLocationChanged(before.getAddrEpByKey().get(KeyFactory.addressEndpointKey(rEpKey)),
+                    after.getAddrEpByKey().get(KeyFactory.addressEndpointKey(rEpKey))))
+            .collect(Collectors.collectingAndThen(Collectors.toSet(), ImmutableSet::copyOf));
+
+        // rule groups with changed content are removed and created again
+        MapDifference<RuleGroupKey, ResolvedRuleGroup> ruleGroupDiff =
+                Maps.difference(before.getRuleGroupByKey(), after.getRuleGroupByKey());
+        Set<RuleGroupKey> changedRuleGroups = ruleGroupDiff.entriesDiffering().keySet();
+        removedRuleGroups = Sets.union(ruleGroupDiff.entriesOnlyOnLeft().keySet(), changedRuleGroups);
+        createdRuleGroups = Sets.union(ruleGroupDiff.entriesOnlyOnRight().keySet(), changedRuleGroups);
+
+        MapDifference<TenantId, RendererForwardingByTenant> forwardingDiff =
+                Maps.difference(forwardingByTenant(before.getPolicy()), forwardingByTenant(after.getPolicy()));
+        removedForwarding = ImmutableSet.<TenantId>builder()
+            .addAll(forwardingDiff.entriesOnlyOnLeft().keySet())
+            .addAll(forwardingDiff.entriesDiffering().keySet())
+            .build();
+        createdForwarding = ImmutableSet.<TenantId>builder()
+            .addAll(forwardingDiff.entriesOnlyOnRight().keySet())
+            .addAll(forwardingDiff.entriesDiffering().keySet())
+            .build();
+
+        // routes are put on nodes with a physical interface in the external subnet, these are read from renderer
+        // nodes and are not part of the policy; created or moved end-points may come with such a new node
+        routingTenants = ImmutableSet.<TenantId>builder()
+            .addAll(createdForwarding)
+            .addAll(tenantsOf(Sets.union(createdEndpoints, movedEndpoints), after))
+            .build();
+
+        // dynamic NAT entries are resolved from forwarding, NAT is resynced as a whole when this is set
+        natChanged = !forwardingDiff.areEqual() || !natEndpoints(before).equals(natEndpoints(after));
+    }
+
+    private static Map<TenantId, RendererForwardingByTenant> forwardingByTenant(RendererPolicy policy) {
+        if (policy.getConfiguration() == null || policy.getConfiguration().getRendererForwarding() == null
+                || policy.getConfiguration().getRendererForwarding().getRendererForwardingByTenant() == null) {
+            return ImmutableMap.of();
+        }
+        return policy.getConfiguration()
+            .getRendererForwarding()
+            .getRendererForwardingByTenant()
+            .stream()
+            .filter(Objects::nonNull)
+            .collect(Collectors.toMap(RendererForwardingByTenant::getTenantId, fwd -> fwd, (fwd1, fwd2) -> fwd2));
+    }
+
+    private static Set<TenantId> tenantsOf(Set<RendererEndpointKey> rEpKeys, PolicyContext ctx) {
+        return rEpKeys.stream()
+            .map(rEpKey -> ctx.getAddrEpByKey().get(KeyFactory.addressEndpointKey(rEpKey)))
+            .filter(addrEp -> addrEp != null && addrEp.getTenant() != null)
+            .map(AddressEndpointWithLocation::getTenant)
+            .collect(Collectors.toSet());
+    }
+
+    private static Set<AddressEndpointWithLocation> natEndpoints(PolicyContext ctx) {
+        return ctx.getAddrEpByKey()
+            .values()
+            .stream()
+            .filter(addrEp -> addrEp.getAugmentation(NatAddressRenderer.class) != null)
+            .collect(Collectors.toSet());
+    }
+
+    static boolean isLocationChanged(AddressEndpointWithLocation before, AddressEndpointWithLocation after) {
+        ExternalLocationCase locationBefore = ForwardingManager.resolveAndValidateLocation(before);
+        ExternalLocationCase locationAfter = ForwardingManager.resolveAndValidateLocation(after);
+        if (locationBefore == null && locationAfter == null) {
+            return false;
+        }
+        if (locationBefore == null || locationAfter == null) {
+            return true;
+        }
+        return !locationBefore.equals(locationAfter);
+    }
+
+    SetView<RendererEndpointKey> getRemovedEndpoints() {
+        return removedEndpoints;
+    }
+
+    SetView<RendererEndpointKey> getCreatedEndpoints() {
+        return createdEndpoints;
+    }
+
+    /**
+     * @return end-points present in both versions with changed location
+     */
+    ImmutableSet<RendererEndpointKey> getMovedEndpoints() {
+        return movedEndpoints;
+    }
+
+    /**
+     * @return rule groups removed or changed
+     */
+    SetView<RuleGroupKey> getRemovedRuleGroups() {
+        return removedRuleGroups;
+    }
+
+    /**
+     * @return rule groups created or changed
+     */
+    SetView<RuleGroupKey> getCreatedRuleGroups() {
+        return createdRuleGroups;
+    }
+
+    /**
+     * @return tenants with removed or changed forwarding
+     */
+    ImmutableSet<TenantId> getRemovedForwarding() {
+        return removedForwarding;
+    }
+
+    /**
+     * @return tenants with created or changed forwarding
+     */
+    ImmutableSet<TenantId> getCreatedForwarding() {
+        return createdForwarding;
+    }
+
+    /**
+     * @return tenants with created or changed forwarding or with created or moved end-points
+     */
+    ImmutableSet<TenantId> getRoutingTenants() {
+        return routingTenants;
+    }
+
+    boolean isForwardingChanged() {
+        return !removedForwarding.isEmpty() || !createdForwarding.isEmpty();
+    }
+
+    /**
+     * @return true if NAT entries may differ between the versions
+     */
+    boolean isNatChanged() {
+        return natChanged;
+    }
+
+    @Override
+    public String toString() {
+        return "PolicyDelta [removedEndpoints=" + removedEndpoints + ", createdEndpoints=" + createdEndpoints
+                + ", movedEndpoints=" + movedEndpoints + ", removedRuleGroups=" + removedRuleGroups
+                + ", createdRuleGroups=" + createdRuleGroups + ", removedForwarding=" + removedForwarding
+                + ", createdForwarding=" + createdForwarding + ", routingTenants=" + routingTenants + ", natChanged="
+                + natChanged + "]";
+    }
+}
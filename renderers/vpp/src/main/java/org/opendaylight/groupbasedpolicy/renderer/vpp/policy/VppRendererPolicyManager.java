@@ -36,7 +36,6 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpo
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.RendererPolicy;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.RendererPolicyBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.RendererForwarding;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.endpoints.AddressEndpointWithLocation;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.renderer.endpoints.RendererEndpointKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.rule.groups.RuleGroupKey;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
@@ -114,8 +113,15 @@ public class VppRendererPolicyManager {
         PolicyContext policyCtxBefore = new PolicyContext(rPolicyBefore);
         PolicyContext policyCtxAfter = new PolicyContext(rPolicyAfter);
         aclManager.cacheEndpointsByInterfaces(policyCtxAfter);
+        PolicyDelta delta = new PolicyDelta(policyCtxBefore, policyCtxAfter);
+        LOG.debug("Renderer policy version {} -> {}: {}", rPolicyBefore.getVersion(), rPolicyAfter.getVersion(),
+                delta);
+        SetMultimap<String, NodeId> vppNodesByL2FdBefore =
+                resolveVppNodesByL2Fd(policyCtxBefore.getPolicyTable().rowKeySet(), policyCtxBefore);
+        SetMultimap<String, NodeId> vppNodesByL2FdAfter =
+                resolveVppNodesByL2Fd(policyCtxAfter.getPolicyTable().rowKeySet(), policyCtxAfter);
         MapDifference<String, Collection<NodeId>> vppNodesByL2FlDiff =
-                createDiffForVppNodesByL2Fd(policyCtxBefore, policyCtxAfter);
+                Maps.difference(vppNodesByL2FdBefore.asMap(), vppNodesByL2FdAfter.asMap());
         SetMultimap<String, NodeId> removedVppNodesByL2Fd = HashMultimap.create();
         SetMultimap<String, NodeId> createdVppNodesByL2Fd = HashMultimap.create();
         for (Entry<String, ValueDifference<Collection<NodeId>>> entry : vppNodesByL2FlDiff.entriesDiffering()
@@ -151,97 +157,52 @@ public class VppRendererPolicyManager {
             }
         }
 
-        ImmutableSet<RendererEndpointKey> rendEpsBefore = policyCtxBefore.getPolicyTable().rowKeySet();
-        ImmutableSet<RendererEndpointKey> rendEpsAfter = policyCtxAfter.getPolicyTable().rowKeySet();
-
-        SetView<RendererEndpointKey> removedRendEps = Sets.difference(rendEpsBefore, rendEpsAfter);
-        removedRendEps.forEach(rEpKey -> fwManager.removeForwardingForEndpoint(rEpKey, policyCtxBefore));//TODO
+        delta.getRemovedEndpoints()
+            .forEach(rEpKey -> fwManager.removeForwardingForEndpoint(rEpKey, policyCtxBefore));//TODO
 
         if (!ConfigUtil.getInstance().isL3FlatEnabled()) {
             LOG.debug("Removing bridge domains on nodes {}", removedVppNodesByL2Fd);
             fwManager.removeBridgeDomainOnNodes(removedVppNodesByL2Fd);
             LOG.debug("Creating bridge domains on nodes {}", createdVppNodesByL2Fd);
             fwManager.createBridgeDomainOnNodes(createdVppNodesByL2Fd);
-        } else {
+        } else if (delta.isForwardingChanged() || !vppNodesByL2FlDiff.areEqual()) {
             List<DhcpRelayCommand> deletedDhcpRelays = new ArrayList<>();
             List<DhcpRelayCommand> createdDhcpRelays = new ArrayList<>();
-            if (rPolicyBefore.getConfiguration() != null) {
+            if (rPolicyBefore.getConfiguration() != null && !vppNodesByL2FdBefore.isEmpty()) {
                 RendererForwarding rendererForwardingBefore = rPolicyBefore.getConfiguration().getRendererForwarding();
-
-                SetMultimap<String, NodeId> vppNodesByL2FdBefore =
-                        resolveVppNodesByL2Fd(policyCtxBefore.getPolicyTable().rowKeySet(), policyCtxBefore);
-                if (!vppNodesByL2FdBefore.isEmpty()) {
-                    deletedDhcpRelays = fwManager.deleteDhcpRelay(rendererForwardingBefore, vppNodesByL2FdBefore);
-                }
+                deletedDhcpRelays = fwManager.deleteDhcpRelay(rendererForwardingBefore, vppNodesByL2FdBefore);
             }
-
-            if (rPolicyAfter.getConfiguration() != null) {
+            if (rPolicyAfter.getConfiguration() != null && !vppNodesByL2FdAfter.isEmpty()) {
                 RendererForwarding rendererForwardingAfter = rPolicyAfter.getConfiguration().getRendererForwarding();
-                SetMultimap<String, NodeId> vppNodesByL2FdAfter =
-                        resolveVppNodesByL2Fd(policyCtxAfter.getPolicyTable().rowKeySet(), policyCtxAfter);
-                if (!vppNodesByL2FdAfter.isEmpty()) {
-                    createdDhcpRelays = fwManager.createDhcpRelay(rendererForwardingAfter, vppNodesByL2FdAfter);
-                }
+                createdDhcpRelays = fwManager.createDhcpRelay(rendererForwardingAfter, vppNodesByL2FdAfter);
             }
-
             fwManager.syncDhcpRelay(createdDhcpRelays, deletedDhcpRelays);
         }
 
-        fwManager.syncNatEntries(policyCtxBefore, policyCtxAfter);
-        fwManager.deleteRouting(policyCtxBefore);
-        fwManager.syncRouting(policyCtxAfter);
+        if (delta.isNatChanged()) {
+            // NAT instance of a node holds entries of all tenants and is written as a whole, so it is not scoped
+            fwManager.syncNatEntries(policyCtxBefore, policyCtxAfter);
+        }
+        if (delta.isForwardingChanged()) {
+            fwManager.deleteRouting(policyCtxBefore, delta.getRemovedForwarding());
+        }
+        if (!delta.getRoutingTenants().isEmpty()) {
+            fwManager.syncRouting(policyCtxAfter, delta.getRoutingTenants());
+        }
 
-        SetView<RendererEndpointKey> createdRendEps = Sets.difference(rendEpsAfter, rendEpsBefore);
-        createdRendEps.forEach(rEpKey -> fwManager.createForwardingForEndpoint(rEpKey, policyCtxAfter));//TODO
+        delta.getCreatedEndpoints()
+            .forEach(rEpKey -> fwManager.createForwardingForEndpoint(rEpKey, policyCtxAfter));//TODO
 
-        SetView<RendererEndpointKey> updatedRendEps = Sets.intersection(rendEpsBefore, rendEpsAfter);
         // update forwarding for endpoint
-        updatedRendEps.forEach(rEpKey -> {
-            AddressEndpointWithLocation addrEpWithLocBefore =
-                    policyCtxBefore.getAddrEpByKey().get(KeyFactory.addressEndpointKey(rEpKey));
-            AddressEndpointWithLocation addrEpWithLocAfter =
-                    policyCtxAfter.getAddrEpByKey().get(KeyFactory.addressEndpointKey(rEpKey));
-            if (isLocationChanged(addrEpWithLocBefore, addrEpWithLocAfter)) {
-                LOG.debug("Location is changed in endpoint {}", rEpKey);
-                LOG.debug("\nLocation before: {}\nLocation after: {}", addrEpWithLocBefore.getAbsoluteLocation(),
-                        addrEpWithLocAfter.getAbsoluteLocation());
-                fwManager.removeForwardingForEndpoint(rEpKey, policyCtxBefore);
-                fwManager.createForwardingForEndpoint(rEpKey, policyCtxAfter);
-            }
+        delta.getMovedEndpoints().forEach(rEpKey -> {
+            LOG.debug("Location is changed in endpoint {}", rEpKey);
+            fwManager.removeForwardingForEndpoint(rEpKey, policyCtxBefore);
+            fwManager.createForwardingForEndpoint(rEpKey, policyCtxAfter);
         });
-        ImmutableSet<RuleGroupKey> rulesBefore = policyCtxAfter.getRuleGroupByKey().keySet();
-        ImmutableSet<RuleGroupKey> rulesAfter = policyCtxBefore.getRuleGroupByKey().keySet();
-        SetView<RuleGroupKey> removedRules = Sets.difference(rulesAfter, rulesBefore);
-        SetView<RuleGroupKey> createdRules = Sets.difference(rulesBefore, rulesAfter);
-        LOG.debug("Updated rules: {}", Sets.intersection(rulesBefore, rulesAfter));
-        LOG.debug("Removed rules {}", removedRules);
-        LOG.debug("Created rules {}", createdRules);
-        LOG.debug("Updated renderer endpoints {}", updatedRendEps);
-        LOG.debug("Created renderer endpoints {}", createdRendEps);
-        LOG.debug("Updated renderer endpoints {}", updatedRendEps);
-        aclManager.resolveRulesToConfigure(policyCtxBefore, removedRendEps, removedRules, false);
-        aclManager.resolveRulesToConfigure(policyCtxAfter, createdRendEps, createdRules, true);
-    }
-
-    private static boolean isLocationChanged(AddressEndpointWithLocation before, AddressEndpointWithLocation after) {
-        ExternalLocationCase locationBefore = ForwardingManager.resolveAndValidateLocation(before);
-        ExternalLocationCase locationAfter = ForwardingManager.resolveAndValidateLocation(after);
-        if (locationBefore == null && locationAfter == null) {
-            return false;
-        }
-        if (locationBefore == null || locationAfter == null) {
-            return true;
-        }
-        return !locationBefore.equals(locationAfter);
-    }
-
-    private static MapDifference<String, Collection<NodeId>> createDiffForVppNodesByL2Fd(PolicyContext policyCtxBefore,
-                                                                                         PolicyContext policyCtxAfter) {
-        ImmutableSet<RendererEndpointKey> rendEpsBefore = policyCtxBefore.getPolicyTable().rowKeySet();
-        ImmutableSet<RendererEndpointKey> rendEpsAfter = policyCtxAfter.getPolicyTable().rowKeySet();
-        SetMultimap<String, NodeId> vppNodesByL2FdBefore = resolveVppNodesByL2Fd(rendEpsBefore, policyCtxBefore);
-        SetMultimap<String, NodeId> vppNodesByL2FdAfter = resolveVppNodesByL2Fd(rendEpsAfter, policyCtxAfter);
-        return Maps.difference(vppNodesByL2FdBefore.asMap(), vppNodesByL2FdAfter.asMap());
+        aclManager.resolveRulesToConfigure(policyCtxBefore, delta.getRemovedEndpoints(),
+                delta.getRemovedRuleGroups(), false);
+        aclManager.resolveRulesToConfigure(policyCtxAfter, delta.getCreatedEndpoints(),
+                delta.getCreatedRuleGroups(), true);
     }
 
     private void rendererPolicyCreated(RendererPolicy rPolicy) {
@@ -17,6 +17,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
 
@@ -25,6 +26,7 @@ import org.opendaylight.groupbasedpolicy.renderer.util.AddressEndpointUtils;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.policy.PolicyContext;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.policy.RendererResolvedPolicy;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.sf.SubjectFeatures;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160708.access.lists.acl.access.list.entries.AceKey;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160708.access.lists.acl.access.list.entries.ace.Actions;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160708.access.lists.acl.access.list.entries.ace.ActionsBuilder;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160708.access.lists.acl.access.list.entries.ace.actions.packet.handling.PermitBuilder;
@@ -279,6 +281,17 @@ public class AccessListUtil {
         return null;
     }
 
+    /**
+     * @return true if the entry denies traffic to domain subnets or permits external traffic, such entries are
+     *         kept behind entries resolved from policy
+     */
+    static boolean isDomainBoundaryEntry(@Nonnull AceKey aceKey) {
+        String name = aceKey.getRuleName();
+        return name != null && (name.equals(PERMIT_EXTERNAL_INGRESS) || name.equals(PERMIT_EXTERNAL_EGRESS)
+                || Stream.of(DENY_INGRESS_IPV4, DENY_INGRESS_IPV6, DENY_EGRESS_IPV4, DENY_EGRESS_IPV6)
+                    .anyMatch(prefix -> name.startsWith(prefix + UNDERSCORE)));
+    }
+
     /**
      * Helps stripping address part of a CIDR
      */
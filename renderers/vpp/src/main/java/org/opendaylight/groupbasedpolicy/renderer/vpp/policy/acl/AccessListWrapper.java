@@ -25,6 +25,7 @@ import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.cont
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.interfaces.rev140508.interfaces.Interface;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.interfaces.rev140508.interfaces.InterfaceKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.vpp.acl.rev170615.VppAcl;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +34,7 @@ public abstract class AccessListWrapper {
 
     private static final Logger LOG = LoggerFactory.getLogger(AccessListWrapper.class);
     private List<GbpAceBuilder> rules;
+    private AclShadow shadow;
 
     public AccessListWrapper() {
         rules = new ArrayList<>();
@@ -54,6 +56,13 @@ public abstract class AccessListWrapper {
         return rules;
     }
 
+    /**
+     * @param shadow of programmed entries to be updated when the access list is written
+     */
+    void setShadow(@Nullable AclShadow shadow) {
+        this.shadow = shadow;
+    }
+
     protected String resolveAclName(InterfaceKey key) {
         return key.getName() + getDirection();
     }
@@ -83,6 +92,14 @@ public abstract class AccessListWrapper {
         if (!write) {
             LOG.error("Failed to write rule {}", builtAcl);
         }
+        if (shadow != null) {
+            NodeId nodeId = vppIid.firstKeyOf(Node.class).getNodeId();
+            if (write) {
+                shadow.aclWritten(nodeId, builtAcl);
+            } else {
+                shadow.aclRemoved(nodeId, builtAcl.getKey());
+            }
+        }
     }
 
     public static void removeAclsForInterface(@Nonnull InstanceIdentifier<Node> vppIid,
@@ -10,13 +10,12 @@ package org.opendaylight.groupbasedpolicy.renderer.vpp.policy.acl;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -35,7 +34,7 @@ import org.opendaylight.groupbasedpolicy.renderer.vpp.util.GbpNetconfTransaction
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.KeyFactory;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.MountedDataBrokerProvider;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.VppIidFactory;
-import org.opendaylight.groupbasedpolicy.util.EndpointUtils;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.VppTaskScheduler;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160708.access.lists.AclKey;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160708.access.lists.acl.AccessListEntries;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160708.access.lists.acl.access.list.entries.Ace;
@@ -61,21 +60,19 @@ import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.HashMultimap;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.ImmutableTable.Builder;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
-import com.google.common.collect.Sets;
 import com.google.common.collect.Sets.SetView;
 import com.google.common.collect.Table;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 
@@ -84,31 +81,63 @@ public class AclManager {
     private static final Logger LOG = LoggerFactory.getLogger(AclManager.class);
     private final MountedDataBrokerProvider mountDataProvider;
 
-    private static ImmutableTable<NodeId, InterfaceKey, ImmutableSet<AddressEndpointKey>> endpointsByInterface;
+    private final EndpointsByInterfaceIndex endpointsByInterface = new EndpointsByInterfaceIndex();
+    private final AclShadow aclShadow = new AclShadow();
     private final InterfaceManager interfaceManager;
-    ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(30));
+    private final VppTaskScheduler scheduler;
 
-    public AclManager(@Nonnull MountedDataBrokerProvider mountDataProvider, InterfaceManager interfaceManager) {
+    public AclManager(@Nonnull MountedDataBrokerProvider mountDataProvider, InterfaceManager interfaceManager,
+            @Nonnull VppTaskScheduler scheduler) {
         this.mountDataProvider = Preconditions.checkNotNull(mountDataProvider);
         this.interfaceManager = Preconditions.checkNotNull(interfaceManager);
+        this.scheduler = Preconditions.checkNotNull(scheduler);
     }
 
+    /**
+     * Resolves ACLs of the interface of renderer endpoint. Resolution is executed in order with other ACL
+     * updates for the node of the endpoint.
+     */
     public ListenableFuture<List<AccessListWrapper>> resolveAclsOnInterface(RendererEndpointKey rEpKey,
             PolicyContext ctx) {
         Callable<List<AccessListWrapper>> aclBuildExecutor = new Callable<List<AccessListWrapper>>() {
 
             @Override
             public List<AccessListWrapper> call() throws Exception {
-                LOG.info("Resolving ACL for renderer endpoint {}", rEpKey);
-                List<AccessListWrapper> aclWrappers = new ArrayList<>();
-                for (ACE_DIRECTION dir : new ACE_DIRECTION[] {ACE_DIRECTION.INGRESS, ACE_DIRECTION.EGRESS}) {
-                    aclWrappers.add(buildAccessListWrappers(dir, ctx, rEpKey));
-                }
-                return aclWrappers;
+                return buildAccessListWrappers(ctx, rEpKey);
             }
         };
-        ListenableFuture<List<AccessListWrapper>> accessListFuture = executor.submit(aclBuildExecutor);
-        return accessListFuture;
+        Optional<NodeId> nodeId = resolveNodeId(rEpKey, ctx);
+        if (!nodeId.isPresent()) {
+            return scheduler.submit(aclBuildExecutor);
+        }
+        return scheduler.submit(nodeId.get(), aclBuildExecutor);
+    }
+
+    private Optional<NodeId> resolveNodeId(RendererEndpointKey rEpKey, PolicyContext ctx) {
+        AddressEndpointWithLocation addrEp = ctx.getAddrEpByKey().get(KeyFactory.addressEndpointKey(rEpKey));
+        if (addrEp == null) {
+            return Optional.absent();
+        }
+        ExternalLocationCase epLoc;
+        try {
+            epLoc = InterfaceManager.resolveAndValidateLocation(addrEp);
+        } catch (NullPointerException | IllegalArgumentException e) {
+            return Optional.absent();
+        }
+        if (epLoc.getExternalNodeMountPoint() == null
+                || epLoc.getExternalNodeMountPoint().firstKeyOf(Node.class) == null) {
+            return Optional.absent();
+        }
+        return Optional.of(epLoc.getExternalNodeMountPoint().firstKeyOf(Node.class).getNodeId());
+    }
+
+    private List<AccessListWrapper> buildAccessListWrappers(PolicyContext ctx, RendererEndpointKey rEpKey) {
+        LOG.info("Resolving ACL for renderer endpoint {}", rEpKey);
+        List<AccessListWrapper> aclWrappers = new ArrayList<>();
+        for (ACE_DIRECTION dir : new ACE_DIRECTION[] {ACE_DIRECTION.INGRESS, ACE_DIRECTION.EGRESS}) {
+            aclWrappers.add(buildAccessListWrappers(dir, ctx, rEpKey));
+        }
+        return aclWrappers;
     }
 
     /**
@@ -118,12 +147,13 @@ public class AclManager {
      * @param rEpKey key of EP for which to create ACLs.
      * @return synchronization futures, so that INGRESS and EGRESS ACLS can be resolved in parallel.
      */
-    private static AccessListWrapper buildAccessListWrappers(ACE_DIRECTION policyDirection, PolicyContext ctx,
+    private AccessListWrapper buildAccessListWrappers(ACE_DIRECTION policyDirection, PolicyContext ctx,
             RendererEndpointKey rEpKey) {
         LOG.trace("Resolving policy for VPP renderer endpoint {} in a separate thread in {} direction.", rEpKey,
                 policyDirection);
         AccessListWrapper aclWrapper = AccessListUtil.ACE_DIRECTION.INGRESS
             .equals(policyDirection) ? new IngressAccessListWrapper() : new EgressAccessListWrapper();
+        aclWrapper.setShadow(aclShadow);
         AccessListUtil.configureLocalRules(ctx, rEpKey, policyDirection, aclWrapper);
         // we support multiple IP end-points on a same interface
         for (AddressEndpointKey aek : otherEndpointsOnTheSameInterface(ctx,
@@ -202,6 +232,10 @@ public class AclManager {
                     intfcs.stream().forEach(intf -> {
                         if (!write && changedEndpoints.contains(bean.epKey)) {
                             AccessListWrapper.removeAclsForInterface(VppIidFactory.getNetconfNodeIid(nodeId), intf);
+                            for (ACE_DIRECTION dir : new ACE_DIRECTION[] {ACE_DIRECTION.INGRESS,
+                                    ACE_DIRECTION.EGRESS}) {
+                                aclShadow.aclRemoved(nodeId, new AclKey(getIntfName.apply(intf) + dir, VppAcl.class));
+                            }
                             return;
                         }
                         AclKey aclKey = new AclKey(getIntfName.apply(intf) + bean.aceDirection, VppAcl.class);
@@ -224,15 +258,27 @@ public class AclManager {
                     });
                 });
         });
-        updateRules(ImmutableTable.copyOf(aceTable), write);
+        // updates of a node are executed in order of submission, no need to wait for each of them
+        List<ListenableFuture<Void>> sync = new ArrayList<>();
+        SetMultimap<NodeId, AclKey> appended = Multimaps.synchronizedSetMultimap(HashMultimap.create());
+        sync.addAll(updateRules(ImmutableTable.copyOf(aceTable), write, appended));
         if (write) {
             // to avoid empty ACL (IllegalStateArgument on HC), rules have to be updated gently
-            updateRules(ImmutableTable.copyOf(denyTenantTraffic), false);
-            updateRules(ImmutableTable.copyOf(denyTenantTraffic), true);
-            updateRules(ImmutableTable.copyOf(permitExternal), false);
-            updateRules(ImmutableTable.copyOf(permitExternal), true);
+            Table<NodeId, AclKey, List<Ace>> boundaryRules = HashBasedTable.create(denyTenantTraffic);
+            permitExternal.cellSet().forEach(cell -> boundaryRules.put(cell.getRowKey(), cell.getColumnKey(),
+                    boundaryRules.contains(cell.getRowKey(), cell.getColumnKey())
+                            ? Lists.newArrayList(Iterables.concat(
+                                    boundaryRules.get(cell.getRowKey(), cell.getColumnKey()), cell.getValue()))
+                            : cell.getValue()));
+            sync.addAll(updateBoundaryRules(ImmutableTable.copyOf(boundaryRules), appended));
         }
-
+        try {
+            Futures.allAsList(sync).get();
+        } catch (InterruptedException | ExecutionException e) {
+            LOG.error("Failed to sync ACLs on VPP nodes. {}", e);
+        }
+        LOG.debug("ACE statistics - written: {}, skipped as unchanged: {}, removed: {}", getAcesWritten(),
+                getAcesSkipped(), getAcesRemoved());
     }
 
     public ImmutableSetMultimap<NodeId, InterfaceKey> resolveInterfaces(AddressEndpointKey key,
@@ -288,54 +334,169 @@ public class AclManager {
         });
     }
 
-    private void updateRules(ImmutableTable<NodeId, AclKey, List<Ace>> rulesToUpdate, boolean write) {
+    /**
+     * Schedules write or removal of access list entries in a single transaction per node. Entries which are
+     * already programmed on the node are not written again.
+     *
+     * @param appended collects access lists of nodes to which new entries were written
+     * @return futures of scheduled updates, one per node
+     */
+    private List<ListenableFuture<Void>> updateRules(ImmutableTable<NodeId, AclKey, List<Ace>> rulesToUpdate,
+            boolean write, @Nullable SetMultimap<NodeId, AclKey> appended) {
         List<ListenableFuture<Void>> sync = new ArrayList<>();
         rulesToUpdate.rowKeySet().forEach(nodeId -> {
             Callable<Void> syncExecutor = new Callable<Void>() {
 
                 @Override
                 public Void call() throws Exception {
-                    InstanceIdentifier<Node> vppIid = VppIidFactory.getNetconfNodeIid(nodeId);
-                    Optional<DataBroker> dataBroker = mountDataProvider.resolveDataBrokerForMountPoint(vppIid);
-                    if (!dataBroker.isPresent()) {
-                        LOG.error("Failed to update ACLs for endpoints on node {}. Mount point does not exist.",
-                                nodeId);
+                    Map<AclKey, List<Ace>> acesByAcl = new LinkedHashMap<>();
+                    rulesToUpdate.row(nodeId).forEach((aclKey, aces) -> {
+                        // entries are always removed, node may hold entries not known to the shadow
+                        List<Ace> toUpdate = (write) ? aclShadow.filterChanged(nodeId, aclKey, aces) : aces;
+                        if (!toUpdate.isEmpty()) {
+                            acesByAcl.put(aclKey, toUpdate);
+                        }
+                    });
+                    if (write && appended != null) {
+                        appended.putAll(nodeId, acesByAcl.keySet());
                     }
-                    ImmutableMap<AclKey, List<Ace>> row = rulesToUpdate.row(nodeId);
-                    row.keySet().forEach(aclKey -> {
-                        Map<InstanceIdentifier<Ace>, Ace> entries = new HashMap<>();
-                        row.get(aclKey).forEach(ace -> {
-                            entries.put(VppIidFactory.getVppAcl(aclKey)
-                                .builder()
-                                .child(AccessListEntries.class)
-                                .child(Ace.class, ace.getKey())
-                                .build(), ace);
-                        });
-                        LOG.debug("Writing ACE changes - Node: {} Entries: {}", nodeId, entries);
-                        if (entries.isEmpty()) {
-                            return;
+                    submitAces(nodeId, acesByAcl, write);
+                    return null;
+                }
+            };
+            sync.add(scheduler.submit(nodeId, syncExecutor));
+        });
+        return sync;
+    }
+
+    /**
+     * Schedules update of entries denying traffic to domain subnets and permitting external traffic. They have
+     * to stay behind policy entries of an access list, so programmed ones are moved to the end only when policy
+     * entries were appended to the access list. Removed entries are computed as programmed entries of the shadow
+     * minus desired entries and they are removed after the write, so that the access list never becomes empty.
+     *
+     * @param boundaryRules desired deny and permit entries, in order
+     * @param appended access lists of nodes to which policy entries were written before
+     * @return futures of scheduled updates, one per node
+     */
+    private List<ListenableFuture<Void>> updateBoundaryRules(ImmutableTable<NodeId, AclKey, List<Ace>> boundaryRules,
+            SetMultimap<NodeId, AclKey> appended) {
+        List<ListenableFuture<Void>> sync = new ArrayList<>();
+        boundaryRules.rowKeySet().forEach(nodeId -> {
+            Callable<Void> syncExecutor = new Callable<Void>() {
+
+                @Override
+                public Void call() throws Exception {
+                    Map<AclKey, List<Ace>> toMove = new LinkedHashMap<>();
+                    Map<AclKey, List<Ace>> toRemove = new LinkedHashMap<>();
+                    boundaryRules.row(nodeId).forEach((aclKey, aces) -> {
+                        if (appended.containsEntry(nodeId, aclKey)) {
+                            List<Ace> programmed = aclShadow.filterProgrammed(nodeId, aclKey, aces);
+                            if (!programmed.isEmpty()) {
+                                toMove.put(aclKey, programmed);
+                            }
+                        }
+                        List<Ace> stale =
+                                aclShadow.filterStale(nodeId, aclKey, aces, AccessListUtil::isDomainBoundaryEntry);
+                        // access list cannot become empty, the last entries are left on the node
+                        boolean keepsEntries = !aces.isEmpty()
+                                || aclShadow.countProgrammed(nodeId, aclKey) > stale.size();
+                        if (!stale.isEmpty() && keepsEntries) {
+                            toRemove.put(aclKey, stale);
                         }
-                        LOG.debug("{} rules {} ACL {} on node {}.", (write) ? "Writing" : "Removing",
-                                aclKey.getAclName(), (write) ? "to" : "from", nodeId.getValue());
-                        boolean result = (write) ? GbpNetconfTransaction.netconfSyncedWrite(vppIid, entries,
-                                GbpNetconfTransaction.RETRY_COUNT) : GbpNetconfTransaction.netconfSyncedDelete(vppIid,
-                                        entries.keySet(), GbpNetconfTransaction.RETRY_COUNT);
-                        if (!result) {
-                            LOG.error("Failed to update rules in ACL {} on mount point {}", aclKey, nodeId.getValue());
+                    });
+                    submitAces(nodeId, toMove, false);
+                    Map<AclKey, List<Ace>> toWrite = new LinkedHashMap<>();
+                    boundaryRules.row(nodeId).forEach((aclKey, aces) -> {
+                        List<Ace> changed = aclShadow.filterChanged(nodeId, aclKey, aces);
+                        if (!changed.isEmpty()) {
+                            toWrite.put(aclKey, changed);
                         }
                     });
+                    submitAces(nodeId, toWrite, true);
+                    submitAces(nodeId, toRemove, false);
                     return null;
                 }
             };
-            sync.add(executor.submit(syncExecutor));
+            sync.add(scheduler.submit(nodeId, syncExecutor));
         });
-        try {
-            Futures.allAsList(sync).get();
-        } catch (InterruptedException | ExecutionException e) {
-            LOG.error("Failed to sync ACLs on VPP nodes. {}", e);
+        return sync;
+    }
+
+    /**
+     * Writes or removes entries of access lists on the node in a single transaction and updates the shadow
+     * according to the result.
+     */
+    private void submitAces(NodeId nodeId, Map<AclKey, List<Ace>> acesByAcl, boolean write) {
+        if (acesByAcl.isEmpty()) {
+            LOG.debug("No ACE changes on node {}.", nodeId.getValue());
+            return;
+        }
+        InstanceIdentifier<Node> vppIid = VppIidFactory.getNetconfNodeIid(nodeId);
+        Optional<DataBroker> dataBroker = mountDataProvider.resolveDataBrokerForMountPoint(vppIid);
+        if (!dataBroker.isPresent()) {
+            LOG.error("Failed to update ACLs for endpoints on node {}. Mount point does not exist.", nodeId);
+        }
+        // entries are written in order, entries of an access list are evaluated in order of their creation
+        Map<InstanceIdentifier<Ace>, Ace> entries = new LinkedHashMap<>();
+        acesByAcl.forEach((aclKey, aces) -> aces.forEach(ace -> entries.put(VppIidFactory.getVppAcl(aclKey)
+            .builder()
+            .child(AccessListEntries.class)
+            .child(Ace.class, ace.getKey())
+            .build(), ace)));
+        LOG.debug("{} {} rules {} ACLs {} on node {}.", (write) ? "Writing" : "Removing", entries.size(),
+                (write) ? "to" : "from", acesByAcl.keySet(), nodeId.getValue());
+        boolean result = (write) ? GbpNetconfTransaction.netconfSyncedWrite(vppIid, entries,
+                GbpNetconfTransaction.RETRY_COUNT) : GbpNetconfTransaction.netconfSyncedDelete(vppIid,
+                        entries.keySet(), GbpNetconfTransaction.RETRY_COUNT);
+        acesByAcl.forEach((aclKey, aces) -> {
+            if (!result) {
+                aclShadow.acesUnknown(nodeId, aclKey, aces);
+            } else if (write) {
+                aclShadow.acesWritten(nodeId, aclKey, aces);
+            } else {
+                aclShadow.acesRemoved(nodeId, aclKey, aces);
+            }
+        });
+        if (!result) {
+            LOG.error("Failed to update rules in ACLs {} on mount point {}", acesByAcl.keySet(), nodeId.getValue());
         }
     }
 
+    /**
+     * Forgets access list entries programmed on the node. State of the node is not known after it was removed,
+     * disconnected or mounted again. Entries are dropped in order with other ACL updates of the node, the task
+     * lane of the node is dropped afterwards.
+     */
+    public void nodeRemoved(@Nonnull NodeId nodeId) {
+        scheduler.submit(nodeId, () -> {
+            aclShadow.nodeRemoved(nodeId);
+            return null;
+        });
+        scheduler.nodeRemoved(nodeId);
+    }
+
+    /**
+     * @return number of access list entries written to VPP nodes
+     */
+    public long getAcesWritten() {
+        return aclShadow.getAcesWritten();
+    }
+
+    /**
+     * @return number of access list entries not written because they were already programmed
+     */
+    public long getAcesSkipped() {
+        return aclShadow.getAcesSkipped();
+    }
+
+    /**
+     * @return number of access list entries removed from VPP nodes
+     */
+    public long getAcesRemoved() {
+        return aclShadow.getAcesRemoved();
+    }
+
     private List<GbpAceBuilder> generateRulesForEndpointPair(PolicyContext ctx, RendererEndpointKey r,
             PeerEndpointKey p, List<RendererResolvedPolicy> rrps, ACE_DIRECTION aceDirection) {
         List<GbpAceBuilder> rules = new ArrayList<>();
@@ -378,19 +539,27 @@ public class AclManager {
             return Futures.immediateFuture(null);
         }
         LOG.info("Updating policy for endpoint {}", rEpKey);
-        ListenableFuture<List<AccessListWrapper>> future = resolveAclsOnInterface(rEpKey, policyCtx);
-        Futures.addCallback(future, new FutureCallback<List<AccessListWrapper>>() {
+        NodeId nodeId = vppNodeIid.firstKeyOf(Node.class).getNodeId();
+        InterfaceKey interfaceKey = optInterfaceIid.get().firstKeyOf(Interface.class);
+        // ACLs are resolved and written in a single task ordered with other ACL updates of the node
+        ListenableFuture<Void> future = scheduler.submit(nodeId, new Callable<Void>() {
+
+            @Override
+            public Void call() throws Exception {
+                buildAccessListWrappers(policyCtx, rEpKey).forEach(acl -> acl.writeAcl(vppNodeIid, interfaceKey));
+                return null;
+            }
+        });
+        Futures.addCallback(future, new FutureCallback<Void>() {
 
             @Override
-            public void onSuccess(List<AccessListWrapper> result) {
-                result.forEach(acl -> acl.writeAcl(vppNodeIid, optInterfaceIid.get().firstKeyOf(Interface.class)));
+            public void onSuccess(Void result) {
                 sf.set(null);
             }
 
             @Override
             public void onFailure(Throwable t) {
-                LOG.error("Failed to update ACL for interface {} on node {}",
-                        optInterfaceIid.get().firstKeyOf(Interface.class), vppNodeIid.firstKeyOf(Node.class));
+                LOG.error("Failed to update ACL for interface {} on node {}", interfaceKey, nodeId.getValue(), t);
                 sf.set(null);
             }
         }, MoreExecutors.directExecutor());
@@ -398,83 +567,23 @@ public class AclManager {
     }
 
     /**
-     * Cache end-points accessible via a single interface for further processing.
+     * Cache end-points accessible via a single interface for further processing. Only end-points which
+     * appeared, disappeared or moved since the last call are re-indexed.
      *
      * @param ctx policy context
      */
     public void cacheEndpointsByInterfaces(@Nonnull PolicyContext ctx) {
-        Builder<NodeId, InterfaceKey, ImmutableSet<AddressEndpointKey>> resultBuilder = new Builder<>();
-        resolveEndpointsOnMultipleInterface(ImmutableList.copyOf(ctx.getAddrEpByKey().values()), resultBuilder);
-        endpointsByInterface = resultBuilder.build();
+        endpointsByInterface.update(ctx);
     }
 
-    /**
-     * Recursively grouping interfaces behind the same port
-     */
-    private void resolveEndpointsOnMultipleInterface(@Nullable List<AddressEndpointWithLocation> eps,
-            @Nonnull Builder<NodeId, InterfaceKey, ImmutableSet<AddressEndpointKey>> builder) {
-        if (eps == null || eps.isEmpty()) {
-            return;
-        }
-        // look for any end-point with absolute location as reference end-point in this cycle;
-        java.util.Optional<AddressEndpointWithLocation> refEndpoint =
-                eps.stream().filter(ep -> EndpointUtils.getExternalLocationFrom(ep).isPresent()).findAny();
-        if (!refEndpoint.isPresent()) {
-            return;
-        }
-        Predicate<AddressEndpointWithLocation> sameLocation = new Predicate<AddressEndpointWithLocation>() {
-
-            @Override
-            public boolean test(AddressEndpointWithLocation addrEp) {
-                return AddressEndpointUtils.sameExternalLocationCase(refEndpoint.get(), addrEp);
-            }
-        };
-        Optional<ExternalLocationCase> extLoc = EndpointUtils.getExternalLocationFrom(refEndpoint.get());
-        Set<AddressEndpointKey> sameLocations = eps.stream()
-            .filter(sameLocation)
-            .map(addrEp -> AddressEndpointUtils.fromAddressEndpointWithLocationKey(addrEp.getKey()))
-            .collect(Collectors.toSet());
-        builder.put(extLoc.get().getExternalNodeMountPoint().firstKeyOf(Node.class).getNodeId(),
-                new InterfaceKey(extLoc.get().getExternalNodeConnector()),
-                ImmutableSet.<AddressEndpointKey>copyOf(sameLocations));
-        List<AddressEndpointWithLocation> differentLocations = eps.stream()
-            // keep end-points with different location and end-points with relative location in loop
-            .filter(sameLocation.negate().or(p -> !EndpointUtils.getExternalLocationFrom(p).isPresent()))
-            .collect(Collectors.toList());
-        if (!differentLocations.isEmpty()) {
-            resolveEndpointsOnMultipleInterface(differentLocations, builder);
-        }
-    }
-
-    public @Nonnull static ImmutableSet<AddressEndpointKey> otherEndpointsOnTheSameInterface(@Nonnull PolicyContext ctx,
+    public @Nonnull ImmutableSet<AddressEndpointKey> otherEndpointsOnTheSameInterface(@Nonnull PolicyContext ctx,
             @Nonnull AddressEndpointKey key) {
-        if (endpointsByInterface != null) {
-            for (InterfaceKey ifaceKey : endpointsByInterface.columnKeySet()) {
-                for (NodeId nodeId : endpointsByInterface.column(ifaceKey).keySet()) {
-                    ImmutableSet<AddressEndpointKey> addrEps = endpointsByInterface.get(nodeId, ifaceKey);
-                    if (addrEps != null && addrEps.contains(key) && addrEps.size() > 1) {
-                        return endpointsByInterface.get(nodeId, ifaceKey);
-                    }
-                }
-            }
-        }
-        return ImmutableSet.copyOf(Sets.newHashSet());
+        return endpointsByInterface.getEndpointsOnSameInterface(key);
     }
 
-    public @Nonnull static ImmutableSetMultimap<NodeId, InterfaceKey> getInterfacesForEndpoint(
-            @Nonnull PolicyContext ctx, @Nonnull AddressEndpointKey key) {
-        SetMultimap<NodeId, InterfaceKey> interfaces = HashMultimap.create();
-        if (endpointsByInterface != null) {
-            for (InterfaceKey ifaceKey : endpointsByInterface.columnKeySet()) {
-                for (NodeId nodeId : endpointsByInterface.column(ifaceKey).keySet()) {
-                    ImmutableSet<AddressEndpointKey> addrEps = endpointsByInterface.get(nodeId, ifaceKey);
-                    if (addrEps != null && addrEps.contains(key)) {
-                        interfaces.put(nodeId, ifaceKey);
-                    }
-                }
-            }
-        }
-        return ImmutableSetMultimap.copyOf(interfaces);
+    public @Nonnull ImmutableSetMultimap<NodeId, InterfaceKey> getInterfacesForEndpoint(@Nonnull PolicyContext ctx,
+            @Nonnull AddressEndpointKey key) {
+        return endpointsByInterface.getInterfaces(key);
     }
 
     private final class ProcessingBean {
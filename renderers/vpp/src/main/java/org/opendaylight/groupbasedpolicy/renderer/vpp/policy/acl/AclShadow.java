@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.vpp.policy.acl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160708.access.lists.Acl;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160708.access.lists.AclKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160708.access.lists.acl.access.list.entries.Ace;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160708.access.lists.acl.access.list.entries.AceKey;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
+
+/**
+ * Shadow of access list entries programmed on VPP nodes by an {@link AclManager}.<br>
+ * Only entries confirmed by a successful transaction are kept. Whenever outcome of a transaction is not known,
+ * affected entries are dropped from the shadow so they are sent to the node again next time.
+ */
+final class AclShadow {
+
+    private final ConcurrentMap<NodeId, ConcurrentMap<AclKey, ConcurrentMap<AceKey, Ace>>> programmed =
+            new ConcurrentHashMap<>();
+    private final AtomicLong acesWritten = new AtomicLong();
+    private final AtomicLong acesSkipped = new AtomicLong();
+    private final AtomicLong acesRemoved = new AtomicLong();
+
+    /**
+     * @param nodeId VPP node
+     * @param aclKey access list on the node
+     * @param aces entries which should be present in the access list
+     * @return entries which are not programmed on the node yet or differ from the programmed ones
+     */
+    @Nonnull
+    List<Ace> filterChanged(@Nonnull NodeId nodeId, @Nonnull AclKey aclKey, @Nonnull List<Ace> aces) {
+        Map<AceKey, Ace> programmedAces = getAces(nodeId, aclKey);
+        Map<AceKey, Ace> changed = new LinkedHashMap<>();
+        for (Ace ace : aces) {
+            if (ace.equals(programmedAces.get(ace.getKey()))) {
+                acesSkipped.incrementAndGet();
+            } else {
+                changed.put(ace.getKey(), ace);
+            }
+        }
+        return new ArrayList<>(changed.values());
+    }
+
+    /**
+     * @param nodeId VPP node
+     * @param aclKey access list on the node
+     * @param aces entries which should be present in the access list
+     * @return entries which are programmed on the node exactly as required
+     */
+    @Nonnull
+    List<Ace> filterProgrammed(@Nonnull NodeId nodeId, @Nonnull AclKey aclKey, @Nonnull List<Ace> aces) {
+        Map<AceKey, Ace> programmedAces = getAces(nodeId, aclKey);
+        return aces.stream().filter(ace -> ace.equals(programmedAces.get(ace.getKey()))).collect(Collectors.toList());
+    }
+
+    /**
+     * @param nodeId VPP node
+     * @param aclKey access list on the node
+     * @param aces entries which should be present in the access list
+     * @param kind entries of the access list which are compared
+     * @return entries of the kind programmed on the node which are not required any more
+     */
+    @Nonnull
+    List<Ace> filterStale(@Nonnull NodeId nodeId, @Nonnull AclKey aclKey, @Nonnull List<Ace> aces,
+            @Nonnull Predicate<AceKey> kind) {
+        Set<AceKey> desired = aces.stream().map(Ace::getKey).collect(Collectors.toSet());
+        return getAces(nodeId, aclKey).values()
+            .stream()
+            .filter(ace -> kind.test(ace.getKey()) && !desired.contains(ace.getKey()))
+            .collect(Collectors.toList());
+    }
+
+    void acesWritten(@Nonnull NodeId nodeId, @Nonnull AclKey aclKey, @Nonnull Collection<Ace> aces) {
+        Map<AceKey, Ace> programmedAces = getOrCreateAces(nodeId, aclKey);
+        aces.forEach(ace -> programmedAces.put(ace.getKey(), ace));
+        acesWritten.addAndGet(aces.size());
+    }
+
+    void acesRemoved(@Nonnull NodeId nodeId, @Nonnull AclKey aclKey, @Nonnull Collection<Ace> aces) {
+        Map<AceKey, Ace> programmedAces = getAces(nodeId, aclKey);
+        aces.forEach(ace -> programmedAces.remove(ace.getKey()));
+        acesRemoved.addAndGet(aces.size());
+    }
+
+    /**
+     * Entries of the access list are not known any more, e.g. because write of them failed.
+     */
+    void acesUnknown(@Nonnull NodeId nodeId, @Nonnull AclKey aclKey, @Nonnull Collection<Ace> aces) {
+        Map<AceKey, Ace> programmedAces = getAces(nodeId, aclKey);
+        aces.forEach(ace -> programmedAces.remove(ace.getKey()));
+    }
+
+    /**
+     * Access list was written as a whole, its previous entries were replaced.
+     */
+    void aclWritten(@Nonnull NodeId nodeId, @Nonnull Acl acl) {
+        ConcurrentMap<AceKey, Ace> programmedAces = new ConcurrentHashMap<>();
+        if (acl.getAccessListEntries() != null && acl.getAccessListEntries().getAce() != null) {
+            acl.getAccessListEntries().getAce().forEach(ace -> programmedAces.put(ace.getKey(), ace));
+        }
+        programmed.computeIfAbsent(nodeId, id -> new ConcurrentHashMap<>()).put(acl.getKey(), programmedAces);
+    }
+
+    /**
+     * Access list was removed from the node or its content is not known.
+     */
+    void aclRemoved(@Nonnull NodeId nodeId, @Nonnull AclKey aclKey) {
+        ConcurrentMap<AclKey, ConcurrentMap<AceKey, Ace>> acls = programmed.get(nodeId);
+        if (acls != null) {
+            acls.remove(aclKey);
+        }
+    }
+
+    int countProgrammed(@Nonnull NodeId nodeId, @Nonnull AclKey aclKey) {
+        return getAces(nodeId, aclKey).size();
+    }
+
+    /**
+     * Node was removed, disconnected or mounted again, none of its entries is known any more.
+     */
+    void nodeRemoved(@Nonnull NodeId nodeId) {
+        programmed.remove(nodeId);
+    }
+
+    private Map<AceKey, Ace> getAces(NodeId nodeId, AclKey aclKey) {
+        ConcurrentMap<AclKey, ConcurrentMap<AceKey, Ace>> acls = programmed.get(nodeId);
+        if (acls == null) {
+            return new HashMap<>();
+        }
+        Map<AceKey, Ace> aces = acls.get(aclKey);
+        return aces == null ? new HashMap<>() : aces;
+    }
+
+    private Map<AceKey, Ace> getOrCreateAces(NodeId nodeId, AclKey aclKey) {
+        return programmed.computeIfAbsent(nodeId, id -> new ConcurrentHashMap<>())
+            .computeIfAbsent(aclKey, key -> new ConcurrentHashMap<>());
+    }
+
+    long getAcesWritten() {
+        return acesWritten.get();
+    }
+
+    long getAcesSkipped() {
+        return acesSkipped.get();
+    }
+
+    long getAcesRemoved() {
+        return acesRemoved.get();
+    }
+}
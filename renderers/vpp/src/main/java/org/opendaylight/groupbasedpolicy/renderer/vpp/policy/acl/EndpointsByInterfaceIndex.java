@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.vpp.policy.acl;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.opendaylight.groupbasedpolicy.renderer.vpp.policy.PolicyContext;
+import org.opendaylight.groupbasedpolicy.util.EndpointUtils;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.interfaces.rev140508.interfaces.InterfaceKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.endpoints.address.endpoints.AddressEndpointKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.has.absolute.location.absolute.location.location.type.ExternalLocationCase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.endpoints.AddressEndpointWithLocation;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.NodeKey;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+
+/**
+ * Bidirectional index of address end-points and interfaces through which they are accessible.<br>
+ * The index is synchronized with address end-points of a {@link PolicyContext} by
+ * {@link #update(PolicyContext)}, only end-points which appeared, disappeared or moved are re-indexed.
+ * Lookups are safe during an update, they see the state of an end-point before or after the update.
+ */
+class EndpointsByInterfaceIndex {
+
+    private final ConcurrentMap<AddressEndpointKey, InterfaceLocation> locationByEndpoint = new ConcurrentHashMap<>();
+    private final ConcurrentMap<InterfaceLocation, ImmutableSet<AddressEndpointKey>> endpointsByLocation =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Re-indexes end-points which changed their location since the last update
+     *
+     * @param ctx policy context with current end-points
+     */
+    synchronized void update(@Nonnull PolicyContext ctx) {
+        Map<AddressEndpointKey, AddressEndpointWithLocation> addrEps = ctx.getAddrEpByKey();
+        Iterator<Map.Entry<AddressEndpointKey, InterfaceLocation>> indexed = locationByEndpoint.entrySet().iterator();
+        while (indexed.hasNext()) {
+            Map.Entry<AddressEndpointKey, InterfaceLocation> entry = indexed.next();
+            if (!addrEps.containsKey(entry.getKey())) {
+                indexed.remove();
+                removeFromLocation(entry.getValue(), entry.getKey());
+            }
+        }
+        for (Map.Entry<AddressEndpointKey, AddressEndpointWithLocation> addrEp : addrEps.entrySet()) {
+            InterfaceLocation location = InterfaceLocation.of(addrEp.getValue());
+            InterfaceLocation previousLocation = locationByEndpoint.get(addrEp.getKey());
+            if (Objects.equals(location, previousLocation)) {
+                continue;
+            }
+            if (previousLocation != null) {
+                removeFromLocation(previousLocation, addrEp.getKey());
+            }
+            if (location == null) {
+                locationByEndpoint.remove(addrEp.getKey());
+            } else {
+                locationByEndpoint.put(addrEp.getKey(), location);
+                addToLocation(location, addrEp.getKey());
+            }
+        }
+    }
+
+    private void addToLocation(InterfaceLocation location, AddressEndpointKey key) {
+        ImmutableSet<AddressEndpointKey> endpoints = endpointsByLocation.get(location);
+        endpointsByLocation.put(location, endpoints == null ? ImmutableSet.of(key)
+                : ImmutableSet.<AddressEndpointKey>builder().addAll(endpoints).add(key).build());
+    }
+
+    private void removeFromLocation(InterfaceLocation location, AddressEndpointKey key) {
+        ImmutableSet<AddressEndpointKey> endpoints = endpointsByLocation.get(location);
+        if (endpoints == null) {
+            return;
+        }
+        ImmutableSet.Builder<AddressEndpointKey> remaining = ImmutableSet.builder();
+        endpoints.stream().filter(endpoint -> !endpoint.equals(key)).forEach(remaining::add);
+        ImmutableSet<AddressEndpointKey> result = remaining.build();
+        if (result.isEmpty()) {
+            endpointsByLocation.remove(location);
+        } else {
+            endpointsByLocation.put(location, result);
+        }
+    }
+
+    /**
+     * @return all end-points on the interface of the end-point including itself if there are more of them,
+     *         otherwise empty set
+     */
+    @Nonnull
+    ImmutableSet<AddressEndpointKey> getEndpointsOnSameInterface(@Nonnull AddressEndpointKey key) {
+        InterfaceLocation location = locationByEndpoint.get(key);
+        if (location == null) {
+            return ImmutableSet.of();
+        }
+        ImmutableSet<AddressEndpointKey> endpoints = endpointsByLocation.get(location);
+        return endpoints != null && endpoints.size() > 1 ? endpoints : ImmutableSet.of();
+    }
+
+    /**
+     * @return interface of the end-point by node, empty if the end-point has no external location
+     */
+    @Nonnull
+    ImmutableSetMultimap<NodeId, InterfaceKey> getInterfaces(@Nonnull AddressEndpointKey key) {
+        InterfaceLocation location = locationByEndpoint.get(key);
+        if (location == null) {
+            return ImmutableSetMultimap.of();
+        }
+        return ImmutableSetMultimap.of(location.nodeId, location.interfaceKey);
+    }
+
+    int size() {
+        return locationByEndpoint.size();
+    }
+
+    private static final class InterfaceLocation {
+
+        private final NodeId nodeId;
+        private final InterfaceKey interfaceKey;
+        private final int hashCode;
+
+        private InterfaceLocation(NodeId nodeId, InterfaceKey interfaceKey) {
+            this.nodeId = nodeId;
+            this.interfaceKey = interfaceKey;
+            this.hashCode = Objects.hash(nodeId, interfaceKey);
+        }
+
+        /**
+         * @return location of the end-point or {@code null} if it has no absolute external location
+         */
+        @Nullable
+        static InterfaceLocation of(AddressEndpointWithLocation addrEp) {
+            if (addrEp.getRelativeLocations() != null) {
+                return null;
+            }
+            Optional<ExternalLocationCase> extLoc = EndpointUtils.getExternalLocationFrom(addrEp);
+            if (!extLoc.isPresent() || extLoc.get().getExternalNodeMountPoint() == null
+                    || extLoc.get().getExternalNodeConnector() == null) {
+                return null;
+            }
+            NodeKey nodeKey = extLoc.get().getExternalNodeMountPoint().firstKeyOf(Node.class);
+            if (nodeKey == null) {
+                return null;
+            }
+            return new InterfaceLocation(nodeKey.getNodeId(),
+                    new InterfaceKey(extLoc.get().getExternalNodeConnector()));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            InterfaceLocation other = (InterfaceLocation) obj;
+            return nodeId.equals(other.nodeId) && interfaceKey.equals(other.interfaceKey);
+        }
+    }
+}
@@ -8,24 +8,26 @@
 
 package org.opendaylight.groupbasedpolicy.renderer.vpp.util;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
 import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
-import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
-import org.opendaylight.groupbasedpolicy.renderer.vpp.commands.AbstractInterfaceCommand;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.commands.RoutingCommand;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.commands.interfaces.ConfigCommand;
 import org.opendaylight.vbd.impl.transaction.VbdNetconfTransaction;
-import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.interfaces.rev140508.interfaces.Interface;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
 import org.opendaylight.yangtools.yang.binding.DataObject;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
@@ -35,11 +37,45 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.CheckedFuture;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 public class GbpNetconfTransaction {
 
     public static final byte RETRY_COUNT = 3;
     private static final Logger LOG = LoggerFactory.getLogger(GbpNetconfTransaction.class);
+    /**
+     * Candidate datastore of a device is locked by a transaction, so only one transaction per node is in flight
+     */
+    private static final int MAX_IN_FLIGHT_PER_NODE = 1;
+    private static final long INITIAL_BACKOFF_MILLIS = 20;
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+    private static volatile NetconfTransactionPipeline pipeline;
+
+    /**
+     * @param commitExecutor executes commits of the pipeline
+     * @return pipeline for netconf write and delete operations, to be installed by {@link #setPipeline}
+     */
+    public static NetconfTransactionPipeline createPipeline(@Nonnull Executor commitExecutor) {
+        return new NetconfTransactionPipeline(MAX_IN_FLIGHT_PER_NODE, INITIAL_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS,
+                commitExecutor);
+    }
+
+    /**
+     * Installs pipeline executing all netconf write and delete operations. The pipeline is owned by the caller,
+     * operations submitted while no pipeline is installed fail.
+     */
+    public static void setPipeline(@Nullable NetconfTransactionPipeline newPipeline) {
+        pipeline = newPipeline;
+    }
+
+    /**
+     * @return pipeline executing all netconf write and delete operations, e.g. to read its statistics
+     */
+    @Nullable
+    public static NetconfTransactionPipeline getPipeline() {
+        return pipeline;
+    }
 
     /***
      * Netconf wrapper for write and delete operation on a Netconf Device
@@ -52,20 +88,18 @@ public class GbpNetconfTransaction {
      */
     public static <T extends DataObject> boolean netconfSyncedWrite(@Nonnull final InstanceIdentifier<Node> vppIid,
         @Nonnull final InstanceIdentifier<T> iid, @Nonnull final T data, byte retryCounter) {
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().lock();
-        boolean result =
-            write(VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getKey(), iid, data, retryCounter);
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().unlock();
-        return result;
+        return await(netconfWrite(vppIid, iid, data, retryCounter));
     }
 
     public static <T extends DataObject> boolean netconfSyncedWrite(@Nonnull final InstanceIdentifier<Node> vppIid,
             @Nonnull final Map<InstanceIdentifier<T>,T> data, byte retryCounter) {
-            VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().lock();
-            boolean result = write(VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getKey(), data, retryCounter);
-            VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().unlock();
-            return result;
-        }
+        Preconditions.checkNotNull(data);
+        Preconditions.checkArgument(!data.isEmpty());
+        final Map<InstanceIdentifier<T>, T> dataCopy = new HashMap<>(data);
+        return await(submit(vppIid, dataCopy.keySet(),
+            rwTx -> dataCopy.forEach((k, v) -> rwTx.put(LogicalDatastoreType.CONFIGURATION, k, v, true)),
+            retryCounter));
+    }
 
     /***
      * Netconf wrapper for merge operation on a Netconf Device
@@ -78,11 +112,8 @@ public class GbpNetconfTransaction {
      */
     public static <T extends DataObject> boolean netconfSyncedMerge(@Nonnull final InstanceIdentifier<Node> vppIid,
         @Nonnull final InstanceIdentifier<T> iid, @Nonnull final T data, byte retryCounter) {
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().lock();
-        boolean result =
-            merge(VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getKey(), iid, data, retryCounter);
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().unlock();
-        return result;
+        return await(submit(vppIid, Collections.singleton(iid),
+            rwTx -> rwTx.merge(LogicalDatastoreType.CONFIGURATION, iid, data, true), retryCounter));
     }
 
     /***
@@ -94,11 +125,7 @@ public class GbpNetconfTransaction {
      */
     public static boolean netconfSyncedMerge(@Nonnull final InstanceIdentifier<Node> vppIid,
         @Nonnull final ConfigCommand command, byte retryCounter) {
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().lock();
-        boolean result =
-            write(VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getKey(), command, retryCounter);
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().unlock();
-        return result;
+        return await(netconfWrite(vppIid, command, retryCounter));
     }
 
     /***
@@ -110,10 +137,7 @@ public class GbpNetconfTransaction {
      */
     public static boolean netconfSyncedWrite(@Nonnull final InstanceIdentifier<Node> vppIid,
         @Nonnull final ConfigCommand command, byte retryCounter) {
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().lock();
-        boolean result = write(VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getKey(), command, retryCounter);
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().unlock();
-        return result;
+        return await(netconfWrite(vppIid, command, retryCounter));
     }
 
     /***
@@ -125,10 +149,7 @@ public class GbpNetconfTransaction {
      */
     public static boolean netconfSyncedWrite(@Nonnull final InstanceIdentifier<Node> vppIid,
         @Nonnull final RoutingCommand command, byte retryCounter) {
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().lock();
-        boolean result = write(VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getKey(), command, retryCounter);
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().unlock();
-        return result;
+        return await(netconfWrite(vppIid, command, retryCounter));
     }
 
     /***
@@ -141,19 +162,34 @@ public class GbpNetconfTransaction {
      */
     public static <T extends DataObject> boolean netconfSyncedDelete(@Nonnull final InstanceIdentifier<Node> vppIid,
         @Nonnull final InstanceIdentifier<T> iid, byte retryCounter) {
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().lock();
-        boolean result = deleteIfExists(vppIid, iid, retryCounter);
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().unlock();
-        return result;
+        return await(netconfDelete(vppIid, iid, retryCounter));
     }
 
     public static <T extends DataObject> boolean netconfSyncedDelete(@Nonnull final InstanceIdentifier<Node> vppIid,
             @Nonnull Set<InstanceIdentifier<T>> iids , byte retryCounter) {
-            VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().lock();
-            boolean result = deleteIfExists(vppIid, iids, retryCounter);
-            VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().unlock();
-            return result;
-        }
+        Preconditions.checkNotNull(iids);
+        final Set<InstanceIdentifier<T>> present = new HashSet<>();
+        return await(submit(vppIid, new HashSet<>(iids), new NetconfTransactionPipeline.Operation() {
+
+            @Override
+            public boolean isRequired() {
+                present.clear();
+                for (InstanceIdentifier<T> iid : iids) {
+                    if (read(vppIid, LogicalDatastoreType.CONFIGURATION, iid, RETRY_COUNT).isPresent()) {
+                        present.add(iid);
+                    } else {
+                        LOG.warn("Node {} does not exist. It won't be removed.", iid.getPathArguments());
+                    }
+                }
+                return !present.isEmpty();
+            }
+
+            @Override
+            public void apply(ReadWriteTransaction rwTx) {
+                present.forEach(iid -> rwTx.delete(LogicalDatastoreType.CONFIGURATION, iid));
+            }
+        }, retryCounter));
+    }
 
     /***
      * Netconf wrapper method for synced requests for delete operation on a Netconf Device
@@ -164,10 +200,7 @@ public class GbpNetconfTransaction {
      */
     public static boolean netconfSyncedDelete(@Nonnull final InstanceIdentifier<Node> vppIid,
         @Nonnull final ConfigCommand command, byte retryCounter) {
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().lock();
-        boolean result = deleteIfExists(vppIid, command.getIid(), retryCounter);
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().unlock();
-        return result;
+        return await(netconfDelete(vppIid, command.getIid(), retryCounter));
     }
 
     /***
@@ -179,130 +212,92 @@ public class GbpNetconfTransaction {
      */
     public static boolean netconfSyncedDelete(@Nonnull final InstanceIdentifier<Node> vppIid,
         @Nonnull final RoutingCommand command, byte retryCounter) {
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().lock();
-        boolean result = deleteIfExists(vppIid, command.getIid(), retryCounter);
-        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getValue().unlock();
-        return result;
+        return await(netconfDelete(vppIid, command.getIid(), retryCounter));
     }
 
     /**
-     * Use {@link ConfigCommand} to put data into netconf transaction and submit. Transaction is restarted if failed
+     * Queues write of data to remote device. Writes queued for the same device are coalesced.
      *
-     * @param mountpoint   to access remote device
-     * @param command      config command with data, datastore type and iid
-     * @param retryCounter number of attempts
-     * @return true if transaction is successful, false otherwise
+     * @param vppIid       destination node
+     * @param iid          data identifier
+     * @param data         to write
+     * @param retryCounter number of retries if transaction fails
+     * @param <T>          generic data type. Has to be child of {@link DataObject}
+     * @return future with true if transaction is successful, false otherwise
      */
-    private static boolean write(final DataBroker mountpoint, final ConfigCommand command, byte retryCounter) {
-        LOG.trace("Netconf WRITE transaction started. RetryCounter: {}", retryCounter);
-        Preconditions.checkNotNull(mountpoint);
-        final ReadWriteTransaction rwTx = mountpoint.newReadWriteTransaction();
-        try {
-            command.execute(rwTx);
-            final CheckedFuture<Void, TransactionCommitFailedException> futureTask = rwTx.submit();
-            futureTask.get();
-            LOG.trace("Netconf WRITE transaction done for command {}", command);
-            return true;
-        } catch (Exception e) {
-            // Retry
-            if (retryCounter > 0) {
-                LOG.warn("Netconf WRITE transaction failed to {}. Restarting transaction ... ", e.getMessage());
-                return write(mountpoint, command, --retryCounter);
-            } else {
-                LOG.warn("Netconf WRITE transaction unsuccessful. Maximal number of attempts reached. Trace: {}", e);
-                return false;
-            }
-        }
+    public static <T extends DataObject> ListenableFuture<Boolean> netconfWrite(
+        @Nonnull final InstanceIdentifier<Node> vppIid, @Nonnull final InstanceIdentifier<T> iid,
+        @Nonnull final T data, byte retryCounter) {
+        return submit(vppIid, Collections.singleton(iid),
+            rwTx -> rwTx.put(LogicalDatastoreType.CONFIGURATION, iid, data, true), retryCounter);
     }
 
     /**
-     * Write data to remote device. Transaction is restarted if failed
+     * Queues {@link ConfigCommand} for remote device. Commands queued for the same device are coalesced.
      *
-     * @param mountpoint   to access remote device
-     * @param iid          data identifier
-     * @param data         to write
-     * @param retryCounter number of attempts
-     * @param <T>          generic data type. Has to be child of {@link DataObject}
-     * @return true if transaction is successful, false otherwise
+     * @param vppIid       destination node
+     * @param command      config command with data, datastore type and iid
+     * @param retryCounter number of retries if transaction fails
+     * @return future with true if transaction is successful, false otherwise
      */
-    private static <T extends DataObject> boolean write(final DataBroker mountpoint, final InstanceIdentifier<T> iid,
-        final T data, byte retryCounter) {
-        LOG.trace("Netconf WRITE transaction started. RetryCounter: {}", retryCounter);
-        Preconditions.checkNotNull(mountpoint);
-        final ReadWriteTransaction rwTx = mountpoint.newReadWriteTransaction();
-        try {
-            rwTx.put(LogicalDatastoreType.CONFIGURATION, iid, data, true);
-            final CheckedFuture<Void, TransactionCommitFailedException> futureTask = rwTx.submit();
-            futureTask.get();
-            LOG.trace("Netconf WRITE transaction done for {}", iid);
-            return true;
-        } catch (Exception e) {
-            // Retry
-            if (retryCounter > 0) {
-                LOG.warn("Netconf WRITE transaction failed to {}. Restarting transaction ... ", e.getMessage());
-                return write(mountpoint, iid, data, --retryCounter);
-            } else {
-                LOG.warn("Netconf WRITE transaction unsuccessful. Maximal number of attempts reached. Trace: {}", e);
-                return false;
-            }
-        }
+    public static ListenableFuture<Boolean> netconfWrite(@Nonnull final InstanceIdentifier<Node> vppIid,
+        @Nonnull final ConfigCommand command, byte retryCounter) {
+        return submit(vppIid, Collections.<InstanceIdentifier<?>>singleton(command.getIid()), command::execute,
+            retryCounter);
     }
 
     /**
-     * Merge data to remote device. Transaction is restarted if failed
+     * Queues removal of data from remote device. Data presence is verified before removal.
      *
-     * @param mountpoint   to access remote device
+     * @param vppIid       destination node
      * @param iid          data identifier
-     * @param data         to merge
-     * @param retryCounter number of attempts
+     * @param retryCounter number of retries if transaction fails
      * @param <T>          generic data type. Has to be child of {@link DataObject}
-     * @return true if transaction is successful, false otherwise
+     * @return future with true if transaction is successful or data are not present, false otherwise
      */
-    private static <T extends DataObject> boolean merge(final DataBroker mountpoint, final InstanceIdentifier<T> iid,
-                                                        final T data, byte retryCounter) {
-        LOG.trace("Netconf MERGE transaction started. RetryCounter: {}", retryCounter);
-        Preconditions.checkNotNull(mountpoint);
-        final ReadWriteTransaction rwTx = mountpoint.newReadWriteTransaction();
-        try {
-            rwTx.merge(LogicalDatastoreType.CONFIGURATION, iid, data, true);
-            final CheckedFuture<Void, TransactionCommitFailedException> futureTask = rwTx.submit();
-            futureTask.get();
-            LOG.trace("Netconf MERGE transaction done for {}", iid);
-            return true;
-        } catch (Exception e) {
-            // Retry
-            if (retryCounter > 0) {
-                LOG.warn("Netconf MERGE transaction failed to {}. Restarting transaction ... ", e.getMessage());
-                return write(mountpoint, iid, data, --retryCounter);
-            } else {
-                LOG.warn("Netconf MERGE transaction unsuccessful. Maximal number of attempts reached. Trace: {}", e);
-                return false;
+    public static <T extends DataObject> ListenableFuture<Boolean> netconfDelete(
+        @Nonnull final InstanceIdentifier<Node> vppIid, @Nonnull final InstanceIdentifier<T> iid, byte retryCounter) {
+        return submit(vppIid, Collections.singleton(iid), new NetconfTransactionPipeline.Operation() {
+
+            @Override
+            public boolean isRequired() {
+                if (!read(vppIid, LogicalDatastoreType.CONFIGURATION, iid, RETRY_COUNT).isPresent()) {
+                    LOG.warn("Netconf DELETE transaction aborted. Data to remove are not present or cannot be read. "
+                        + "Iid: {}", iid);
+                    // this state is not considered as an error
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void apply(ReadWriteTransaction rwTx) {
+                rwTx.delete(LogicalDatastoreType.CONFIGURATION, iid);
             }
+        }, retryCounter);
+    }
+
+    private static ListenableFuture<Boolean> submit(InstanceIdentifier<Node> vppIid,
+            Collection<? extends InstanceIdentifier<?>> paths, NetconfTransactionPipeline.Operation operation,
+            byte retryCounter) {
+        NetconfTransactionPipeline currentPipeline = pipeline;
+        if (currentPipeline == null) {
+            LOG.warn("Netconf transaction for {} unsuccessful. VPP renderer is not running.", vppIid);
+            return Futures.immediateFuture(false);
         }
+        return currentPipeline.submit(vppIid, paths, operation, retryCounter);
     }
 
-    private static <T extends DataObject> boolean write(final DataBroker mountpoint,
-            @Nonnull final Map<InstanceIdentifier<T>, T> data, byte retryCounter) {
-        LOG.trace("Netconf WRITE transaction started. RetryCounter: {}", retryCounter);
-        Preconditions.checkNotNull(mountpoint);
-        Preconditions.checkNotNull(data);
-        Preconditions.checkArgument(!data.isEmpty());
-        final ReadWriteTransaction rwTx = mountpoint.newReadWriteTransaction();
+    private static boolean await(ListenableFuture<Boolean> result) {
         try {
-            data.forEach((k, v) -> rwTx.put(LogicalDatastoreType.CONFIGURATION, k, v, true));
-            final CheckedFuture<Void, TransactionCommitFailedException> futureTask = rwTx.submit();
-            futureTask.get();
-            LOG.trace("Netconf WRITE transaction done for {}", data);
-            return true;
-        } catch (Exception e) {
-            // Retry
-            if (retryCounter > 0) {
-                LOG.warn("Netconf WRITE transaction failed to {}. Restarting transaction ... ", e.getMessage());
-                return write(mountpoint, data, --retryCounter);
-            } else {
-                LOG.warn("Netconf WRITE transaction unsuccessful. Maximal number of attempts reached. Trace: {}", e);
-                return false;
-            }
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted while waiting for netconf transaction", e);
+            return false;
+        } catch (ExecutionException e) {
+            LOG.warn("Netconf transaction unsuccessful. Trace: {}", e);
+            return false;
         }
     }
 
@@ -316,7 +311,7 @@ public class GbpNetconfTransaction {
      * @param <T>           generic data type. Has to be child of {@link DataObject}
      * @return optional data object if successful, {@link Optional#absent()} if failed
      */
-    public static synchronized <T extends DataObject> Optional<T> read(final InstanceIdentifier<Node> vppIid,
+    public static <T extends DataObject> Optional<T> read(final InstanceIdentifier<Node> vppIid,
         final LogicalDatastoreType datastoreType, final InstanceIdentifier<T> iid, byte retryCounter) {
         LOG.trace("Netconf READ transaction started. RetryCounter: {}", retryCounter);
         Preconditions.checkNotNull(vppIid);
@@ -341,99 +336,4 @@ public class GbpNetconfTransaction {
             }
         }
     }
-
-    /**
-     * Remove data from remote device using {@link ConfigCommand}
-     * @param vppIid       destination node
-     * @param command      config command with data, datastore type and iid
-     * @param retryCounter number of attempts
-     * @return true if transaction is successful, false otherwise
-     */
-    private static boolean deleteIfExists(final InstanceIdentifier<Node> vppIid, final AbstractInterfaceCommand command,
-        byte retryCounter) {
-        Preconditions.checkNotNull(vppIid);
-        InstanceIdentifier<Interface> iid = VppIidFactory.getInterfaceIID(command.getInterfaceBuilder().getKey());
-        return deleteIfExists(vppIid, iid, retryCounter);
-    }
-
-    /**
-     * Remove data from remote device. Data presence is verified before removal. Transaction is restarted if failed.
-     * @param vppIid       destination node
-     * @param iid          data identifier
-     * @param retryCounter number of attempts
-     * @param <T>          generic data type. Has to be child of {@link DataObject}
-     * @return true if transaction is successful, false otherwise
-     */
-    private static <T extends DataObject> boolean deleteIfExists(final InstanceIdentifier<Node> vppIid,
-        final InstanceIdentifier<T> iid, byte retryCounter) {
-        LOG.trace("Netconf DELETE transaction started. Data will be read at first. RetryCounter: {}", retryCounter);
-        Preconditions.checkNotNull(vppIid);
-        DataBroker mountpoint = VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getKey();
-        final Optional<T> optionalObject = read(vppIid, LogicalDatastoreType.CONFIGURATION, iid, RETRY_COUNT);
-        if (!optionalObject.isPresent()) {
-            LOG.warn("Netconf DELETE transaction aborted. Data to remove are not present or cannot be read. Iid: {}",
-                iid);
-            // Return true, this state is not considered as an error
-            return true;
-        }
-        final ReadWriteTransaction rwTx = mountpoint.newReadWriteTransaction();
-        try {
-            rwTx.delete(LogicalDatastoreType.CONFIGURATION, iid);
-            final CheckedFuture<Void, TransactionCommitFailedException> futureTask = rwTx.submit();
-            futureTask.get();
-            LOG.trace("Netconf DELETE transaction done for {}", iid);
-            return true;
-        } catch (Exception e) {
-            // Retry
-            if (retryCounter > 0) {
-                LOG.warn("Netconf DELETE transaction failed to {}. Restarting transaction ... ", e.getMessage());
-                return deleteIfExists(vppIid, iid, --retryCounter);
-            } else {
-                LOG.warn("Netconf DELETE transaction unsuccessful. Maximal number of attempts reached. Trace: {}", e);
-                return false;
-            }
-        }
-    }
-
-    private static <T extends DataObject> boolean deleteIfExists(final InstanceIdentifier<Node> vppIid,
-            final Set<InstanceIdentifier<T>> iids, byte retryCounter) {
-        LOG.trace("Netconf DELETE transaction started. Data will be read at first. RetryCounter: {}", retryCounter);
-        Preconditions.checkNotNull(vppIid);
-        final ReadWriteTransaction rwTx =
-            VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid).getKey().newReadWriteTransaction();
-        Set<InstanceIdentifier<T>> alreadyRemoved = new HashSet<>();
-        for (InstanceIdentifier<T> iid : iids) {
-            short microReadRetries = 3;
-            while (microReadRetries > 0) {
-                try {
-                    if (rwTx.read(LogicalDatastoreType.CONFIGURATION, iid).get().isPresent()) {
-                        rwTx.delete(LogicalDatastoreType.CONFIGURATION, iid);
-                    } else {
-                        LOG.warn("Node {} does not exist. It won't be removed.", iid.getPathArguments());
-                        alreadyRemoved.add(iid);
-                    }
-                    break;
-                } catch (InterruptedException | ExecutionException e) {
-                    LOG.warn("Failed to read {}. Retrying... ", iid.getPathArguments());
-                    microReadRetries--;
-                }
-            }
-        }
-        alreadyRemoved.forEach(t -> iids.remove(t));
-        try {
-            final CheckedFuture<Void, TransactionCommitFailedException> futureTask = rwTx.submit();
-            futureTask.get();
-            LOG.trace("Netconf DELETE transaction done for {}", iids);
-            return true;
-        } catch (Exception e) {
-            // Retry
-            if (retryCounter > 0) {
-                LOG.warn("Netconf DELETE transaction failed to {}. Restarting transaction ... ", e.getMessage());
-                return deleteIfExists(vppIid, iids, --retryCounter);
-            } else {
-                LOG.warn("Netconf DELETE transaction unsuccessful. Maximal number of attempts reached. Trace: {}", e);
-                return false;
-            }
-        }
-    }
 }
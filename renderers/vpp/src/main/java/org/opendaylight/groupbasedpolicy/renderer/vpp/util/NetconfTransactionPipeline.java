@@ -0,0 +1,488 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.vpp.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
+import org.opendaylight.vbd.impl.transaction.VbdNetconfTransaction;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Asynchronous per-node pipeline of NETCONF operations.<br>
+ * Operations queued for a node are executed in the order in which they were submitted. Consecutive
+ * operations are coalesced into one transaction (one edit-config) unless they touch overlapping paths.
+ * Up to {@code maxInFlight} transactions of a node may be in flight at the same time, but never two
+ * transactions touching overlapping paths. Commits of a node are serialized by its mountpoint lock. An operation of an unknown path is a barrier, it is executed
+ * alone.<br>
+ * When a coalesced transaction fails, its operations are retried one by one so that a single faulty
+ * operation does not fail the others. A failed operation is retried after exponential backoff until
+ * its retry counter is exhausted; overlapping operations queued after it wait for it.<br>
+ * Commits are executed by an executor of the owner, the pipeline only owns the thread scheduling retries.
+ */
+public class NetconfTransactionPipeline implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NetconfTransactionPipeline.class);
+    private static final int MAX_BATCH_SIZE = 64;
+
+    private final int maxInFlight;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final ConcurrentMap<InstanceIdentifier<Node>, NodeLane> lanes = new ConcurrentHashMap<>();
+    private final Executor commitExecutor;
+    private final ScheduledExecutorService backoffExecutor;
+    private volatile boolean closed;
+
+    /**
+     * Operation executed in a NETCONF transaction
+     */
+    public interface Operation {
+
+        /**
+         * Called before a transaction is created, e.g. to verify presence of data to remove
+         *
+         * @return {@code false} if the operation has nothing to do
+         */
+        default boolean isRequired() {
+            return true;
+        }
+
+        void apply(ReadWriteTransaction rwTx);
+    }
+
+    /**
+     * @param maxInFlight max. number of transactions per node waiting for commit
+     * @param initialBackoffMillis delay before the first retry of a failed operation
+     * @param maxBackoffMillis max. delay before a retry
+     * @param commitExecutor executes commits, it is not shut down when the pipeline is closed
+     */
+    public NetconfTransactionPipeline(int maxInFlight, long initialBackoffMillis, long maxBackoffMillis,
+            @Nonnull Executor commitExecutor) {
+        Preconditions.checkArgument(maxInFlight > 0, "Max. transactions in flight has to be positive");
+        Preconditions.checkArgument(initialBackoffMillis >= 0 && maxBackoffMillis >= initialBackoffMillis,
+                "Invalid backoff %s - %s ms", initialBackoffMillis, maxBackoffMillis);
+        this.maxInFlight = maxInFlight;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.commitExecutor = Preconditions.checkNotNull(commitExecutor);
+        this.backoffExecutor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("gbp-vpp-netconf-backoff-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Queues the operation for the node
+     *
+     * @param vppIid destination node
+     * @param paths paths touched by the operation, {@code null} path is treated as unknown
+     * @param operation the operation
+     * @param retryCounter number of retries if the operation fails
+     * @return future with {@code true} if the operation was committed, {@code false} if it failed
+     */
+    public ListenableFuture<Boolean> submit(@Nonnull InstanceIdentifier<Node> vppIid,
+            @Nonnull Collection<? extends InstanceIdentifier<?>> paths, @Nonnull Operation operation,
+            byte retryCounter) {
+        Preconditions.checkNotNull(vppIid);
+        PendingOperation pending = new PendingOperation(paths, Preconditions.checkNotNull(operation), retryCounter);
+        NodeLane lane = getLane(vppIid);
+        synchronized (lane) {
+            if (closed) {
+                LOG.warn("Netconf transaction pipeline is closed, operation for {} is dropped.", vppIid);
+                pending.result.set(false);
+                return pending.result;
+            }
+            lane.queue.add(pending);
+        }
+        dispatch(lane);
+        return pending.result;
+    }
+
+    private NodeLane getLane(InstanceIdentifier<Node> vppIid) {
+        NodeLane lane = lanes.get(vppIid);
+        if (lane == null) {
+            lanes.putIfAbsent(vppIid, new NodeLane(vppIid));
+            lane = lanes.get(vppIid);
+        }
+        return lane;
+    }
+
+    /**
+     * Starts transactions of the node while the number of transactions in flight is below limit and
+     * the head of the queue does not overlap with them
+     */
+    private void dispatch(NodeLane lane) {
+        if (closed) {
+            // operations requeued by transactions which finished after the pipeline was closed
+            failQueued(lane);
+            return;
+        }
+        List<Batch> started = new ArrayList<>();
+        synchronized (lane) {
+            while (lane.inFlight.size() < maxInFlight && !lane.queue.isEmpty()) {
+                Batch batch = lane.pollBatch();
+                if (batch == null) {
+                    break;
+                }
+                lane.inFlight.add(batch);
+                started.add(batch);
+            }
+        }
+        for (Batch batch : started) {
+            try {
+                commitExecutor.execute(() -> commit(lane, batch));
+            } catch (RejectedExecutionException e) {
+                // the executor rejects commits only when it is shut down
+                LOG.warn("Netconf transaction with {} operations for {} rejected. {}", batch.operations.size(),
+                        lane.vppIid, e.getMessage());
+                synchronized (lane) {
+                    lane.inFlight.remove(batch);
+                }
+                batch.operations.forEach(operation -> operation.result.set(false));
+                failQueued(lane);
+            }
+        }
+    }
+
+    private static void failQueued(NodeLane lane) {
+        List<PendingOperation> failed;
+        synchronized (lane) {
+            failed = new ArrayList<>(lane.queue);
+            lane.queue.clear();
+        }
+        failed.forEach(operation -> operation.result.set(false));
+    }
+
+    private void commit(NodeLane lane, Batch batch) {
+        long started = System.nanoTime();
+        try {
+            if (commitTransaction(lane.vppIid, batch)) {
+                lane.commitDone(System.nanoTime() - started, batch.operations.size());
+                LOG.trace("Netconf transaction with {} operations committed to {}", batch.operations.size(),
+                        lane.vppIid);
+            }
+        } catch (Exception e) {
+            commitFailed(lane, batch, e);
+            return;
+        }
+        release(lane, batch);
+        for (PendingOperation operation : batch.operations) {
+            operation.result.set(true);
+        }
+    }
+
+    /**
+     * The mountpoint lock is held until the commit completes. Other writers of the node (e.g. VBD) lock
+     * the mountpoint for a whole transaction including its commit, so edit-configs of the node never
+     * interleave with theirs. Transactions of a node in flight therefore overlap only in preparation.
+     *
+     * @return {@code true} if the transaction was committed, {@code false} if no operation of the batch is
+     *         required
+     */
+    private static boolean commitTransaction(InstanceIdentifier<Node> vppIid, Batch batch)
+            throws InterruptedException, ExecutionException {
+        Map.Entry<DataBroker, ReentrantLock> mountpoint = VbdNetconfTransaction.NODE_DATA_BROKER_MAP.get(vppIid);
+        Preconditions.checkState(mountpoint != null, "Mountpoint of node %s is not available", vppIid);
+        mountpoint.getValue().lock();
+        try {
+            List<Operation> required = new ArrayList<>(batch.operations.size());
+            for (PendingOperation operation : batch.operations) {
+                if (operation.operation.isRequired()) {
+                    required.add(operation.operation);
+                }
+            }
+            if (required.isEmpty()) {
+                return false;
+            }
+            ReadWriteTransaction rwTx = mountpoint.getKey().newReadWriteTransaction();
+            try {
+                required.forEach(operation -> operation.apply(rwTx));
+            } catch (RuntimeException e) {
+                rwTx.cancel();
+                throw e;
+            }
+            rwTx.submit().get();
+            return true;
+        } finally {
+            mountpoint.getValue().unlock();
+        }
+    }
+
+    private void commitFailed(NodeLane lane, Batch batch, Exception e) {
+        if (batch.operations.size() > 1) {
+            LOG.debug("Netconf transaction with {} operations failed on {}, retrying them one by one. {}",
+                    batch.operations.size(), lane.vppIid, e.getMessage());
+            synchronized (lane) {
+                lane.requeue(batch.operations);
+            }
+            release(lane, batch);
+            return;
+        }
+        PendingOperation operation = batch.operations.get(0);
+        if (operation.retriesLeft <= 0 || backoffExecutor.isShutdown()) {
+            LOG.warn("Netconf transaction unsuccessful. Maximal number of attempts reached. Trace: {}", e);
+            lane.failedOperations.incrementAndGet();
+            release(lane, batch);
+            operation.result.set(false);
+            return;
+        }
+        long backoff = getBackoffMillis(operation.failures++);
+        operation.retriesLeft--;
+        lane.retries.incrementAndGet();
+        LOG.warn("Netconf transaction failed to {}. Restarting transaction in {} ms ... ", e.getMessage(), backoff);
+        synchronized (lane) {
+            lane.requeue(batch.operations);
+        }
+        // the batch stays in flight so that overlapping operations do not overtake the retry
+        try {
+            backoffExecutor.schedule(() -> release(lane, batch), backoff, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException closedException) {
+            release(lane, batch);
+        }
+    }
+
+    private long getBackoffMillis(int failures) {
+        if (failures >= Long.numberOfLeadingZeros(initialBackoffMillis) - 1) {
+            return maxBackoffMillis;
+        }
+        return Math.min(initialBackoffMillis << failures, maxBackoffMillis);
+    }
+
+    private void release(NodeLane lane, Batch batch) {
+        synchronized (lane) {
+            lane.inFlight.remove(batch);
+        }
+        dispatch(lane);
+    }
+
+    /**
+     * @return number of operations queued for the node and not yet in flight
+     */
+    public int getQueueDepth(InstanceIdentifier<Node> vppIid) {
+        NodeLane lane = lanes.get(vppIid);
+        if (lane == null) {
+            return 0;
+        }
+        synchronized (lane) {
+            return lane.queue.size();
+        }
+    }
+
+    /**
+     * @return number of transactions of the node waiting for commit or retry
+     */
+    public int getInFlight(InstanceIdentifier<Node> vppIid) {
+        NodeLane lane = lanes.get(vppIid);
+        if (lane == null) {
+            return 0;
+        }
+        synchronized (lane) {
+            return lane.inFlight.size();
+        }
+    }
+
+    /**
+     * @return latency of the last transaction committed to the node in milliseconds
+     */
+    public long getLastCommitLatencyMillis(InstanceIdentifier<Node> vppIid) {
+        NodeLane lane = lanes.get(vppIid);
+        return lane == null ? 0 : TimeUnit.NANOSECONDS.toMillis(lane.lastCommitNanos);
+    }
+
+    /**
+     * @return average latency of transactions committed to the node in milliseconds
+     */
+    public long getAverageCommitLatencyMillis(InstanceIdentifier<Node> vppIid) {
+        NodeLane lane = lanes.get(vppIid);
+        if (lane == null || lane.committedTransactions.get() == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(lane.totalCommitNanos.get() / lane.committedTransactions.get());
+    }
+
+    /**
+     * @return number of transactions committed to the node
+     */
+    public long getCommittedTransactionCount(InstanceIdentifier<Node> vppIid) {
+        NodeLane lane = lanes.get(vppIid);
+        return lane == null ? 0 : lane.committedTransactions.get();
+    }
+
+    /**
+     * @return number of operations committed to the node, higher than number of transactions when
+     *         operations were coalesced
+     */
+    public long getCommittedOperationCount(InstanceIdentifier<Node> vppIid) {
+        NodeLane lane = lanes.get(vppIid);
+        return lane == null ? 0 : lane.committedOperations.get();
+    }
+
+    /**
+     * @return number of operations which failed on the node after all retries
+     */
+    public long getFailedOperationCount(InstanceIdentifier<Node> vppIid) {
+        NodeLane lane = lanes.get(vppIid);
+        return lane == null ? 0 : lane.failedOperations.get();
+    }
+
+    /**
+     * @return number of retries of failed operations on the node
+     */
+    public long getRetryCount(InstanceIdentifier<Node> vppIid) {
+        NodeLane lane = lanes.get(vppIid);
+        return lane == null ? 0 : lane.retries.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        backoffExecutor.shutdownNow();
+        lanes.values().forEach(NetconfTransactionPipeline::failQueued);
+    }
+
+    private static boolean overlaps(List<InstanceIdentifier<?>> paths, List<InstanceIdentifier<?>> otherPaths) {
+        for (InstanceIdentifier<?> path : paths) {
+            for (InstanceIdentifier<?> otherPath : otherPaths) {
+                if (path == null || otherPath == null || path.contains(otherPath) || otherPath.contains(path)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Operations and transactions of a node, guarded by itself
+     */
+    private static class NodeLane {
+
+        private final InstanceIdentifier<Node> vppIid;
+        private final Deque<PendingOperation> queue = new ArrayDeque<>();
+        private final List<Batch> inFlight = new ArrayList<>();
+        private final AtomicLong committedTransactions = new AtomicLong();
+        private final AtomicLong committedOperations = new AtomicLong();
+        private final AtomicLong failedOperations = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong totalCommitNanos = new AtomicLong();
+        private volatile long lastCommitNanos;
+
+        NodeLane(InstanceIdentifier<Node> vppIid) {
+            this.vppIid = vppIid;
+        }
+
+        /**
+         * Takes consecutive operations from the head of the queue which do not overlap with each other
+         * nor with transactions in flight
+         *
+         * @return batch or {@code null} if the head of the queue has to wait
+         */
+        @Nullable
+        Batch pollBatch() {
+            Batch batch = null;
+            while (!queue.isEmpty()) {
+                PendingOperation next = queue.peek();
+                if (overlapsInFlight(next) || (batch != null && (next.retried || batch.retried
+                        || batch.operations.size() >= MAX_BATCH_SIZE || overlaps(next.paths, batch.paths)))) {
+                    break;
+                }
+                if (batch == null) {
+                    batch = new Batch(next.retried);
+                }
+                batch.add(queue.poll());
+            }
+            return batch;
+        }
+
+        private boolean overlapsInFlight(PendingOperation operation) {
+            for (Batch batch : inFlight) {
+                if (overlaps(operation.paths, batch.paths)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void requeue(List<PendingOperation> operations) {
+            ListIterator<PendingOperation> iterator = operations.listIterator(operations.size());
+            while (iterator.hasPrevious()) {
+                PendingOperation operation = iterator.previous();
+                operation.retried = true;
+                queue.addFirst(operation);
+            }
+        }
+
+        void commitDone(long latencyNanos, int operations) {
+            lastCommitNanos = latencyNanos;
+            totalCommitNanos.addAndGet(latencyNanos);
+            committedTransactions.incrementAndGet();
+            committedOperations.addAndGet(operations);
+        }
+    }
+
+    private static class Batch {
+
+        private final boolean retried;
+        private final List<PendingOperation> operations = new ArrayList<>();
+        private final List<InstanceIdentifier<?>> paths = new ArrayList<>();
+
+        Batch(boolean retried) {
+            this.retried = retried;
+        }
+
+        void add(PendingOperation operation) {
+            operations.add(operation);
+            paths.addAll(operation.paths);
+        }
+    }
+
+    private static class PendingOperation {
+
+        private final List<InstanceIdentifier<?>> paths;
+        private final Operation operation;
+        private final SettableFuture<Boolean> result = SettableFuture.create();
+        private int retriesLeft;
+        private int failures;
+        // retried operations are not coalesced
+        private boolean retried;
+
+        PendingOperation(Collection<? extends InstanceIdentifier<?>> paths, Operation operation, byte retryCounter) {
+            // no path means an unknown path
+            this.paths = paths.isEmpty() ? Collections.singletonList(null) : new ArrayList<>(paths);
+            this.operation = operation;
+            this.retriesLeft = retryCounter;
+        }
+    }
+}
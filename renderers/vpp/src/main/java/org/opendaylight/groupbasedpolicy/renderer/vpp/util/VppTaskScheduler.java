@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.vpp.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Renderer-wide pool of worker threads shared by VPP managers.<br>
+ * Tasks submitted for a VPP node are executed one by one in order of submission, tasks for different nodes
+ * are executed in parallel. Tasks not bound to a node are executed in any order. Number of queued tasks
+ * is limited per node and for tasks not bound to a node, tasks over the limit are rejected with
+ * {@link RejectedExecutionException}.<br>
+ * Tasks wait for commits of NETCONF transactions, so commits are executed by a separate pool of the same size.
+ */
+public class VppTaskScheduler implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VppTaskScheduler.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final ExecutorService executor;
+    private final ExecutorService commitExecutor;
+    private final int maxQueuedTasks;
+    private final ConcurrentMap<NodeId, NodeLane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * @param poolSize number of worker threads
+     * @param maxQueuedTasks maximum number of tasks waiting for execution per node and for tasks not bound
+     *        to a node
+     */
+    public VppTaskScheduler(int poolSize, int maxQueuedTasks) {
+        Preconditions.checkArgument(poolSize > 0, "Pool size has to be positive.");
+        Preconditions.checkArgument(maxQueuedTasks > 0, "Queue limit has to be positive.");
+        this.maxQueuedTasks = maxQueuedTasks;
+        this.executor = Executors.newFixedThreadPool(poolSize,
+                new ThreadFactoryBuilder().setNameFormat("gbp-vpp-worker-%d").setDaemon(true).build());
+        this.commitExecutor = Executors.newFixedThreadPool(poolSize,
+                new ThreadFactoryBuilder().setNameFormat("gbp-vpp-commit-%d").setDaemon(true).build());
+    }
+
+    /**
+     * @return executor for commits of NETCONF transactions, shut down when the scheduler is closed
+     */
+    public Executor getCommitExecutor() {
+        return commitExecutor;
+    }
+
+    /**
+     * Submits task which does not have to be ordered with other tasks.
+     *
+     * @param task to execute
+     * @return future with result of the task, failed with {@link RejectedExecutionException} if the task was
+     *         rejected
+     */
+    public <T> ListenableFuture<T> submit(@Nonnull Callable<T> task) {
+        if (closed || pendingTasks.incrementAndGet() > maxQueuedTasks) {
+            if (!closed) {
+                pendingTasks.decrementAndGet();
+            }
+            return reject("Task rejected, too many tasks are queued or scheduler is closed.");
+        }
+        ListenableFutureTask<T> futureTask = ListenableFutureTask.create(counted(task));
+        futureTask.addListener(pendingTasks::decrementAndGet, MoreExecutors.directExecutor());
+        try {
+            executor.execute(futureTask);
+        } catch (RejectedExecutionException e) {
+            futureTask.cancel(false);
+            return reject("Task rejected, scheduler is closed.");
+        }
+        return futureTask;
+    }
+
+    /**
+     * Submits task which is executed after all tasks previously submitted for the same node.
+     *
+     * @param nodeId VPP node the task is bound to
+     * @param task to execute
+     * @return future with result of the task, failed with {@link RejectedExecutionException} if the task was
+     *         rejected
+     */
+    public <T> ListenableFuture<T> submit(@Nonnull NodeId nodeId, @Nonnull Callable<T> task) {
+        while (true) {
+            ListenableFuture<T> future = lanes.computeIfAbsent(nodeId, NodeLane::new).enqueue(task);
+            if (future != null) {
+                return future;
+            }
+            // the lane of a removed node was dropped meanwhile
+        }
+    }
+
+    /**
+     * Drops the lane of a removed node once tasks already submitted for the node are executed.
+     *
+     * @param nodeId removed VPP node
+     */
+    public void nodeRemoved(@Nonnull NodeId nodeId) {
+        NodeLane lane = lanes.get(nodeId);
+        if (lane != null) {
+            lane.retire();
+        }
+    }
+
+    /**
+     * Completion is counted before the future of the task completes, so that callers waiting for the future
+     * see the task counted.
+     */
+    private <T> Callable<T> counted(Callable<T> task) {
+        return () -> {
+            try {
+                return task.call();
+            } finally {
+                completedTasks.incrementAndGet();
+            }
+        };
+    }
+
+    private <T> ListenableFuture<T> reject(String message) {
+        rejectedTasks.incrementAndGet();
+        LOG.warn(message);
+        return Futures.immediateFailedFuture(new RejectedExecutionException(message));
+    }
+
+    /**
+     * @return number of tasks waiting for execution or being executed for the node
+     */
+    public int getQueueDepth(@Nonnull NodeId nodeId) {
+        NodeLane lane = lanes.get(nodeId);
+        return lane == null ? 0 : lane.size();
+    }
+
+    /**
+     * @return number of tasks not bound to a node waiting for execution or being executed
+     */
+    public int getPendingTaskCount() {
+        return pendingTasks.get();
+    }
+
+    public long getCompletedTaskCount() {
+        return completedTasks.get();
+    }
+
+    public long getRejectedTaskCount() {
+        return rejectedTasks.get();
+    }
+
+    /**
+     * Rejects new tasks, cancels queued tasks and waits for running tasks and commits to finish.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        lanes.values().forEach(NodeLane::cancelQueued);
+        // running tasks may wait for commits
+        awaitTermination(executor, "tasks");
+        awaitTermination(commitExecutor, "commits");
+    }
+
+    private static void awaitTermination(ExecutorService executorService, String name) {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("VPP renderer {} did not finish in {} seconds, interrupting them.", name,
+                        SHUTDOWN_TIMEOUT_SECONDS);
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Serial queue of tasks for a single node. At most one task of the lane is submitted to the executor.
+     */
+    private final class NodeLane {
+
+        private final NodeId nodeId;
+        private final Deque<ListenableFutureTask<?>> queue = new ArrayDeque<>();
+        private boolean running;
+        // the node was removed, the lane is dropped when it becomes idle
+        private boolean retired;
+        private boolean dropped;
+
+        NodeLane(NodeId nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        /**
+         * @return future of the task or {@code null} if the lane was dropped
+         */
+        @Nullable
+        <T> ListenableFuture<T> enqueue(Callable<T> task) {
+            ListenableFutureTask<T> futureTask = ListenableFutureTask.create(counted(task));
+            synchronized (this) {
+                if (dropped) {
+                    return null;
+                }
+                if (closed) {
+                    return reject("Task for node " + nodeId.getValue() + " rejected, scheduler is closed.");
+                }
+                if (queue.size() >= maxQueuedTasks) {
+                    return reject("Task for node " + nodeId.getValue() + " rejected, " + queue.size()
+                            + " tasks are queued.");
+                }
+                queue.add(futureTask);
+                if (running) {
+                    return futureTask;
+                }
+                running = true;
+            }
+            dispatchNext();
+            return futureTask;
+        }
+
+        private void dispatchNext() {
+            ListenableFutureTask<?> next;
+            synchronized (this) {
+                next = queue.poll();
+                if (next == null) {
+                    running = false;
+                    if (retired) {
+                        drop();
+                    }
+                    return;
+                }
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        next.run();
+                    } finally {
+                        dispatchNext();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                next.cancel(false);
+                cancelQueued();
+            }
+        }
+
+        void cancelQueued() {
+            List<ListenableFutureTask<?>> cancelled;
+            synchronized (this) {
+                cancelled = new ArrayList<>(queue);
+                queue.clear();
+                running = false;
+            }
+            if (!cancelled.isEmpty()) {
+                LOG.debug("Cancelling {} queued tasks for node {}.", cancelled.size(), nodeId.getValue());
+            }
+            cancelled.forEach(task -> task.cancel(false));
+        }
+
+        synchronized void retire() {
+            retired = true;
+            if (!running) {
+                drop();
+            }
+        }
+
+        // guarded by this
+        private void drop() {
+            dropped = true;
+            lanes.remove(nodeId, this);
+            LOG.debug("Dropped task lane of removed node {}.", nodeId.getValue());
+        }
+
+        synchronized int size() {
+            return queue.size() + (running ? 1 : 0);
+        }
+    }
+}
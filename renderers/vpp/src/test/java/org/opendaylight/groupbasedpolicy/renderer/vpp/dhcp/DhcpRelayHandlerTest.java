@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -23,8 +24,10 @@ import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.VppRendererDataBrokerTest;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.commands.DhcpRelayCommand;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.GbpNetconfTransaction;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.General;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.MountedDataBrokerProvider;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.NetconfTransactionPipeline;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.VppIidFactory;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.vbd.impl.transaction.VbdNetconfTransaction;
@@ -54,6 +57,7 @@ import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import com.google.common.base.Optional;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public class DhcpRelayHandlerTest extends VppRendererDataBrokerTest {
 
@@ -97,9 +101,12 @@ public class DhcpRelayHandlerTest extends VppRendererDataBrokerTest {
         .build();
     private DataBroker dataBroker;
     private MountedDataBrokerProvider mountedDataProviderMock;
+    private NetconfTransactionPipeline netconfPipeline;
 
     @Before
     public void init() throws ExecutionException, InterruptedException {
+        netconfPipeline = GbpNetconfTransaction.createPipeline(MoreExecutors.directExecutor());
+        GbpNetconfTransaction.setPipeline(netconfPipeline);
         dataBroker = getDataBroker();
         mountedDataProviderMock = Mockito.mock(MountedDataBrokerProvider.class);
         VbdNetconfTransaction.NODE_DATA_BROKER_MAP.put(VppIidFactory.getNetconfNodeIid(TEST_NODE),
@@ -110,6 +117,12 @@ public class DhcpRelayHandlerTest extends VppRendererDataBrokerTest {
         writeBasicDhcpVppEp();
     }
 
+    @After
+    public void close() {
+        GbpNetconfTransaction.setPipeline(null);
+        netconfPipeline.close();
+    }
+
     @Test
     public void createIpv4DhcpRelayTest() throws ExecutionException, InterruptedException {
         DhcpRelayHandler dhcpRelayHandler = new DhcpRelayHandler(dataBroker);
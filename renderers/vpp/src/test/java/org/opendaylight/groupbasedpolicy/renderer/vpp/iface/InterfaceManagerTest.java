@@ -14,6 +14,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -24,7 +25,9 @@ import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.event.VppEndpointConfEvent;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.lisp.flat.overlay.FlatOverlayManager;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.GbpNetconfTransaction;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.MountedDataBrokerProvider;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.NetconfTransactionPipeline;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.VppIidFactory;
 import org.opendaylight.groupbasedpolicy.test.CustomDataBrokerTest;
 import org.opendaylight.groupbasedpolicy.util.IidFactory;
@@ -66,6 +69,7 @@ import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public class InterfaceManagerTest extends CustomDataBrokerTest {
 
@@ -86,6 +90,7 @@ public class InterfaceManagerTest extends CustomDataBrokerTest {
     private MountedDataBrokerProvider mountedDataProviderMock;
     private DataBroker mountPointDataBroker;
     private DataBroker dataBroker;
+    private NetconfTransactionPipeline netconfPipeline;
 
     @Override
     public Collection<Class<?>> getClassesFromModules() {
@@ -95,6 +100,8 @@ public class InterfaceManagerTest extends CustomDataBrokerTest {
 
     @Before
     public void init() throws Exception {
+        netconfPipeline = GbpNetconfTransaction.createPipeline(MoreExecutors.directExecutor());
+        GbpNetconfTransaction.setPipeline(netconfPipeline);
         mountedDataProviderMock = Mockito.mock(MountedDataBrokerProvider.class);
         flatOverlayManager = Mockito.mock(FlatOverlayManager.class);
         mountPointDataBroker = getDataBroker();
@@ -105,6 +112,12 @@ public class InterfaceManagerTest extends CustomDataBrokerTest {
         manager = new InterfaceManager(mountedDataProviderMock, dataBroker);
     }
 
+    @After
+    public void close() {
+        GbpNetconfTransaction.setPipeline(null);
+        netconfPipeline.close();
+    }
+
     @Test
     public void testVppEndpointChanged_created() throws Exception {
         AddressEndpoint addrEp = new AddressEndpointBuilder()
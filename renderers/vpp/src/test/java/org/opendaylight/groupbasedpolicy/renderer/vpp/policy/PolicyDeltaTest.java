@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.vpp.policy;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.DtoFactory;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.KeyFactory;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Address;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.NatAddressRenderer;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.NatAddressRendererBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.RendererPolicy;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.RendererPolicyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.Configuration;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.ConfigurationBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.RendererForwardingBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.RuleGroupsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.endpoints.AddressEndpointWithLocation;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.endpoints.AddressEndpointWithLocationBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.renderer.forwarding.RendererForwardingByTenant;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.renderer.forwarding.RendererForwardingByTenantBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.renderer.forwarding.RendererForwardingByTenantKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.renderer.forwarding.renderer.forwarding.by.tenant.RendererNetworkDomain;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.rule.groups.RuleGroup;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.rule.groups.RuleGroupBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.rule.groups.RuleGroupKey;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
+public class PolicyDeltaTest {
+
+    private static final String CLIENT_IP = "10.0.0.1/32";
+    private static final String CLIENT_MAC = "10:00:00:00:00:01";
+    private static final String WEB_IP = "20.0.0.1/32";
+    private static final String WEB_MAC = "10:00:00:00:00:02";
+    private static final TenantId TENANT_2 = new TenantId("tenant2");
+
+    private AddressEndpointWithLocation clientEp;
+    private AddressEndpointWithLocation webEp;
+    private Configuration configuration;
+
+    @Before
+    public void init() {
+        clientEp = DtoFactory.createEndpoint(CLIENT_IP, CLIENT_MAC, DtoFactory.L2FD_CTX.getValue(),
+                DtoFactory.absoluteLocation(DtoFactory.VPP_NODE_1_IID, null, "client"));
+        webEp = DtoFactory.createEndpoint(WEB_IP, WEB_MAC, DtoFactory.L2FD_CTX.getValue(),
+                DtoFactory.absoluteLocation(DtoFactory.VPP_NODE_1_IID, null, "web"));
+        configuration = DtoFactory.createConfiguration(Collections.singletonList(clientEp),
+                Collections.singletonList(webEp));
+    }
+
+    @Test
+    public void testNoChange() {
+        PolicyDelta delta = delta(configuration, configuration);
+
+        Assert.assertTrue(delta.getRemovedEndpoints().isEmpty());
+        Assert.assertTrue(delta.getCreatedEndpoints().isEmpty());
+        Assert.assertTrue(delta.getMovedEndpoints().isEmpty());
+        Assert.assertTrue(delta.getRemovedRuleGroups().isEmpty());
+        Assert.assertTrue(delta.getCreatedRuleGroups().isEmpty());
+        Assert.assertFalse(delta.isForwardingChanged());
+        Assert.assertTrue(delta.getRoutingTenants().isEmpty());
+        Assert.assertFalse(delta.isNatChanged());
+    }
+
+    @Test
+    public void testEndpointCreated() {
+        Configuration before = DtoFactory.createConfiguration(Collections.singletonList(clientEp),
+                Collections.emptyList());
+        PolicyDelta delta = delta(before, configuration);
+
+        // end-points without peers are not part of policy
+        Assert.assertEquals(ImmutableSet.of(KeyFactory.rendererEndpointKey(clientEp.getKey()),
+                KeyFactory.rendererEndpointKey(webEp.getKey())), delta.getCreatedEndpoints());
+        Assert.assertTrue(delta.getRemovedEndpoints().isEmpty());
+        Assert.assertFalse(delta.isForwardingChanged());
+        Assert.assertEquals(ImmutableSet.of(DtoFactory.TENANT_ID), delta.getRoutingTenants());
+    }
+
+    @Test
+    public void testEndpointMoved() {
+        AddressEndpointWithLocation movedClientEp = new AddressEndpointWithLocationBuilder(clientEp)
+            .setAbsoluteLocation(DtoFactory.absoluteLocation(DtoFactory.VPP_NODE_2_IID, null, "client"))
+            .build();
+        Configuration after = DtoFactory.createConfiguration(Collections.singletonList(movedClientEp),
+                Collections.singletonList(webEp));
+        PolicyDelta delta = delta(configuration, after);
+
+        Assert.assertEquals(ImmutableSet.of(KeyFactory.rendererEndpointKey(clientEp.getKey())),
+                delta.getMovedEndpoints());
+        Assert.assertTrue(delta.getCreatedEndpoints().isEmpty());
+        Assert.assertTrue(delta.getRemovedEndpoints().isEmpty());
+        Assert.assertFalse(delta.isForwardingChanged());
+        // routing is synced for tenants of moved end-points even if forwarding did not change
+        Assert.assertEquals(ImmutableSet.of(DtoFactory.TENANT_ID), delta.getRoutingTenants());
+    }
+
+    @Test
+    public void testRuleGroupChanged() {
+        RuleGroup ruleGroup = Iterables.getOnlyElement(configuration.getRuleGroups().getRuleGroup());
+        Configuration after = new ConfigurationBuilder(configuration)
+            .setRuleGroups(new RuleGroupsBuilder()
+                .setRuleGroup(ImmutableList.of(new RuleGroupBuilder(ruleGroup).setOrder(1).build()))
+                .build())
+            .build();
+        PolicyDelta delta = delta(configuration, after);
+
+        RuleGroupKey ruleGroupKey = ruleGroup.getKey();
+        Assert.assertEquals(ImmutableSet.of(ruleGroupKey), delta.getRemovedRuleGroups());
+        Assert.assertEquals(ImmutableSet.of(ruleGroupKey), delta.getCreatedRuleGroups());
+        Assert.assertTrue(delta.getMovedEndpoints().isEmpty());
+        Assert.assertFalse(delta.isForwardingChanged());
+    }
+
+    @Test
+    public void testForwardingDiffPerTenant() {
+        RendererForwardingByTenant forwarding = Iterables
+            .getOnlyElement(configuration.getRendererForwarding().getRendererForwardingByTenant());
+        RendererForwardingByTenant newTenantForwarding = new RendererForwardingByTenantBuilder(forwarding)
+            .setKey(new RendererForwardingByTenantKey(TENANT_2))
+            .setTenantId(TENANT_2)
+            .build();
+        Configuration withNewTenant = withForwarding(forwarding, newTenantForwarding);
+        PolicyDelta delta = delta(configuration, withNewTenant);
+
+        Assert.assertTrue(delta.isForwardingChanged());
+        Assert.assertEquals(ImmutableSet.of(TENANT_2), delta.getCreatedForwarding());
+        Assert.assertTrue(delta.getRemovedForwarding().isEmpty());
+        Assert.assertEquals(ImmutableSet.of(TENANT_2), delta.getRoutingTenants());
+        Assert.assertTrue(delta.isNatChanged());
+
+        RendererForwardingByTenant changedForwarding = new RendererForwardingByTenantBuilder(forwarding)
+            .setRendererNetworkDomain(ImmutableList.<RendererNetworkDomain>of())
+            .build();
+        delta = delta(withNewTenant, withForwarding(changedForwarding));
+
+        Assert.assertEquals(ImmutableSet.of(DtoFactory.TENANT_ID, TENANT_2), delta.getRemovedForwarding());
+        Assert.assertEquals(ImmutableSet.of(DtoFactory.TENANT_ID), delta.getCreatedForwarding());
+    }
+
+    @Test
+    public void testNatChanged() {
+        AddressEndpointWithLocation natClientEp = new AddressEndpointWithLocationBuilder(clientEp)
+            .addAugmentation(NatAddressRenderer.class,
+                    new NatAddressRendererBuilder().setNatAddress(new IpAddress(new Ipv4Address("192.168.0.1")))
+                        .build())
+            .build();
+        Configuration after = DtoFactory.createConfiguration(Collections.singletonList(natClientEp),
+                Collections.singletonList(webEp));
+        PolicyDelta delta = delta(configuration, after);
+
+        Assert.assertTrue(delta.isNatChanged());
+        Assert.assertFalse(delta.isForwardingChanged());
+        Assert.assertTrue(delta.getMovedEndpoints().isEmpty());
+        Assert.assertTrue(delta.getRoutingTenants().isEmpty());
+    }
+
+    private Configuration withForwarding(RendererForwardingByTenant... forwarding) {
+        return new ConfigurationBuilder(configuration)
+            .setRendererForwarding(
+                    new RendererForwardingBuilder().setRendererForwardingByTenant(ImmutableList.copyOf(forwarding))
+                        .build())
+            .build();
+    }
+
+    private static PolicyDelta delta(Configuration before, Configuration after) {
+        return new PolicyDelta(new PolicyContext(policy(1L, before)), new PolicyContext(policy(2L, after)));
+    }
+
+    private static RendererPolicy policy(long version, Configuration configuration) {
+        return new RendererPolicyBuilder().setVersion(version).setConfiguration(configuration).build();
+    }
+}
@@ -17,6 +17,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -42,8 +43,11 @@ import org.opendaylight.groupbasedpolicy.renderer.vpp.nat.CentralizedNatImpl;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.nat.NatManager;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.policy.acl.AclManager;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.routing.RoutingManager;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.GbpNetconfTransaction;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.KeyFactory;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.MountedDataBrokerProvider;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.NetconfTransactionPipeline;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.VppTaskScheduler;
 import org.opendaylight.groupbasedpolicy.test.CustomDataBrokerTest;
 import org.opendaylight.groupbasedpolicy.util.IidFactory;
 import org.opendaylight.vbd.impl.transaction.VbdNetconfTransaction;
@@ -100,6 +104,7 @@ import com.google.common.base.Optional;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.MoreExecutors;
 
 @RunWith(MockitoJUnitRunner.class)
 public class VppRendererPolicyManagerTest extends CustomDataBrokerTest {
@@ -142,6 +147,7 @@ public class VppRendererPolicyManagerTest extends CustomDataBrokerTest {
     private DhcpRelayHandler dhcpRelayHandler;
     private VppRendererPolicyManager vppRendererPolicyManager;
     private VppEndpointListener vppEndpointListener;
+    private NetconfTransactionPipeline netconfPipeline;
 
     @Override
     public Collection<Class<?>> getClassesFromModules() {
@@ -154,6 +160,8 @@ public class VppRendererPolicyManagerTest extends CustomDataBrokerTest {
 
     @Before
     public void init() throws Exception {
+        netconfPipeline = GbpNetconfTransaction.createPipeline(MoreExecutors.directExecutor());
+        GbpNetconfTransaction.setPipeline(netconfPipeline);
         mountedDataProviderMock = Mockito.mock(MountedDataBrokerProvider.class);
         mountPointDataBroker = getDataBroker();
         EventBus dtoEventBus = new EventBus((exception, context) -> LOG.error("Could not dispatch event: {} to {}",
@@ -167,7 +175,7 @@ public class VppRendererPolicyManagerTest extends CustomDataBrokerTest {
         loopbackManager = new LoopbackManager();
         flatOverlayManager = new FlatOverlayManager(dataBroker, mountedDataProviderMock, vppEndpointListener);
         ifaceManager = new InterfaceManager(mountedDataProviderMock, dataBroker);
-        aclManager = new AclManager(mountedDataProviderMock, ifaceManager);
+        aclManager = new AclManager(mountedDataProviderMock, ifaceManager, new VppTaskScheduler(2, 100));
         natManager = new CentralizedNatImpl(dataBroker);
         routingManager = new RoutingManager(dataBroker, mountedDataProviderMock);
         bdManager = new BridgeDomainManagerImpl(mountPointDataBroker);
@@ -182,6 +190,12 @@ public class VppRendererPolicyManagerTest extends CustomDataBrokerTest {
                 new AbstractMap.SimpleEntry<DataBroker, ReentrantLock>(mountPointDataBroker, new ReentrantLock()));
     }
 
+    @After
+    public void close() {
+        GbpNetconfTransaction.setPipeline(null);
+        netconfPipeline.close();
+    }
+
     @Test
     public void testRendererPolicyChanged_created_oneEpPerEpg() throws Exception {
         AbsoluteLocation clientLocation =
@@ -19,6 +19,7 @@ import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.iface.InterfaceManager;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.policy.PolicyContext;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.MountedDataBrokerProvider;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.VppTaskScheduler;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 
 import com.google.common.base.Optional;
@@ -41,7 +42,9 @@ public class AccessListUtilTest extends TestResources {
 
     @Test
     public void resolveAclsOnInterfaceTest() throws Exception {
-        AclManager aclManager = new AclManager(mountedDataProviderMock, Mockito.mock(InterfaceManager.class));
+        VppTaskScheduler scheduler = new VppTaskScheduler(1, 100);
+        AclManager aclManager =
+                new AclManager(mountedDataProviderMock, Mockito.mock(InterfaceManager.class), scheduler);
         List<AccessListWrapper> acls =
                 aclManager.resolveAclsOnInterface(rendererEndpointKey(l3AddrEp2.getKey()), ctx).get();
         Assert.assertEquals(2, acls.size());
@@ -54,5 +57,6 @@ public class AccessListUtilTest extends TestResources {
                 Assert.assertEquals(4, ace.readRules().size());
             }
         });
+        scheduler.close();
     }
 }
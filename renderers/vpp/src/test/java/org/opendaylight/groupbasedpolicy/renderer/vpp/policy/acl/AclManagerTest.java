@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -24,8 +25,11 @@ import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.iface.InterfaceManager;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.iface.VppPathMapper;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.policy.PolicyContext;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.GbpNetconfTransaction;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.MountedDataBrokerProvider;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.NetconfTransactionPipeline;
 import org.opendaylight.groupbasedpolicy.renderer.vpp.util.VppIidFactory;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.util.VppTaskScheduler;
 import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.vbd.impl.transaction.VbdNetconfTransaction;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160708.AccessLists;
@@ -41,6 +45,7 @@ import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import com.google.common.base.Optional;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Sets.SetView;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public class AclManagerTest extends TestResources {
 
@@ -48,20 +53,32 @@ public class AclManagerTest extends TestResources {
     private MountedDataBrokerProvider mountedDataProviderMock;
     private DataBroker mountPointDataBroker;
     private AclManager aclManager;
+    private VppTaskScheduler scheduler;
+    private NetconfTransactionPipeline netconfPipeline;
 
     @Before
     public void init() {
+        netconfPipeline = GbpNetconfTransaction.createPipeline(MoreExecutors.directExecutor());
+        GbpNetconfTransaction.setPipeline(netconfPipeline);
         ctx = super.createPolicyContext(createAddressEndpoints(), createRendEps(), createRuleGroups(),
                 createForwarding());
         mountedDataProviderMock = Mockito.mock(MountedDataBrokerProvider.class);
         mountPointDataBroker = getDataBroker();
-        aclManager = new AclManager(mountedDataProviderMock, Mockito.mock(InterfaceManager.class));
+        scheduler = new VppTaskScheduler(2, 100);
+        aclManager = new AclManager(mountedDataProviderMock, Mockito.mock(InterfaceManager.class), scheduler);
         Mockito.when(mountedDataProviderMock.resolveDataBrokerForMountPoint(Mockito.any(InstanceIdentifier.class)))
             .thenReturn(Optional.of(mountPointDataBroker));
         VbdNetconfTransaction.NODE_DATA_BROKER_MAP.put(VppIidFactory.getNetconfNodeIid(new NodeId("node1")),
                 new AbstractMap.SimpleEntry<DataBroker, ReentrantLock>(mountPointDataBroker, new ReentrantLock()));
     }
 
+    @After
+    public void close() {
+        GbpNetconfTransaction.setPipeline(null);
+        netconfPipeline.close();
+        scheduler.close();
+    }
+
     @Test
     public void oneEndpointChanged() {
         List<Acl> acls = processChangedEndpoints(Sets.newHashSet(rendererEndpointKey(l3AddrEp1.getKey())), true);
@@ -92,6 +109,33 @@ public class AclManagerTest extends TestResources {
         });
     }
 
+    @Test
+    public void oneEndpointChanged_unchangedRulesNotWrittenAgain() {
+        List<Acl> acls = processChangedEndpoints(Sets.newHashSet(rendererEndpointKey(l3AddrEp1.getKey())), true);
+        long written = aclManager.getAcesWritten();
+        Assert.assertEquals(0, aclManager.getAcesSkipped());
+
+        List<Acl> rewrittenAcls =
+                processChangedEndpoints(Sets.newHashSet(rendererEndpointKey(l3AddrEp1.getKey())), true);
+        Assert.assertEquals(acls.size(), rewrittenAcls.size());
+        acls.forEach(acl -> Assert.assertTrue(rewrittenAcls.stream()
+            .anyMatch(rewritten -> rewritten.getAclName().equals(acl.getAclName()) && rewritten
+                .getAccessListEntries().getAce().size() == acl.getAccessListEntries().getAce().size())));
+        Assert.assertTrue(aclManager.getAcesSkipped() > 0);
+        Assert.assertEquals(2 * written - aclManager.getAcesSkipped(), aclManager.getAcesWritten());
+    }
+
+    @Test
+    public void oneEndpointChanged_rulesWrittenAgainAfterNodeRemoved() {
+        processChangedEndpoints(Sets.newHashSet(rendererEndpointKey(l3AddrEp1.getKey())), true);
+        long written = aclManager.getAcesWritten();
+
+        aclManager.nodeRemoved(new NodeId("node1"));
+        processChangedEndpoints(Sets.newHashSet(rendererEndpointKey(l3AddrEp1.getKey())), true);
+        Assert.assertEquals(0, aclManager.getAcesSkipped());
+        Assert.assertEquals(2 * written, aclManager.getAcesWritten());
+    }
+
     @Test
     public void oneEndpointChanged_createRulesOnlyForChangedEpInPeer() {
         List<Acl> acls = processChangedEndpoints(Sets.newHashSet(rendererEndpointKey(l3AddrEp2.getKey())), true);
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.vpp.policy.acl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.groupbasedpolicy.renderer.util.AddressEndpointUtils;
+import org.opendaylight.groupbasedpolicy.renderer.vpp.policy.PolicyContext;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.interfaces.rev140508.interfaces.InterfaceKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.base_endpoint.rev160427.endpoints.address.endpoints.AddressEndpointKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.renderer.rev151103.renderers.renderer.renderer.policy.configuration.endpoints.AddressEndpointWithLocation;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+
+public class EndpointsByInterfaceIndexTest extends TestResources {
+
+    private static final String EP4_IP = "10.0.0.40/32";
+    private static final String EP4_MAC = "11:11:22:22:33:44";
+
+    private EndpointsByInterfaceIndex index;
+    private AddressEndpointWithLocation l3AddrEp4OnConnector1;
+    private AddressEndpointWithLocation l3AddrEp4OnConnector2;
+
+    @Before
+    public void init() {
+        index = new EndpointsByInterfaceIndex();
+        l3AddrEp4OnConnector1 = appendLocationToEndpoint(
+                l3AddressEndpointWithLocation(EP4_MAC, L2_BD_ID, EP4_IP, L3_CTX_ID), NODE1, NODE1_CONNECTOR_1);
+        l3AddrEp4OnConnector2 = appendLocationToEndpoint(
+                l3AddressEndpointWithLocation(EP4_MAC, L2_BD_ID, EP4_IP, L3_CTX_ID), NODE1, NODE1_CONNECTOR_2);
+    }
+
+    @Test
+    public void testUpdate_endpointsWithoutLocationNotIndexed() {
+        index.update(createContext(createAddressEndpoints()));
+
+        Assert.assertEquals(3, index.size());
+        Assert.assertTrue(index.getInterfaces(key(l2AddrEp1)).isEmpty());
+        Assert.assertEquals(ImmutableSetMultimap.of(NODE1, new InterfaceKey(NODE1_CONNECTOR_1)),
+                index.getInterfaces(key(l3AddrEp1)));
+        Assert.assertTrue(index.getEndpointsOnSameInterface(key(l3AddrEp1)).isEmpty());
+    }
+
+    @Test
+    public void testUpdate_endpointsOnSameInterface() {
+        List<AddressEndpointWithLocation> addrEps = createAddressEndpoints();
+        addrEps.add(l3AddrEp4OnConnector1);
+        index.update(createContext(addrEps));
+
+        ImmutableSet<AddressEndpointKey> expected = ImmutableSet.of(key(l3AddrEp1), key(l3AddrEp4OnConnector1));
+        Assert.assertEquals(expected, index.getEndpointsOnSameInterface(key(l3AddrEp1)));
+        Assert.assertEquals(expected, index.getEndpointsOnSameInterface(key(l3AddrEp4OnConnector1)));
+        Assert.assertTrue(index.getEndpointsOnSameInterface(key(l3AddrEp2)).isEmpty());
+    }
+
+    @Test
+    public void testUpdate_endpointMovedAndRemoved() {
+        List<AddressEndpointWithLocation> addrEps = createAddressEndpoints();
+        addrEps.add(l3AddrEp4OnConnector1);
+        index.update(createContext(addrEps));
+
+        addrEps = createAddressEndpoints();
+        addrEps.add(l3AddrEp4OnConnector2);
+        index.update(createContext(addrEps));
+        Assert.assertTrue(index.getEndpointsOnSameInterface(key(l3AddrEp1)).isEmpty());
+        Assert.assertEquals(ImmutableSet.of(key(l3AddrEp2), key(l3AddrEp4OnConnector2)),
+                index.getEndpointsOnSameInterface(key(l3AddrEp2)));
+
+        index.update(createContext(new ArrayList<>()));
+        Assert.assertEquals(0, index.size());
+        Assert.assertTrue(index.getInterfaces(key(l3AddrEp2)).isEmpty());
+    }
+
+    private PolicyContext createContext(List<AddressEndpointWithLocation> addrEps) {
+        return createPolicyContext(addrEps, new ArrayList<>(), createRuleGroups(), createForwarding());
+    }
+
+    private static AddressEndpointKey key(AddressEndpointWithLocation addrEp) {
+        return AddressEndpointUtils.fromAddressEndpointWithLocationKey(addrEp.getKey());
+    }
+}
@@ -20,6 +20,7 @@ import static org.mockito.Mockito.when;
 import java.util.AbstractMap;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
@@ -42,6 +43,7 @@ import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 
 import com.google.common.base.Optional;
 import com.google.common.util.concurrent.CheckedFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public class GbpNetconfTransactionTest {
 
@@ -61,15 +63,24 @@ public class GbpNetconfTransactionTest {
     private final CheckedFuture<Optional<Interface>, ReadFailedException> futureInterface = mock(CheckedFuture.class);
     private final AbstractInterfaceCommand command = mock(LoopbackCommand.class);
     private final InterfaceBuilder interfaceBuilder = new InterfaceBuilder().setKey(new InterfaceKey(INTERFACE_KEY));
+    private NetconfTransactionPipeline netconfPipeline;
 
     @Before
     public void init() {
+        netconfPipeline = GbpNetconfTransaction.createPipeline(MoreExecutors.directExecutor());
+        GbpNetconfTransaction.setPipeline(netconfPipeline);
         when(dataBroker.newReadOnlyTransaction()).thenReturn(rTx);
         when(dataBroker.newReadWriteTransaction()).thenReturn(rwTx);
         VbdNetconfTransaction.NODE_DATA_BROKER_MAP.put(nodeIid,
                 new AbstractMap.SimpleEntry(dataBroker, new ReentrantLock()));
     }
 
+    @After
+    public void close() {
+        GbpNetconfTransaction.setPipeline(null);
+        netconfPipeline.close();
+    }
+
     @Test
     public void writeConfigCommandReattemptTest() {
         doThrow(new IllegalStateException()).when(command).execute(rwTx);
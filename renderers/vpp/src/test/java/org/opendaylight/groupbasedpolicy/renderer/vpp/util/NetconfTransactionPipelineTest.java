@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.vpp.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
+import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
+import org.opendaylight.vbd.impl.transaction.VbdNetconfTransaction;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.interfaces.rev140508.interfaces.Interface;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.interfaces.rev140508.interfaces.InterfaceKey;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+import com.google.common.util.concurrent.CheckedFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class NetconfTransactionPipelineTest {
+
+    private static final InstanceIdentifier<Interface> IFACE_A = VppIidFactory.getInterfaceIID(new InterfaceKey("a"));
+    private static final InstanceIdentifier<Interface> IFACE_B = VppIidFactory.getInterfaceIID(new InterfaceKey("b"));
+    private static final InstanceIdentifier<Interface> IFACE_C = VppIidFactory.getInterfaceIID(new InterfaceKey("c"));
+
+    private final DataBroker dataBroker = mock(DataBroker.class);
+    private final ReadWriteTransaction rwTx = mock(ReadWriteTransaction.class);
+    @SuppressWarnings("unchecked")
+    private final InstanceIdentifier<Node> nodeIid = mock(InstanceIdentifier.class);
+    @SuppressWarnings("unchecked")
+    private final CheckedFuture<Void, TransactionCommitFailedException> future = mock(CheckedFuture.class);
+    @SuppressWarnings("unchecked")
+    private final CheckedFuture<Void, TransactionCommitFailedException> blockedFuture = mock(CheckedFuture.class);
+    private final CountDownLatch commitLatch = new CountDownLatch(1);
+    private final ExecutorService commitExecutor = Executors.newCachedThreadPool();
+    private NetconfTransactionPipeline pipeline;
+
+    @Before
+    public void init() throws Exception {
+        when(dataBroker.newReadWriteTransaction()).thenReturn(rwTx);
+        when(rwTx.submit()).thenReturn(blockedFuture, future);
+        when(blockedFuture.get()).thenAnswer(invocation -> {
+            commitLatch.await();
+            return null;
+        });
+        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.put(nodeIid,
+                new AbstractMap.SimpleEntry<>(dataBroker, new ReentrantLock()));
+        pipeline = new NetconfTransactionPipeline(1, 0, 0, commitExecutor);
+    }
+
+    @After
+    public void close() {
+        VbdNetconfTransaction.NODE_DATA_BROKER_MAP.remove(nodeIid);
+        pipeline.close();
+        commitExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testSubmit_queuedOperationsCoalesced() throws Exception {
+        ListenableFuture<Boolean> first = submit(IFACE_A, tx -> {});
+        ListenableFuture<Boolean> second = submit(IFACE_B, tx -> {});
+        ListenableFuture<Boolean> third = submit(IFACE_C, tx -> {});
+        assertEquals(1, pipeline.getInFlight(nodeIid));
+        assertEquals(2, pipeline.getQueueDepth(nodeIid));
+
+        commitLatch.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        assertTrue(third.get(5, TimeUnit.SECONDS));
+        verify(dataBroker, times(2)).newReadWriteTransaction();
+        assertEquals(2, pipeline.getCommittedTransactionCount(nodeIid));
+        assertEquals(3, pipeline.getCommittedOperationCount(nodeIid));
+    }
+
+    @Test
+    public void testSubmit_overlappingOperationWaits() throws Exception {
+        pipeline.close();
+        pipeline = new NetconfTransactionPipeline(2, 0, 0, commitExecutor);
+        ListenableFuture<Boolean> first = submit(IFACE_A, tx -> {});
+        ListenableFuture<Boolean> second = submit(IFACE_A, tx -> {});
+        assertEquals(1, pipeline.getInFlight(nodeIid));
+        assertEquals(1, pipeline.getQueueDepth(nodeIid));
+
+        commitLatch.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        verify(dataBroker, times(2)).newReadWriteTransaction();
+    }
+
+    @Test
+    public void testSubmit_failedBatchRetriedOneByOne() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        ListenableFuture<Boolean> first = submit(IFACE_A, tx -> {});
+        ListenableFuture<Boolean> second = submit(IFACE_B, tx -> {});
+        ListenableFuture<Boolean> faulty = submit(IFACE_C, tx -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException();
+            }
+        });
+
+        commitLatch.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        assertTrue(faulty.get(5, TimeUnit.SECONDS));
+        // first, coalesced second and faulty, second alone, faulty alone
+        verify(dataBroker, times(4)).newReadWriteTransaction();
+        assertEquals(0, pipeline.getRetryCount(nodeIid));
+    }
+
+    @Test
+    public void testSubmit_retriesExhausted() throws Exception {
+        commitLatch.countDown();
+        ListenableFuture<Boolean> result = submit(IFACE_A, tx -> {
+            throw new IllegalStateException();
+        });
+
+        assertFalse(result.get(5, TimeUnit.SECONDS));
+        verify(dataBroker, times(3)).newReadWriteTransaction();
+        verify(rwTx, times(3)).cancel();
+        verify(rwTx, times(0)).submit();
+        assertEquals(2, pipeline.getRetryCount(nodeIid));
+        assertEquals(1, pipeline.getFailedOperationCount(nodeIid));
+        assertEquals(0, pipeline.getInFlight(nodeIid));
+    }
+
+    @Test
+    public void testSubmit_notRequiredOperationSkipped() throws Exception {
+        ListenableFuture<Boolean> result = pipeline.submit(nodeIid, Collections.singleton(IFACE_A),
+                new NetconfTransactionPipeline.Operation() {
+
+                    @Override
+                    public boolean isRequired() {
+                        return false;
+                    }
+
+                    @Override
+                    public void apply(ReadWriteTransaction rwTx) {
+                        throw new IllegalStateException();
+                    }
+                }, (byte) 2);
+
+        assertTrue(result.get(5, TimeUnit.SECONDS));
+        verify(dataBroker, times(0)).newReadWriteTransaction();
+    }
+
+    @Test
+    public void testClose_queuedOperationsFailed() throws Exception {
+        ListenableFuture<Boolean> first = submit(IFACE_A, tx -> {});
+        ListenableFuture<Boolean> queued = submit(IFACE_B, tx -> {});
+        pipeline.close();
+
+        assertFalse(queued.get(5, TimeUnit.SECONDS));
+        assertFalse(submit(IFACE_C, tx -> {}).get(5, TimeUnit.SECONDS));
+        // commit in flight is finished, the executor is not shut down by the pipeline
+        commitLatch.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        verify(dataBroker, times(1)).newReadWriteTransaction();
+    }
+
+    private ListenableFuture<Boolean> submit(InstanceIdentifier<?> iid,
+            NetconfTransactionPipeline.Operation operation) {
+        return pipeline.submit(nodeIid, Collections.singleton(iid), operation, (byte) 2);
+    }
+}
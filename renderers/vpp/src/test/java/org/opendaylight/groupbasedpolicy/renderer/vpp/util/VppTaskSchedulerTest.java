@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.renderer.vpp.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class VppTaskSchedulerTest {
+
+    private static final NodeId NODE_1 = new NodeId("node1");
+    private static final NodeId NODE_2 = new NodeId("node2");
+
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private VppTaskScheduler scheduler;
+
+    @Before
+    public void init() {
+        scheduler = new VppTaskScheduler(4, 2);
+    }
+
+    @After
+    public void close() {
+        latch.countDown();
+        scheduler.close();
+    }
+
+    @Test
+    public void testSubmit_tasksForNodeOrdered() throws Exception {
+        scheduler.close();
+        scheduler = new VppTaskScheduler(4, 100);
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        List<ListenableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final int order = i;
+            futures.add(scheduler.submit(NODE_1, () -> {
+                executed.add(order);
+                return order;
+            }));
+        }
+        Futures.allAsList(futures).get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(Integer.valueOf(i), executed.get(i));
+        }
+        assertEquals(50, scheduler.getCompletedTaskCount());
+        // the lane becomes idle only after the future of its last task completes
+        awaitIdle(NODE_1);
+        assertEquals(0, scheduler.getQueueDepth(NODE_1));
+    }
+
+    @Test
+    public void testSubmit_nodesProgressInParallel() throws Exception {
+        ListenableFuture<Boolean> blocked = scheduler.submit(NODE_1, () -> latch.await(5, TimeUnit.SECONDS));
+        ListenableFuture<Boolean> other = scheduler.submit(NODE_2, () -> true);
+
+        assertTrue(other.get(5, TimeUnit.SECONDS));
+        assertEquals(1, scheduler.getQueueDepth(NODE_1));
+        latch.countDown();
+        assertTrue(blocked.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSubmit_queueLimitExceeded() throws Exception {
+        scheduler.submit(NODE_1, () -> latch.await(5, TimeUnit.SECONDS));
+        scheduler.submit(NODE_1, () -> true);
+        scheduler.submit(NODE_1, () -> true);
+        ListenableFuture<Boolean> rejected = scheduler.submit(NODE_1, () -> true);
+
+        assertRejected(rejected);
+        assertEquals(1, scheduler.getRejectedTaskCount());
+        assertEquals(3, scheduler.getQueueDepth(NODE_1));
+    }
+
+    @Test
+    public void testNodeRemoved_queuedTasksExecuted() throws Exception {
+        ListenableFuture<Boolean> blocked = scheduler.submit(NODE_1, () -> latch.await(5, TimeUnit.SECONDS));
+        ListenableFuture<Boolean> queued = scheduler.submit(NODE_1, () -> true);
+        scheduler.nodeRemoved(NODE_1);
+        assertEquals(2, scheduler.getQueueDepth(NODE_1));
+
+        latch.countDown();
+        assertTrue(blocked.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        awaitIdle(NODE_1);
+        // the node gets a new lane
+        assertTrue(scheduler.submit(NODE_1, () -> true).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testClose_queuedTasksCancelled() throws Exception {
+        scheduler.submit(NODE_1, () -> latch.await(5, TimeUnit.SECONDS));
+        ListenableFuture<Boolean> queued = scheduler.submit(NODE_1, () -> true);
+        latch.countDown();
+        scheduler.close();
+
+        assertTrue(queued.isDone());
+        assertRejected(scheduler.submit(NODE_1, () -> true));
+        assertRejected(scheduler.submit(() -> true));
+    }
+
+    private void awaitIdle(NodeId nodeId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.getQueueDepth(nodeId) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void assertRejected(ListenableFuture<?> future) throws InterruptedException {
+        try {
+            future.get();
+            fail("Task should be rejected.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+}
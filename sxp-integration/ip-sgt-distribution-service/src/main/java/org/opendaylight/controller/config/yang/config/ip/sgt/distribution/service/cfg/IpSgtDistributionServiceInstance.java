@@ -11,11 +11,14 @@ package org.opendaylight.controller.config.yang.config.ip.sgt.distribution.servi
 import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import java.util.Collection;
 import java.util.concurrent.Future;
 import org.opendaylight.controller.config.yang.config.groupbasedpolicy.GroupbasedpolicyInstance;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.sal.binding.api.BindingAwareBroker;
 import org.opendaylight.controller.sal.binding.api.RpcProviderRegistry;
+import org.opendaylight.groupbasedpolicy.ip.sgt.distribution.service.api.BulkDistributionResult;
+import org.opendaylight.groupbasedpolicy.ip.sgt.distribution.service.api.IpSgtBulkDistributionService;
 import org.opendaylight.groupbasedpolicy.ip.sgt.distribution.service.impl.IpSgtDistributionServiceImpl;
 import org.opendaylight.mdsal.singleton.common.api.ClusterSingletonService;
 import org.opendaylight.mdsal.singleton.common.api.ClusterSingletonServiceProvider;
@@ -25,18 +28,21 @@ import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.ip.sgt.distribution.rev160715.IpSgtDistributionService;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.ip.sgt.distribution.rev160715.RemoveIpSgtBindingFromPeerInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.ip.sgt.distribution.rev160715.SendIpSgtBindingToPeerInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.ip.sgt.distribution.rev160715.rpc.fields.Binding;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.controller.rev141002.SxpControllerService;
+import org.opendaylight.yangtools.yang.common.RpcError;
 import org.opendaylight.yangtools.yang.common.RpcResult;
+import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class IpSgtDistributionServiceInstance
-        implements ClusterSingletonService, IpSgtDistributionService, AutoCloseable {
+        implements ClusterSingletonService, IpSgtDistributionService, IpSgtBulkDistributionService, AutoCloseable {
 
     private static final Logger LOG = LoggerFactory.getLogger(IpSgtDistributionServiceInstance.class);
     private static final ServiceGroupIdentifier IDENTIFIER =
             ServiceGroupIdentifier.create(GroupbasedpolicyInstance.GBP_SERVICE_GROUP_IDENTIFIER);
-    private IpSgtDistributionServiceImpl ipSgtDistributionServiceImpl;
+    private volatile IpSgtDistributionServiceImpl ipSgtDistributionServiceImpl;
     private final DataBroker dataBroker;
     private final SxpControllerService sxpService;
     private final IpAddress sourceIp;
@@ -92,14 +98,32 @@ public class IpSgtDistributionServiceInstance
         return ipSgtDistributionServiceImpl.sendIpSgtBindingToPeer(input);
     }
 
+    /**
+     * Bindings are distributed only by the instance running the cluster singleton service
+     */
+    @Override
+    public ListenableFuture<RpcResult<BulkDistributionResult>> sendIpSgtBindingsToPeerInBulk(
+            Iterable<? extends Collection<Binding>> batches) {
+        IpSgtDistributionServiceImpl impl = ipSgtDistributionServiceImpl;
+        if (impl == null) {
+            return Futures.immediateFuture(RpcResultBuilder.<BulkDistributionResult>failed()
+                .withResult(new BulkDistributionResult(0, 0, 0))
+                .withError(RpcError.ErrorType.APPLICATION, "IP-SGT distribution service is not active")
+                .build());
+        }
+        return impl.sendIpSgtBindingsToPeerInBulk(batches);
+    }
+
     @Override
     public ListenableFuture<Void> closeServiceInstance() {
         LOG.info("Instance {} closed", this.getClass().getSimpleName());
         try {
-            ipSgtDistributionServiceImpl.close();
+            IpSgtDistributionServiceImpl impl = ipSgtDistributionServiceImpl;
+            ipSgtDistributionServiceImpl = null;
+            impl.close();
             rpcRegistration.close();
         } catch (Exception e) {
-            LOG.error("Closing {} wasnt succesfull", ipSgtDistributionServiceImpl.getClass().getSimpleName());
+            LOG.error("Closing {} wasnt succesfull", IpSgtDistributionServiceImpl.class.getSimpleName());
         }
         return Futures.immediateFuture(null);
     }
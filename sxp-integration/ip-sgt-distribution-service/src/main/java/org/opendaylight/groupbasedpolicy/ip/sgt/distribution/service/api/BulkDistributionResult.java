@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.ip.sgt.distribution.service.api;
+
+/**
+ * Purpose: outcome of {@link IpSgtBulkDistributionService#sendIpSgtBindingsToPeerInBulk(Iterable)}
+ */
+public final class BulkDistributionResult {
+
+    private final int distributedBatches;
+    private final long writtenBindings;
+    private final long skippedBindings;
+
+    public BulkDistributionResult(int distributedBatches, long writtenBindings, long skippedBindings) {
+        this.distributedBatches = distributedBatches;
+        this.writtenBindings = writtenBindings;
+        this.skippedBindings = skippedBindings;
+    }
+
+    /**
+     * @return amount of leading batches whose bindings were submitted, following batches were not written
+     */
+    public int getDistributedBatches() {
+        return distributedBatches;
+    }
+
+    /**
+     * @return amount of bindings submitted
+     */
+    public long getWrittenBindings() {
+        return writtenBindings;
+    }
+
+    /**
+     * @return amount of bindings skipped as already present in master database
+     */
+    public long getSkippedBindings() {
+        return skippedBindings;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkDistributionResult [distributedBatches=" + distributedBatches + ", writtenBindings="
+                + writtenBindings + ", skippedBindings=" + skippedBindings + "]";
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.ip.sgt.distribution.service.api;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.Collection;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.ip.sgt.distribution.rev160715.rpc.fields.Binding;
+import org.opendaylight.yangtools.yang.common.RpcResult;
+
+/**
+ * Purpose: distribution of large amounts of ip-sgt bindings to sxp capable peers without building one rpc input
+ */
+public interface IpSgtBulkDistributionService {
+
+    /**
+     * Distributes streamed batches of bindings to sxp capable peers. Batches are consumed lazily and written
+     * one by one, bindings of a batch are written only if all peers of the batch are sxp capable.
+     * <p>
+     * Distribution is not atomic. If peers of a batch cannot be resolved, the distribution stops and batches
+     * written before stay written. {@link BulkDistributionResult#getDistributedBatches()} tells how many
+     * leading batches were written.
+     *
+     * @param batches streamed batches of bindings
+     * @return success if all bindings were resolved and all transactions committed, the result is present
+     *         also on failure
+     */
+    ListenableFuture<RpcResult<BulkDistributionResult>> sendIpSgtBindingsToPeerInBulk(
+            Iterable<? extends Collection<Binding>> batches);
+}
@@ -8,6 +8,7 @@
 
 package org.opendaylight.groupbasedpolicy.ip.sgt.distribution.service.impl;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
@@ -16,13 +17,22 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.groupbasedpolicy.ip.sgt.distribution.service.api.BulkDistributionResult;
+import org.opendaylight.groupbasedpolicy.ip.sgt.distribution.service.api.IpSgtBulkDistributionService;
+import org.opendaylight.groupbasedpolicy.util.DataStoreHelper;
 import org.opendaylight.sxp.util.time.TimeConv;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
@@ -54,20 +64,27 @@ import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.NodeKey;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.common.RpcError;
 import org.opendaylight.yangtools.yang.common.RpcResult;
 import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class IpSgtDistributionServiceImpl implements AutoCloseable, IpSgtDistributionService {
+public class IpSgtDistributionServiceImpl
+        implements AutoCloseable, IpSgtDistributionService, IpSgtBulkDistributionService {
 
     private static final Logger LOG = LoggerFactory.getLogger(IpSgtDistributionServiceImpl.class);
     public static final String SXP_NODE_DESCRIPTION = "ODL-GBP SXP node";
     public static final String SXP_TOPOLOGY_ID = "sxp";
+    public static final int BULK_TRANSACTION_SIZE = 500;
     private final String SXP_NODE_ID;
     private DataBroker dataBroker;
     private IpAddress sourceIp;
     private SxpCapableNodeListener nodeCollector;
+    private final AtomicLong bulkBindingsWritten = new AtomicLong();
+    private final AtomicLong bulkBindingsSkipped = new AtomicLong();
+    private final AtomicLong bulkTransactions = new AtomicLong();
+    private final AtomicLong lastBulkBindingsPerSecond = new AtomicLong();
 
     public IpSgtDistributionServiceImpl(DataBroker dataBroker, SxpControllerService sxpService, IpAddress sourceIp) {
         this.dataBroker = Preconditions.checkNotNull(dataBroker);
@@ -102,9 +119,10 @@ public class IpSgtDistributionServiceImpl implements AutoCloseable, IpSgtDistrib
     @Override
     public Future<RpcResult<Void>> sendIpSgtBindingToPeer(SendIpSgtBindingToPeerInput input) {
         Map<String, Multimap<Sgt, IpPrefix>> bindingsMap = new HashMap<>();
+        Map<InstanceIdentifier<?>, String> domainIds = new HashMap<>();
         boolean success = true;
         for (Binding binding : input.getBinding()) {
-            success = transformChanges(binding, bindingsMap);
+            success = transformChanges(binding, bindingsMap, domainIds);
             if (! success) {
                 break;
             }
@@ -112,18 +130,176 @@ public class IpSgtDistributionServiceImpl implements AutoCloseable, IpSgtDistrib
         if (! success) {
             return Futures.immediateCheckedFuture(RpcResultBuilder.<Void>failed().build());
         }
+        final DateAndTime nowDateTime = TimeConv.toDt(System.currentTimeMillis());
         WriteTransaction wtx = dataBroker.newWriteOnlyTransaction();
         bindingsMap.entrySet().forEach(bindingEntries -> {
             String domainId = bindingEntries.getKey();
-            bindingEntries.getValue().entries().forEach(binding -> writeBinding(binding, domainId, wtx));
+            bindingEntries.getValue().entries().forEach(binding -> writeBinding(binding, domainId, nowDateTime, wtx));
         });
-        ListenableFuture<Void> submit = wtx.submit();
+        return createRpcResult(wtx.submit(), true);
+    }
+
+    /**
+     * Master database of each affected sxp domain is read once per call and bindings already present there
+     * (with the same sgt) are skipped. Remaining bindings are written per domain in transactions holding at most
+     * {@link #BULK_TRANSACTION_SIZE} bindings, all transactions are submitted without waiting for each other.
+     */
+    @Override
+    public ListenableFuture<RpcResult<BulkDistributionResult>> sendIpSgtBindingsToPeerInBulk(
+            Iterable<? extends Collection<Binding>> batches) {
+        return sendIpSgtBindingsToPeerInBulk(batches, BULK_TRANSACTION_SIZE);
+    }
+
+    /**
+     * @param batches            streamed batches of bindings
+     * @param maxTransactionSize maximal amount of bindings written by one transaction
+     * @return success if all bindings were resolved and all transactions committed
+     * @see #sendIpSgtBindingsToPeerInBulk(Iterable)
+     */
+    public ListenableFuture<RpcResult<BulkDistributionResult>> sendIpSgtBindingsToPeerInBulk(
+            Iterable<? extends Collection<Binding>> batches, int maxTransactionSize) {
+        Preconditions.checkArgument(maxTransactionSize > 0, "Transaction size must be positive");
+        final long startNanos = System.nanoTime();
+        Map<InstanceIdentifier<?>, String> domainIds = new HashMap<>();
+        Map<String, Map<IpPrefix, Sgt>> presentBindings = new HashMap<>();
+        List<ListenableFuture<Void>> submits = new ArrayList<>();
+        int distributedBatches = 0;
+        long written = 0;
+        long skipped = 0;
+        boolean success = true;
+        for (Collection<Binding> batch : batches) {
+            // whole batch is resolved before any of its bindings is written
+            Map<String, Multimap<Sgt, IpPrefix>> bindingsMap = new HashMap<>();
+            for (Binding binding : batch) {
+                success = transformChanges(binding, bindingsMap, domainIds);
+                if (! success) {
+                    break;
+                }
+            }
+            if (! success) {
+                LOG.warn("Bulk distribution of ip-sgt bindings stopped at batch {}, previous batches were written",
+                        distributedBatches);
+                break;
+            }
+            final DateAndTime nowDateTime = TimeConv.toDt(System.currentTimeMillis());
+            for (Entry<String, Multimap<Sgt, IpPrefix>> bindingEntries : bindingsMap.entrySet()) {
+                String domainId = bindingEntries.getKey();
+                Map<IpPrefix, Sgt> present = presentBindings.get(domainId);
+                if (present == null) {
+                    present = readMasterDatabase(domainId);
+                    presentBindings.put(domainId, present);
+                }
+                WriteTransaction wtx = null;
+                int pending = 0;
+                for (Entry<Sgt, IpPrefix> binding : bindingEntries.getValue().entries()) {
+                    if (binding.getKey().equals(present.put(binding.getValue(), binding.getKey()))) {
+                        skipped++;
+                        continue;
+                    }
+                    if (wtx == null) {
+                        wtx = dataBroker.newWriteOnlyTransaction();
+                    }
+                    writeBinding(binding, domainId, nowDateTime, wtx);
+                    written++;
+                    if (++pending == maxTransactionSize) {
+                        submits.add(wtx.submit());
+                        wtx = null;
+                        pending = 0;
+                    }
+                }
+                if (wtx != null) {
+                    submits.add(wtx.submit());
+                }
+            }
+            distributedBatches++;
+        }
+        bulkBindingsWritten.addAndGet(written);
+        bulkBindingsSkipped.addAndGet(skipped);
+        bulkTransactions.addAndGet(submits.size());
+        final BulkDistributionResult result = new BulkDistributionResult(distributedBatches, written, skipped);
+        final int transactions = submits.size();
+        ListenableFuture<List<Void>> allSubmits = Futures.allAsList(submits);
+        Futures.addCallback(allSubmits, new FutureCallback<List<Void>>() {
+
+            @Override
+            public void onSuccess(List<Void> ignored) {
+                final long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+                final long bindingsPerSecond =
+                        result.getWrittenBindings() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+                lastBulkBindingsPerSecond.set(bindingsPerSecond);
+                LOG.info("Bulk distribution wrote {} ip-sgt bindings ({} already present) in {} transactions"
+                                + " within {} ms, {} bindings/s", result.getWrittenBindings(),
+                        result.getSkippedBindings(), transactions, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                        bindingsPerSecond);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                LOG.warn("Bulk distribution of ip-sgt bindings failed", t);
+            }
+
+        }, MoreExecutors.directExecutor());
+        return createBulkRpcResult(allSubmits, success, result);
+    }
+
+    /**
+     * Transactions of a bulk distribution are independent, when one of them fails the others may be committed
+     */
+    private ListenableFuture<RpcResult<BulkDistributionResult>> createBulkRpcResult(ListenableFuture<?> submit,
+            boolean resolved, BulkDistributionResult result) {
+        SettableFuture<RpcResult<BulkDistributionResult>> future = SettableFuture.create();
+        Futures.addCallback(submit, new FutureCallback<Object>() {
+
+            @Override
+            public void onSuccess(Object ignored) {
+                if (resolved) {
+                    future.set(RpcResultBuilder.success(result).build());
+                } else {
+                    future.set(RpcResultBuilder.<BulkDistributionResult>failed()
+                        .withResult(result)
+                        .withError(RpcError.ErrorType.APPLICATION, "Node is not SXP capable, only "
+                                + result.getDistributedBatches() + " leading batches were distributed")
+                        .build());
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.set(RpcResultBuilder.<BulkDistributionResult>failed()
+                    .withResult(result)
+                    .withError(RpcError.ErrorType.APPLICATION, "Write of ip-sgt bindings failed", t)
+                    .build());
+            }
+
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    private Map<IpPrefix, Sgt> readMasterDatabase(String domainId) {
+        Map<IpPrefix, Sgt> present = new HashMap<>();
+        ReadOnlyTransaction rtx = dataBroker.newReadOnlyTransaction();
+        Optional<MasterDatabase> masterDatabase =
+                DataStoreHelper.readFromDs(LogicalDatastoreType.CONFIGURATION, masterDatabaseIid(domainId), rtx);
+        rtx.close();
+        if (masterDatabase.isPresent() && masterDatabase.get().getMasterDatabaseBinding() != null) {
+            for (MasterDatabaseBinding binding : masterDatabase.get().getMasterDatabaseBinding()) {
+                present.put(binding.getIpPrefix(), binding.getSecurityGroupTag());
+            }
+        }
+        return present;
+    }
+
+    private ListenableFuture<RpcResult<Void>> createRpcResult(ListenableFuture<?> submit, boolean success) {
         SettableFuture<RpcResult<Void>> future = SettableFuture.create();
-        Futures.addCallback(submit, new FutureCallback<Void>() {
+        Futures.addCallback(submit, new FutureCallback<Object>() {
 
             @Override
-            public void onSuccess(Void result) {
-                future.set(RpcResultBuilder.<Void>success().build());
+            public void onSuccess(Object result) {
+                if (success) {
+                    future.set(RpcResultBuilder.<Void>success().build());
+                } else {
+                    future.set(RpcResultBuilder.<Void>failed().build());
+                }
             }
 
             @Override
@@ -136,11 +312,46 @@ public class IpSgtDistributionServiceImpl implements AutoCloseable, IpSgtDistrib
         return future;
     }
 
-    private boolean transformChanges(Binding binding, Map<String, Multimap<Sgt, IpPrefix>> bindingsMap) {
+    /**
+     * @return amount of bindings written by bulk distribution
+     */
+    public long getBulkBindingsWritten() {
+        return bulkBindingsWritten.get();
+    }
+
+    /**
+     * @return amount of bindings skipped by bulk distribution as already present in master database
+     */
+    public long getBulkBindingsSkipped() {
+        return bulkBindingsSkipped.get();
+    }
+
+    /**
+     * @return amount of transactions submitted by bulk distribution
+     */
+    public long getBulkTransactions() {
+        return bulkTransactions.get();
+    }
+
+    /**
+     * @return throughput of last successful bulk distribution
+     */
+    public long getLastBulkBindingsPerSecond() {
+        return lastBulkBindingsPerSecond.get();
+    }
+
+    private boolean transformChanges(Binding binding, Map<String, Multimap<Sgt, IpPrefix>> bindingsMap,
+            Map<InstanceIdentifier<?>, String> domainIds) {
         Sgt sgt = binding.getSgt();
         IpPrefix addr = binding.getIpPrefix();
         for (PeerNode peer : binding.getPeerNode()) {
-            String domainId = nodeCollector.getDomainIdForPeer((InstanceIdentifier<Node>) peer.getNodeIid());
+            String domainId = domainIds.get(peer.getNodeIid());
+            if (domainId == null) {
+                domainId = nodeCollector.getDomainIdForPeer((InstanceIdentifier<Node>) peer.getNodeIid());
+                if (domainId != null) {
+                    domainIds.put(peer.getNodeIid(), domainId);
+                }
+            }
             if (domainId == null) {
                 LOG.debug("Node {} is not SXP capable", peer.getNodeIid());
                 return false;
@@ -155,14 +366,19 @@ public class IpSgtDistributionServiceImpl implements AutoCloseable, IpSgtDistrib
         return true;
     }
 
-    private void writeBinding(Entry<Sgt, IpPrefix> binding, String domainId, WriteTransaction wtx) {
+    private void writeBinding(Entry<Sgt, IpPrefix> binding, String domainId, DateAndTime dateTime,
+            WriteTransaction wtx) {
         IpPrefix addr = binding.getValue();
         InstanceIdentifier<MasterDatabaseBinding> iid = bindingIid(domainId, addr);
-        MasterDatabaseBinding newBinding = createBinding(binding);
+        MasterDatabaseBinding newBinding = createBinding(binding, dateTime);
         wtx.put(LogicalDatastoreType.CONFIGURATION, iid, newBinding);
     }
 
     private InstanceIdentifier<MasterDatabaseBinding> bindingIid(String domainId, IpPrefix prefix) {
+        return masterDatabaseIid(domainId).child(MasterDatabaseBinding.class, new MasterDatabaseBindingKey(prefix));
+    }
+
+    private InstanceIdentifier<MasterDatabase> masterDatabaseIid(String domainId) {
         return InstanceIdentifier.builder(NetworkTopology.class)
                 .child(Topology.class, new TopologyKey(new TopologyId(SXP_TOPOLOGY_ID)))
                 .child(Node.class,
@@ -173,26 +389,25 @@ public class IpSgtDistributionServiceImpl implements AutoCloseable, IpSgtDistrib
                 .child(SxpDomains.class)
                 .child(SxpDomain.class, new SxpDomainKey(domainId))
                 .child(MasterDatabase.class)
-                .child(MasterDatabaseBinding.class, new MasterDatabaseBindingKey(prefix))
                 .build();
     }
 
-    private MasterDatabaseBinding createBinding(Entry<Sgt, IpPrefix> binding) {
-        final DateAndTime nowDateTime = TimeConv.toDt(System.currentTimeMillis());
+    private MasterDatabaseBinding createBinding(Entry<Sgt, IpPrefix> binding, DateAndTime dateTime) {
         return new MasterDatabaseBindingBuilder()
                 .setIpPrefix(binding.getValue())
                 .setSecurityGroupTag(binding.getKey())
                 .setPeerSequence(new PeerSequenceBuilder().build())
-                .setTimestamp(nowDateTime)
+                .setTimestamp(dateTime)
                 .build();
     }
 
     @Override
     public Future<RpcResult<Void>> removeIpSgtBindingFromPeer(RemoveIpSgtBindingFromPeerInput input) {
         Map<String, Multimap<Sgt, IpPrefix>> bindingsMap = new HashMap<>();
+        Map<InstanceIdentifier<?>, String> domainIds = new HashMap<>();
         boolean success = true;
         for (Binding binding : input.getBinding()) {
-            success = transformChanges(binding, bindingsMap);
+            success = transformChanges(binding, bindingsMap, domainIds);
             if (! success) {
                 break;
             }
@@ -205,23 +420,7 @@ public class IpSgtDistributionServiceImpl implements AutoCloseable, IpSgtDistrib
             String domainId = bindingEntries.getKey();
             bindingEntries.getValue().entries().forEach(binding -> removeBinding(binding, domainId, wtx));
         });
-        ListenableFuture<Void> submit = wtx.submit();
-        SettableFuture<RpcResult<Void>> future = SettableFuture.create();
-        Futures.addCallback(submit, new FutureCallback<Void>() {
-
-            @Override
-            public void onSuccess(Void result) {
-                future.set(RpcResultBuilder.<Void>success().build());
-            }
-
-            @Override
-            public void onFailure(Throwable t) {
-                future.set(RpcResultBuilder.<Void>failed().build());
-
-            }
-
-        }, MoreExecutors.directExecutor());
-        return future;
+        return createRpcResult(wtx.submit(), true);
     }
 
     private void removeBinding(Entry<Sgt, IpPrefix> binding, String domainId, WriteTransaction wtx) {
@@ -8,16 +8,23 @@
 
 package org.opendaylight.groupbasedpolicy.ip.sgt.distribution.service.impl;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.base.Optional;
 import com.google.common.util.concurrent.Futures;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Future;
 import org.junit.Before;
 import org.junit.Test;
@@ -25,10 +32,12 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Matchers;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
 import org.opendaylight.controller.sal.binding.api.RpcProviderRegistry;
+import org.opendaylight.groupbasedpolicy.ip.sgt.distribution.service.api.BulkDistributionResult;
 import org.opendaylight.sxp.util.time.TimeConv;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
@@ -39,6 +48,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controll
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.ip.sgt.distribution.rev160715.RemoveIpSgtBindingFromPeerInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.ip.sgt.distribution.rev160715.SendIpSgtBindingToPeerInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.ip.sgt.distribution.rev160715.SendIpSgtBindingToPeerInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.ip.sgt.distribution.rev160715.rpc.fields.Binding;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.ip.sgt.distribution.rev160715.rpc.fields.BindingBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.ip.sgt.distribution.rev160715.rpc.fields.binding.PeerNodeBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.controller.rev141002.AddNodeInput;
@@ -57,6 +67,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.sxp.domains.SxpDomain;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.sxp.domains.SxpDomainKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.sxp.databases.fields.MasterDatabase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.sxp.databases.fields.MasterDatabaseBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.protocol.rev141002.NodeId;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NetworkTopology;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.TopologyId;
@@ -279,4 +290,117 @@ public class IpSgtDistributionServiceImplTest {
         Future<RpcResult<Void>> response = impl.removeIpSgtBindingFromPeer(input);
         assertFalse(response.get().isSuccessful());
     }
+
+    @Test
+    public void testSendIpSgtBindingsToPeerInBulk_splitTransactions() throws Exception {
+        WriteTransaction wtx = mock(WriteTransaction.class);
+        when(dataBroker.newWriteOnlyTransaction()).thenReturn(wtx);
+        when(wtx.submit()).thenReturn(Futures.immediateCheckedFuture(null));
+        mockMasterDatabase(Collections.emptyList());
+        when(nodeListener.getDomainIdForPeer(PEER_IID)).thenReturn(DOMAIN_ID);
+        List<Collection<Binding>> batches = Arrays.asList(
+                Arrays.asList(createBinding("192.168.50.1/32"), createBinding("192.168.50.2/32"),
+                        createBinding("192.168.50.3/32")),
+                Arrays.asList(createBinding("192.168.50.4/32"), createBinding("192.168.50.5/32"),
+                        createBinding("192.168.50.6/32")));
+        Future<RpcResult<BulkDistributionResult>> response = impl.sendIpSgtBindingsToPeerInBulk(batches, 2);
+        assertTrue(response.get().isSuccessful());
+        assertEquals(2, response.get().getResult().getDistributedBatches());
+        assertEquals(6, response.get().getResult().getWrittenBindings());
+        verify(dataBroker).newReadOnlyTransaction();
+        verify(dataBroker, times(4)).newWriteOnlyTransaction();
+        verify(wtx, times(6)).put(eq(LogicalDatastoreType.CONFIGURATION), any(InstanceIdentifier.class),
+                any(MasterDatabaseBinding.class));
+        verify(wtx, times(4)).submit();
+        verify(nodeListener).getDomainIdForPeer(PEER_IID);
+        assertEquals(6, impl.getBulkBindingsWritten());
+        assertEquals(4, impl.getBulkTransactions());
+    }
+
+    @Test
+    public void testSendIpSgtBindingsToPeerInBulk_skipPresentBindings() throws Exception {
+        WriteTransaction wtx = mock(WriteTransaction.class);
+        when(dataBroker.newWriteOnlyTransaction()).thenReturn(wtx);
+        when(wtx.submit()).thenReturn(Futures.immediateCheckedFuture(null));
+        mockMasterDatabase(Collections.singletonList(new MasterDatabaseBindingBuilder().setIpPrefix(BINDING_ADDR)
+                .setSecurityGroupTag(BINDING_SGT)
+                .build()));
+        when(nodeListener.getDomainIdForPeer(PEER_IID)).thenReturn(DOMAIN_ID);
+        List<Collection<Binding>> batches = Arrays.asList(
+                Arrays.asList(createBinding("192.168.50.1/32"), createBinding("192.168.50.2/32")),
+                Collections.singletonList(createBinding("192.168.50.2/32")));
+        Future<RpcResult<BulkDistributionResult>> response = impl.sendIpSgtBindingsToPeerInBulk(batches);
+        assertTrue(response.get().isSuccessful());
+        assertEquals(1, response.get().getResult().getWrittenBindings());
+        assertEquals(2, response.get().getResult().getSkippedBindings());
+        verify(wtx).put(eq(LogicalDatastoreType.CONFIGURATION),
+                eq(InstanceIdentifier.builder(SXP_NODE_IID)
+                        .augmentation(SxpNodeIdentity.class)
+                        .child(SxpDomains.class)
+                        .child(SxpDomain.class, new SxpDomainKey(DOMAIN_ID))
+                        .child(MasterDatabase.class)
+                        .child(MasterDatabaseBinding.class,
+                                new MasterDatabaseBindingKey(new IpPrefix(new Ipv4Prefix("192.168.50.2/32"))))
+                        .build()),
+                any(MasterDatabaseBinding.class));
+        verify(wtx).submit();
+        assertEquals(1, impl.getBulkBindingsWritten());
+        assertEquals(2, impl.getBulkBindingsSkipped());
+    }
+
+    @Test
+    public void testSendIpSgtBindingsToPeerInBulk_noSxpCapableNode() throws Exception {
+        when(nodeListener.getDomainIdForPeer(PEER_IID)).thenReturn(null);
+        Future<RpcResult<BulkDistributionResult>> response = impl.sendIpSgtBindingsToPeerInBulk(
+                Collections.singletonList(Collections.singletonList(createBinding("192.168.50.1/32"))));
+        assertFalse(response.get().isSuccessful());
+        assertEquals(0, response.get().getResult().getDistributedBatches());
+        verify(dataBroker, never()).newWriteOnlyTransaction();
+    }
+
+    @Test
+    public void testSendIpSgtBindingsToPeerInBulk_laterBatchNotResolved() throws Exception {
+        WriteTransaction wtx = mock(WriteTransaction.class);
+        when(dataBroker.newWriteOnlyTransaction()).thenReturn(wtx);
+        when(wtx.submit()).thenReturn(Futures.immediateCheckedFuture(null));
+        mockMasterDatabase(Collections.emptyList());
+        InstanceIdentifier<Node> unknownPeerIid = InstanceIdentifier.builder(NetworkTopology.class)
+            .child(Topology.class, new TopologyKey(new TopologyId("topology")))
+            .child(Node.class, new NodeKey(
+                    new org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId(
+                            "unknown")))
+            .build();
+        when(nodeListener.getDomainIdForPeer(PEER_IID)).thenReturn(DOMAIN_ID);
+        when(nodeListener.getDomainIdForPeer(unknownPeerIid)).thenReturn(null);
+        Binding unresolved = new BindingBuilder(createBinding("192.168.50.3/32"))
+            .setPeerNode(Collections.singletonList(new PeerNodeBuilder().setNodeIid(unknownPeerIid).build()))
+            .build();
+        List<Collection<Binding>> batches = Arrays.asList(
+                Arrays.asList(createBinding("192.168.50.1/32"), createBinding("192.168.50.2/32")),
+                Arrays.asList(createBinding("192.168.50.4/32"), unresolved));
+        Future<RpcResult<BulkDistributionResult>> response = impl.sendIpSgtBindingsToPeerInBulk(batches);
+        assertFalse(response.get().isSuccessful());
+        // first batch stays written, nothing of the second batch is written
+        assertEquals(1, response.get().getResult().getDistributedBatches());
+        assertEquals(2, response.get().getResult().getWrittenBindings());
+        verify(wtx, times(2)).put(eq(LogicalDatastoreType.CONFIGURATION), any(InstanceIdentifier.class),
+                any(MasterDatabaseBinding.class));
+        verify(wtx).submit();
+    }
+
+    private Binding createBinding(String prefix) {
+        return new BindingBuilder().setIpPrefix(new IpPrefix(new Ipv4Prefix(prefix)))
+            .setSgt(BINDING_SGT)
+            .setPeerNode(Collections.singletonList(new PeerNodeBuilder().setNodeIid(PEER_IID).build()))
+            .build();
+    }
+
+    private void mockMasterDatabase(List<MasterDatabaseBinding> bindings) {
+        ReadOnlyTransaction rtx = mock(ReadOnlyTransaction.class);
+        when(dataBroker.newReadOnlyTransaction()).thenReturn(rtx);
+        when(rtx.read(eq(LogicalDatastoreType.CONFIGURATION), any(InstanceIdentifier.class))).thenReturn(
+                Futures.immediateCheckedFuture(Optional.of(new MasterDatabaseBuilder()
+                        .setMasterDatabaseBinding(bindings)
+                        .build())));
+    }
 }
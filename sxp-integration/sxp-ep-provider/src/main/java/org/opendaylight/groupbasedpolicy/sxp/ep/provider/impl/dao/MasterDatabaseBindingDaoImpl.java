@@ -9,17 +9,18 @@ package org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.dao;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
 import com.google.common.util.concurrent.CheckedFuture;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
@@ -35,9 +36,9 @@ import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.MasterDatabaseFields;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.Sgt;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.master.database.fields.MasterDatabaseBinding;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.SxpDatabasesFields;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.SxpNodeIdentity;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.SxpDomains;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.sxp.domains.SxpDomain;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.Topology;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
@@ -46,6 +47,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Purpose: general dao for EndPoint templates
+ * <p>
+ * Sxp topology is read into cache only once, afterwards the cache is kept current by
+ * {@link org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.listen.MasterDatabaseBindingListenerImpl}.
  */
 public class MasterDatabaseBindingDaoImpl implements DSAsyncDao<IpPrefix, MasterDatabaseBinding>,
         ReadableAsyncByKey<Sgt, MasterDatabaseBinding> {
@@ -55,10 +59,15 @@ public class MasterDatabaseBindingDaoImpl implements DSAsyncDao<IpPrefix, Master
         READ_FUTURE_ABSENT = Futures.immediateFuture(Optional.absent());
 
     private final DataBroker dataBroker;
-    private final SimpleCachedDao<IpPrefix, MasterDatabaseBinding> cachedDao;
+    private final SimpleCachedDaoMasterDatabaseBindingImpl cachedDao;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong cacheReloads = new AtomicLong();
+    private volatile boolean cacheLoaded;
+    private ListenableFuture<Void> cacheLoadFuture;
 
     public MasterDatabaseBindingDaoImpl(final DataBroker dataBroker,
-                              final SimpleCachedDao<IpPrefix, MasterDatabaseBinding> cachedDao) {
+                              final SimpleCachedDaoMasterDatabaseBindingImpl cachedDao) {
         this.dataBroker = dataBroker;
         this.cachedDao = cachedDao;
     }
@@ -67,11 +76,14 @@ public class MasterDatabaseBindingDaoImpl implements DSAsyncDao<IpPrefix, Master
     public ListenableFuture<Optional<MasterDatabaseBinding>> read(@Nonnull final IpPrefix key) {
         final Optional<MasterDatabaseBinding> cachedMasterDatabaseBinding = lookup(cachedDao, key);
         if (cachedMasterDatabaseBinding.isPresent()) {
+            cacheHits.incrementAndGet();
             return Futures.immediateFuture(cachedMasterDatabaseBinding);
-        } else if (!cachedDao.isEmpty()) {
+        }
+        cacheMisses.incrementAndGet();
+        if (cacheLoaded) {
             return READ_FUTURE_ABSENT;
         } else {
-            final ListenableFuture<Void> cacheUpdatedFt = updateCache();
+            final ListenableFuture<Void> cacheUpdatedFt = loadCache();
 
             return Futures.transform(cacheUpdatedFt, new Function<Void, Optional<MasterDatabaseBinding>>() {
                 @Nullable
@@ -83,6 +95,36 @@ public class MasterDatabaseBindingDaoImpl implements DSAsyncDao<IpPrefix, Master
         }
     }
 
+    /**
+     * @return future of the single full read of sxp topology, a new read is started only if previous one failed
+     */
+    private synchronized ListenableFuture<Void> loadCache() {
+        if (cacheLoadFuture == null) {
+            cacheReloads.incrementAndGet();
+            final ListenableFuture<Void> loadFt = updateCache();
+            cacheLoadFuture = loadFt;
+            Futures.addCallback(loadFt, new FutureCallback<Void>() {
+                @Override
+                public void onSuccess(@Nullable final Void result) {
+                    cacheLoaded = true;
+                }
+
+                @Override
+                public void onFailure(@Nonnull final Throwable t) {
+                    LOG.warn("failed to load cache of SxpMasterDB", t);
+                    resetCacheLoad(loadFt);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+        return cacheLoadFuture;
+    }
+
+    private synchronized void resetCacheLoad(final ListenableFuture<Void> failedLoadFt) {
+        if (cacheLoadFuture == failedLoadFt) {
+            cacheLoadFuture = null;
+        }
+    }
+
     private ListenableFuture<Void> updateCache() {
         final ReadOnlyTransaction rTx = dataBroker.newReadOnlyTransaction();
         final CheckedFuture<Optional<Topology>, ReadFailedException> read =
@@ -95,40 +137,33 @@ public class MasterDatabaseBindingDaoImpl implements DSAsyncDao<IpPrefix, Master
             @Override
             public Void apply(@Nullable final Optional<Topology> input) {
                 if (input != null) {
-                    // clean cache
-                    cachedDao.invalidateCache();
-
                     final List<Node> nodeList = java.util.Optional.ofNullable(input.orNull())
                             .map(Topology::getNode)
                             .orElseGet(() -> {
                                 LOG.warn("failed to update cache of SxpMasterDB - no data");
                                 return Collections.emptyList();
                             });
+                    final Table<InstanceIdentifier<SxpDomain>, IpPrefix, MasterDatabaseBinding> snapshot =
+                            HashBasedTable.create();
                     for (Node node : nodeList) {
-                        java.util.Optional.ofNullable(node.getAugmentation(SxpNodeIdentity.class))
+                        final List<SxpDomain> sxpDomains = java.util.Optional
+                                .ofNullable(node.getAugmentation(SxpNodeIdentity.class))
                                 .map(SxpNodeIdentity::getSxpDomains)
                                 .map(SxpDomains::getSxpDomain)
-                                .ifPresent((sxpDomain) -> {
-                                    final List<MasterDatabaseBinding> masterDBBindings = sxpDomain.stream()
-                                            .map(SxpDatabasesFields::getMasterDatabase)
-                                            .filter(masterDb -> masterDb != null)
-                                            .map(MasterDatabaseFields::getMasterDatabaseBinding)
-                                            .filter(binding -> binding != null)
-                                            .flatMap(Collection::stream)
-                                            .collect(Collectors.toList());
-
-                                    for (MasterDatabaseBinding masterDBItem : masterDBBindings) {
-                                        // update all
-                                        final MasterDatabaseBinding
-                                                previousValue =
-                                                cachedDao.update(masterDBItem.getIpPrefix(), masterDBItem);
-                                        if (previousValue != null) {
-                                            LOG.warn("updated key already obtained: [node:{}, sgt:{}]",
-                                                    node.getNodeId().getValue(), masterDBItem.getSecurityGroupTag());
-                                        }
-                                    }
-                                });
+                                .orElse(Collections.emptyList());
+                        for (SxpDomain sxpDomain : sxpDomains) {
+                            final List<MasterDatabaseBinding> masterDBBindings = java.util.Optional
+                                    .ofNullable(sxpDomain.getMasterDatabase())
+                                    .map(MasterDatabaseFields::getMasterDatabaseBinding)
+                                    .orElse(Collections.emptyList());
+                            final InstanceIdentifier<SxpDomain> domainPath = buildDomainPath(node, sxpDomain);
+                            for (MasterDatabaseBinding masterDBItem : masterDBBindings) {
+                                snapshot.put(domainPath, masterDBItem.getIpPrefix(), masterDBItem);
+                            }
+                        }
                     }
+                    // bindings already delivered by listener are newer than snapshot and are kept
+                    cachedDao.loadSnapshot(snapshot);
                 } else {
                     LOG.warn("failed to update cache of SxpMasterDB - null input");
                 }
@@ -141,32 +176,61 @@ public class MasterDatabaseBindingDaoImpl implements DSAsyncDao<IpPrefix, Master
         return MasterDatabaseBindingListener.SXP_TOPOLOGY_PATH;
     }
 
+    private static InstanceIdentifier<SxpDomain> buildDomainPath(final Node node, final SxpDomain sxpDomain) {
+        return MasterDatabaseBindingListener.SXP_TOPOLOGY_PATH
+                .child(Node.class, node.getKey())
+                .augmentation(SxpNodeIdentity.class)
+                .child(SxpDomains.class)
+                .child(SxpDomain.class, sxpDomain.getKey());
+    }
+
     private Optional<MasterDatabaseBinding> lookup(final SimpleCachedDao<IpPrefix, MasterDatabaseBinding> cachedDao, final IpPrefix key) {
         return cachedDao.find(key);
     }
 
     @Override
     public ListenableFuture<Collection<MasterDatabaseBinding>> readBy(@Nonnull final Sgt specialKey) {
-        final ListenableFuture<Void> cacheUpdatedFt;
-        if (!cachedDao.isEmpty()) {
-            cacheUpdatedFt = Futures.immediateFuture(null);
-        } else {
-            cacheUpdatedFt = updateCache();
+        if (cacheLoaded) {
+            return Futures.immediateFuture(readByCached(specialKey));
         }
 
-        return Futures.transform(cacheUpdatedFt, new Function<Void, Collection<MasterDatabaseBinding>>() {
+        return Futures.transform(loadCache(), new Function<Void, Collection<MasterDatabaseBinding>>() {
             @Nullable
             @Override
             public Collection<MasterDatabaseBinding> apply(@Nullable final Void input) {
-                final Collection<MasterDatabaseBinding> foundGroups = new ArrayList<>();
-
-                for (MasterDatabaseBinding masterDBItem : cachedDao.values()) {
-                    if (masterDBItem.getSecurityGroupTag().equals(specialKey)) {
-                        foundGroups.add(masterDBItem);
-                    }
-                }
-                return foundGroups;
+                return readByCached(specialKey);
             }
         }, MoreExecutors.directExecutor());
     }
+
+    private Collection<MasterDatabaseBinding> readByCached(final Sgt specialKey) {
+        final Collection<MasterDatabaseBinding> foundGroups = cachedDao.readBy(specialKey);
+        if (foundGroups.isEmpty()) {
+            cacheMisses.incrementAndGet();
+        } else {
+            cacheHits.incrementAndGet();
+        }
+        return foundGroups;
+    }
+
+    /**
+     * @return count of lookups answered by cached binding
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * @return count of lookups which found no cached binding
+     */
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    /**
+     * @return count of full reads of sxp topology into cache
+     */
+    public long getCacheReloads() {
+        return cacheReloads.get();
+    }
 }
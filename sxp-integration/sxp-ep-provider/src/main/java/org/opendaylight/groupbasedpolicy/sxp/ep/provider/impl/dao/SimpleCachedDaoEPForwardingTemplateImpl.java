@@ -10,31 +10,34 @@ package org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.dao;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.Iterables;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.regex.Pattern;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import org.apache.commons.net.util.SubnetUtils;
 import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.SimpleCachedDao;
 import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.util.EPTemplateUtil;
-import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.util.SubnetInfoKeyDecorator;
+import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.util.IpPrefixTrie;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ep.provider.model.rev160302.sxp.ep.mapper.EndpointForwardingTemplateBySubnet;
 
 /**
  * Purpose: generic implementation of {@link SimpleCachedDao}
+ * <p>
+ * Host prefixes are kept in plain cache, subnets in {@link IpPrefixTrie} so that a host missing in plain cache is
+ * resolved by longest prefix match instead of scanning all subnets.
  */
 public class SimpleCachedDaoEPForwardingTemplateImpl implements SimpleCachedDao<IpPrefix, EndpointForwardingTemplateBySubnet> {
 
     private final ConcurrentMap<IpPrefix, EndpointForwardingTemplateBySubnet> plainCache;
-    private final ConcurrentMap<SubnetInfoKeyDecorator, EndpointForwardingTemplateBySubnet> subnetCache;
-    private final Pattern IP_MASK_EATER_RE = Pattern.compile("/[0-9]+");
+    private final IpPrefixTrie<EndpointForwardingTemplateBySubnet> subnetCache;
+    private final ReadWriteLock subnetCacheLock;
 
     public SimpleCachedDaoEPForwardingTemplateImpl() {
         plainCache = new ConcurrentHashMap<>();
-        subnetCache = new ConcurrentHashMap<>();
+        subnetCache = new IpPrefixTrie<>();
+        subnetCacheLock = new ReentrantReadWriteLock();
     }
 
     @Override
@@ -51,11 +54,15 @@ public class SimpleCachedDaoEPForwardingTemplateImpl implements SimpleCachedDao<
 
     private EndpointForwardingTemplateBySubnet updateSubnetCache(final IpPrefix key, final EndpointForwardingTemplateBySubnet value) {
         final EndpointForwardingTemplateBySubnet previousValue;
-        final SubnetInfoKeyDecorator subnetKey = EPTemplateUtil.buildSubnetInfoKey(key);
-        if (value != null) {
-            previousValue = subnetCache.put(subnetKey, value);
-        } else {
-            previousValue = subnetCache.remove(subnetKey);
+        subnetCacheLock.writeLock().lock();
+        try {
+            if (value != null) {
+                previousValue = subnetCache.put(key, value);
+            } else {
+                previousValue = subnetCache.remove(key);
+            }
+        } finally {
+            subnetCacheLock.writeLock().unlock();
         }
         return previousValue;
     }
@@ -78,52 +85,57 @@ public class SimpleCachedDaoEPForwardingTemplateImpl implements SimpleCachedDao<
             if (fastPlain.isPresent()) {
                 template = fastPlain;
             } else {
-                template = lookupSlowSubnet(key.getIpv4Prefix().getValue());
+                template = lookupSlowSubnet(key);
             }
         } else {
-            final SubnetInfoKeyDecorator keyDecorator = EPTemplateUtil.buildSubnetInfoKey(key);
-            final Optional<EndpointForwardingTemplateBySubnet> fastSubnet =
-                    Optional.fromNullable(subnetCache.get(keyDecorator));
-            if (fastSubnet.isPresent()) {
-                template = fastSubnet;
-            } else {
-                template = Optional.absent();
+            subnetCacheLock.readLock().lock();
+            try {
+                template = Optional.fromNullable(subnetCache.get(key));
+            } finally {
+                subnetCacheLock.readLock().unlock();
             }
         }
         return template;
     }
 
-    private Optional<EndpointForwardingTemplateBySubnet> lookupSlowSubnet(final String value) {
-        final String plainIp = IP_MASK_EATER_RE.matcher(value).replaceFirst("");
-        EndpointForwardingTemplateBySubnet valueCandidate = null;
-        int addressCount = 0;
-        for (Map.Entry<SubnetInfoKeyDecorator, EndpointForwardingTemplateBySubnet> entry : subnetCache.entrySet()) {
-            final SubnetUtils.SubnetInfo subnetInfo = entry.getKey().getDelegate();
-            if (subnetInfo.isInRange(plainIp)) {
-                final int addressCountTmp = subnetInfo.getAddressCount();
-                if (valueCandidate == null || addressCount > addressCountTmp) {
-                    valueCandidate = entry.getValue();
-                    addressCount = addressCountTmp;
-                }
-            }
+    private Optional<EndpointForwardingTemplateBySubnet> lookupSlowSubnet(final IpPrefix key) {
+        subnetCacheLock.readLock().lock();
+        try {
+            return Optional.fromNullable(subnetCache.longestPrefixMatch(key));
+        } finally {
+            subnetCacheLock.readLock().unlock();
         }
-        return Optional.fromNullable(valueCandidate);
     }
 
     @Override
     public void invalidateCache() {
         plainCache.clear();
-        subnetCache.clear();
+        subnetCacheLock.writeLock().lock();
+        try {
+            subnetCache.clear();
+        } finally {
+            subnetCacheLock.writeLock().unlock();
+        }
     }
 
     @Override
     public boolean isEmpty() {
-        return plainCache.isEmpty() && subnetCache.isEmpty();
+        subnetCacheLock.readLock().lock();
+        try {
+            return plainCache.isEmpty() && subnetCache.isEmpty();
+        } finally {
+            subnetCacheLock.readLock().unlock();
+        }
     }
 
     @Override
     public Iterable<EndpointForwardingTemplateBySubnet> values() {
-        return Iterables.unmodifiableIterable(Iterables.concat(plainCache.values(), subnetCache.values()));
+        subnetCacheLock.readLock().lock();
+        try {
+            return Iterables.unmodifiableIterable(Iterables.concat(plainCache.values(), subnetCache.values()));
+        } finally {
+            subnetCacheLock.readLock().unlock();
+        }
     }
 
     @Override
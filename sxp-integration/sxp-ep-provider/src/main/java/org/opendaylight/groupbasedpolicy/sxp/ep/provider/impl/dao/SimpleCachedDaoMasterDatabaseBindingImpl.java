@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.dao;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Table;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.ReadableByKey;
+import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.SimpleCachedDao;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.Sgt;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.master.database.fields.MasterDatabaseBinding;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.sxp.domains.SxpDomain;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+/**
+ * Purpose: implementation of {@link SimpleCachedDao} for sxp master database bindings
+ * <p>
+ * The same ip-prefix can be bound in master databases of several sxp domains, bindings are therefore cached per
+ * domain and removal of a binding from one domain keeps bindings of other domains. Besides bindings an index of
+ * ip-prefixes by sgt is maintained on every update, so that {@link #readBy(Sgt)} costs only the size of its result.
+ * <p>
+ * Until the snapshot of sxp topology is loaded by {@link #loadSnapshot(Table)}, bindings touched by
+ * {@link #update(InstanceIdentifier, IpPrefix, MasterDatabaseBinding)} are remembered, so that the older snapshot does
+ * not overwrite them or bring back removed ones.
+ */
+public class SimpleCachedDaoMasterDatabaseBindingImpl implements SimpleCachedDao<IpPrefix, MasterDatabaseBinding>,
+        ReadableByKey<Sgt, MasterDatabaseBinding> {
+
+    // guarded by cacheLock, null domain holds bindings updated without domain
+    private final Map<IpPrefix, Map<InstanceIdentifier<SxpDomain>, MasterDatabaseBinding>> cache;
+    private final SetMultimap<Sgt, IpPrefix> prefixesBySgt;
+    private final SetMultimap<InstanceIdentifier<SxpDomain>, IpPrefix> touchedBeforeSnapshot;
+    private final ReadWriteLock cacheLock;
+    private boolean snapshotLoaded;
+
+    public SimpleCachedDaoMasterDatabaseBindingImpl() {
+        cache = new HashMap<>();
+        prefixesBySgt = HashMultimap.create();
+        touchedBeforeSnapshot = HashMultimap.create();
+        cacheLock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * store binding without domain, see {@link #update(InstanceIdentifier, IpPrefix, MasterDatabaseBinding)}
+     */
+    @Override
+    public MasterDatabaseBinding update(@Nonnull final IpPrefix key, @Nullable final MasterDatabaseBinding value) {
+        cacheLock.writeLock().lock();
+        try {
+            return put(null, key, value);
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * store or remove binding of given sxp domain, bindings of the same ip-prefix in other domains are kept
+     *
+     * @param domainPath sxp domain of master database holding the binding
+     * @param key        ip-prefix of binding
+     * @param value      binding, {@code null} if binding was removed
+     * @return previous binding of ip-prefix in given domain
+     */
+    public MasterDatabaseBinding update(@Nonnull final InstanceIdentifier<SxpDomain> domainPath,
+                                        @Nonnull final IpPrefix key, @Nullable final MasterDatabaseBinding value) {
+        cacheLock.writeLock().lock();
+        try {
+            if (!snapshotLoaded) {
+                touchedBeforeSnapshot.put(domainPath, key);
+            }
+            return put(domainPath, key, value);
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * complement cache by snapshot of master databases, bindings updated by
+     * {@link #update(InstanceIdentifier, IpPrefix, MasterDatabaseBinding)} before the first loaded snapshot are newer
+     * than the snapshot and are not overwritten
+     *
+     * @param snapshot bindings by sxp domain and ip-prefix
+     */
+    public void loadSnapshot(
+            @Nonnull final Table<InstanceIdentifier<SxpDomain>, IpPrefix, MasterDatabaseBinding> snapshot) {
+        cacheLock.writeLock().lock();
+        try {
+            for (Table.Cell<InstanceIdentifier<SxpDomain>, IpPrefix, MasterDatabaseBinding> cell : snapshot.cellSet()) {
+                if (!touchedBeforeSnapshot.containsEntry(cell.getRowKey(), cell.getColumnKey())) {
+                    put(cell.getRowKey(), cell.getColumnKey(), cell.getValue());
+                }
+            }
+            snapshotLoaded = true;
+            touchedBeforeSnapshot.clear();
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+    }
+
+    private MasterDatabaseBinding put(@Nullable final InstanceIdentifier<SxpDomain> domainPath,
+                                      final IpPrefix key, @Nullable final MasterDatabaseBinding value) {
+        Map<InstanceIdentifier<SxpDomain>, MasterDatabaseBinding> bindingsByDomain = cache.get(key);
+        final MasterDatabaseBinding previousValue;
+        if (value != null) {
+            if (bindingsByDomain == null) {
+                bindingsByDomain = new LinkedHashMap<>();
+                cache.put(key, bindingsByDomain);
+            }
+            previousValue = bindingsByDomain.put(domainPath, value);
+        } else if (bindingsByDomain != null) {
+            previousValue = bindingsByDomain.remove(domainPath);
+            if (bindingsByDomain.isEmpty()) {
+                cache.remove(key);
+            }
+        } else {
+            previousValue = null;
+        }
+        if (previousValue != null && !isBoundToSgt(key, previousValue.getSecurityGroupTag())) {
+            prefixesBySgt.remove(previousValue.getSecurityGroupTag(), key);
+        }
+        if (value != null && value.getSecurityGroupTag() != null) {
+            prefixesBySgt.put(value.getSecurityGroupTag(), key);
+        }
+        return previousValue;
+    }
+
+    private boolean isBoundToSgt(final IpPrefix key, final Sgt sgt) {
+        final Map<InstanceIdentifier<SxpDomain>, MasterDatabaseBinding> bindingsByDomain = cache.get(key);
+        if (bindingsByDomain == null) {
+            return false;
+        }
+        for (MasterDatabaseBinding binding : bindingsByDomain.values()) {
+            if (Objects.equal(sgt, binding.getSecurityGroupTag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return binding of ip-prefix from domain which holds it longest
+     */
+    @Override
+    public Optional<MasterDatabaseBinding> find(@Nonnull final IpPrefix key) {
+        cacheLock.readLock().lock();
+        try {
+            final Map<InstanceIdentifier<SxpDomain>, MasterDatabaseBinding> bindingsByDomain = cache.get(key);
+            if (bindingsByDomain == null) {
+                return Optional.absent();
+            }
+            return Optional.fromNullable(Iterables.getFirst(bindingsByDomain.values(), null));
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Collection<MasterDatabaseBinding> readBy(@Nonnull final Sgt specialKey) {
+        cacheLock.readLock().lock();
+        try {
+            final ImmutableSet.Builder<MasterDatabaseBinding> bindings = ImmutableSet.builder();
+            for (IpPrefix prefix : prefixesBySgt.get(specialKey)) {
+                for (MasterDatabaseBinding binding : cache.get(prefix).values()) {
+                    if (specialKey.equals(binding.getSecurityGroupTag())) {
+                        bindings.add(binding);
+                    }
+                }
+            }
+            return bindings.build();
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void invalidateCache() {
+        cacheLock.writeLock().lock();
+        try {
+            cache.clear();
+            prefixesBySgt.clear();
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        cacheLock.readLock().lock();
+        try {
+            return cache.isEmpty();
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return snapshot of all cached values of all domains
+     */
+    @Override
+    public Iterable<MasterDatabaseBinding> values() {
+        cacheLock.readLock().lock();
+        try {
+            final ImmutableList.Builder<MasterDatabaseBinding> values = ImmutableList.builder();
+            for (Map<InstanceIdentifier<SxpDomain>, MasterDatabaseBinding> bindingsByDomain : cache.values()) {
+                values.addAll(bindingsByDomain.values());
+            }
+            return values.build();
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return snapshot of all cached keys
+     */
+    @Override
+    public Iterable<IpPrefix> keySet() {
+        cacheLock.readLock().lock();
+        try {
+            return ImmutableList.copyOf(cache.keySet());
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+    }
+}
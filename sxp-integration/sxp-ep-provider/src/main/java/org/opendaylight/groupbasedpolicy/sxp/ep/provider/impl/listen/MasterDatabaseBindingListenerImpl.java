@@ -25,16 +25,16 @@ import org.opendaylight.controller.md.sal.binding.api.DataTreeModification;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.DSAsyncDao;
 import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.MasterDatabaseBindingListener;
-import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.SimpleCachedDao;
 import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.SxpMapperReactor;
+import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.dao.SimpleCachedDaoMasterDatabaseBindingImpl;
 import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.util.EPTemplateUtil;
 import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.util.L3EPServiceUtil;
-import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.util.SxpListenerUtil;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ep.provider.model.rev160302.sxp.ep.mapper.EndpointForwardingTemplateBySubnet;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ep.provider.model.rev160302.sxp.ep.mapper.EndpointPolicyTemplateBySgt;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.Sgt;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.master.database.fields.MasterDatabaseBinding;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.master.database.fields.MasterDatabaseBindingKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.SxpNodeIdentity;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.SxpDomains;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.sxp.domains.SxpDomain;
@@ -62,7 +62,7 @@ public class MasterDatabaseBindingListenerImpl implements MasterDatabaseBindingL
             L3EPServiceUtil.createFailureLoggingCallback("failed to read epForwardingTemplate");
 
     private final SxpMapperReactor sxpMapperReactor;
-    private final SimpleCachedDao<IpPrefix, MasterDatabaseBinding> masterDBBindingDaoCached;
+    private final SimpleCachedDaoMasterDatabaseBindingImpl masterDBBindingDaoCached;
     private final DSAsyncDao<Sgt, EndpointPolicyTemplateBySgt> epPolicyTemplateDao;
     private final DSAsyncDao<IpPrefix, EndpointForwardingTemplateBySubnet> epForwardingTemplateDao;
 
@@ -71,7 +71,7 @@ public class MasterDatabaseBindingListenerImpl implements MasterDatabaseBindingL
 
     public MasterDatabaseBindingListenerImpl(final DataBroker dataBroker,
                                              final SxpMapperReactor sxpMapperReactor,
-                                             final SimpleCachedDao<IpPrefix, MasterDatabaseBinding> masterDBBindingDaoCached,
+                                             final SimpleCachedDaoMasterDatabaseBindingImpl masterDBBindingDaoCached,
                                              final DSAsyncDao<Sgt, EndpointPolicyTemplateBySgt> epPolicyTemplateDao,
                                              final DSAsyncDao<IpPrefix, EndpointForwardingTemplateBySubnet> epForwardingTemplateDao) {
         this.sxpMapperReactor = Preconditions.checkNotNull(sxpMapperReactor);
@@ -98,15 +98,21 @@ public class MasterDatabaseBindingListenerImpl implements MasterDatabaseBindingL
     public void onDataTreeChanged(@Nonnull final Collection<DataTreeModification<MasterDatabaseBinding>> collection) {
         for (DataTreeModification<MasterDatabaseBinding> change : collection) {
             LOG.trace("received modification: {} -> {}", change.getRootPath(), change.getRootNode().getModificationType());
-            // update cached dao
+            // update cached dao, bindings are cached per sxp domain
+            final InstanceIdentifier<MasterDatabaseBinding> bindingPath = change.getRootPath().getRootIdentifier();
+            final InstanceIdentifier<SxpDomain> domainPath = bindingPath.firstIdentifierOf(SxpDomain.class);
             final MasterDatabaseBinding sxpMasterDBItem = change.getRootNode().getDataAfter();
             if (sxpMasterDBItem == null) {
+                final MasterDatabaseBindingKey removedKey = bindingPath.firstKeyOf(MasterDatabaseBinding.class);
+                if (removedKey != null && domainPath != null) {
+                    masterDBBindingDaoCached.update(domainPath, removedKey.getIpPrefix(), null);
+                }
                 //TODO: cover sgt-ip mapping removal
-                LOG.debug("ip-sgt mapping was removed - NOOP: {}",
-                        change.getRootPath().getRootIdentifier().firstKeyOf(MasterDatabaseBinding.class));
+                LOG.debug("ip-sgt mapping was removed - dropped from cache only: {}", removedKey);
             } else {
-                final IpPrefix ipPrefixKey = sxpMasterDBItem.getIpPrefix();
-                SxpListenerUtil.updateCachedDao(masterDBBindingDaoCached, ipPrefixKey, change);
+                if (domainPath != null) {
+                    masterDBBindingDaoCached.update(domainPath, sxpMasterDBItem.getIpPrefix(), sxpMasterDBItem);
+                }
                 processWithEPTemplates(sxpMasterDBItem);
             }
         }
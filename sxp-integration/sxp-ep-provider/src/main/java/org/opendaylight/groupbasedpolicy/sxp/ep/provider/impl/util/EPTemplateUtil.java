@@ -35,6 +35,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.Sgt;
 public final class EPTemplateUtil {
 
     public static final String FULL_IPV4_MASK_SUFFIX = "/32";
+    public static final String FULL_IPV6_MASK_SUFFIX = "/128";
     private static final Comparable EMPTY_COMPARABLE = "";
 
     private EPTemplateUtil() {
@@ -42,7 +43,10 @@ public final class EPTemplateUtil {
     }
 
     public static boolean isPlain(final IpPrefix key) {
-        return key.getIpv4Prefix().getValue().endsWith(FULL_IPV4_MASK_SUFFIX);
+        if (key.getIpv4Prefix() != null) {
+            return key.getIpv4Prefix().getValue().endsWith(FULL_IPV4_MASK_SUFFIX);
+        }
+        return key.getIpv6Prefix().getValue().endsWith(FULL_IPV6_MASK_SUFFIX);
     }
 
     public static SubnetInfoKeyDecorator buildSubnetInfoKey(@Nonnull final IpPrefix value) {
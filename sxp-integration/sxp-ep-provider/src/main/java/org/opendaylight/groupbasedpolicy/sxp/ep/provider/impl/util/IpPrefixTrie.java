@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.net.InetAddresses;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
+
+/**
+ * Purpose: path compressed binary trie of IPv4 and IPv6 prefixes supporting exact and longest prefix match lookups.
+ * <p>
+ * Prefixes are stored as address bytes, bits of the address beyond the prefix length are ignored. Each lookup
+ * visits at most one node per distinct prefix length on the path, independent of number of stored prefixes.
+ * Not thread-safe, access has to be synchronized by the caller.
+ *
+ * @param <V> type of values
+ */
+public class IpPrefixTrie<V> {
+
+    private static final int IPV4_BITS = 32;
+    private static final int IPV6_BITS = 128;
+
+    private Node<V> ipv4Root;
+    private Node<V> ipv6Root;
+    private int size;
+
+    /**
+     * @return previous value stored for the same prefix
+     */
+    @Nullable
+    public V put(@Nonnull final IpPrefix prefix, @Nonnull final V value) {
+        Preconditions.checkNotNull(value);
+        final Key key = Key.of(prefix);
+        final V[] previous = newHolder();
+        if (key.isIpv6()) {
+            ipv6Root = put(ipv6Root, key.address, key.length, value, previous);
+        } else {
+            ipv4Root = put(ipv4Root, key.address, key.length, value, previous);
+        }
+        if (previous[0] == null) {
+            size++;
+        }
+        return previous[0];
+    }
+
+    /**
+     * @return removed value or {@code null} if the prefix was not present
+     */
+    @Nullable
+    public V remove(@Nonnull final IpPrefix prefix) {
+        final Key key = Key.of(prefix);
+        final V[] removed = newHolder();
+        if (key.isIpv6()) {
+            ipv6Root = remove(ipv6Root, key.address, key.length, removed);
+        } else {
+            ipv4Root = remove(ipv4Root, key.address, key.length, removed);
+        }
+        if (removed[0] != null) {
+            size--;
+        }
+        return removed[0];
+    }
+
+    /**
+     * @return value stored for exactly the same prefix
+     */
+    @Nullable
+    public V get(@Nonnull final IpPrefix prefix) {
+        final Key key = Key.of(prefix);
+        Node<V> node = key.isIpv6() ? ipv6Root : ipv4Root;
+        while (node != null && node.length <= key.length && matches(key.address, node.address, node.length)) {
+            if (node.length == key.length) {
+                return node.value;
+            }
+            node = node.children[bit(key.address, node.length)];
+        }
+        return null;
+    }
+
+    /**
+     * @param prefix address (or prefix) to look up, only its first prefix length bits are considered
+     * @return value of the longest stored prefix containing the given prefix
+     */
+    @Nullable
+    public V longestPrefixMatch(@Nonnull final IpPrefix prefix) {
+        final Key key = Key.of(prefix);
+        Node<V> node = key.isIpv6() ? ipv6Root : ipv4Root;
+        V candidate = null;
+        while (node != null && node.length <= key.length && matches(key.address, node.address, node.length)) {
+            if (node.value != null) {
+                candidate = node.value;
+            }
+            if (node.length == key.length) {
+                break;
+            }
+            node = node.children[bit(key.address, node.length)];
+        }
+        return candidate;
+    }
+
+    public List<V> values() {
+        final List<V> values = new ArrayList<>(size);
+        final Deque<Node<V>> stack = new ArrayDeque<>();
+        pushIfNotNull(stack, ipv4Root);
+        pushIfNotNull(stack, ipv6Root);
+        while (!stack.isEmpty()) {
+            final Node<V> node = stack.pop();
+            if (node.value != null) {
+                values.add(node.value);
+            }
+            pushIfNotNull(stack, node.children[0]);
+            pushIfNotNull(stack, node.children[1]);
+        }
+        return values;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        ipv4Root = null;
+        ipv6Root = null;
+        size = 0;
+    }
+
+    private static <V> Node<V> put(final Node<V> node, final byte[] address, final int length, final V value,
+            final V[] previous) {
+        if (node == null) {
+            return new Node<>(address, length, value);
+        }
+        final int common = commonPrefixLength(address, length, node.address, node.length);
+        if (common < node.length) {
+            // new prefix diverges from the node or is shorter, node is moved one level down
+            final Node<V> parent;
+            if (common == length) {
+                parent = new Node<>(address, length, value);
+            } else {
+                parent = new Node<>(address, common, null);
+                parent.children[bit(address, common)] = new Node<>(address, length, value);
+            }
+            parent.children[bit(node.address, common)] = node;
+            return parent;
+        }
+        if (length == node.length) {
+            previous[0] = node.value;
+            node.value = value;
+        } else {
+            final int child = bit(address, node.length);
+            node.children[child] = put(node.children[child], address, length, value, previous);
+        }
+        return node;
+    }
+
+    private static <V> Node<V> remove(final Node<V> node, final byte[] address, final int length,
+            final V[] removed) {
+        if (node == null || node.length > length || !matches(address, node.address, node.length)) {
+            return node;
+        }
+        if (node.length == length) {
+            removed[0] = node.value;
+            node.value = null;
+        } else {
+            final int child = bit(address, node.length);
+            node.children[child] = remove(node.children[child], address, length, removed);
+        }
+        // nodes without value are kept only to branch
+        if (node.value != null || (node.children[0] != null && node.children[1] != null)) {
+            return node;
+        }
+        return node.children[0] != null ? node.children[0] : node.children[1];
+    }
+
+    private static int bit(final byte[] address, final int index) {
+        return (address[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    private static boolean matches(final byte[] address, final byte[] prefix, final int length) {
+        return commonPrefixLength(address, length, prefix, length) == length;
+    }
+
+    private static int commonPrefixLength(final byte[] first, final int firstLength, final byte[] second,
+            final int secondLength) {
+        final int maxLength = Math.min(firstLength, secondLength);
+        int common = 0;
+        for (int i = 0; common < maxLength; i++) {
+            final int diff = (first[i] ^ second[i]) & 0xff;
+            if (diff != 0) {
+                common += Integer.numberOfLeadingZeros(diff) - 24;
+                break;
+            }
+            common += 8;
+        }
+        return Math.min(common, maxLength);
+    }
+
+    private static <V> void pushIfNotNull(final Deque<Node<V>> stack, final Node<V> node) {
+        if (node != null) {
+            stack.push(node);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V[] newHolder() {
+        return (V[]) new Object[1];
+    }
+
+    private static final class Node<V> {
+
+        private final byte[] address;
+        private final int length;
+        @SuppressWarnings("unchecked")
+        private final Node<V>[] children = new Node[2];
+        private V value;
+
+        private Node(final byte[] address, final int length, final V value) {
+            this.address = address;
+            this.length = length;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Address bytes and prefix length parsed from {@link IpPrefix} without regular expressions.
+     */
+    private static final class Key {
+
+        private final byte[] address;
+        private final int length;
+
+        private Key(final byte[] address, final int length) {
+            this.address = address;
+            this.length = length;
+        }
+
+        private boolean isIpv6() {
+            return address.length == IPV6_BITS / 8;
+        }
+
+        private static Key of(final IpPrefix prefix) {
+            if (prefix.getIpv4Prefix() != null) {
+                return parse(prefix.getIpv4Prefix().getValue(), IPV4_BITS);
+            }
+            return parse(Preconditions.checkNotNull(prefix.getIpv6Prefix(), "Empty prefix %s", prefix).getValue(),
+                    IPV6_BITS);
+        }
+
+        private static Key parse(final String value, final int maxLength) {
+            final int slash = value.indexOf('/');
+            final String address = slash < 0 ? value : value.substring(0, slash);
+            final int length = slash < 0 ? maxLength : Integer.parseInt(value.substring(slash + 1));
+            Preconditions.checkArgument(length >= 0 && length <= maxLength, "Invalid prefix length %s", value);
+            final byte[] bytes = maxLength == IPV4_BITS ? parseIpv4(address) : parseIpv6(address);
+            return new Key(bytes, length);
+        }
+
+        private static byte[] parseIpv4(final String address) {
+            final byte[] bytes = new byte[IPV4_BITS / 8];
+            int octet = 0;
+            int index = 0;
+            boolean digit = false;
+            for (int i = 0; i < address.length(); i++) {
+                final char c = address.charAt(i);
+                if (c == '.') {
+                    Preconditions.checkArgument(digit && index < 3, "Invalid IPv4 address %s", address);
+                    bytes[index++] = (byte) octet;
+                    octet = 0;
+                    digit = false;
+                } else {
+                    Preconditions.checkArgument(c >= '0' && c <= '9', "Invalid IPv4 address %s", address);
+                    octet = octet * 10 + (c - '0');
+                    Preconditions.checkArgument(octet <= 255, "Invalid IPv4 address %s", address);
+                    digit = true;
+                }
+            }
+            Preconditions.checkArgument(digit && index == 3, "Invalid IPv4 address %s", address);
+            bytes[index] = (byte) octet;
+            return bytes;
+        }
+
+        private static byte[] parseIpv6(final String address) {
+            final byte[] bytes = InetAddresses.forString(address).getAddress();
+            Preconditions.checkArgument(bytes.length == IPV6_BITS / 8, "Invalid IPv6 address %s", address);
+            return bytes;
+        }
+    }
+}
@@ -9,7 +9,9 @@
 package org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.dao;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Table;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import java.util.Collection;
@@ -27,7 +29,7 @@ import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
-import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.SimpleCachedDao;
+import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.MasterDatabaseBindingListener;
 import org.opendaylight.sxp.core.Configuration;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Prefix;
@@ -36,14 +38,19 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.mast
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.master.database.fields.MasterDatabaseBindingBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.SxpNodeIdentity;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.SxpNodeIdentityBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.SxpDomains;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.SxpDomainsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.sxp.domains.SxpDomain;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.sxp.domains.SxpDomainBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.sxp.domains.SxpDomainKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.sxp.databases.fields.MasterDatabaseBuilder;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.TopologyId;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.Topology;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.TopologyBuilder;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.NodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.NodeKey;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 
 /**
@@ -56,11 +63,12 @@ public class MasterDatabaseBindingDaoImplTest {
     private static final IpPrefix IP_PREFIX = new IpPrefix(new Ipv4Prefix("1.2.3.4/32"));
     private final Topology TOPOLOGY_VALUE;
     private final MasterDatabaseBinding MASTER_DB_BINDING_VALUE;
+    private final Table<InstanceIdentifier<SxpDomain>, IpPrefix, MasterDatabaseBinding> SNAPSHOT_VALUE;
 
     @Mock
     private DataBroker dataBroker;
     @Mock
-    private SimpleCachedDao<IpPrefix, MasterDatabaseBinding> cachedDao;
+    private SimpleCachedDaoMasterDatabaseBindingImpl cachedDao;
     @Mock
     private ReadOnlyTransaction rTx;
 
@@ -88,6 +96,13 @@ public class MasterDatabaseBindingDaoImplTest {
                                 .build())
                         .build()))
                 .build();
+
+        SNAPSHOT_VALUE = HashBasedTable.create();
+        SNAPSHOT_VALUE.put(MasterDatabaseBindingListener.SXP_TOPOLOGY_PATH
+                .child(Node.class, new NodeKey(new NodeId("utNodeId")))
+                .augmentation(SxpNodeIdentity.class)
+                .child(SxpDomains.class)
+                .child(SxpDomain.class, new SxpDomainKey("global")), IP_PREFIX, MASTER_DB_BINDING_VALUE);
     }
 
 
@@ -141,7 +156,6 @@ public class MasterDatabaseBindingDaoImplTest {
         Mockito.when(cachedDao.find(Matchers.<IpPrefix>any())).thenReturn(
                 Optional.<MasterDatabaseBinding>absent(),
                 Optional.of(MASTER_DB_BINDING_VALUE));
-        Mockito.when(cachedDao.isEmpty()).thenReturn(true);
         Mockito.when(dataBroker.newReadOnlyTransaction()).thenReturn(rTx);
         Mockito.when(rTx.read(Matchers.eq(LogicalDatastoreType.CONFIGURATION),
                 Matchers.<InstanceIdentifier<Topology>>any())).thenReturn(
@@ -154,19 +168,68 @@ public class MasterDatabaseBindingDaoImplTest {
         Assert.assertEquals(KEY_1, read.get().get().getSecurityGroupTag());
 
         final InOrder inOrder = Mockito.inOrder(cachedDao);
-        inOrder.verify(cachedDao).invalidateCache();
-        inOrder.verify(cachedDao).update(IP_PREFIX, MASTER_DB_BINDING_VALUE);
+        inOrder.verify(cachedDao).loadSnapshot(SNAPSHOT_VALUE);
         inOrder.verify(cachedDao).find(IP_PREFIX);
         inOrder.verifyNoMoreInteractions();
     }
 
+    @Test
+    public void testRead_loadedOnce() throws Exception {
+        Mockito.when(cachedDao.find(Matchers.<IpPrefix>any())).thenReturn(Optional.<MasterDatabaseBinding>absent());
+        Mockito.when(dataBroker.newReadOnlyTransaction()).thenReturn(rTx);
+        Mockito.when(rTx.read(Matchers.eq(LogicalDatastoreType.CONFIGURATION),
+                Matchers.<InstanceIdentifier<Topology>>any())).thenReturn(
+                Futures.<Optional<Topology>, ReadFailedException>immediateCheckedFuture(
+                        Optional.<Topology>absent()));
+
+        Assert.assertFalse(dao.read(IP_PREFIX).get().isPresent());
+        Assert.assertFalse(dao.read(IP_PREFIX).get().isPresent());
+
+        // empty cache is kept current by listener, DS is not read again
+        Mockito.verify(dataBroker).newReadOnlyTransaction();
+        Assert.assertEquals(1, dao.getCacheReloads());
+        Assert.assertEquals(2, dao.getCacheMisses());
+        Assert.assertEquals(0, dao.getCacheHits());
+    }
+
+    @Test
+    public void testRead_reloadAfterFailure() throws Exception {
+        Mockito.when(cachedDao.find(Matchers.<IpPrefix>any())).thenReturn(Optional.<MasterDatabaseBinding>absent());
+        Mockito.when(dataBroker.newReadOnlyTransaction()).thenReturn(rTx);
+        Mockito.when(rTx.read(Matchers.eq(LogicalDatastoreType.CONFIGURATION),
+                Matchers.<InstanceIdentifier<Topology>>any())).thenReturn(
+                Futures.<Optional<Topology>, ReadFailedException>immediateFailedCheckedFuture(
+                        new ReadFailedException("ut-read-failure")),
+                Futures.<Optional<Topology>, ReadFailedException>immediateCheckedFuture(
+                        Optional.<Topology>absent()));
+
+        Assert.assertTrue(dao.read(IP_PREFIX).isDone());
+        Assert.assertFalse(dao.read(IP_PREFIX).get().isPresent());
+
+        Mockito.verify(dataBroker, Mockito.times(2)).newReadOnlyTransaction();
+        Assert.assertEquals(2, dao.getCacheReloads());
+    }
+
     @Test
     public void testReadBy() throws Exception {
-        Mockito.when(cachedDao.isEmpty()).thenReturn(false);
-        Mockito.when(cachedDao.values()).thenReturn(Collections.singleton(MASTER_DB_BINDING_VALUE));
+        Mockito.when(dataBroker.newReadOnlyTransaction()).thenReturn(rTx);
+        Mockito.when(rTx.read(Matchers.eq(LogicalDatastoreType.CONFIGURATION),
+                Matchers.<InstanceIdentifier<Topology>>any())).thenReturn(
+                Futures.<Optional<Topology>, ReadFailedException>immediateCheckedFuture(
+                        Optional.of(TOPOLOGY_VALUE)));
+        Mockito.when(cachedDao.readBy(KEY_1)).thenReturn(Collections.singletonList(MASTER_DB_BINDING_VALUE));
 
         final ListenableFuture<Collection<MasterDatabaseBinding>> readByFt = dao.readBy(KEY_1);
         Assert.assertTrue(readByFt.isDone());
         Assert.assertEquals(1, readByFt.get().size());
+        Mockito.verify(cachedDao).loadSnapshot(SNAPSHOT_VALUE);
+
+        // served from cache without reading DS again
+        Assert.assertEquals(1, dao.readBy(KEY_1).get().size());
+        Assert.assertTrue(dao.readBy(new Sgt(2)).get().isEmpty());
+        Mockito.verify(dataBroker).newReadOnlyTransaction();
+        Assert.assertEquals(2, dao.getCacheHits());
+        Assert.assertEquals(1, dao.getCacheMisses());
+        Assert.assertEquals(1, dao.getCacheReloads());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.net.util.SubnetUtils;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Prefix;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ep.provider.model.rev160302.sxp.ep.mapper.EndpointForwardingTemplateBySubnet;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ep.provider.model.rev160302.sxp.ep.mapper.EndpointForwardingTemplateBySubnetBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures lookup of forwarding templates by host address missing in the plain cache against {@code templateCount}
+ * subnet templates.<br>
+ * {@link #linearScan()} reproduces the former lookup which checked every subnet with
+ * {@link SubnetUtils.SubnetInfo#isInRange(String)}, {@link #prefixTrie()} uses current
+ * {@link SimpleCachedDaoEPForwardingTemplateImpl}.<br>
+ * Not executed as part of the unit tests, run it with {@code main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SimpleCachedDaoEPForwardingTemplateImplBenchmark {
+
+    private static final int LOOKUP_COUNT = 1024;
+
+    @Param({"10000"})
+    public int templateCount;
+
+    private SimpleCachedDaoEPForwardingTemplateImpl dao;
+    private List<SubnetUtils.SubnetInfo> subnets;
+    private IpPrefix[] hostPrefixes;
+    private String[] hostAddresses;
+    private int position;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        dao = new SimpleCachedDaoEPForwardingTemplateImpl();
+        subnets = new ArrayList<>(templateCount);
+        for (int i = 0; i < templateCount; i++) {
+            // mix of /16 to /28 subnets spread over 10.0.0.0/8
+            final int length = 16 + random.nextInt(13);
+            final int address = (10 << 24 | random.nextInt(1 << 24)) & (-1 << (32 - length));
+            final String cidr = toDottedQuad(address) + "/" + length;
+            final IpPrefix prefix = new IpPrefix(new Ipv4Prefix(cidr));
+            final EndpointForwardingTemplateBySubnet template =
+                    new EndpointForwardingTemplateBySubnetBuilder().setIpPrefix(prefix).build();
+            dao.update(prefix, template);
+            subnets.add(new SubnetUtils(cidr).getInfo());
+        }
+        hostPrefixes = new IpPrefix[LOOKUP_COUNT];
+        hostAddresses = new String[LOOKUP_COUNT];
+        for (int i = 0; i < LOOKUP_COUNT; i++) {
+            hostAddresses[i] = toDottedQuad(10 << 24 | random.nextInt(1 << 24));
+            hostPrefixes[i] = new IpPrefix(new Ipv4Prefix(hostAddresses[i] + "/32"));
+        }
+    }
+
+    @Benchmark
+    public Object prefixTrie() {
+        return dao.find(hostPrefixes[nextPosition()]);
+    }
+
+    @Benchmark
+    public Object linearScan() {
+        final String address = hostAddresses[nextPosition()];
+        SubnetUtils.SubnetInfo candidate = null;
+        for (SubnetUtils.SubnetInfo subnet : subnets) {
+            if (subnet.isInRange(address)
+                    && (candidate == null || candidate.getAddressCount() > subnet.getAddressCount())) {
+                candidate = subnet;
+            }
+        }
+        return candidate;
+    }
+
+    private int nextPosition() {
+        position = (position + 1) % LOOKUP_COUNT;
+        return position;
+    }
+
+    private static String toDottedQuad(final int address) {
+        return (address >>> 24) + "." + ((address >>> 16) & 0xff) + "." + ((address >>> 8) & 0xff) + "."
+                + (address & 0xff);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SimpleCachedDaoEPForwardingTemplateImplBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -14,6 +14,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Prefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv6Prefix;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ep.provider.model.rev160302.sxp.ep.mapper.EndpointForwardingTemplateBySubnet;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ep.provider.model.rev160302.sxp.ep.mapper.EndpointForwardingTemplateBySubnetBuilder;
 
@@ -67,6 +68,33 @@ public class SimpleCachedDaoEPForwardingTemplateImplTest {
         Assert.assertEquals(value1, dao.find(key).get());
     }
 
+    @Test
+    public void testFind_longestPrefixMatch() throws Exception {
+        final IpPrefix wideSubnet = buildIpPrefix("1.2.0.0/16");
+        final EndpointForwardingTemplateBySubnet value1 = buildValue(IP_PREFIX_1);
+        final EndpointForwardingTemplateBySubnet wideValue = buildValue(wideSubnet);
+        dao.update(wideSubnet, wideValue);
+        dao.update(IP_PREFIX_1, value1);
+
+        Assert.assertEquals(value1, dao.find(buildIpPrefix("1.2.3.1/32")).get());
+        Assert.assertEquals(wideValue, dao.find(buildIpPrefix("1.2.4.1/32")).get());
+        Assert.assertFalse(dao.find(buildIpPrefix("1.3.0.1/32")).isPresent());
+
+        dao.update(IP_PREFIX_1, null);
+        Assert.assertEquals(wideValue, dao.find(buildIpPrefix("1.2.3.1/32")).get());
+    }
+
+    @Test
+    public void testFind_ipv6() throws Exception {
+        final IpPrefix subnet = new IpPrefix(new Ipv6Prefix("2001:db8::/64"));
+        final EndpointForwardingTemplateBySubnet value = buildValue(subnet);
+        dao.update(subnet, value);
+
+        Assert.assertEquals(value, dao.find(subnet).get());
+        Assert.assertEquals(value, dao.find(new IpPrefix(new Ipv6Prefix("2001:db8::1/128"))).get());
+        Assert.assertFalse(dao.find(new IpPrefix(new Ipv6Prefix("2001:db8:0:1::1/128"))).isPresent());
+    }
+
     private static IpPrefix buildIpPrefix(final String ipv4PrefixValue) {
         return new IpPrefix(new Ipv4Prefix(ipv4PrefixValue));
     }
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.dao;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Table;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.MasterDatabaseBindingListener;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Prefix;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.Sgt;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.master.database.fields.MasterDatabaseBinding;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.master.database.fields.MasterDatabaseBindingBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.SxpNodeIdentity;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.SxpDomains;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.sxp.domains.SxpDomain;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.node.rev160308.network.topology.topology.node.sxp.domains.SxpDomainKey;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.NodeKey;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+/**
+ * Test for {@link SimpleCachedDaoMasterDatabaseBindingImpl}.
+ */
+public class SimpleCachedDaoMasterDatabaseBindingImplTest {
+
+    private static final Sgt SGT_1 = new Sgt(1);
+    private static final Sgt SGT_2 = new Sgt(2);
+    private static final IpPrefix IP_PREFIX_1 = new IpPrefix(new Ipv4Prefix("1.2.3.4/32"));
+    private static final IpPrefix IP_PREFIX_2 = new IpPrefix(new Ipv4Prefix("1.2.3.5/32"));
+    private static final MasterDatabaseBinding BINDING_1 = buildBinding(IP_PREFIX_1, SGT_1);
+    private static final MasterDatabaseBinding BINDING_2 = buildBinding(IP_PREFIX_2, SGT_1);
+    private static final InstanceIdentifier<SxpDomain> DOMAIN_1 = buildDomainPath("domain1");
+    private static final InstanceIdentifier<SxpDomain> DOMAIN_2 = buildDomainPath("domain2");
+
+    private SimpleCachedDaoMasterDatabaseBindingImpl dao;
+
+    @Before
+    public void setUp() throws Exception {
+        dao = new SimpleCachedDaoMasterDatabaseBindingImpl();
+        dao.update(IP_PREFIX_1, BINDING_1);
+        dao.update(IP_PREFIX_2, BINDING_2);
+    }
+
+    @Test
+    public void testReadBy() throws Exception {
+        Assert.assertEquals(new HashSet<>(Arrays.asList(BINDING_1, BINDING_2)), new HashSet<>(dao.readBy(SGT_1)));
+        Assert.assertTrue(dao.readBy(SGT_2).isEmpty());
+    }
+
+    @Test
+    public void testUpdate_sgtChanged() throws Exception {
+        final MasterDatabaseBinding changedBinding = buildBinding(IP_PREFIX_2, SGT_2);
+        Assert.assertEquals(BINDING_2, dao.update(IP_PREFIX_2, changedBinding));
+
+        Assert.assertEquals(1, dao.readBy(SGT_1).size());
+        Assert.assertEquals(changedBinding, Iterables.getOnlyElement(dao.readBy(SGT_2)));
+        Assert.assertEquals(changedBinding, dao.find(IP_PREFIX_2).get());
+    }
+
+    @Test
+    public void testUpdate_remove() throws Exception {
+        Assert.assertEquals(BINDING_1, dao.update(IP_PREFIX_1, null));
+
+        Assert.assertFalse(dao.find(IP_PREFIX_1).isPresent());
+        Assert.assertEquals(BINDING_2, Iterables.getOnlyElement(dao.readBy(SGT_1)));
+        Assert.assertEquals(1, Iterables.size(dao.values()));
+    }
+
+    @Test
+    public void testInvalidateCache() throws Exception {
+        dao.invalidateCache();
+
+        Assert.assertTrue(dao.isEmpty());
+        Assert.assertTrue(dao.readBy(SGT_1).isEmpty());
+        Assert.assertEquals(0, Iterables.size(dao.keySet()));
+    }
+
+    @Test
+    public void testUpdate_removeFromOneDomain() throws Exception {
+        final SimpleCachedDaoMasterDatabaseBindingImpl domainDao = new SimpleCachedDaoMasterDatabaseBindingImpl();
+        final MasterDatabaseBinding domain2Binding = buildBinding(IP_PREFIX_1, SGT_2);
+        domainDao.update(DOMAIN_1, IP_PREFIX_1, BINDING_1);
+        domainDao.update(DOMAIN_2, IP_PREFIX_1, domain2Binding);
+        Assert.assertEquals(2, Iterables.size(domainDao.values()));
+
+        Assert.assertEquals(BINDING_1, domainDao.update(DOMAIN_1, IP_PREFIX_1, null));
+
+        // binding still held by other domain is kept
+        Assert.assertEquals(domain2Binding, domainDao.find(IP_PREFIX_1).get());
+        Assert.assertTrue(domainDao.readBy(SGT_1).isEmpty());
+        Assert.assertEquals(domain2Binding, Iterables.getOnlyElement(domainDao.readBy(SGT_2)));
+
+        domainDao.update(DOMAIN_2, IP_PREFIX_1, null);
+        Assert.assertTrue(domainDao.isEmpty());
+        Assert.assertTrue(domainDao.readBy(SGT_2).isEmpty());
+    }
+
+    @Test
+    public void testUpdate_sameSgtInMoreDomains() throws Exception {
+        final SimpleCachedDaoMasterDatabaseBindingImpl domainDao = new SimpleCachedDaoMasterDatabaseBindingImpl();
+        domainDao.update(DOMAIN_1, IP_PREFIX_1, BINDING_1);
+        domainDao.update(DOMAIN_2, IP_PREFIX_1, BINDING_1);
+
+        domainDao.update(DOMAIN_1, IP_PREFIX_1, null);
+
+        Assert.assertEquals(BINDING_1, Iterables.getOnlyElement(domainDao.readBy(SGT_1)));
+    }
+
+    @Test
+    public void testLoadSnapshot_listenerUpdatesKept() throws Exception {
+        final SimpleCachedDaoMasterDatabaseBindingImpl domainDao = new SimpleCachedDaoMasterDatabaseBindingImpl();
+        final MasterDatabaseBinding updatedBinding = buildBinding(IP_PREFIX_1, SGT_2);
+        final Table<InstanceIdentifier<SxpDomain>, IpPrefix, MasterDatabaseBinding> snapshot = HashBasedTable.create();
+        snapshot.put(DOMAIN_1, IP_PREFIX_1, BINDING_1);
+        snapshot.put(DOMAIN_1, IP_PREFIX_2, BINDING_2);
+        snapshot.put(DOMAIN_2, IP_PREFIX_2, BINDING_2);
+        // listener events delivered while snapshot was read
+        domainDao.update(DOMAIN_1, IP_PREFIX_1, updatedBinding);
+        domainDao.update(DOMAIN_1, IP_PREFIX_2, null);
+
+        domainDao.loadSnapshot(snapshot);
+
+        Assert.assertEquals(updatedBinding, domainDao.find(IP_PREFIX_1).get());
+        Assert.assertTrue(domainDao.readBy(SGT_1).contains(BINDING_2));
+        Assert.assertEquals(2, Iterables.size(domainDao.values()));
+
+        // removal after snapshot is loaded is not overridden by it
+        domainDao.update(DOMAIN_2, IP_PREFIX_2, null);
+        Assert.assertFalse(domainDao.find(IP_PREFIX_2).isPresent());
+    }
+
+    private static InstanceIdentifier<SxpDomain> buildDomainPath(final String domainName) {
+        return MasterDatabaseBindingListener.SXP_TOPOLOGY_PATH
+                .child(Node.class, new NodeKey(new NodeId("utNodeId")))
+                .augmentation(SxpNodeIdentity.class)
+                .child(SxpDomains.class)
+                .child(SxpDomain.class, new SxpDomainKey(domainName));
+    }
+
+    private static MasterDatabaseBinding buildBinding(final IpPrefix ipPrefix, final Sgt sgt) {
+        return new MasterDatabaseBindingBuilder()
+                .setIpPrefix(ipPrefix)
+                .setSecurityGroupTag(sgt)
+                .build();
+    }
+}
@@ -28,8 +28,8 @@ import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.DSAsyncDao;
 import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.EPTemplateListener;
 import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.MasterDatabaseBindingListener;
-import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.SimpleCachedDao;
 import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.SxpMapperReactor;
+import org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.dao.SimpleCachedDaoMasterDatabaseBindingImpl;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Prefix;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ep.provider.model.rev160302.sxp.ep.mapper.EndpointForwardingTemplateBySubnet;
@@ -59,12 +59,14 @@ public class MasterDatabaseBindingListenerImplTest {
 
     private static final Sgt SGT_1 = new Sgt(1);
     private static final IpPrefix IP_PREFIX = new IpPrefix(new Ipv4Prefix("1.2.3.4/32"));
-    private static final KeyedInstanceIdentifier<MasterDatabaseBinding, MasterDatabaseBindingKey> MASTER_DB_PATH =
+    private static final KeyedInstanceIdentifier<SxpDomain, SxpDomainKey> DOMAIN_PATH =
             MasterDatabaseBindingListener.SXP_TOPOLOGY_PATH
                     .child(Node.class, new NodeKey(new NodeId("utNodeId")))
                     .augmentation(SxpNodeIdentity.class)
                     .child(SxpDomains.class)
-                    .child(SxpDomain.class, new SxpDomainKey("global"))
+                    .child(SxpDomain.class, new SxpDomainKey("global"));
+    private static final KeyedInstanceIdentifier<MasterDatabaseBinding, MasterDatabaseBindingKey> MASTER_DB_PATH =
+            DOMAIN_PATH
                     .child(MasterDatabase.class)
                     .child(MasterDatabaseBinding.class, new MasterDatabaseBindingKey(IP_PREFIX));
     private static final DataTreeIdentifier<MasterDatabaseBinding> MASTER_DB_BINDING_TREE_PATH =
@@ -80,7 +82,7 @@ public class MasterDatabaseBindingListenerImplTest {
     @Mock
     private DSAsyncDao<IpPrefix, EndpointForwardingTemplateBySubnet> epForwardingTemplateDao;
     @Mock
-    private SimpleCachedDao<IpPrefix, MasterDatabaseBinding> cachedDao;
+    private SimpleCachedDaoMasterDatabaseBindingImpl cachedDao;
     @Mock
     private ListenerRegistration<? extends EPTemplateListener> listenerRegistration;
     @Mock
@@ -130,13 +132,25 @@ public class MasterDatabaseBindingListenerImplTest {
         listener.onDataTreeChanged(Collections.singleton(dataTreeModification));
 
         final InOrder inOrder = Mockito.inOrder(cachedDao, epPolicyTemplateDao, epForwardingTemplateDao, sxpMapper);
-        inOrder.verify(cachedDao).update(IP_PREFIX, MASTER_DB_BINDING_VALUE);
+        inOrder.verify(cachedDao).update(DOMAIN_PATH, IP_PREFIX, MASTER_DB_BINDING_VALUE);
         inOrder.verify(epPolicyTemplateDao).read(SGT_1);
         inOrder.verify(epForwardingTemplateDao).read(IP_PREFIX);
         inOrder.verify(sxpMapper).processTemplatesAndSxpMasterDB(epPolicyTemplate, epForwardingTemplate, MASTER_DB_BINDING_VALUE);
         inOrder.verifyNoMoreInteractions();
     }
 
+    @Test
+    public void testOnDataTreeChanged_removed() throws Exception {
+        Mockito.when(dataTreeModification.getRootNode()).thenReturn(dataObjectModification);
+        Mockito.when(dataTreeModification.getRootPath()).thenReturn(MASTER_DB_BINDING_TREE_PATH);
+        Mockito.when(dataObjectModification.getDataBefore()).thenReturn(MASTER_DB_BINDING_VALUE);
+
+        listener.onDataTreeChanged(Collections.singleton(dataTreeModification));
+
+        Mockito.verify(cachedDao).update(DOMAIN_PATH, IP_PREFIX, null);
+        Mockito.verifyZeroInteractions(epPolicyTemplateDao, epForwardingTemplateDao, sxpMapper);
+    }
+
     @Test
     public void testClose() throws Exception {
         Mockito.verify(listenerRegistration, Mockito.never()).close();
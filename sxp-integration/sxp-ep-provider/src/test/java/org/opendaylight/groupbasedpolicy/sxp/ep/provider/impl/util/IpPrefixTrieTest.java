@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.sxp.ep.provider.impl.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Prefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv6Prefix;
+
+/**
+ * Test for {@link IpPrefixTrie}.
+ */
+public class IpPrefixTrieTest {
+
+    private IpPrefixTrie<String> trie;
+
+    @Before
+    public void setUp() throws Exception {
+        trie = new IpPrefixTrie<>();
+        trie.put(ipv4("10.0.0.0/8"), "10/8");
+        trie.put(ipv4("10.1.0.0/16"), "10.1/16");
+        trie.put(ipv4("10.1.2.0/24"), "10.1.2/24");
+        trie.put(ipv4("10.128.0.0/9"), "10.128/9");
+        trie.put(ipv4("192.168.0.0/16"), "192.168/16");
+        trie.put(ipv6("2001:db8::/32"), "2001:db8/32");
+        trie.put(ipv6("2001:db8:1::/48"), "2001:db8:1/48");
+    }
+
+    @Test
+    public void testLongestPrefixMatch() throws Exception {
+        Assert.assertEquals("10.1.2/24", trie.longestPrefixMatch(ipv4("10.1.2.3/32")));
+        Assert.assertEquals("10.1.2/24", trie.longestPrefixMatch(ipv4("10.1.2.0/32")));
+        Assert.assertEquals("10.1/16", trie.longestPrefixMatch(ipv4("10.1.3.1/32")));
+        Assert.assertEquals("10/8", trie.longestPrefixMatch(ipv4("10.2.0.1/32")));
+        Assert.assertEquals("10.128/9", trie.longestPrefixMatch(ipv4("10.200.0.1/32")));
+        Assert.assertEquals("192.168/16", trie.longestPrefixMatch(ipv4("192.168.255.255/32")));
+        Assert.assertNull(trie.longestPrefixMatch(ipv4("11.0.0.1/32")));
+        Assert.assertEquals("2001:db8:1/48", trie.longestPrefixMatch(ipv6("2001:db8:1::1/128")));
+        Assert.assertEquals("2001:db8/32", trie.longestPrefixMatch(ipv6("2001:db8:2::1/128")));
+        Assert.assertNull(trie.longestPrefixMatch(ipv6("2001:db9::1/128")));
+    }
+
+    @Test
+    public void testGet_exactPrefix() throws Exception {
+        Assert.assertEquals("10.1/16", trie.get(ipv4("10.1.0.0/16")));
+        // host bits beyond prefix length are ignored
+        Assert.assertEquals("10.1/16", trie.get(ipv4("10.1.5.5/16")));
+        Assert.assertNull(trie.get(ipv4("10.1.0.0/17")));
+        Assert.assertNull(trie.get(ipv4("10.0.0.0/1")));
+        Assert.assertEquals("2001:db8/32", trie.get(ipv6("2001:db8::/32")));
+    }
+
+    @Test
+    public void testPut_replace() throws Exception {
+        Assert.assertEquals("10/8", trie.put(ipv4("10.0.0.0/8"), "replaced"));
+        Assert.assertEquals(7, trie.size());
+        Assert.assertEquals("replaced", trie.longestPrefixMatch(ipv4("10.2.0.1/32")));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        Assert.assertEquals("10.1/16", trie.remove(ipv4("10.1.0.0/16")));
+        Assert.assertNull(trie.remove(ipv4("10.1.0.0/16")));
+        Assert.assertEquals(6, trie.size());
+        Assert.assertEquals("10.1.2/24", trie.longestPrefixMatch(ipv4("10.1.2.3/32")));
+        Assert.assertEquals("10/8", trie.longestPrefixMatch(ipv4("10.1.3.1/32")));
+
+        Assert.assertEquals("10/8", trie.remove(ipv4("10.0.0.0/8")));
+        Assert.assertNull(trie.longestPrefixMatch(ipv4("10.2.0.1/32")));
+        Assert.assertEquals("10.128/9", trie.longestPrefixMatch(ipv4("10.200.0.1/32")));
+    }
+
+    @Test
+    public void testValues() throws Exception {
+        Assert.assertEquals(new HashSet<>(Arrays.asList("10/8", "10.1/16", "10.1.2/24", "10.128/9", "192.168/16",
+                "2001:db8/32", "2001:db8:1/48")), new HashSet<>(trie.values()));
+        trie.clear();
+        Assert.assertTrue(trie.isEmpty());
+        Assert.assertTrue(trie.values().isEmpty());
+    }
+
+    @Test
+    public void testPut_defaultRoute() throws Exception {
+        trie.put(ipv4("0.0.0.0/0"), "default");
+        Assert.assertEquals("default", trie.longestPrefixMatch(ipv4("11.0.0.1/32")));
+        Assert.assertEquals("10.1.2/24", trie.longestPrefixMatch(ipv4("10.1.2.3/32")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPut_invalidAddress() throws Exception {
+        trie.put(new IpPrefix(new Ipv4Prefix("10.0.0/8")), "invalid");
+    }
+
+    private static IpPrefix ipv4(final String value) {
+        return new IpPrefix(new Ipv4Prefix(value));
+    }
+
+    private static IpPrefix ipv6(final String value) {
+        return new IpPrefix(new Ipv6Prefix(value));
+    }
+}
@@ -37,6 +37,7 @@ public class GbpIseAdapterProvider implements AutoCloseable, BindingAwareProvide
     private final SxpEpProviderProvider sxpEpProvider;
     private ListenerRegistration<ClusteredDataTreeChangeListener<IseSourceConfig>> registration;
     private ObjectRegistration<EPPolicyTemplateProvider> epPolicyTemplateProviderRegistration;
+    private GbpIseSgtHarvesterImpl gbpIseSgtHarvester;
 
     public GbpIseAdapterProvider(final DataBroker dataBroker, final BindingAwareBroker broker,
                                  final SxpEpProviderProvider sxpEpProvider) {
@@ -58,6 +59,11 @@ public class GbpIseAdapterProvider implements AutoCloseable, BindingAwareProvide
             epPolicyTemplateProviderRegistration.close();
             epPolicyTemplateProviderRegistration = null;
         }
+        if (gbpIseSgtHarvester != null) {
+            LOG.info("closing GbpIseSgtHarvester");
+            gbpIseSgtHarvester.close();
+            gbpIseSgtHarvester = null;
+        }
     }
 
     @Override
@@ -72,7 +78,7 @@ public class GbpIseAdapterProvider implements AutoCloseable, BindingAwareProvide
         // setup harvesting and processing pipeline
         final SgtInfoProcessor epgGenerator = new SgtToEpgGeneratorImpl(dataBroker);
         final SgtInfoProcessor templateGenerator = new SgtToEPTemplateGeneratorImpl(dataBroker);
-        final GbpIseSgtHarvester gbpIseSgtHarvester = new GbpIseSgtHarvesterImpl(epgGenerator, templateGenerator);
+        gbpIseSgtHarvester = new GbpIseSgtHarvesterImpl(epgGenerator, templateGenerator);
         final GbpIseConfigListenerImpl gbpIseConfigListener = new GbpIseConfigListenerImpl(
                 dataBroker, gbpIseSgtHarvester, templateProviderFacade);
         templateProviderFacade.setIseSgtHarvester(gbpIseSgtHarvester);
@@ -19,7 +19,7 @@ public interface GbpIseSgtHarvester {
 
     /**
      * @param iseContext user given ise info
-     * @return retrieved and stored sgts
+     * @return all sgts known after harvest, only new or changed ones are stored
      */
     ListenableFuture<Collection<SgtInfo>> harvestAll(@Nonnull IseContext iseContext);
 }
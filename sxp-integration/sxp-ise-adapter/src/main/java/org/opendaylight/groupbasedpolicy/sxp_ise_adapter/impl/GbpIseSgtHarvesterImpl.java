@@ -10,94 +10,128 @@ package org.opendaylight.groupbasedpolicy.sxp_ise_adapter.impl;
 
 import com.google.common.base.Function;
 import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
 import java.net.URI;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathExpressionException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.xml.stream.XMLStreamException;
 import org.opendaylight.groupbasedpolicy.sxp_ise_adapter.impl.util.IseReplyUtil;
 import org.opendaylight.groupbasedpolicy.sxp_ise_adapter.impl.util.RestClientFactory;
+import org.opendaylight.groupbasedpolicy.sxp_ise_adapter.impl.util.SgtSummaryPage;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ise.adapter.model.rev160630.gbp.sxp.ise.adapter.IseSourceConfig;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ise.adapter.model.rev160630.gbp.sxp.ise.adapter.ise.source.config.ConnectionConfig;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ise.adapter.model.rev160630.gbp.sxp.ise.adapter.ise.source.config.connection.config.Header;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.Sgt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 
 /**
  * Purpose: harvest sgt + names available via ise-rest-api
+ * <p>
+ * Rest client and worker pool are kept for whole life of harvester. All pages of sgt summary are read, a page
+ * is re-read conditionally by its entity tag. Details are queried for all sgts listed on modified pages and for sgts
+ * without known detail, only those are passed to {@link SgtInfoProcessor}s. Sgts no longer listed are forgotten.
  */
-public class GbpIseSgtHarvesterImpl implements GbpIseSgtHarvester {
+public class GbpIseSgtHarvesterImpl implements GbpIseSgtHarvester, AutoCloseable {
 
     private static final Logger LOG = LoggerFactory.getLogger(GbpIseSgtHarvesterImpl.class);
 
+    private static final int WORKER_POOL_SIZE = 10;
+    private static final int WORKER_QUEUE_CAPACITY = 1000;
+    private static final int HTTP_STATUS_NOT_MODIFIED = 304;
+    private static final int HTTP_STATUS_MULTIPLE_CHOICES = 300;
+
     private final SgtInfoProcessor[] sgtInfoProcessors;
+    private final ThreadPoolExecutor workerPool;
+    private final ListeningExecutorService workerExecutor;
+    private ConnectionConfig clientConnectionConfig;
+    private Client client;
+
+    private final AtomicLong harvests = new AtomicLong();
+    private final AtomicLong lastHarvestDurationNanos = new AtomicLong();
+    private final AtomicLong notModifiedSummaryPages = new AtomicLong();
+    private final AtomicLong sgtDetailFetches = new AtomicLong();
+    private final AtomicLong sgtDetailFetchNanos = new AtomicLong();
+    private final AtomicLong maxSgtDetailFetchNanos = new AtomicLong();
 
     /**
      * @param sgtInfoProcessors generator delegate
      */
     public GbpIseSgtHarvesterImpl(final SgtInfoProcessor... sgtInfoProcessors) {
         this.sgtInfoProcessors = sgtInfoProcessors;
+        // bounded queue, overflowing queries are executed by harvesting thread
+        workerPool = new ThreadPoolExecutor(WORKER_POOL_SIZE, WORKER_POOL_SIZE, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(WORKER_QUEUE_CAPACITY),
+                new ThreadFactoryBuilder().setNameFormat("ise-sgt-worker-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        workerExecutor = MoreExecutors.listeningDecorator(workerPool);
     }
 
     @Override
     public ListenableFuture<Collection<SgtInfo>> harvestAll(@Nonnull final IseContext iseContext) {
         LOG.debug("ise-source: harvestAll {} -> {}", iseContext.getIseSourceConfig().getTenant(),
                 iseContext.getIseSourceConfig().getConnectionConfig().getIseRestUrl());
+        final long harvestStart = System.nanoTime();
         ListenableFuture<Collection<SgtInfo>> result;
         try {
             final IseSourceConfig iseSourceConfig = iseContext.getIseSourceConfig();
             final ConnectionConfig connectionConfig = iseSourceConfig.getConnectionConfig();
             final WebResource baseWebResource = createWebResource(connectionConfig);
 
-            final WebResource.Builder requestBuilder = RestClientFactory.createRequestBuilder(baseWebResource,
-                    connectionConfig.getHeader(), RestClientFactory.PATH_ERS_CONFIG_SGT);
-            final String rawSgtSummary = IseReplyUtil.deliverResponse(requestBuilder);
+            final List<SgtSummaryPage.SgtResource> modifiedPageResources = new ArrayList<>();
+            // pages are cached only after their details are harvested
+            final Map<String, SgtSummaryPage> fetchedPages = new HashMap<>();
+            final List<SgtSummaryPage.SgtResource> sgtResources = harvestSummary(baseWebResource,
+                    connectionConfig.getHeader(), iseContext.getSummaryPageCache(), fetchedPages,
+                    modifiedPageResources);
+            final Collection<SgtSummaryPage.SgtResource> changedResources = IseReplyUtil.filterResourcesToExplore(
+                    iseContext.getUuidToSgtMap().keySet(), sgtResources, modifiedPageResources);
+            LOG.debug("ise-source: {} sgts listed, {} to explore", sgtResources.size(), changedResources.size());
 
-            final List<SgtInfo> sgtInfos = harvestDetails(rawSgtSummary, baseWebResource, connectionConfig, iseContext.getUuidToSgtMap());
+            final ListenableFuture<List<SgtInfo>> sgtInfosFuture = harvestDetails(changedResources, baseWebResource,
+                    connectionConfig.getHeader());
 
-            ListenableFuture<Void> processingResult = Futures.immediateCheckedFuture(null);
-            for (SgtInfoProcessor processor : sgtInfoProcessors) {
-                processingResult = Futures.transformAsync(processingResult, new AsyncFunction<Void, Void>() {
-                    @Override
-                    public ListenableFuture<Void> apply(final Void input) throws Exception {
-                        LOG.debug("entering stg-info processor {}", processor.getClass().getSimpleName());
-                        return processor.processSgtInfo(iseSourceConfig.getTenant(), sgtInfos);
-                    }
-                }, MoreExecutors.directExecutor());
-            }
-            result = Futures.transform(processingResult, new Function<Void, Collection<SgtInfo>>() {
+            final ListenableFuture<List<SgtInfo>> processingResult = Futures.transformAsync(sgtInfosFuture,
+                    new AsyncFunction<List<SgtInfo>, List<SgtInfo>>() {
+                        @Override
+                        public ListenableFuture<List<SgtInfo>> apply(final List<SgtInfo> sgtInfos) throws Exception {
+                            return processSgtInfos(iseSourceConfig, sgtInfos);
+                        }
+                    }, MoreExecutors.directExecutor());
+
+            result = Futures.transform(processingResult, new Function<List<SgtInfo>, Collection<SgtInfo>>() {
                 @Nullable
                 @Override
-                public Collection<SgtInfo> apply(@Nullable final Void input) {
-                    // update uuid map
-                    for (SgtInfo sgtInfo : sgtInfos) {
-                        iseContext.getUuidToSgtMap().put(sgtInfo.getUuid(), sgtInfo.getSgt().getValue());
-                    }
+                public Collection<SgtInfo> apply(@Nullable final List<SgtInfo> sgtInfos) {
+                    updateUuidMaps(iseContext, sgtResources, sgtInfos);
+                    updateSummaryPageCache(iseContext, fetchedPages, sgtInfos);
                     //TODO: store harvest stats to DS/operational
                     // always success, otherwise there will be TransactionCommitFailedException thrown
-                    return sgtInfos;
+                    return collectKnownSgtInfos(iseContext);
                 }
             }, MoreExecutors.directExecutor());
         } catch (Exception e) {
@@ -105,102 +139,300 @@ public class GbpIseSgtHarvesterImpl implements GbpIseSgtHarvester {
             result = Futures.immediateFailedFuture(e);
         }
 
+        Futures.addCallback(result, new FutureCallback<Collection<SgtInfo>>() {
+            @Override
+            public void onSuccess(@Nullable final Collection<SgtInfo> sgtInfos) {
+                recordHarvest(harvestStart);
+            }
+
+            @Override
+            public void onFailure(@Nonnull final Throwable t) {
+                recordHarvest(harvestStart);
+            }
+        }, MoreExecutors.directExecutor());
         return result;
     }
 
-    private WebResource createWebResource(final ConnectionConfig connectionConfig) throws GeneralSecurityException {
-        final Client iseClient = RestClientFactory.createIseClient(connectionConfig);
-        return iseClient.resource(connectionConfig.getIseRestUrl().getValue());
+    private static void updateUuidMaps(final IseContext iseContext,
+                                       final List<SgtSummaryPage.SgtResource> sgtResources,
+                                       final List<SgtInfo> sgtInfos) {
+        final Map<String, String> summaryNames = new HashMap<>();
+        for (SgtSummaryPage.SgtResource resource : sgtResources) {
+            summaryNames.put(resource.getUuid(), resource.getName());
+        }
+        // sgts not listed anymore were deleted in ise
+        iseContext.getUuidToSgtMap().keySet().retainAll(summaryNames.keySet());
+        iseContext.getUuidToNameMap().keySet().retainAll(summaryNames.keySet());
+        for (SgtInfo sgtInfo : sgtInfos) {
+            iseContext.getUuidToSgtMap().put(sgtInfo.getUuid(), sgtInfo.getSgt().getValue());
+            final String name = sgtInfo.getName() != null ? sgtInfo.getName() : summaryNames.get(sgtInfo.getUuid());
+            if (name != null) {
+                iseContext.getUuidToNameMap().put(sgtInfo.getUuid(), name);
+            } else {
+                iseContext.getUuidToNameMap().remove(sgtInfo.getUuid());
+            }
+        }
     }
 
-    private List<SgtInfo> harvestDetails(final String rawSgtSummary, final WebResource baseWebResource,
-                                         final ConnectionConfig connectionConfig, final Map<String, Integer> uuidToSgtMap) {
-        LOG.trace("rawSgtSummary: {}", rawSgtSummary);
-        final List<Future<SgtInfo>> sgtInfoFutureBag = new ArrayList<>();
-
-        // prepare worker pool
-        final ExecutorService pool = Executors.newFixedThreadPool(
-                10, new ThreadFactoryBuilder().setNameFormat("ise-sgt-worker-%d").build());
+    /**
+     * Caches fetched pages whose sgt details were all harvested, other fetched pages are dropped from
+     * cache so that their resources are explored again by next harvest
+     */
+    private static void updateSummaryPageCache(final IseContext iseContext,
+                                               final Map<String, SgtSummaryPage> fetchedPages,
+                                               final List<SgtInfo> sgtInfos) {
+        final Set<String> harvestedUuids = new HashSet<>();
+        for (SgtInfo sgtInfo : sgtInfos) {
+            harvestedUuids.add(sgtInfo.getUuid());
+        }
+        for (Map.Entry<String, SgtSummaryPage> fetchedPage : fetchedPages.entrySet()) {
+            final SgtSummaryPage page = fetchedPage.getValue();
+            final boolean harvested = page.getResources().stream()
+                    .allMatch(resource -> harvestedUuids.contains(resource.getUuid()));
+            if (page.getETag() != null && harvested) {
+                iseContext.getSummaryPageCache().put(fetchedPage.getKey(), page);
+            } else {
+                iseContext.getSummaryPageCache().remove(fetchedPage.getKey());
+            }
+        }
+    }
 
-        // parse sgtSummary
-        final XPath xpath = IseReplyUtil.setupXpath();
+    private static Collection<SgtInfo> collectKnownSgtInfos(final IseContext iseContext) {
+        final List<SgtInfo> knownSgtInfos = new ArrayList<>(iseContext.getUuidToSgtMap().size());
+        for (Map.Entry<String, Integer> uuidToSgt : iseContext.getUuidToSgtMap().entrySet()) {
+            knownSgtInfos.add(new SgtInfo(new Sgt(uuidToSgt.getValue()),
+                    iseContext.getUuidToNameMap().get(uuidToSgt.getKey()), uuidToSgt.getKey()));
+        }
+        return knownSgtInfos;
+    }
 
-        final InputSource inputSource = IseReplyUtil.createInputSource(rawSgtSummary);
-        try {
-            final NodeList sgtResources = IseReplyUtil.findAllSgtResourceNodes(xpath, inputSource);
-            final Collection<Node> sgtLinkNodes = IseReplyUtil.filterNewResourcesByID(uuidToSgtMap, xpath, sgtResources);
+    private ListenableFuture<List<SgtInfo>> processSgtInfos(final IseSourceConfig iseSourceConfig,
+                                                            final List<SgtInfo> sgtInfos) {
+        ListenableFuture<Void> processingResult = Futures.immediateCheckedFuture(null);
+        for (SgtInfoProcessor processor : sgtInfoProcessors) {
+            processingResult = Futures.transformAsync(processingResult, new AsyncFunction<Void, Void>() {
+                @Override
+                public ListenableFuture<Void> apply(final Void input) throws Exception {
+                    LOG.debug("entering stg-info processor {}", processor.getClass().getSimpleName());
+                    return processor.processSgtInfo(iseSourceConfig.getTenant(), sgtInfos);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+        return Futures.transform(processingResult, new Function<Void, List<SgtInfo>>() {
+            @Nullable
+            @Override
+            public List<SgtInfo> apply(@Nullable final Void input) {
+                return sgtInfos;
+            }
+        }, MoreExecutors.directExecutor());
+    }
 
-            int counter = 0;
-            for (Node sgtLinkNode : sgtLinkNodes) {
-                final String sgtLinkHrefValue = sgtLinkNode.getNodeValue();
-                LOG.debug("found sgt resource: {}", sgtLinkHrefValue);
+    private WebResource createWebResource(final ConnectionConfig connectionConfig) throws GeneralSecurityException {
+        return obtainClient(connectionConfig).resource(connectionConfig.getIseRestUrl().getValue());
+    }
 
-                // submit all query tasks to pool
-                final int idx = counter++;
-                sgtInfoFutureBag.add(pool.submit(new Callable<SgtInfo>() {
-                    @Override
-                    public SgtInfo call() {
-                        SgtInfo sgtInfo = null;
-                        try {
-                            sgtInfo = querySgtDetail(baseWebResource, connectionConfig.getHeader(), xpath, idx, sgtLinkHrefValue);
-                        } catch (XPathExpressionException e) {
-                            LOG.info("failed to parse sgt response for {}: {}", sgtLinkHrefValue, e.getMessage());
-                        }
-                        return sgtInfo;
-                    }
-                }));
+    /**
+     * @return client reused for all harvests while connection config stays the same
+     */
+    private synchronized Client obtainClient(final ConnectionConfig connectionConfig) throws GeneralSecurityException {
+        if (client == null || !connectionConfig.equals(clientConnectionConfig)) {
+            if (client != null) {
+                client.destroy();
             }
+            client = RestClientFactory.createIseClient(connectionConfig);
+            clientConnectionConfig = connectionConfig;
+        }
+        return client;
+    }
 
-            // stop pool
-            pool.shutdown();
-            final boolean terminated = pool.awaitTermination(1, TimeUnit.MINUTES);
-            if (! terminated) {
-                LOG.debug("NOT all sgt-detail queries succeeded - timed out");
-                pool.shutdownNow();
-            }
-        } catch (InterruptedException | XPathExpressionException e) {
-            LOG.warn("failed to query all-sgt details", e);
+    /**
+     * @param fetchedPages collects pages modified since last harvest
+     * @param modifiedResources collects resources of pages modified since last harvest
+     * @return resources listed on all pages
+     */
+    private List<SgtSummaryPage.SgtResource> harvestSummary(final WebResource baseWebResource,
+                                                            final List<Header> headers,
+                                                            final Map<String, SgtSummaryPage> summaryPageCache,
+                                                            final Map<String, SgtSummaryPage> fetchedPages,
+                                                            final List<SgtSummaryPage.SgtResource> modifiedResources)
+            throws XMLStreamException {
+        final List<SgtSummaryPage.SgtResource> sgtResources = new ArrayList<>();
+        final Set<String> visitedPages = new HashSet<>();
+        SgtSummaryPage page = querySummaryPage(RestClientFactory.PATH_ERS_CONFIG_SGT,
+                RestClientFactory.createRequestBuilder(baseWebResource, headers, RestClientFactory.PATH_ERS_CONFIG_SGT),
+                summaryPageCache, fetchedPages, modifiedResources);
+        sgtResources.addAll(page.getResources());
+
+        // follow paging, guard against link cycles
+        while (page.getNextPageHref() != null && visitedPages.add(page.getNextPageHref())) {
+            final URI nextPageUri = URI.create(page.getNextPageHref());
+            final String pageKey = nextPageUri.getRawQuery() == null
+                    ? nextPageUri.getPath()
+                    : nextPageUri.getPath() + "?" + nextPageUri.getRawQuery();
+            LOG.trace("following sgt summary page: {}", pageKey);
+            page = querySummaryPage(pageKey, RestClientFactory.createRequestBuilder(baseWebResource, headers, nextPageUri),
+                    summaryPageCache, fetchedPages, modifiedResources);
+            sgtResources.addAll(page.getResources());
         }
+        return sgtResources;
+    }
 
-        // harvest available details
-        return sgtInfoFutureBag.stream()
-                .map(this::gainSgtInfoSafely)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-    }
-
-    private SgtInfo gainSgtInfoSafely(final Future<SgtInfo> response) {
-        SgtInfo result = null;
-        if (response.isDone() && ! response.isCancelled()) {
-            try {
-                result = response.get();
-            } catch (Exception e) {
-                LOG.debug("sgt-detail query failed even when future was DONE", e);
+    /**
+     * @param fetchedPages collects page unless ise replied not-modified, the cache is not changed here
+     * @param modifiedPageResources collects resources of page unless ise replied not-modified
+     */
+    private SgtSummaryPage querySummaryPage(final String pageKey, final WebResource.Builder requestBuilder,
+                                            final Map<String, SgtSummaryPage> summaryPageCache,
+                                            final Map<String, SgtSummaryPage> fetchedPages,
+                                            final List<SgtSummaryPage.SgtResource> modifiedPageResources)
+            throws XMLStreamException {
+        final SgtSummaryPage cachedPage = summaryPageCache.get(pageKey);
+        if (cachedPage != null && cachedPage.getETag() != null) {
+            requestBuilder.header(HttpHeaders.IF_NONE_MATCH, cachedPage.getETag());
+        }
+
+        final ClientResponse response = requestBuilder.get(ClientResponse.class);
+        try {
+            if (cachedPage != null && response.getStatus() == HTTP_STATUS_NOT_MODIFIED) {
+                LOG.trace("sgt summary page not modified: {}", pageKey);
+                notModifiedSummaryPages.incrementAndGet();
+                return cachedPage;
             }
+            checkStatus(response, pageKey);
+
+            final EntityTag eTag = response.getEntityTag();
+            final SgtSummaryPage page = IseReplyUtil.parseSgtSummary(response.getEntityInputStream(),
+                    eTag == null ? null : eTag.toString());
+            fetchedPages.put(pageKey, page);
+            modifiedPageResources.addAll(page.getResources());
+            return page;
+        } finally {
+            response.close();
         }
-        return result;
     }
 
-    private SgtInfo querySgtDetail(final WebResource baseWebResource, final List<Header> headers, final XPath xpath,
-                                   final int idx, final String sgtLinkHrefValue) throws XPathExpressionException {
-        // query all sgt entries (serial-vise)
+    private ListenableFuture<List<SgtInfo>> harvestDetails(final Collection<SgtSummaryPage.SgtResource> sgtResources,
+                                                          final WebResource baseWebResource,
+                                                          final List<Header> headers) {
+        final List<ListenableFuture<SgtInfo>> sgtInfoFutureBag = new ArrayList<>(sgtResources.size());
+        for (SgtSummaryPage.SgtResource sgtResource : sgtResources) {
+            LOG.debug("found sgt resource: {}", sgtResource.getHref());
+            // submit all query tasks to pool
+            sgtInfoFutureBag.add(workerExecutor.submit(() -> {
+                SgtInfo sgtInfo = null;
+                try {
+                    sgtInfo = querySgtDetail(baseWebResource, headers, sgtResource.getHref());
+                } catch (Exception e) {
+                    LOG.info("failed to query sgt detail for {}: {}", sgtResource.getHref(), e.getMessage());
+                }
+                return sgtInfo;
+            }));
+        }
+
+        // harvest available details
+        return Futures.transform(Futures.successfulAsList(sgtInfoFutureBag),
+                new Function<List<SgtInfo>, List<SgtInfo>>() {
+                    @Nullable
+                    @Override
+                    public List<SgtInfo> apply(@Nullable final List<SgtInfo> input) {
+                        return input.stream()
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toList());
+                    }
+                }, MoreExecutors.directExecutor());
+    }
+
+    private SgtInfo querySgtDetail(final WebResource baseWebResource, final List<Header> headers,
+                                   final String sgtLinkHrefValue) throws XMLStreamException {
+        final long fetchStart = System.nanoTime();
         final URI hrefToSgtDetailUri = URI.create(sgtLinkHrefValue);
         final WebResource.Builder requestBuilder = RestClientFactory.createRequestBuilder(baseWebResource, headers,
                 hrefToSgtDetailUri.getPath());
         // time consuming operation - wait for rest response
-        final String rawSgtDetail = IseReplyUtil.deliverResponse(requestBuilder);
-        LOG.trace("rawSgtDetail: {}", rawSgtDetail);
+        final ClientResponse response = requestBuilder.get(ClientResponse.class);
+        try {
+            checkStatus(response, sgtLinkHrefValue);
+            final SgtInfo sgtInfo = IseReplyUtil.parseSgtDetail(response.getEntityInputStream());
+            LOG.debug("sgt value: {} -> {}", sgtInfo.getSgt().getValue(), sgtInfo.getName());
+            return sgtInfo;
+        } finally {
+            response.close();
+            recordSgtDetailFetch(System.nanoTime() - fetchStart);
+        }
+    }
+
+    private static void checkStatus(final ClientResponse response, final String resource) {
+        if (response.getStatus() >= HTTP_STATUS_MULTIPLE_CHOICES) {
+            throw new IllegalStateException("ise replied with status " + response.getStatus() + " to " + resource);
+        }
+    }
 
-        // process response xml
-        final Node sgtNode = IseReplyUtil.findSgtDetailNode(xpath, rawSgtDetail);
-        final Node sgtName = IseReplyUtil.gainSgtName(xpath, sgtNode);
-        final Node sgtUuid = IseReplyUtil.gainSgtUuid(xpath, sgtNode);
-        final Node sgtValue = IseReplyUtil.gainSgtValue(xpath, sgtNode);
-        LOG.debug("sgt value [{}]: {} -> {}", idx, sgtValue, sgtName);
+    private void recordHarvest(final long harvestStart) {
+        final long duration = System.nanoTime() - harvestStart;
+        harvests.incrementAndGet();
+        lastHarvestDurationNanos.set(duration);
+        LOG.debug("ise harvest took {} ms", TimeUnit.NANOSECONDS.toMillis(duration));
+    }
+
+    private void recordSgtDetailFetch(final long duration) {
+        sgtDetailFetches.incrementAndGet();
+        sgtDetailFetchNanos.addAndGet(duration);
+        long max = maxSgtDetailFetchNanos.get();
+        while (duration > max && !maxSgtDetailFetchNanos.compareAndSet(max, duration)) {
+            max = maxSgtDetailFetchNanos.get();
+        }
+    }
 
-        // store replies into list of SgtInfo
-        final Sgt sgt = new Sgt(Integer.parseInt(sgtValue.getNodeValue(), 10));
-        return new SgtInfo(sgt, sgtName.getNodeValue(), sgtUuid.getNodeValue());
+    /**
+     * @return count of finished harvests (successful or failed)
+     */
+    public long getHarvests() {
+        return harvests.get();
     }
 
+    /**
+     * @return duration of last finished harvest
+     */
+    public long getLastHarvestDurationNanos() {
+        return lastHarvestDurationNanos.get();
+    }
+
+    /**
+     * @return count of summary pages served from cache after ise replied not-modified
+     */
+    public long getNotModifiedSummaryPages() {
+        return notModifiedSummaryPages.get();
+    }
+
+    /**
+     * @return count of queried sgt details
+     */
+    public long getSgtDetailFetches() {
+        return sgtDetailFetches.get();
+    }
+
+    /**
+     * @return total time spent by querying sgt details
+     */
+    public long getSgtDetailFetchNanos() {
+        return sgtDetailFetchNanos.get();
+    }
+
+    /**
+     * @return longest sgt detail query
+     */
+    public long getMaxSgtDetailFetchNanos() {
+        return maxSgtDetailFetchNanos.get();
+    }
+
+    @Override
+    public void close() {
+        workerPool.shutdownNow();
+        synchronized (this) {
+            if (client != null) {
+                client.destroy();
+                client = null;
+            }
+        }
+    }
 }
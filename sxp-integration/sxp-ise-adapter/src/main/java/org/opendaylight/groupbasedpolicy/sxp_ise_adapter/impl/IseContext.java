@@ -8,12 +8,13 @@
 
 package org.opendaylight.groupbasedpolicy.sxp_ise_adapter.impl;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.opendaylight.groupbasedpolicy.sxp_ise_adapter.impl.util.SgtSummaryPage;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ise.adapter.model.rev160630.gbp.sxp.ise.adapter.IseSourceConfig;
 
 /**
- * Purpose: keeper of {@link IseSourceConfig}, UUID-to-SGT map
+ * Purpose: keeper of {@link IseSourceConfig}, UUID-to-SGT map, UUID-to-name map and cached sgt summary pages
  * <br>
  * Unique identifier is tenant-id (expect 1 tenant = 1 ise-source)
  */
@@ -21,6 +22,8 @@ public class IseContext {
 
     private final IseSourceConfig iseSourceConfig;
     private final Map<String, Integer> uuidToSgtMap;
+    private final Map<String, String> uuidToNameMap;
+    private final Map<String, SgtSummaryPage> summaryPageCache;
 
     /**
      * default ctor
@@ -28,7 +31,9 @@ public class IseContext {
      */
     public IseContext(final IseSourceConfig iseSourceConfig) {
         this.iseSourceConfig = iseSourceConfig;
-        this.uuidToSgtMap = new HashMap<>();
+        this.uuidToSgtMap = new ConcurrentHashMap<>();
+        this.uuidToNameMap = new ConcurrentHashMap<>();
+        this.summaryPageCache = new ConcurrentHashMap<>();
     }
 
     /**
@@ -44,4 +49,18 @@ public class IseContext {
     public Map<String, Integer> getUuidToSgtMap() {
         return uuidToSgtMap;
     }
+
+    /**
+     * @return names of sgts with known detail (by uuid)
+     */
+    public Map<String, String> getUuidToNameMap() {
+        return uuidToNameMap;
+    }
+
+    /**
+     * @return sgt summary pages with entity tag (by page path)
+     */
+    public Map<String, SgtSummaryPage> getSummaryPageCache() {
+        return summaryPageCache;
+    }
 }
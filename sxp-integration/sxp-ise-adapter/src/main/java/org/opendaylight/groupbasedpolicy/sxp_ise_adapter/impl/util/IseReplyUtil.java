@@ -8,128 +8,148 @@
 
 package org.opendaylight.groupbasedpolicy.sxp_ise_adapter.impl.util;
 
-import com.sun.jersey.api.client.ClientResponse;
-import com.sun.jersey.api.client.WebResource;
-import java.io.StringReader;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.Map;
-import javax.xml.XMLConstants;
-import javax.xml.namespace.NamespaceContext;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.opendaylight.groupbasedpolicy.sxp_ise_adapter.impl.SgtInfo;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.Sgt;
 
 /**
  * Purpose: provide common functionality upon ise reply message
+ * <p>
+ * Replies are parsed by streaming (StAX) reader directly from response entity, without building DOM.
  */
 public class IseReplyUtil {
 
-    private static final String EXPRESSION_SGT_ALL_RESOURCES = "/ns3:searchResult/ns3:resources/ns5:resource";
-    private static final String EXPRESSION_SGT_DETAIL_LINK = "./link/@href";
-    private static final String EXPRESSION_SGT_DETAIL = "./ns4:sgt";
-    private static final String EXPRESSION_SGT_NAME_ATTR = "./@name";
-    private static final String EXPRESSION_SGT_UUID_ATTR = "./@id";
-    private static final String EXPRESSION_SGT_VALUE = "./value/text()";
+    private static final String NS_ERS = "ers.ise.cisco.com";
+    private static final String NS_ERS_V2 = "v2.ers.ise.cisco.com";
+    private static final String NS_TRUSTSEC = "trustsec.ers.ise.cisco.com";
+    private static final String ELEMENT_NEXT_PAGE = "nextPage";
+    private static final String ELEMENT_RESOURCE = "resource";
+    private static final String ELEMENT_LINK = "link";
+    private static final String ELEMENT_SGT = "sgt";
+    private static final String ELEMENT_VALUE = "value";
+    private static final String ATTR_HREF = "href";
+    private static final String ATTR_ID = "id";
+    private static final String ATTR_NAME = "name";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
 
     private IseReplyUtil() {
         throw new IllegalAccessError("util class - no instances supported");
     }
 
-
-    public static String deliverResponse(final WebResource.Builder requestBuilder) {
-        return requestBuilder.get(ClientResponse.class).getEntity(String.class);
+    private static XMLInputFactory createXmlInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
     }
 
     /**
-     * @return initiated xpath with ise namespace context injected
+     * @param replySource raw ise reply to sgt summary query
+     * @param eTag        entity tag of reply
+     * @return sgt resources and next page link found in reply
+     * @throws XMLStreamException in case reply is not well formed
      */
-    public static XPath setupXpath() {
-        final NamespaceContext nsContext = new NamespaceContext() {
-            public String getNamespaceURI(String prefix) {
-                final String outcome;
-                if (prefix == null) {
-                    throw new NullPointerException("Null prefix");
+    public static SgtSummaryPage parseSgtSummary(final InputStream replySource, final String eTag)
+            throws XMLStreamException {
+        final List<SgtSummaryPage.SgtResource> resources = new ArrayList<>();
+        String nextPageHref = null;
+        String uuid = null;
+        String name = null;
+
+        final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(replySource);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
                 }
-
-                if ("ns5".equals(prefix)) {
-                    outcome = "ers.ise.cisco.com";
-                } else if ("ns3".equals(prefix)) {
-                    outcome = "v2.ers.ise.cisco.com";
-                } else if ("ns4".equals(prefix)) {
-                    outcome = "trustsec.ers.ise.cisco.com";
-                } else {
-                    outcome = XMLConstants.NULL_NS_URI;
+                final String localName = reader.getLocalName();
+                if (ELEMENT_NEXT_PAGE.equals(localName) && NS_ERS_V2.equals(reader.getNamespaceURI())) {
+                    nextPageHref = emptyToNull(reader.getAttributeValue(null, ATTR_HREF));
+                } else if (ELEMENT_RESOURCE.equals(localName) && NS_ERS.equals(reader.getNamespaceURI())) {
+                    uuid = reader.getAttributeValue(null, ATTR_ID);
+                    name = reader.getAttributeValue(null, ATTR_NAME);
+                } else if (ELEMENT_LINK.equals(localName) && uuid != null) {
+                    resources.add(new SgtSummaryPage.SgtResource(uuid, name, reader.getAttributeValue(null, ATTR_HREF)));
+                    uuid = null;
+                    name = null;
                 }
-                return outcome;
-            }
-
-            // This method isn't necessary for XPath processing.
-            public String getPrefix(String uri) {
-                throw new UnsupportedOperationException();
-            }
-
-            // This method isn't necessary for XPath processing either.
-            public Iterator getPrefixes(String uri) {
-                throw new UnsupportedOperationException();
             }
-        };
-
-        XPath xpath = XPathFactory.newInstance().newXPath();
-        xpath.setNamespaceContext(nsContext);
-        return xpath;
-    }
-
-    public static InputSource createInputSource(final String rawSgtDetail) {
-        return new InputSource(new StringReader(rawSgtDetail));
+        } finally {
+            reader.close();
+        }
+        return new SgtSummaryPage(resources, nextPageHref, eTag);
     }
 
     /**
-     * @param uuidToSgtMap map of existing sgts (by uuid)
-     * @param xpath        xpath instance
-     * @param sgtResources input node list
-     * @return new/unknown sgts to explore
-     * @throws XPathExpressionException in case xpath processing fails
+     * @param replySource raw ise reply to sgt detail query
+     * @return sgt, name and uuid found in reply
+     * @throws XMLStreamException in case reply is not well formed or does not contain sgt detail
      */
-    public static Collection<Node> filterNewResourcesByID(final Map<String, Integer> uuidToSgtMap, final XPath xpath,
-                                                          final NodeList sgtResources)
-            throws XPathExpressionException {
-        final Collection<Node> nodesToExplore = new ArrayList<>();
-        for (int i = 0; i < sgtResources.getLength(); i++) {
-            final String uuid = ((Node) xpath.evaluate(EXPRESSION_SGT_UUID_ATTR, sgtResources.item(i), XPathConstants.NODE)).getNodeValue();
-            if (!uuidToSgtMap.containsKey(uuid)) {
-                nodesToExplore.add(
-                        (Node) xpath.evaluate(EXPRESSION_SGT_DETAIL_LINK, sgtResources.item(i), XPathConstants.NODE)
-                );
+    public static SgtInfo parseSgtDetail(final InputStream replySource) throws XMLStreamException {
+        String uuid = null;
+        String name = null;
+        String value = null;
+
+        final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(replySource);
+        try {
+            while (value == null && reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                final String localName = reader.getLocalName();
+                if (ELEMENT_SGT.equals(localName) && NS_TRUSTSEC.equals(reader.getNamespaceURI())) {
+                    uuid = reader.getAttributeValue(null, ATTR_ID);
+                    name = reader.getAttributeValue(null, ATTR_NAME);
+                } else if (ELEMENT_VALUE.equals(localName) && uuid != null) {
+                    value = reader.getElementText().trim();
+                }
             }
+        } finally {
+            reader.close();
         }
-        return nodesToExplore;
-    }
-
-    public static NodeList findAllSgtResourceNodes(final XPath xpath, final InputSource inputSource) throws XPathExpressionException {
-        return (NodeList) xpath.evaluate(EXPRESSION_SGT_ALL_RESOURCES, inputSource,
-                XPathConstants.NODESET);
-    }
-
-    public static Node gainSgtValue(final XPath xpath, final Node sgtNode) throws XPathExpressionException {
-        return (Node) xpath.evaluate(EXPRESSION_SGT_VALUE, sgtNode, XPathConstants.NODE);
-    }
 
-    public static Node gainSgtUuid(final XPath xpath, final Node sgtNode) throws XPathExpressionException {
-        return (Node) xpath.evaluate(EXPRESSION_SGT_UUID_ATTR, sgtNode, XPathConstants.NODE);
+        if (value == null) {
+            throw new XMLStreamException("sgt detail not found in ise reply");
+        }
+        return new SgtInfo(new Sgt(Integer.parseInt(value, 10)), name, uuid);
     }
 
-    public static Node gainSgtName(final XPath xpath, final Node sgtNode) throws XPathExpressionException {
-        return (Node) xpath.evaluate(EXPRESSION_SGT_NAME_ATTR, sgtNode, XPathConstants.NODE);
+    /**
+     * Summary lists only name of sgt, so any change of sgt detail is detected only by modified summary page.
+     *
+     * @param knownSgtUuids         uuids of sgts with known detail
+     * @param resources             sgt resources listed by ise
+     * @param modifiedPageResources sgt resources listed on summary pages modified since last harvest
+     * @return all sgts from modified pages and sgts with unknown detail to explore
+     */
+    public static Collection<SgtSummaryPage.SgtResource> filterResourcesToExplore(final Set<String> knownSgtUuids,
+            final Collection<SgtSummaryPage.SgtResource> resources,
+            final Collection<SgtSummaryPage.SgtResource> modifiedPageResources) {
+        final Collection<SgtSummaryPage.SgtResource> resourcesToExplore = new ArrayList<>(modifiedPageResources);
+        final Set<String> uuidsToExplore = new HashSet<>();
+        for (SgtSummaryPage.SgtResource resource : modifiedPageResources) {
+            uuidsToExplore.add(resource.getUuid());
+        }
+        for (SgtSummaryPage.SgtResource resource : resources) {
+            if (!knownSgtUuids.contains(resource.getUuid()) && uuidsToExplore.add(resource.getUuid())) {
+                resourcesToExplore.add(resource);
+            }
+        }
+        return resourcesToExplore;
     }
 
-    public static Node findSgtDetailNode(final XPath xpath, final String rawSgtDetail) throws XPathExpressionException {
-        return (Node) xpath.evaluate(EXPRESSION_SGT_DETAIL, createInputSource(rawSgtDetail),
-                XPathConstants.NODE);
+    private static String emptyToNull(final String value) {
+        return value == null || value.isEmpty() ? null : value;
     }
 }
@@ -12,7 +12,9 @@ import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.WebResource;
 import com.sun.jersey.api.client.config.ClientConfig;
 import com.sun.jersey.api.client.config.DefaultClientConfig;
+import com.sun.jersey.api.uri.UriComponent;
 import com.sun.jersey.client.urlconnection.HTTPSProperties;
+import java.net.URI;
 import java.security.GeneralSecurityException;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
@@ -66,7 +68,25 @@ public class RestClientFactory {
 
     public static WebResource.Builder createRequestBuilder(final WebResource resource, final List<Header> headers,
                                                            final String path) {
-        final WebResource webResource = resource.path(path);
+        return applyHeaders(resource.path(path), headers);
+    }
+
+    /**
+     * @param resource base resource
+     * @param headers  headers to add to request
+     * @param uri      link to follow (path and query are used, e.g. next page of ise reply)
+     * @return request builder pointing to path and query of given uri
+     */
+    public static WebResource.Builder createRequestBuilder(final WebResource resource, final List<Header> headers,
+                                                           final URI uri) {
+        WebResource webResource = resource.path(uri.getPath());
+        if (uri.getRawQuery() != null) {
+            webResource = webResource.queryParams(UriComponent.decodeQuery(uri, true));
+        }
+        return applyHeaders(webResource, headers);
+    }
+
+    private static WebResource.Builder applyHeaders(final WebResource webResource, final List<Header> headers) {
         final WebResource.Builder requestBuilder = webResource.getRequestBuilder();
         headers.stream().forEach(
                 (header) -> requestBuilder.header(header.getName(), header.getValue()));
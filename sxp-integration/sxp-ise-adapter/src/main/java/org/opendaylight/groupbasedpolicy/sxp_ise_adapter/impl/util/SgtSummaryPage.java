@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.sxp_ise_adapter.impl.util;
+
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Purpose: holder of one page of ise sgt summary (sgt resources + link to next page)
+ */
+public class SgtSummaryPage {
+
+    private final List<SgtResource> resources;
+    private final String nextPageHref;
+    private final String eTag;
+
+    /**
+     * @param resources    sgt resources listed on page
+     * @param nextPageHref link to next page, null if this is the last one
+     * @param eTag         entity tag of ise reply, null if not provided
+     */
+    public SgtSummaryPage(@Nonnull final List<SgtResource> resources, @Nullable final String nextPageHref,
+                          @Nullable final String eTag) {
+        this.resources = resources;
+        this.nextPageHref = nextPageHref;
+        this.eTag = eTag;
+    }
+
+    /**
+     * @return sgt resources listed on page
+     */
+    public List<SgtResource> getResources() {
+        return resources;
+    }
+
+    /**
+     * @return link to next page, null if this is the last one
+     */
+    @Nullable
+    public String getNextPageHref() {
+        return nextPageHref;
+    }
+
+    /**
+     * @return entity tag of ise reply, null if not provided
+     */
+    @Nullable
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * Purpose: sgt summary entry (uuid, name and link to sgt detail)
+     */
+    public static class SgtResource {
+
+        private final String uuid;
+        private final String name;
+        private final String href;
+
+        public SgtResource(final String uuid, final String name, final String href) {
+            this.uuid = uuid;
+            this.name = name;
+            this.href = href;
+        }
+
+        /**
+         * @return uuid of sgt
+         */
+        public String getUuid() {
+            return uuid;
+        }
+
+        /**
+         * @return name of sgt
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return link to sgt detail
+         */
+        public String getHref() {
+            return href;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2017 Cisco Systems, Inc. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.groupbasedpolicy.sxp_ise_adapter.impl;
+
+import com.google.common.util.concurrent.Futures;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Uri;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.groupbasedpolicy.common.rev140421.TenantId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ep.provider.model.rev160302.sxp.ep.mapper.EndpointPolicyTemplateBySgt;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ise.adapter.model.rev160630.gbp.sxp.ise.adapter.IseSourceConfigBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ise.adapter.model.rev160630.gbp.sxp.ise.adapter.ise.source.config.ConnectionConfigBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.controller.config.groupbasedpolicy.sxp.integration.sxp.ise.adapter.model.rev160630.gbp.sxp.ise.adapter.ise.source.config.connection.config.HeaderBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.sxp.database.rev160308.Sgt;
+
+/**
+ * Test for {@link GbpIseSgtHarvesterImpl} against local stub of ise rest-api serving paged sgt summary.
+ */
+public class GbpIseSgtHarvesterImplStubServerTest {
+
+    private static final TenantId TENANT_ID = new TenantId("unit-tenant-id-1");
+    private static final String PATH_SGT = "/ers/config/sgt";
+
+    private final Map<String, AtomicInteger> requestCounters = new ConcurrentHashMap<>();
+    private volatile String workerGroupName = "worker_group";
+    private volatile int workerGroupSgt = 43;
+    private volatile boolean workerGroupListed = true;
+
+    private HttpServer server;
+    private String baseUrl;
+    private SgtInfoProcessor processor;
+    private GbpIseSgtHarvesterImpl harvester;
+    private IseContext iseContext;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(PATH_SGT, this::handle);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        processor = Mockito.mock(SgtInfoProcessor.class);
+        Mockito.when(processor.processSgtInfo(Matchers.eq(TENANT_ID), Matchers.<List<SgtInfo>>any())).thenReturn(
+                Futures.immediateCheckedFuture(null));
+        harvester = new GbpIseSgtHarvesterImpl(processor);
+        iseContext = new IseContext(new IseSourceConfigBuilder()
+                .setTenant(TENANT_ID)
+                .setConnectionConfig(new ConnectionConfigBuilder()
+                        .setConnectionTimeout(1000)
+                        .setReadTimeout(1000)
+                        .setHeader(Collections.singletonList(new HeaderBuilder()
+                                .setName("Accept")
+                                .setValue("application/xml")
+                                .build()))
+                        .setIseRestUrl(new Uri(baseUrl))
+                        .build())
+                .build());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        harvester.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testHarvestAll_paged() throws Exception {
+        final Collection<SgtInfo> sgtInfos = harvester.harvestAll(iseContext).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(2, sgtInfos.size());
+        Assert.assertEquals(Integer.valueOf(42), iseContext.getUuidToSgtMap().get("abc123"));
+        Assert.assertEquals(Integer.valueOf(43), iseContext.getUuidToSgtMap().get("abc124"));
+        Assert.assertEquals(1, requestCount(PATH_SGT + "?page=1"));
+        Assert.assertEquals(1, requestCount(PATH_SGT + "?page=2"));
+        Assert.assertEquals(2, harvester.getSgtDetailFetches());
+    }
+
+    @Test
+    public void testHarvestAll_notModified() throws Exception {
+        harvester.harvestAll(iseContext).get(5, TimeUnit.SECONDS);
+        final Collection<SgtInfo> sgtInfos = harvester.harvestAll(iseContext).get(5, TimeUnit.SECONDS);
+
+        // both pages answered by 304, no detail queried again, known sgts are still provided
+        Assert.assertEquals(2, sgtInfos.size());
+        Assert.assertEquals(2, harvester.getNotModifiedSummaryPages());
+        Assert.assertEquals(1, requestCount(PATH_SGT + "/abc123"));
+        Assert.assertEquals(1, requestCount(PATH_SGT + "/abc124"));
+        Assert.assertTrue(processedSgtInfos().get(1).isEmpty());
+    }
+
+    @Test
+    public void testHarvestAll_failedHarvestNotCached() throws Exception {
+        Mockito.when(processor.processSgtInfo(Matchers.eq(TENANT_ID), Matchers.<List<SgtInfo>>any())).thenReturn(
+                Futures.immediateFailedCheckedFuture(new TransactionCommitFailedException("unit-failure")),
+                Futures.immediateCheckedFuture(null));
+        try {
+            harvester.harvestAll(iseContext).get(5, TimeUnit.SECONDS);
+            Assert.fail("harvest should fail");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(iseContext.getSummaryPageCache().isEmpty());
+        }
+        final Collection<SgtInfo> sgtInfos = harvester.harvestAll(iseContext).get(5, TimeUnit.SECONDS);
+
+        // pages of failed harvest were queried again in full, details were explored again
+        Assert.assertEquals(2, sgtInfos.size());
+        Assert.assertEquals(0, harvester.getNotModifiedSummaryPages());
+        Assert.assertEquals(2, requestCount(PATH_SGT + "/abc123"));
+        Assert.assertEquals(2, requestCount(PATH_SGT + "/abc124"));
+        Assert.assertEquals(2, iseContext.getSummaryPageCache().size());
+    }
+
+    @Test
+    public void testHarvestAll_changedSgt() throws Exception {
+        harvester.harvestAll(iseContext).get(5, TimeUnit.SECONDS);
+        workerGroupName = "renamed_worker_group";
+        final Collection<SgtInfo> sgtInfos = harvester.harvestAll(iseContext).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(2, sgtInfos.size());
+        final List<SgtInfo> processed = processedSgtInfos().get(1);
+        Assert.assertEquals(1, processed.size());
+        Assert.assertEquals("abc124", processed.get(0).getUuid());
+        Assert.assertEquals("renamed_worker_group", iseContext.getUuidToNameMap().get("abc124"));
+        Assert.assertEquals(1, harvester.getNotModifiedSummaryPages());
+        Assert.assertEquals(1, requestCount(PATH_SGT + "/abc123"));
+        Assert.assertEquals(2, requestCount(PATH_SGT + "/abc124"));
+    }
+
+    @Test
+    public void testHarvestAll_changedSgtValueOnly() throws Exception {
+        harvester.harvestAll(iseContext).get(5, TimeUnit.SECONDS);
+        // name in summary stays the same, only entity tag of page changes
+        workerGroupSgt = 44;
+        harvester.harvestAll(iseContext).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(Integer.valueOf(44), iseContext.getUuidToSgtMap().get("abc124"));
+        Assert.assertEquals(2, requestCount(PATH_SGT + "/abc124"));
+    }
+
+    @Test
+    public void testHarvestAll_removedSgt() throws Exception {
+        harvester.harvestAll(iseContext).get(5, TimeUnit.SECONDS);
+        workerGroupListed = false;
+        final Collection<SgtInfo> sgtInfos = harvester.harvestAll(iseContext).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1, sgtInfos.size());
+        Assert.assertEquals("abc123", sgtInfos.iterator().next().getUuid());
+        Assert.assertFalse(iseContext.getUuidToSgtMap().containsKey("abc124"));
+        Assert.assertFalse(iseContext.getUuidToNameMap().containsKey("abc124"));
+    }
+
+    @Test
+    public void testProvideTemplate_twoLookupsOnOneContext() throws Exception {
+        final IseContext rangedIseContext = new IseContext(new IseSourceConfigBuilder(iseContext.getIseSourceConfig())
+                .setSgtRangeMin(new Sgt(1))
+                .setSgtRangeMax(new Sgt(100))
+                .build());
+        final EPPolicyTemplateProviderIseImpl templateProvider = new EPPolicyTemplateProviderIseImpl();
+        templateProvider.setIseSgtHarvester(harvester);
+        templateProvider.assignIseContext(rangedIseContext);
+
+        final Optional<EndpointPolicyTemplateBySgt> firstTemplate =
+                templateProvider.provideTemplate(new Sgt(42)).get(5, TimeUnit.SECONDS);
+        // second lookup is served by not-modified summary
+        final Optional<EndpointPolicyTemplateBySgt> secondTemplate =
+                templateProvider.provideTemplate(new Sgt(43)).get(5, TimeUnit.SECONDS);
+
+        Assert.assertTrue(firstTemplate.isPresent());
+        Assert.assertEquals("boss-group", firstTemplate.get().getEndpointGroups().get(0).getValue());
+        Assert.assertTrue(secondTemplate.isPresent());
+        Assert.assertEquals("worker_group", secondTemplate.get().getEndpointGroups().get(0).getValue());
+        Assert.assertEquals(2, harvester.getNotModifiedSummaryPages());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<SgtInfo>> processedSgtInfos() {
+        final ArgumentCaptor<List> sgtInfosCpt = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(processor, Mockito.atLeastOnce()).processSgtInfo(Matchers.eq(TENANT_ID), sgtInfosCpt.capture());
+        return (List<List<SgtInfo>>) (List<?>) sgtInfosCpt.getAllValues();
+    }
+
+    private int requestCount(final String request) {
+        final AtomicInteger counter = requestCounters.get(request);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        final String query = exchange.getRequestURI().getQuery();
+        final String page = query == null ? "page=1" : query;
+        final String request = path.equals(PATH_SGT) ? path + "?" + page : path;
+        requestCounters.computeIfAbsent(request, key -> new AtomicInteger()).incrementAndGet();
+
+        final String body;
+        if (path.equals(PATH_SGT)) {
+            final String eTag;
+            if ("page=1".equals(page)) {
+                eTag = "\"page-1\"";
+                body = summary(baseUrl + PATH_SGT + "?page=2", "abc123", "boss_group");
+            } else {
+                eTag = "\"page-2-" + workerGroupListed + "-" + workerGroupName + "-" + workerGroupSgt + "\"";
+                body = workerGroupListed
+                        ? summary("", "abc124", workerGroupName)
+                        : summary("", null, null);
+            }
+            if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", eTag);
+        } else if (path.endsWith("/abc123")) {
+            body = detail("abc123", "boss-group", 42);
+        } else if (path.endsWith("/abc124")) {
+            body = detail("abc124", workerGroupName, workerGroupSgt);
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+
+        final byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, content.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(content);
+        }
+    }
+
+    private String summary(final String nextPageHref, final String uuid, final String name) {
+        return "<?xml version=\"1.0\" encoding=\"utf-8\" standalone=\"yes\"?>"
+                + "<ns3:searchResult xmlns:ns5=\"ers.ise.cisco.com\" xmlns:ns3=\"v2.ers.ise.cisco.com\" total=\"2\">"
+                + "<ns3:nextPage rel=\"next\" href=\"" + nextPageHref + "\" type=\"application/xml\"/>"
+                + "<ns3:resources>"
+                + (uuid == null ? "" : "<ns5:resource description=\"\" id=\"" + uuid + "\" name=\"" + name + "\">"
+                + "<link rel=\"self\" href=\"" + baseUrl + PATH_SGT + "/" + uuid + "\" type=\"application/xml\"/>"
+                + "</ns5:resource>")
+                + "</ns3:resources>"
+                + "</ns3:searchResult>";
+    }
+
+    private static String detail(final String uuid, final String name, final int value) {
+        return "<?xml version=\"1.0\" encoding=\"utf-8\" standalone=\"yes\"?>"
+                + "<ns4:sgt xmlns:ers=\"ers.ise.cisco.com\" xmlns:ns4=\"trustsec.ers.ise.cisco.com\" description=\"\""
+                + " id=\"" + uuid + "\" name=\"" + name + "\">"
+                + "<generationId>0</generationId>"
+                + "<value>" + value + "</value>"
+                + "</ns4:sgt>";
+    }
+}
@@ -16,7 +16,9 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -97,7 +99,10 @@ public class GbpIseSgtHarvesterImplTest {
 
     @Test
     public void testHarvest() throws Exception {
-        Mockito.when(response.getEntity(String.class)).thenReturn(iseReplyAllSgts, iseReplySgtDetail);
+        Mockito.when(response.getStatus()).thenReturn(200);
+        Mockito.when(response.getEntityInputStream()).thenReturn(
+                new ByteArrayInputStream(iseReplyAllSgts.getBytes(StandardCharsets.UTF_8)),
+                new ByteArrayInputStream(iseReplySgtDetail.getBytes(StandardCharsets.UTF_8)));
         Mockito.when(builder.get(Matchers.<Class<ClientResponse>>any())).thenReturn(response);
         Mockito.when(webResource.getRequestBuilder()).thenReturn(builder);
         Mockito.when(webResource.path(Matchers.anyString())).thenReturn(webResource);
@@ -125,5 +130,9 @@ public class GbpIseSgtHarvesterImplTest {
         inOrder.verifyNoMoreInteractions();
 
         Assert.assertEquals(1, addedSgts.size());
+        Assert.assertEquals(Integer.valueOf(42), iseContext.getUuidToSgtMap().get("abc123"));
+        // name from sgt detail is kept, summary lists the same sgt as boss_group
+        Assert.assertEquals("boss-group", iseContext.getUuidToNameMap().get("abc123"));
+        Assert.assertEquals(1, harvester.getSgtDetailFetches());
     }
 }
\ No newline at end of file
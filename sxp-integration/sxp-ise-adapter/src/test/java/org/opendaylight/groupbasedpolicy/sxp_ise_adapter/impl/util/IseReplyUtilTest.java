@@ -11,49 +11,89 @@ package org.opendaylight.groupbasedpolicy.sxp_ise_adapter.impl.util;
 import static org.opendaylight.groupbasedpolicy.sxp_ise_adapter.impl.IseResourceTestHelper.readLocalResource;
 
 import com.google.common.collect.Iterables;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import javax.xml.xpath.XPath;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import javax.xml.stream.XMLStreamException;
 import org.junit.Assert;
-import org.junit.Before;
 import org.junit.Test;
-import org.junit.runner.RunWith;
-import org.mockito.runners.MockitoJUnitRunner;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
+import org.opendaylight.groupbasedpolicy.sxp_ise_adapter.impl.SgtInfo;
 
 /**
  * Test for {@link IseReplyUtil}.
  */
-@RunWith(MockitoJUnitRunner.class)
 public class IseReplyUtilTest {
 
     private final String iseReplyAllSgts;
-    private XPath xpath;
+    private final String iseReplySgtDetail;
 
     public IseReplyUtilTest() throws IOException {
         iseReplyAllSgts = readLocalResource("./rawIse-allSgts2.xml");
+        iseReplySgtDetail = readLocalResource("./rawIse-sgtDetail.xml");
     }
 
-    @Before
-    public void setUp() throws Exception {
-        xpath = IseReplyUtil.setupXpath();
+    @Test
+    public void testParseSgtSummary() throws Exception {
+        final SgtSummaryPage page = IseReplyUtil.parseSgtSummary(toStream(iseReplyAllSgts), "\"etag-1\"");
+
+        Assert.assertEquals(2, page.getResources().size());
+        Assert.assertNull(page.getNextPageHref());
+        Assert.assertEquals("\"etag-1\"", page.getETag());
+        final SgtSummaryPage.SgtResource resource = page.getResources().get(1);
+        Assert.assertEquals("abc124", resource.getUuid());
+        Assert.assertEquals("worker_group", resource.getName());
+        Assert.assertEquals("https://example.org:9060/ers/config/sgt/abc124", resource.getHref());
+    }
+
+    @Test
+    public void testParseSgtSummary_nextPage() throws Exception {
+        final String pagedReply = iseReplyAllSgts.replace("href=\"\"",
+                "href=\"https://example.org:9060/ers/config/sgt?size=2&amp;page=2\"");
+        final SgtSummaryPage page = IseReplyUtil.parseSgtSummary(toStream(pagedReply), null);
+
+        Assert.assertEquals("https://example.org:9060/ers/config/sgt?size=2&page=2", page.getNextPageHref());
+    }
+
+    @Test
+    public void testParseSgtDetail() throws Exception {
+        final SgtInfo sgtInfo = IseReplyUtil.parseSgtDetail(toStream(iseReplySgtDetail));
+
+        Assert.assertEquals(42, sgtInfo.getSgt().getValue().intValue());
+        Assert.assertEquals("boss-group", sgtInfo.getName());
+        Assert.assertEquals("abc123", sgtInfo.getUuid());
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testParseSgtDetail_missingValue() throws Exception {
+        IseReplyUtil.parseSgtDetail(toStream(iseReplyAllSgts));
     }
 
     @Test
-    public void filterNewResourcesByID() throws Exception {
-        final Map<String, Integer> uuidMap = new HashMap<>();
-        uuidMap.put("abc123", 42);
+    public void testFilterResourcesToExplore() throws Exception {
+        final Set<String> knownSgtUuids = new HashSet<>();
+        knownSgtUuids.add("abc123");
+
+        final SgtSummaryPage page = IseReplyUtil.parseSgtSummary(toStream(iseReplyAllSgts), null);
+        Collection<SgtSummaryPage.SgtResource> filteredResources = IseReplyUtil.filterResourcesToExplore(
+                knownSgtUuids, page.getResources(), Collections.emptyList());
 
-        final InputSource inputSource = IseReplyUtil.createInputSource(iseReplyAllSgts);
-        final NodeList allSgtResourceNodes = IseReplyUtil.findAllSgtResourceNodes(xpath, inputSource);
+        // page not modified - only sgt with unknown detail is explored
+        Assert.assertEquals(1, filteredResources.size());
+        Assert.assertEquals("https://example.org:9060/ers/config/sgt/abc124",
+                Iterables.getFirst(filteredResources, null).getHref());
 
-        final Collection<Node> filteredNodes = IseReplyUtil.filterNewResourcesByID(uuidMap, xpath, allSgtResourceNodes);
+        // page modified - all listed sgts are explored, even if name did not change
+        filteredResources = IseReplyUtil.filterResourcesToExplore(knownSgtUuids, page.getResources(),
+                page.getResources());
+        Assert.assertEquals(2, filteredResources.size());
+    }
 
-        Assert.assertEquals(1, filteredNodes.size());
-        Assert.assertEquals("https://example.org:9060/ers/config/sgt/abc124", Iterables.getFirst(filteredNodes, null).getNodeValue());
+    private static InputStream toStream(final String reply) {
+        return new ByteArrayInputStream(reply.getBytes(StandardCharsets.UTF_8));
     }
-}
\ No newline at end of file
+}